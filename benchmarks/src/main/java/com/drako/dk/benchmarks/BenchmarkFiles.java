@@ -0,0 +1,153 @@
+package com.drako.dk.benchmarks;
+
+import com.drako.dk.handler.CompletionHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Utilidades compartidas por los benchmarks para preparar directorios temporales y esperar operaciones asíncronas.
+ */
+final class BenchmarkFiles {
+
+    private BenchmarkFiles() {
+    }
+
+    /**
+     * Crea un directorio temporal para un benchmark.
+     *
+     * @param prefix El prefijo del nombre del directorio.
+     * @return La ruta del directorio creado.
+     */
+    static Path createTempDirectory(String prefix) {
+        try {
+            return Files.createTempDirectory("dk-bench-" + prefix);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Crea un archivo con contenido aleatorio del tamaño indicado.
+     *
+     * @param path La ruta del archivo.
+     * @param size El tamaño del archivo en bytes.
+     * @return La ruta del archivo creado.
+     */
+    static Path createFile(Path path, int size) {
+        byte[] content = randomBytes(size);
+        try {
+            return Files.write(path, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Crea un árbol sintético de carpetas y archivos.
+     *
+     * @param root          La carpeta raíz del árbol.
+     * @param depth         La profundidad del árbol.
+     * @param foldersPerDir El número de subcarpetas de cada carpeta.
+     * @param filesPerDir   El número de archivos de cada carpeta.
+     * @param fileSize      El tamaño de cada archivo en bytes.
+     */
+    static void createTree(Path root, int depth, int foldersPerDir, int filesPerDir, int fileSize) {
+        try {
+            Files.createDirectories(root);
+            byte[] content = randomBytes(fileSize);
+            for (int i = 0; i < filesPerDir; i++) {
+                Files.write(root.resolve("file" + i + ".bin"), content);
+            }
+            if (depth > 0) {
+                for (int i = 0; i < foldersPerDir; i++) {
+                    createTree(root.resolve("dir" + i), depth - 1, foldersPerDir, filesPerDir, fileSize);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Elimina una carpeta y todo su contenido si existe.
+     *
+     * @param root La carpeta a eliminar.
+     */
+    static void deleteRecursively(Path root) {
+        if (root == null || !Files.exists(root))
+            return;
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Genera un arreglo de bytes aleatorios con una semilla fija.
+     *
+     * @param size El tamaño del arreglo.
+     * @return El arreglo generado.
+     */
+    static byte[] randomBytes(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    /**
+     * Genera un texto ASCII de la longitud indicada dividido en líneas.
+     *
+     * @param length La longitud del texto.
+     * @return El texto generado.
+     */
+    static String text(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit.\n");
+        }
+        builder.setLength(length);
+        return builder.toString();
+    }
+
+    /**
+     * Manejador de finalización que permite esperar de forma bloqueante el resultado de una operación asíncrona.
+     *
+     * @param <T> El tipo del resultado.
+     */
+    static final class Completion<T> implements CompletionHandler<T> {
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        @Override
+        public void onSuccessResult(T result) {
+            future.complete(result);
+        }
+
+        @Override
+        public void onError(Exception ex) {
+            future.completeExceptionally(ex);
+        }
+
+        /**
+         * Espera a que la operación termine.
+         *
+         * @return El resultado de la operación.
+         */
+        T await() {
+            return future.join();
+        }
+    }
+}
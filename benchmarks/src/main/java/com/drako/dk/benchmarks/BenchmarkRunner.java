@@ -0,0 +1,64 @@
+package com.drako.dk.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Punto de entrada de los benchmarks de DKFileKit.
+ * <p>
+ * Ejecuta todos los benchmarks con el perfilador de GC y asignación de memoria activado y guarda los resultados
+ * en formato JSON dentro de {@code target/jmh}. Los benchmarks de {@code LogManager} se ejecutan una vez por cada
+ * número de hilos de {@link #LOG_THREADS}, cada uno con su propio archivo de resultados.
+ * Cualquier argumento se interpreta como una opción de la línea de comandos de JMH, por ejemplo:
+ * <pre>
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar -wi 1 -i 3
+ * </pre>
+ */
+public class BenchmarkRunner {
+    /**
+     * Números de hilos con los que se miden los benchmarks de log.
+     */
+    static final int[] LOG_THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    /**
+     * Carpeta donde se guardan los resultados.
+     */
+    static final Path RESULTS_DIRECTORY = Path.of("target", "jmh");
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Files.createDirectories(RESULTS_DIRECTORY);
+
+        new Runner(options(commandLine, "io")
+                .include(FileManagerBenchmark.class.getSimpleName())
+                .include(FolderManagerBenchmark.class.getSimpleName())
+                .include(PersistManagerBenchmark.class.getSimpleName())
+                .build()).run();
+
+        for (int threads : LOG_THREADS) {
+            new Runner(options(commandLine, "log-" + threads + "-threads")
+                    .include(LogManagerBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+
+    private static ChainedOptionsBuilder options(CommandLineOptions commandLine, String name) {
+        return new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULTS_DIRECTORY.resolve("jmh-" + name + ".json").toString());
+    }
+}
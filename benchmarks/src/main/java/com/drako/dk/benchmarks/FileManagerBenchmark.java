@@ -0,0 +1,73 @@
+package com.drako.dk.benchmarks;
+
+import com.drako.dk.file.FileManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de las operaciones de {@link FileManager}: copia, movimiento y listado de archivos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileManagerBenchmark {
+    /**
+     * Tamaño en bytes del archivo que se copia y se mueve.
+     */
+    @Param({"4096", "1048576", "67108864"})
+    public int fileSize;
+
+    private Path directory;
+    private Path source;
+    private Path copyTarget;
+    private Path moveTarget;
+    private Path tree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        directory = BenchmarkFiles.createTempDirectory("file-manager");
+        source = BenchmarkFiles.createFile(directory.resolve("source.bin"), fileSize);
+        copyTarget = directory.resolve("copy.bin");
+        moveTarget = directory.resolve("moved.bin");
+        tree = directory.resolve("tree");
+        BenchmarkFiles.createTree(tree, 3, 4, 8, 128);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Path copyFile() {
+        BenchmarkFiles.Completion<Path> completion = new BenchmarkFiles.Completion<>();
+        FileManager.copyFile(source, copyTarget, completion);
+        return completion.await();
+    }
+
+    @Benchmark
+    public Path moveFileRoundTrip() {
+        BenchmarkFiles.Completion<Path> forward = new BenchmarkFiles.Completion<>();
+        FileManager.moveFile(source, moveTarget, forward);
+        forward.await();
+        BenchmarkFiles.Completion<Path> backward = new BenchmarkFiles.Completion<>();
+        FileManager.moveFile(moveTarget, source, backward);
+        return backward.await();
+    }
+
+    @Benchmark
+    public List<Path> listFilesInFolder() {
+        return FileManager.listFilesInFolder(tree, false, false, null);
+    }
+
+    @Benchmark
+    public List<Path> listFilesInFolderRecursive() {
+        return FileManager.listFilesInFolder(tree, true, true, null);
+    }
+}
@@ -0,0 +1,53 @@
+package com.drako.dk.benchmarks;
+
+import com.drako.dk.file.FolderManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de {@link FolderManager#deleteFolder} sobre árboles sintéticos de distintas formas.
+ * El árbol se vuelve a crear antes de cada invocación, fuera del tiempo medido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class FolderManagerBenchmark {
+    /**
+     * Forma del árbol: profundidad, subcarpetas por carpeta y archivos por carpeta.
+     */
+    @Param({"1:1:1000", "3:4:16", "6:2:4"})
+    public String shape;
+
+    private Path directory;
+    private Path tree;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        directory = BenchmarkFiles.createTempDirectory("folder-manager");
+        tree = directory.resolve("tree");
+    }
+
+    @Setup(Level.Invocation)
+    public void createTree() {
+        String[] parts = shape.split(":");
+        BenchmarkFiles.createTree(tree, Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                Integer.parseInt(parts[2]), 256);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Path deleteFolder() {
+        BenchmarkFiles.Completion<Path> completion = new BenchmarkFiles.Completion<>();
+        FolderManager.deleteFolder(tree, completion);
+        return completion.await();
+    }
+}
@@ -0,0 +1,57 @@
+package com.drako.dk.benchmarks;
+
+import com.drako.dk.manager.LogLevel;
+import com.drako.dk.manager.LogManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de rendimiento de {@link LogManager#log} y {@link LogManager#logAsync}.
+ * El número de hilos se controla desde {@link BenchmarkRunner}, que ejecuta esta clase con 1 a 64 hilos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogManagerBenchmark {
+    /**
+     * Número de mensajes asíncronos que se envían antes de esperar a que todos se hayan escrito.
+     */
+    static final int ASYNC_BATCH = 64;
+
+    private Path directory;
+    private LogManager logManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        directory = BenchmarkFiles.createTempDirectory("log-manager");
+        LogManager.LogFileName = directory.resolve("log.txt").toString();
+        LogManager.manager = null;
+        logManager = LogManager.getInstance();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public boolean log() {
+        return logManager.log("Benchmark log message with a moderately sized payload", LogLevel.INFO);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ASYNC_BATCH)
+    public Path logAsync() {
+        BenchmarkFiles.Completion<Path> last = null;
+        for (int i = 0; i < ASYNC_BATCH; i++) {
+            last = new BenchmarkFiles.Completion<>();
+            logManager.logAsync("Benchmark async log message with a moderately sized payload", LogLevel.INFO, last);
+        }
+        return last.await();
+    }
+}
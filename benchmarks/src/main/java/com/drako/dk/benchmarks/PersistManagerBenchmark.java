@@ -0,0 +1,67 @@
+package com.drako.dk.benchmarks;
+
+import com.drako.dk.manager.PersistManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de guardado y lectura de objetos y texto con {@link PersistManager} para varios tamaños de contenido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistManagerBenchmark {
+    /**
+     * Tamaño aproximado en bytes del objeto o texto persistido.
+     */
+    @Param({"1024", "65536", "4194304"})
+    public int payloadSize;
+
+    private Path directory;
+    private PersistManager objectManager;
+    private PersistManager textManager;
+    private byte[] payload;
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        directory = BenchmarkFiles.createTempDirectory("persist-manager");
+        objectManager = new PersistManager(directory.resolve("object.bin"));
+        textManager = new PersistManager(directory.resolve("text.txt"));
+        payload = BenchmarkFiles.randomBytes(payloadSize);
+        text = BenchmarkFiles.text(payloadSize);
+        objectManager.saveObject(payload);
+        textManager.writeTextFile(text);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public boolean saveObject() {
+        return objectManager.saveObject(payload);
+    }
+
+    @Benchmark
+    public Optional<byte[]> readObject() {
+        return objectManager.readObject(byte[].class);
+    }
+
+    @Benchmark
+    public boolean writeTextFile() {
+        return textManager.writeTextFile(text);
+    }
+
+    @Benchmark
+    public Optional<String> readTextFile() {
+        return textManager.readTextFile();
+    }
+}
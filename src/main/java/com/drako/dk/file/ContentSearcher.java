@@ -0,0 +1,445 @@
+package com.drako.dk.file;
+
+import com.drako.dk.io.PathLocks;
+import com.drako.dk.metrics.Metrics;
+import com.drako.dk.metrics.Operation;
+import com.drako.dk.metrics.OperationTimer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Búsqueda en paralelo de un texto o una expresión regular en el contenido de los archivos de una carpeta.
+ * <p>
+ * Un hilo recorre la carpeta y reparte los archivos entre {@link SearchOptions#getParallelism()} hilos, que leen
+ * cada archivo por bloques con lecturas de {@link FileChannel} y nunca cargan el archivo completo. Los patrones
+ * literales se buscan directamente sobre los bytes con el algoritmo de Boyer-Moore-Horspool y solo se decodifica la
+ * línea de cada coincidencia; las expresiones regulares se aplican a cada línea decodificada. Las coincidencias se
+ * entregan al flujo a medida que se encuentran, por lo que su orden entre archivos no está definido; dentro de un
+ * mismo archivo se entregan en orden. Se informa como máximo una coincidencia por línea.
+ */
+class ContentSearcher implements Iterator<SearchMatch> {
+    /**
+     * Número de bytes del comienzo de un archivo en los que se busca un byte nulo para detectar archivos binarios.
+     */
+    static final int BINARY_PROBE_SIZE = 8192;
+
+    /**
+     * Tamaño inicial del búfer de lectura de cada hilo.
+     */
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * Longitud máxima de una línea. Las líneas más largas se examinan en fragmentos de este tamaño.
+     */
+    private static final int MAX_LINE_LENGTH = 16 * 1024 * 1024;
+
+    /**
+     * Número máximo de coincidencias pendientes de consumir antes de que los hilos de búsqueda esperen.
+     */
+    private static final int RESULT_CAPACITY = 4096;
+
+    private static final Object DONE = new Object();
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Path root;
+    private final SearchOptions options;
+    private final Consumer<Exception> onError;
+    private final Charset charset = Charset.defaultCharset();
+    private final BytePattern literal;
+    private final Pattern regex;
+    private final PathMatcher globMatcher;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final BlockingQueue<Object> results = new ArrayBlockingQueue<>(RESULT_CAPACITY);
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final AtomicLong scanned = new AtomicLong();
+    private final OperationTimer timer;
+    private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+    private volatile boolean closed;
+    private Object next;
+
+    private ContentSearcher(Path root, String pattern, SearchOptions options, Consumer<Exception> onError, OperationTimer timer) {
+        this.root = root;
+        this.options = options;
+        this.onError = onError;
+        this.timer = timer;
+        byte[] bytes = pattern.getBytes(charset);
+        boolean asciiOnly = pattern.chars().allMatch(c -> c < 0x80);
+        if (!options.isRegex() && (!options.isIgnoreCase() || asciiOnly)) {
+            this.literal = new BytePattern(bytes, options.isIgnoreCase());
+            this.regex = null;
+        } else {
+            int flags = options.isIgnoreCase() ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
+            this.literal = null;
+            this.regex = Pattern.compile(options.isRegex() ? pattern : Pattern.quote(pattern), flags);
+        }
+        this.globMatcher = options.getGlob() != null ? FileSystems.getDefault().getPathMatcher("glob:" + options.getGlob()) : null;
+        this.permits = new Semaphore(options.getParallelism() * 4);
+        this.executor = Executors.newFixedThreadPool(options.getParallelism() + 1, runnable -> {
+            Thread thread = new Thread(runnable, "dk-search-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Inicia una búsqueda.
+     *
+     * @param root    La carpeta en la que se busca.
+     * @param pattern El texto o la expresión regular que se busca.
+     * @param options Las opciones de la búsqueda.
+     * @param onError El manejador que recibirá los errores de lectura de cada archivo (opcional). Los errores no
+     *                detienen la búsqueda.
+     * @return Un flujo con las coincidencias, que debe cerrarse si no se consume por completo.
+     */
+    static Stream<SearchMatch> search(Path root, String pattern, SearchOptions options, Consumer<Exception> onError) {
+        if (pattern == null || pattern.isEmpty()) {
+            throw new IllegalArgumentException("pattern must not be empty.");
+        }
+        OperationTimer timer = Metrics.start(Operation.SEARCH_FILES, root);
+        ContentSearcher searcher = new ContentSearcher(root, pattern, options, onError, timer);
+        searcher.executor.execute(searcher::walk);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(searcher, Spliterator.NONNULL), false)
+                .onClose(searcher::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            if (closed)
+                return false;
+            Object item;
+            try {
+                item = results.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                return false;
+            }
+            if (item == DONE) {
+                close();
+                return false;
+            }
+            if (item instanceof Exception) {
+                if (onError != null)
+                    onError.accept((Exception) item);
+                continue;
+            }
+            next = item;
+        }
+        return true;
+    }
+
+    @Override
+    public SearchMatch next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        SearchMatch match = (SearchMatch) next;
+        next = null;
+        return match;
+    }
+
+    /**
+     * Detiene la búsqueda. Las llamadas posteriores no tienen efecto.
+     */
+    void close() {
+        if (closed)
+            return;
+        closed = true;
+        timer.success(scanned.get());
+        executor.shutdownNow();
+        results.clear();
+    }
+
+    /**
+     * Recorre la carpeta y envía cada archivo a los hilos de búsqueda.
+     */
+    private void walk() {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                    if (!directory.equals(root) && TrashManager.isTrash(directory.getFileName()))
+                        return FileVisitResult.SKIP_SUBTREE;
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (closed)
+                        return FileVisitResult.TERMINATE;
+                    if (attributes.isRegularFile() && (globMatcher == null || globMatcher.matches(file.getFileName())))
+                        submit(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    publish(exc);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            publish(e);
+        } finally {
+            finishTask();
+        }
+    }
+
+    private void submit(Path file) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        pending.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    scan(file);
+                } catch (IOException e) {
+                    publish(e);
+                } finally {
+                    permits.release();
+                    finishTask();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            finishTask();
+        }
+    }
+
+    private void finishTask() {
+        if (pending.decrementAndGet() == 0)
+            publish(DONE);
+    }
+
+    /**
+     * Entrega un resultado al consumidor, esperando si la cola está llena.
+     */
+    private void publish(Object item) {
+        try {
+            while (!closed) {
+                if (results.offer(item, 100, TimeUnit.MILLISECONDS))
+                    return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Examina un archivo por bloques que terminan en un salto de línea.
+     */
+    private void scan(Path file) throws IOException {
+        byte[] buffer = buffers.get();
+        try (PathLocks.Lock ignored = PathLocks.acquire(file, false);
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int filled = 0;
+            long base = 0;
+            long lineNumber = 1;
+            boolean probed = options.isIncludeBinary();
+            boolean eof = false;
+            while (!eof && !closed) {
+                if (filled == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    buffers.set(buffer);
+                }
+                int read = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled));
+                if (read < 0)
+                    eof = true;
+                else
+                    filled += read;
+                if (!probed && (eof || filled >= BINARY_PROBE_SIZE)) {
+                    probed = true;
+                    if (containsNul(buffer, Math.min(filled, BINARY_PROBE_SIZE)))
+                        return;
+                }
+                if (!probed)
+                    continue;
+                int end = eof ? filled : lastLineEnd(buffer, filled);
+                if (end == 0 && filled >= MAX_LINE_LENGTH)
+                    end = filled;
+                if (end == 0)
+                    continue;
+                lineNumber = literal != null
+                        ? scanLiteral(file, buffer, end, base, lineNumber)
+                        : scanRegex(file, buffer, end, base, lineNumber);
+                scanned.addAndGet(end);
+                System.arraycopy(buffer, end, buffer, 0, filled - end);
+                filled -= end;
+                base += end;
+            }
+        }
+    }
+
+    /**
+     * Busca el patrón literal en una región de líneas completas.
+     *
+     * @return El número de línea del comienzo de la siguiente región.
+     */
+    private long scanLiteral(Path file, byte[] buffer, int end, long base, long lineNumber) {
+        int from = 0;
+        int counted = 0;
+        int index;
+        while (!closed && (index = literal.indexOf(buffer, from, end)) >= 0) {
+            int lineStart = lastIndexOf(buffer, (byte) '\n', index - 1) + 1;
+            int lineEnd = indexOf(buffer, (byte) '\n', index + literal.length(), end);
+            lineNumber += count(buffer, counted, lineStart);
+            counted = lineStart;
+            publish(new SearchMatch(file, lineNumber, base + index, decode(buffer, lineStart, lineEnd)));
+            from = lineEnd + 1;
+            if (from >= end)
+                break;
+        }
+        return lineNumber + count(buffer, counted, end);
+    }
+
+    /**
+     * Aplica la expresión regular a cada línea de una región de líneas completas.
+     *
+     * @return El número de línea del comienzo de la siguiente región.
+     */
+    private long scanRegex(Path file, byte[] buffer, int end, long base, long lineNumber) {
+        Matcher matcher = regex.matcher("");
+        int lineStart = 0;
+        while (lineStart < end && !closed) {
+            int lineEnd = indexOf(buffer, (byte) '\n', lineStart, end);
+            String line = decode(buffer, lineStart, lineEnd);
+            if (matcher.reset(line).find()) {
+                long offset = base + lineStart + line.substring(0, matcher.start()).getBytes(charset).length;
+                publish(new SearchMatch(file, lineNumber, offset, line));
+            }
+            if (lineEnd < end)
+                lineNumber++;
+            lineStart = lineEnd + 1;
+        }
+        return lineNumber;
+    }
+
+    /**
+     * Decodifica una línea sin el retorno de carro final.
+     */
+    private String decode(byte[] buffer, int start, int end) {
+        if (end > start && buffer[end - 1] == '\r')
+            end--;
+        return new String(buffer, start, end - start, charset);
+    }
+
+    private static boolean containsNul(byte[] buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] == 0)
+                return true;
+        }
+        return false;
+    }
+
+    private static int lastLineEnd(byte[] buffer, int length) {
+        return lastIndexOf(buffer, (byte) '\n', length - 1) + 1;
+    }
+
+    private static int lastIndexOf(byte[] buffer, byte value, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (buffer[i] == value)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene la posición del primer byte con el valor indicado, o {@code end} si no existe.
+     */
+    private static int indexOf(byte[] buffer, byte value, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer[i] == value)
+                return i;
+        }
+        return end;
+    }
+
+    private static int count(byte[] buffer, int from, int end) {
+        int lines = 0;
+        for (int i = from; i < end; i++) {
+            if (buffer[i] == '\n')
+                lines++;
+        }
+        return lines;
+    }
+
+    /**
+     * Patrón literal buscado con el algoritmo de Boyer-Moore-Horspool, opcionalmente sin distinguir mayúsculas y
+     * minúsculas en los caracteres ASCII.
+     */
+    private static final class BytePattern {
+        private final byte[] pattern;
+        private final byte[] fold = new byte[256];
+        private final int[] shift = new int[256];
+
+        private BytePattern(byte[] pattern, boolean ignoreCase) {
+            for (int i = 0; i < 256; i++)
+                fold[i] = (byte) (ignoreCase && i >= 'A' && i <= 'Z' ? i + ('a' - 'A') : i);
+            this.pattern = new byte[pattern.length];
+            for (int i = 0; i < pattern.length; i++)
+                this.pattern[i] = fold[pattern[i] & 0xFF];
+            Arrays.fill(shift, pattern.length);
+            for (int i = 0; i < pattern.length - 1; i++)
+                shift[this.pattern[i] & 0xFF] = pattern.length - 1 - i;
+        }
+
+        private int length() {
+            return pattern.length;
+        }
+
+        /**
+         * Obtiene la posición de la primera aparición del patrón entre {@code from} y {@code end}, o {@code -1}.
+         */
+        private int indexOf(byte[] text, int from, int end) {
+            int last = pattern.length - 1;
+            int i = from;
+            while (i <= end - pattern.length) {
+                byte b = fold[text[i + last] & 0xFF];
+                if (b == pattern[last]) {
+                    int j = last - 1;
+                    while (j >= 0 && fold[text[i + j] & 0xFF] == pattern[j])
+                        j--;
+                    if (j < 0)
+                        return i;
+                }
+                i += shift[b & 0xFF];
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.drako.dk.file;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resumen del espacio ocupado por una carpeta y su contenido, obtenido con {@link FolderManager#usage}.
+ */
+public class DirectoryUsage {
+    /**
+     * La ruta de la carpeta.
+     */
+    private final Path path;
+
+    /**
+     * La suma de los tamaños de todos los archivos del subárbol, en bytes.
+     */
+    private final long size;
+
+    /**
+     * El número de archivos del subárbol.
+     */
+    private final long fileCount;
+
+    /**
+     * El número de subcarpetas del subárbol, sin contar la propia carpeta.
+     */
+    private final long directoryCount;
+
+    /**
+     * El número de entradas del subárbol que no se pudieron leer.
+     */
+    private final long skippedCount;
+
+    /**
+     * El resumen de cada subcarpeta directa, si se solicitó ese nivel de detalle.
+     */
+    private final List<DirectoryUsage> children;
+
+    /**
+     * Crea un nuevo resumen de uso.
+     *
+     * @param path           La ruta de la carpeta.
+     * @param size           La suma de los tamaños de todos los archivos del subárbol, en bytes.
+     * @param fileCount      El número de archivos del subárbol.
+     * @param directoryCount El número de subcarpetas del subárbol.
+     * @param skippedCount   El número de entradas que no se pudieron leer.
+     * @param children       El resumen de cada subcarpeta directa.
+     */
+    public DirectoryUsage(Path path, long size, long fileCount, long directoryCount, long skippedCount, List<DirectoryUsage> children) {
+        this.path = path;
+        this.size = size;
+        this.fileCount = fileCount;
+        this.directoryCount = directoryCount;
+        this.skippedCount = skippedCount;
+        this.children = Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Obtiene la ruta de la carpeta.
+     *
+     * @return La ruta de la carpeta.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Obtiene la suma de los tamaños de todos los archivos del subárbol.
+     *
+     * @return El tamaño total en bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Obtiene el número de archivos del subárbol.
+     *
+     * @return El número de archivos.
+     */
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * Obtiene el número de subcarpetas del subárbol, sin contar la propia carpeta.
+     *
+     * @return El número de subcarpetas.
+     */
+    public long getDirectoryCount() {
+        return directoryCount;
+    }
+
+    /**
+     * Obtiene el número de entradas del subárbol que no se pudieron leer y que, por tanto, no están incluidas en
+     * los totales.
+     *
+     * @return El número de entradas omitidas.
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Obtiene el resumen de cada subcarpeta directa, ordenado por ruta. La lista está vacía si se alcanzó la
+     * profundidad solicitada.
+     *
+     * @return Una lista no modificable con el resumen de las subcarpetas.
+     */
+    public List<DirectoryUsage> getChildren() {
+        return children;
+    }
+}
@@ -1,14 +1,32 @@
 package com.drako.dk.file;
 
 import com.drako.dk.handler.CompletionHandler;
+import com.drako.dk.handler.ProgressHandler;
+import com.drako.dk.io.BufferPool;
+import com.drako.dk.io.ChannelCache;
+import com.drako.dk.io.IOPriority;
+import com.drako.dk.io.IOScheduler;
+import com.drako.dk.io.PathLocks;
+import com.drako.dk.io.Throttle;
+import com.drako.dk.metrics.Metrics;
+import com.drako.dk.metrics.Operation;
+import com.drako.dk.metrics.OperationTimer;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * La clase FileManager proporciona funcionalidades para la gestión de archivos, incluyendo operaciones de
@@ -23,16 +41,64 @@ public class FileManager {
      * @param onComplete      El manejador que se ejecutará después de que se haya completado la operación de copia de archivo (opcional).
      */
     public static void copyFile(Path sourcePath, Path destinationPath, CompletionHandler<Path> onComplete) {
-        new Thread(() -> {
+        copyFile(sourcePath, destinationPath, IOPriority.LOW, onComplete);
+    }
+
+    /**
+     * Copia un archivo desde la ruta de origen a la ruta de destino en un hilo secundario con la prioridad indicada.
+     *
+     * @param sourcePath      La ruta del archivo de origen que se copiará.
+     * @param destinationPath La ruta del archivo de destino donde se copiará el archivo.
+     * @param priority        La prioridad con la que se planificará la operación.
+     * @param onComplete      El manejador que se ejecutará después de que se haya completado la operación de copia de archivo (opcional).
+     */
+    public static void copyFile(Path sourcePath, Path destinationPath, IOPriority priority, CompletionHandler<Path> onComplete) {
+        submitThrottled(Operation.COPY_FILE, destinationPath, priority, () -> {
+            OperationTimer timer = Metrics.start(Operation.COPY_FILE, destinationPath);
+            Path targetPath;
+            try (PathLocks.Lock ignored = PathLocks.acquire(sourcePath, false, destinationPath, true)) {
+                ChannelCache.invalidate(destinationPath);
+                targetPath = Throttle.isLimited(Operation.COPY_FILE)
+                        ? copyThrottled(sourcePath, destinationPath)
+                        : Files.copy(sourcePath, destinationPath, StandardCopyOption.REPLACE_EXISTING);
+                timer.success(timer.isRecording() ? sizeOrUnknown(targetPath) : -1L);
+            } catch (Exception e) {
+                timer.failure(e);
+                if (onComplete != null)
+                    onComplete.onError(e);
+                return;
+            }
+            // El manejador se invoca sin el bloqueo, ya que no es reentrante y puede acceder al archivo copiado.
+            if (onComplete != null)
+                onComplete.onSuccessResult(targetPath);
+        }, onComplete);
+    }
+
+    /**
+     * Copia un archivo de gran tamaño dividiéndolo en rangos que se copian simultáneamente desde varios hilos.
+     * Resulta útil en discos NVMe y sistemas de archivos en red, donde varias transferencias concurrentes ofrecen más
+     * rendimiento que una sola. Opcionalmente se comprueba cada rango y se permite reanudar una copia interrumpida.
+     *
+     * @param sourcePath      La ruta del archivo de origen que se copiará.
+     * @param destinationPath La ruta del archivo de destino donde se copiará el archivo.
+     * @param options         Las opciones de la copia.
+     * @param onProgress      El manejador que recibirá el número de bytes copiados sobre el total (opcional).
+     * @param onComplete      El manejador que se ejecutará después de que se haya completado la operación de copia de archivo (opcional).
+     */
+    public static void copyFileParallel(Path sourcePath, Path destinationPath, ParallelCopyOptions options,
+                                        ProgressHandler onProgress, CompletionHandler<Path> onComplete) {
+        IOScheduler.getInstance().submit(destinationPath, IOPriority.LOW, () -> {
+            OperationTimer timer = Metrics.start(Operation.COPY_FILE, destinationPath);
             try {
-                Path targetPath = Files.copy(sourcePath, destinationPath, StandardCopyOption.REPLACE_EXISTING);
+                timer.success(RangeCopier.copy(sourcePath, destinationPath, options, onProgress));
                 if (onComplete != null)
-                    onComplete.onSuccessResult(targetPath);
+                    onComplete.onSuccessResult(destinationPath);
             } catch (Exception e) {
+                timer.failure(e);
                 if (onComplete != null)
                     onComplete.onError(e);
             }
-        }).start();
+        }, onComplete);
     }
 
     /**
@@ -43,16 +109,35 @@ public class FileManager {
      * @param onComplete      El manejador que se ejecutará después de que se haya completado la operación de movimiento de archivo (opcional).
      */
     public static void moveFile(Path sourcePath, Path destinationPath, CompletionHandler<Path> onComplete) {
-        new Thread(() -> {
-            try {
-                Path targetPath = Files.move(sourcePath, destinationPath, StandardCopyOption.REPLACE_EXISTING);
-                if (onComplete != null)
-                    onComplete.onSuccessResult(targetPath);
+        moveFile(sourcePath, destinationPath, IOPriority.NORMAL, onComplete);
+    }
+
+    /**
+     * Mueve un archivo desde la ruta de origen a la ruta de destino en un hilo secundario con la prioridad indicada.
+     *
+     * @param sourcePath      La ruta del archivo de origen que se moverá.
+     * @param destinationPath La ruta del archivo de destino donde se moverá el archivo.
+     * @param priority        La prioridad con la que se planificará la operación.
+     * @param onComplete      El manejador que se ejecutará después de que se haya completado la operación de movimiento de archivo (opcional).
+     */
+    public static void moveFile(Path sourcePath, Path destinationPath, IOPriority priority, CompletionHandler<Path> onComplete) {
+        IOScheduler.getInstance().submit(sourcePath, priority, () -> {
+            OperationTimer timer = Metrics.start(Operation.MOVE_FILE, sourcePath);
+            Path targetPath;
+            try (PathLocks.Lock ignored = PathLocks.acquire(sourcePath, true, destinationPath, true)) {
+                ChannelCache.invalidate(sourcePath);
+                ChannelCache.invalidate(destinationPath);
+                targetPath = Files.move(sourcePath, destinationPath, StandardCopyOption.REPLACE_EXISTING);
+                timer.success(-1L);
             } catch (Exception e) {
+                timer.failure(e);
                 if (onComplete != null)
                     onComplete.onError(e);
+                return;
             }
-        }).start();
+            if (onComplete != null)
+                onComplete.onSuccessResult(targetPath);
+        }, onComplete);
     }
 
     /**
@@ -62,16 +147,141 @@ public class FileManager {
      * @param onComplete El manejador que se ejecutará después de que se haya completado la operación de eliminación de archivo (opcional).
      */
     public static void deleteFile(Path filePath, CompletionHandler<Path> onComplete) {
-        new Thread(() -> {
-            try {
+        deleteFile(filePath, IOPriority.NORMAL, onComplete);
+    }
+
+    /**
+     * Elimina un archivo en la ruta especificada en un hilo secundario con la prioridad indicada.
+     *
+     * @param filePath   La ruta del archivo que se eliminará.
+     * @param priority   La prioridad con la que se planificará la operación.
+     * @param onComplete El manejador que se ejecutará después de que se haya completado la operación de eliminación de archivo (opcional).
+     */
+    public static void deleteFile(Path filePath, IOPriority priority, CompletionHandler<Path> onComplete) {
+        submitThrottled(Operation.DELETE_FILE, filePath, priority, () -> {
+            OperationTimer timer = Metrics.start(Operation.DELETE_FILE, filePath);
+            try (PathLocks.Lock ignored = PathLocks.acquire(filePath, true)) {
+                ChannelCache.invalidate(filePath);
                 Files.delete(filePath);
+                timer.success(-1L);
+            } catch (Exception e) {
+                timer.failure(e);
+                if (onComplete != null)
+                    onComplete.onError(e);
+                return;
+            }
+            if (onComplete != null)
+                onComplete.onSuccessResult(filePath);
+        }, onComplete);
+    }
+
+    /**
+     * Elimina un archivo de forma diferida: lo renombra a la papelera de su carpeta, lo que no depende de su tamaño,
+     * e informa del resultado de inmediato. El archivo se elimina después en segundo plano con
+     * {@link TrashManager}.
+     *
+     * @param filePath   La ruta del archivo que se eliminará.
+     * @param onComplete El manejador que recibirá la ruta original cuando el archivo esté en la papelera (opcional).
+     */
+    public static void trashFile(Path filePath, CompletionHandler<Path> onComplete) {
+        IOScheduler.getInstance().submit(filePath, IOPriority.NORMAL, () -> {
+            OperationTimer timer = Metrics.start(Operation.TRASH, filePath);
+            try {
+                if (Files.isDirectory(filePath))
+                    throw new IOException("Path is a folder: " + filePath);
+                TrashManager.moveToTrash(filePath);
+                timer.success(-1L);
                 if (onComplete != null)
                     onComplete.onSuccessResult(filePath);
             } catch (Exception e) {
+                timer.failure(e);
                 if (onComplete != null)
                     onComplete.onError(e);
             }
-        }).start();
+        }, onComplete);
+    }
+
+    /**
+     * Envía una operación al planificador tras reservar su ficha en {@link Throttle}. Si hay que esperar a que se
+     * repongan las fichas, la operación se envía al terminar la espera, de modo que no ocupa un hueco del dispositivo
+     * ni bloquea su ruta mientras tanto.
+     *
+     * @param operation  La operación que se limita.
+     * @param path       La ruta sobre la que actúa la operación.
+     * @param priority   La prioridad con la que se planificará la operación.
+     * @param task       La operación a ejecutar.
+     * @param onComplete El manejador de la operación, al que se notifica el rechazo (opcional).
+     */
+    private static void submitThrottled(Operation operation, Path path, IOPriority priority, Runnable task,
+                                        CompletionHandler<?> onComplete) {
+        long waitNanos = Throttle.reserve(operation, 1L, 0L);
+        if (waitNanos <= 0) {
+            IOScheduler.getInstance().submit(path, priority, task, onComplete);
+            return;
+        }
+        CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS)
+                .execute(() -> IOScheduler.getInstance().submit(path, priority, task, onComplete));
+    }
+
+    /**
+     * Copia un archivo por bloques respetando los límites de bytes de {@link Throttle} para
+     * {@link Operation#COPY_FILE}. La ficha de la operación se reserva antes de planificarla.
+     * Los datos se escriben en un archivo temporal junto al destino, que lo reemplaza solo cuando la copia termina,
+     * por lo que una copia interrumpida no deja el destino truncado. Si el origen y el destino son el mismo archivo,
+     * no se copia nada.
+     *
+     * @param sourcePath      La ruta del archivo de origen.
+     * @param destinationPath La ruta del archivo de destino, que se reemplaza si existe.
+     * @return La ruta del archivo de destino.
+     * @throws IOException Si ocurre un error al leer o escribir.
+     */
+    private static Path copyThrottled(Path sourcePath, Path destinationPath) throws IOException {
+        if (Files.exists(destinationPath) && Files.isSameFile(sourcePath, destinationPath))
+            return destinationPath;
+        Path destinationKey = PathLocks.normalize(destinationPath);
+        Path temporaryPath = destinationKey.resolveSibling(
+                destinationKey.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+        boolean moved = false;
+        BufferPool pool = BufferPool.shared();
+        ByteBuffer buffer = pool.acquire();
+        try {
+            try (FileChannel in = FileChannel.open(sourcePath, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temporaryPath, StandardOpenOption.CREATE_NEW,
+                         StandardOpenOption.WRITE)) {
+                while (in.read(buffer.clear()) >= 0) {
+                    buffer.flip();
+                    Throttle.acquire(Operation.COPY_FILE, 0L, buffer.remaining());
+                    while (buffer.hasRemaining())
+                        out.write(buffer);
+                }
+            }
+            try {
+                Files.move(temporaryPath, destinationPath, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryPath, destinationPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+        } finally {
+            pool.release(buffer);
+            if (!moved)
+                Files.deleteIfExists(temporaryPath);
+        }
+        return destinationPath;
+    }
+
+    /**
+     * Obtiene el tamaño de un archivo sin propagar errores.
+     *
+     * @param filePath La ruta del archivo.
+     * @return El tamaño del archivo en bytes, o -1 si no se pudo obtener.
+     */
+    private static long sizeOrUnknown(Path filePath) {
+        try {
+            return Files.size(filePath);
+        } catch (Exception e) {
+            return -1L;
+        }
     }
 
     /**
@@ -99,7 +309,8 @@ public class FileManager {
      * @param recursive Indica si la búsqueda debe ser recursiva, incluyendo subdirectorios (true) o no (false).
      * @param onError Un consumidor de excepciones que se invocará si ocurre un error durante el proceso de listado.
      *                Puede ser nulo si no se desea manejar las excepciones.
-     * @return Una lista de objetos Path que representan los archivos o directorios en la carpeta especificada.
+     * @return Una lista de objetos Path que representan los archivos o directorios en la carpeta especificada, sin las
+     *         carpetas de papelera de {@link TrashManager} ni su contenido.
      *         Si ocurre un error al acceder a la carpeta o si la carpeta no existe, se devuelve una lista vacía.
      */
     public static List<Path> listFilesInFolder(Path folderPath, boolean includeDirectories, boolean recursive, Consumer<Exception> onError) {
@@ -107,12 +318,14 @@ public class FileManager {
         try {
             if (recursive) {
                 try (var stream = Files.walk(folderPath, FileVisitOption.FOLLOW_LINKS)) {
-                    stream.filter(path -> includeDirectories || Files.isRegularFile(path))
+                    stream.filter(path -> !TrashManager.isTrash(folderPath.relativize(path)))
+                            .filter(path -> includeDirectories || Files.isRegularFile(path))
                             .forEach(fileList::add);
                 }
             } else {
                 try (var stream = Files.list(folderPath)) {
-                    stream.filter(path -> includeDirectories || Files.isRegularFile(path))
+                    stream.filter(path -> !TrashManager.isTrash(path.getFileName()))
+                            .filter(path -> includeDirectories || Files.isRegularFile(path))
                             .forEach(fileList::add);
                 }
             }
@@ -122,4 +335,38 @@ public class FileManager {
         }
         return fileList;
     }
-}
\ No newline at end of file
+
+    /**
+     * Busca un texto en el contenido de todos los archivos de una carpeta y sus subcarpetas.
+     *
+     * @param root    La carpeta en la que se busca.
+     * @param pattern El texto que se busca, o una expresión regular si {@link SearchOptions#isRegex()} es {@code true}.
+     * @param options Las opciones de la búsqueda.
+     * @return Un flujo con las coincidencias, que se llena a medida que se examinan los archivos. Debe cerrarse si no
+     * se consume por completo.
+     * @see #search(Path, String, SearchOptions, Consumer)
+     */
+    public static Stream<SearchMatch> search(Path root, String pattern, SearchOptions options) {
+        return search(root, pattern, options, null);
+    }
+
+    /**
+     * Busca un texto en el contenido de todos los archivos de una carpeta y sus subcarpetas.
+     * <p>
+     * Los archivos se examinan en paralelo y por bloques, sin cargarlos completos en memoria. Se omiten los archivos
+     * binarios, salvo que se indique lo contrario en las opciones. Las coincidencias de distintos archivos se entregan
+     * sin un orden definido; las de un mismo archivo se entregan en orden. Se informa como máximo una coincidencia
+     * por línea.
+     *
+     * @param root    La carpeta en la que se busca.
+     * @param pattern El texto que se busca, o una expresión regular si {@link SearchOptions#isRegex()} es {@code true}.
+     * @param options Las opciones de la búsqueda.
+     * @param onError El manejador de error que recibirá los errores de lectura de cada archivo (opcional). Se
+     *                ejecuta en el hilo que consume el flujo y no detiene la búsqueda.
+     * @return Un flujo con las coincidencias, que se llena a medida que se examinan los archivos. Debe cerrarse si no
+     * se consume por completo.
+     */
+    public static Stream<SearchMatch> search(Path root, String pattern, SearchOptions options, Consumer<Exception> onError) {
+        return ContentSearcher.search(root, pattern, options != null ? options : new SearchOptions(), onError);
+    }
+}
@@ -0,0 +1,384 @@
+package com.drako.dk.file;
+
+import com.drako.dk.io.PathLocks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Lector incremental que sigue un archivo de texto a medida que crece, al estilo de {@code tail -f}.
+ * <p>
+ * El lector recuerda la posición en bytes hasta la que ha leído y, en cada comprobación, solo lee los bytes
+ * añadidos desde entonces mediante lecturas posicionales de {@link FileChannel}. Las comprobaciones se disparan con
+ * los eventos de un {@link WatchService} sobre la carpeta del archivo y, en cualquier caso, cada
+ * {@link #getPollIntervalMillis()} milisegundos, lo que sirve de respaldo cuando el sistema de archivos no notifica
+ * cambios.
+ * <p>
+ * Cada línea completa se entrega al consumidor indicado y a los suscriptores del {@link Flow.Publisher}. Si el
+ * archivo se trunca (su tamaño pasa a ser menor que la posición leída) se vuelve a leer desde el principio. Si el
+ * archivo se rota (la ruta pasa a apuntar a otro archivo, detectado mediante {@link BasicFileAttributes#fileKey()}),
+ * se terminan de leer los bytes pendientes del archivo anterior y se continúa con el nuevo desde el principio. En
+ * sistemas que no proporcionan {@code fileKey} la rotación solo se detecta cuando el nuevo archivo es más pequeño
+ * que la posición leída.
+ */
+public class FileTailer implements Flow.Publisher<String>, AutoCloseable {
+    /**
+     * Intervalo predeterminado entre comprobaciones, en milisegundos.
+     */
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = 500L;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Path filePath;
+    private final boolean fromEnd;
+    private final long pollIntervalMillis;
+    private final Consumer<String> onLine;
+    private final Consumer<Exception> onError;
+    private final Charset charset = Charset.defaultCharset();
+    private final SubmissionPublisher<String> publisher = new SubmissionPublisher<>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+
+    /**
+     * Canal abierto sobre el archivo que se está siguiendo. Solo lo utiliza el hilo del lector.
+     */
+    private FileChannel channel;
+
+    /**
+     * Identificador del archivo abierto, utilizado para detectar rotaciones.
+     */
+    private Object fileKey;
+
+    private volatile long position;
+    private volatile boolean closed;
+    private volatile WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Crea un lector sobre un archivo con el intervalo de comprobación predeterminado.
+     * Las líneas solo se entregan a los suscriptores del {@link Flow.Publisher}.
+     *
+     * @param filePath La ruta del archivo a seguir. No es necesario que exista todavía.
+     * @param fromEnd  {@code true} para ignorar el contenido existente y entregar solo las líneas nuevas;
+     *                 {@code false} para entregar también las líneas que ya contiene el archivo.
+     */
+    public FileTailer(Path filePath, boolean fromEnd) {
+        this(filePath, fromEnd, DEFAULT_POLL_INTERVAL_MILLIS, null, null);
+    }
+
+    /**
+     * Crea un lector sobre un archivo.
+     *
+     * @param filePath           La ruta del archivo a seguir. No es necesario que exista todavía.
+     * @param fromEnd            {@code true} para ignorar el contenido existente y entregar solo las líneas nuevas;
+     *                           {@code false} para entregar también las líneas que ya contiene el archivo.
+     * @param pollIntervalMillis El tiempo máximo entre comprobaciones, en milisegundos.
+     * @param onLine             El consumidor que recibirá cada línea nueva, sin el salto de línea (opcional).
+     * @param onError            El manejador de error que se ejecutará si falla una lectura (opcional). El lector
+     *                           sigue activo y vuelve a intentarlo en la siguiente comprobación.
+     * @throws IllegalArgumentException Si el intervalo de comprobación es menor que 1.
+     */
+    public FileTailer(Path filePath, boolean fromEnd, long pollIntervalMillis,
+                      Consumer<String> onLine, Consumer<Exception> onError) {
+        if (pollIntervalMillis < 1) {
+            throw new IllegalArgumentException("pollIntervalMillis must be greater than 0.");
+        }
+        this.filePath = filePath;
+        this.fromEnd = fromEnd;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.onLine = onLine;
+        this.onError = onError;
+    }
+
+    /**
+     * Crea e inicia un lector que entrega las líneas nuevas de un archivo a un consumidor.
+     *
+     * @param filePath La ruta del archivo a seguir.
+     * @param fromEnd  {@code true} para entregar solo las líneas añadidas a partir de ahora.
+     * @param onLine   El consumidor que recibirá cada línea nueva.
+     * @param onError  El manejador de error que se ejecutará si falla una lectura (opcional).
+     * @return El lector iniciado, que debe cerrarse cuando ya no se necesite.
+     */
+    public static FileTailer follow(Path filePath, boolean fromEnd, Consumer<String> onLine, Consumer<Exception> onError) {
+        FileTailer tailer = new FileTailer(filePath, fromEnd, DEFAULT_POLL_INTERVAL_MILLIS, onLine, onError);
+        tailer.start();
+        return tailer;
+    }
+
+    /**
+     * Inicia el seguimiento del archivo en un hilo propio. Si {@code fromEnd} es {@code true}, la posición inicial
+     * se fija antes de que este método termine, por lo que cualquier línea escrita después se entregará.
+     *
+     * @throws IllegalStateException Si el lector ya se había iniciado o se ha cerrado.
+     */
+    public synchronized void start() {
+        if (thread != null || closed) {
+            throw new IllegalStateException("Tailer has already been started or closed.");
+        }
+        try {
+            if (Files.exists(filePath))
+                open(fromEnd);
+        } catch (IOException e) {
+            error(e);
+        }
+        thread = new Thread(this::run, "dk-tail-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Suscribe un consumidor a las líneas nuevas. Las líneas se publican con control de flujo: si un suscriptor no
+     * las consume, el lector espera antes de seguir leyendo.
+     *
+     * @param subscriber El suscriptor.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Obtiene la ruta del archivo que se está siguiendo.
+     *
+     * @return La ruta del archivo.
+     */
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Obtiene la posición en bytes hasta la que se ha leído el archivo actual.
+     *
+     * @return La posición leída.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Obtiene el tiempo máximo entre comprobaciones.
+     *
+     * @return El intervalo de comprobación en milisegundos.
+     */
+    public long getPollIntervalMillis() {
+        return pollIntervalMillis;
+    }
+
+    /**
+     * Detiene el seguimiento y completa a los suscriptores. Las llamadas posteriores no tienen efecto.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        publisher.close();
+        WatchService watcher = watchService;
+        if (watcher != null)
+            closeQuietly(watcher);
+        if (thread != null)
+            LockSupport.unpark(thread);
+        else
+            closeChannel();
+    }
+
+    private void run() {
+        watchService = newWatchService();
+        try {
+            while (!closed) {
+                check();
+                await();
+            }
+        } finally {
+            if (watchService != null)
+                closeQuietly(watchService);
+            closeChannel();
+        }
+    }
+
+    /**
+     * Crea el servicio de vigilancia sobre la carpeta del archivo.
+     *
+     * @return El servicio creado, o {@code null} si no está disponible y se debe recurrir solo al sondeo periódico.
+     */
+    private WatchService newWatchService() {
+        Path folder = filePath.toAbsolutePath().getParent();
+        if (folder == null)
+            return null;
+        WatchService watcher = null;
+        try {
+            watcher = folder.getFileSystem().newWatchService();
+            folder.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            return watcher;
+        } catch (IOException | UnsupportedOperationException e) {
+            if (watcher != null)
+                closeQuietly(watcher);
+            return null;
+        }
+    }
+
+    /**
+     * Espera al siguiente evento del sistema de archivos o, como máximo, el intervalo de comprobación.
+     */
+    private void await() {
+        WatchService watcher = watchService;
+        if (watcher == null) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis));
+            return;
+        }
+        try {
+            WatchKey key = watcher.poll(pollIntervalMillis, TimeUnit.MILLISECONDS);
+            if (key != null) {
+                key.pollEvents();
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // El lector se está cerrando.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+        }
+    }
+
+    /**
+     * Lee los bytes nuevos y comprueba si el archivo se ha truncado o rotado.
+     */
+    private void check() {
+        try {
+            if (channel != null)
+                readAvailable();
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                return;
+            }
+            Object currentKey = attributes.fileKey();
+            if (channel == null || (currentKey != null && !currentKey.equals(fileKey))) {
+                flushPartialLine();
+                closeChannel();
+                open(false);
+                readAvailable();
+            } else if (attributes.size() < position) {
+                partialLine.reset();
+                position = 0L;
+                readAvailable();
+            }
+        } catch (IOException e) {
+            closeChannel();
+            if (!closed)
+                error(e);
+        }
+    }
+
+    private void open(boolean atEnd) throws IOException {
+        channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        fileKey = Files.readAttributes(filePath, BasicFileAttributes.class).fileKey();
+        position = atEnd ? channel.size() : 0L;
+        partialLine.reset();
+    }
+
+    /**
+     * Lee todos los bytes disponibles a partir de la posición actual y entrega las líneas completas.
+     * El bloqueo compartido de la ruta solo se mantiene durante cada lectura, nunca mientras se entregan las líneas.
+     */
+    private void readAvailable() throws IOException {
+        while (!closed) {
+            buffer.clear();
+            int read;
+            try (PathLocks.Lock ignored = PathLocks.acquire(filePath, false)) {
+                read = channel.read(buffer, position);
+            }
+            if (read <= 0)
+                return;
+            position += read;
+            buffer.flip();
+            split(buffer);
+        }
+    }
+
+    private void split(ByteBuffer bytes) {
+        byte[] array = bytes.array();
+        int start = bytes.position();
+        for (int i = start; i < bytes.limit(); i++) {
+            if (array[i] == '\n') {
+                partialLine.write(array, start, i - start);
+                emitLine();
+                start = i + 1;
+            }
+        }
+        partialLine.write(array, start, bytes.limit() - start);
+    }
+
+    private void flushPartialLine() {
+        if (partialLine.size() > 0)
+            emitLine();
+    }
+
+    private void emitLine() {
+        byte[] bytes = partialLine.toByteArray();
+        partialLine.reset();
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r')
+            length--;
+        String line = new String(bytes, 0, length, charset);
+        if (onLine != null) {
+            try {
+                onLine.accept(line);
+            } catch (RuntimeException e) {
+                error(e);
+            }
+        }
+        if (!closed) {
+            try {
+                publisher.submit(line);
+            } catch (IllegalStateException ignored) {
+                // El publicador se cerró mientras se entregaba la línea.
+            }
+        }
+    }
+
+    private void error(Exception e) {
+        if (onError != null)
+            onError.accept(e);
+    }
+
+    private void closeChannel() {
+        if (channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // El canal solo se utilizaba para lectura.
+        }
+        channel = null;
+    }
+
+    private static void closeQuietly(WatchService watcher) {
+        try {
+            watcher.close();
+        } catch (IOException ignored) {
+            // No hay nada más que liberar.
+        }
+    }
+}
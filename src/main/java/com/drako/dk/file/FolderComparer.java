@@ -0,0 +1,257 @@
+package com.drako.dk.file;
+
+import com.drako.dk.io.PathLocks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Comparación en paralelo de dos carpetas.
+ * <p>
+ * Cada pareja de subcarpetas se compara en una tarea propia que lista ambas con los atributos que devuelve el
+ * recorrido del directorio y lanza una tarea por cada subcarpeta común. Dos archivos con distinto tamaño se
+ * consideran modificados sin leerlos, y dos archivos con el mismo tamaño y la misma fecha de modificación se
+ * consideran iguales, salvo que se solicite comparar siempre el contenido. En los demás casos se comparan los
+ * archivos por bloques proyectados en memoria y la comparación termina en el primer bloque distinto.
+ */
+class FolderComparer {
+    /**
+     * Tamaño de los bloques de cada archivo que se proyectan en memoria y se comparan a la vez.
+     */
+    static final int BLOCK_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Hilos que comparan las carpetas.
+     */
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final Path left;
+    private final Path right;
+    private final boolean alwaysCompareContent;
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    private FolderComparer(Path left, Path right, boolean alwaysCompareContent) {
+        this.left = left;
+        this.right = right;
+        this.alwaysCompareContent = alwaysCompareContent;
+    }
+
+    /**
+     * Compara dos carpetas.
+     *
+     * @param left                 La carpeta de referencia.
+     * @param right                La carpeta que se compara con la de referencia.
+     * @param alwaysCompareContent Indica si se compara el contenido de los archivos aunque coincidan su tamaño y su
+     *                             fecha de modificación.
+     * @param bytesRead            Recibe el número de bytes leídos para comparar contenidos.
+     * @return El resultado de la comparación.
+     * @throws IOException Si alguna de las carpetas no existe, no es una carpeta o no se puede leer.
+     */
+    static FolderComparison compare(Path left, Path right, boolean alwaysCompareContent, AtomicLong bytesRead) throws IOException {
+        for (Path folder : new Path[]{left, right}) {
+            if (!Files.readAttributes(folder, BasicFileAttributes.class).isDirectory())
+                throw new NotDirectoryException(folder.toString());
+        }
+        FolderComparer comparer = new FolderComparer(left, right, alwaysCompareContent);
+        Differences differences;
+        try {
+            differences = POOL.invoke(comparer.new DirectoryTask(left.getFileSystem().getPath("")));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            bytesRead.addAndGet(comparer.bytesRead.get());
+        }
+        differences.added.sort(null);
+        differences.removed.sort(null);
+        differences.typeChanged.sort(null);
+        differences.modified.sort(null);
+        return new FolderComparison(left, right, differences.added, differences.removed, differences.typeChanged,
+                differences.modified, differences.unchanged, differences.skipped);
+    }
+
+    /**
+     * Compara el contenido de dos archivos del mismo tamaño.
+     *
+     * @return {@code true} si el contenido es igual.
+     */
+    private boolean sameContent(Path leftFile, Path rightFile) throws IOException {
+        try (PathLocks.Lock lock = PathLocks.acquire(leftFile, false, rightFile, false);
+             FileChannel leftChannel = FileChannel.open(leftFile, StandardOpenOption.READ);
+             FileChannel rightChannel = FileChannel.open(rightFile, StandardOpenOption.READ)) {
+            long size = leftChannel.size();
+            if (size != rightChannel.size())
+                return false;
+            for (long position = 0; position < size; position += BLOCK_SIZE) {
+                long length = Math.min(BLOCK_SIZE, size - position);
+                MappedByteBuffer leftBlock = leftChannel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                MappedByteBuffer rightBlock = rightChannel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int mismatch = leftBlock.mismatch(rightBlock);
+                bytesRead.addAndGet(2 * (mismatch < 0 ? length : mismatch + 1L));
+                if (mismatch >= 0)
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Lista las entradas directas de una carpeta, indexadas por nombre.
+     */
+    private static Map<Path, BasicFileAttributes> list(Path folder, Differences differences) {
+        Map<Path, BasicFileAttributes> entries = new HashMap<>();
+        try {
+            Files.walkFileTree(folder, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (!attributes.isDirectory() || !TrashManager.isTrash(file.getFileName()))
+                        entries.put(file.getFileName(), attributes);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                    if (file.equals(folder))
+                        throw exc;
+                    differences.skipped++;
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entries;
+    }
+
+    /**
+     * Obtiene el tipo de una entrada: carpeta, archivo, enlace simbólico u otro.
+     */
+    private static int type(BasicFileAttributes attributes) {
+        if (attributes.isDirectory())
+            return 0;
+        if (attributes.isRegularFile())
+            return 1;
+        return attributes.isSymbolicLink() ? 2 : 3;
+    }
+
+    /**
+     * Tarea que compara una pareja de carpetas y sus subcarpetas.
+     */
+    private final class DirectoryTask extends RecursiveTask<Differences> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path relative;
+
+        private DirectoryTask(Path relative) {
+            this.relative = relative;
+        }
+
+        @Override
+        protected Differences compute() {
+            Differences differences = new Differences();
+            Path leftFolder = left.resolve(relative);
+            Path rightFolder = right.resolve(relative);
+            Map<Path, BasicFileAttributes> leftEntries = list(leftFolder, differences);
+            Map<Path, BasicFileAttributes> rightEntries = list(rightFolder, differences);
+            List<DirectoryTask> tasks = new ArrayList<>();
+            List<Path> candidates = new ArrayList<>();
+            for (Map.Entry<Path, BasicFileAttributes> entry : leftEntries.entrySet()) {
+                Path name = entry.getKey();
+                BasicFileAttributes leftAttributes = entry.getValue();
+                BasicFileAttributes rightAttributes = rightEntries.get(name);
+                Path path = relative.resolve(name.toString());
+                if (rightAttributes == null) {
+                    differences.removed.add(path);
+                } else if (type(leftAttributes) != type(rightAttributes)) {
+                    differences.typeChanged.add(path);
+                } else if (leftAttributes.isDirectory()) {
+                    tasks.add(new DirectoryTask(path));
+                } else if (leftAttributes.isRegularFile()) {
+                    if (leftAttributes.size() != rightAttributes.size())
+                        differences.modified.add(path);
+                    else if (!alwaysCompareContent && leftAttributes.lastModifiedTime().equals(rightAttributes.lastModifiedTime()))
+                        differences.unchanged++;
+                    else
+                        candidates.add(path);
+                } else if (leftAttributes.isSymbolicLink()) {
+                    compareLinks(path, differences);
+                } else {
+                    differences.unchanged++;
+                }
+            }
+            for (Path name : rightEntries.keySet()) {
+                if (!leftEntries.containsKey(name))
+                    differences.added.add(relative.resolve(name.toString()));
+            }
+            for (DirectoryTask task : tasks)
+                task.fork();
+            for (Path path : candidates) {
+                try {
+                    if (sameContent(left.resolve(path), right.resolve(path)))
+                        differences.unchanged++;
+                    else
+                        differences.modified.add(path);
+                } catch (IOException e) {
+                    differences.skipped++;
+                }
+            }
+            for (DirectoryTask task : tasks) {
+                try {
+                    differences.merge(task.join());
+                } catch (UncheckedIOException e) {
+                    differences.skipped++;
+                }
+            }
+            return differences;
+        }
+
+        private void compareLinks(Path path, Differences differences) {
+            try {
+                if (Files.readSymbolicLink(left.resolve(path)).equals(Files.readSymbolicLink(right.resolve(path))))
+                    differences.unchanged++;
+                else
+                    differences.modified.add(path);
+            } catch (IOException e) {
+                differences.skipped++;
+            }
+        }
+    }
+
+    /**
+     * Diferencias encontradas en una pareja de carpetas y sus subcarpetas.
+     */
+    private static final class Differences {
+        private final List<Path> added = new ArrayList<>();
+        private final List<Path> removed = new ArrayList<>();
+        private final List<Path> typeChanged = new ArrayList<>();
+        private final List<Path> modified = new ArrayList<>();
+        private long unchanged;
+        private long skipped;
+
+        private void merge(Differences other) {
+            added.addAll(other.added);
+            removed.addAll(other.removed);
+            typeChanged.addAll(other.typeChanged);
+            modified.addAll(other.modified);
+            unchanged += other.unchanged;
+            skipped += other.skipped;
+        }
+    }
+}
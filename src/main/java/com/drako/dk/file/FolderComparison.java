@@ -0,0 +1,158 @@
+package com.drako.dk.file;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de la comparación de dos carpetas, obtenido con {@link FolderManager#compare}.
+ * <p>
+ * Todas las rutas son relativas a las carpetas comparadas. Cuando una subcarpeta solo existe en uno de los lados,
+ * se incluye la propia subcarpeta y no cada una de las entradas que contiene.
+ */
+public class FolderComparison {
+    /**
+     * La carpeta de referencia.
+     */
+    private final Path left;
+
+    /**
+     * La carpeta que se compara con la de referencia.
+     */
+    private final Path right;
+
+    /**
+     * Las entradas que solo existen en la carpeta comparada.
+     */
+    private final List<Path> added;
+
+    /**
+     * Las entradas que solo existen en la carpeta de referencia.
+     */
+    private final List<Path> removed;
+
+    /**
+     * Las entradas que existen en ambas carpetas con distinto tipo, por ejemplo un archivo y una carpeta.
+     */
+    private final List<Path> typeChanged;
+
+    /**
+     * Los archivos que existen en ambas carpetas con distinto contenido.
+     */
+    private final List<Path> modified;
+
+    /**
+     * El número de archivos que existen en ambas carpetas con el mismo contenido.
+     */
+    private final long unchangedCount;
+
+    /**
+     * El número de entradas que no se pudieron leer y que, por tanto, no están clasificadas.
+     */
+    private final long skippedCount;
+
+    /**
+     * Crea un nuevo resultado de comparación.
+     *
+     * @param left           La carpeta de referencia.
+     * @param right          La carpeta que se compara con la de referencia.
+     * @param added          Las entradas que solo existen en la carpeta comparada.
+     * @param removed        Las entradas que solo existen en la carpeta de referencia.
+     * @param typeChanged    Las entradas que existen en ambas carpetas con distinto tipo.
+     * @param modified       Los archivos que existen en ambas carpetas con distinto contenido.
+     * @param unchangedCount El número de archivos iguales.
+     * @param skippedCount   El número de entradas que no se pudieron leer.
+     */
+    public FolderComparison(Path left, Path right, List<Path> added, List<Path> removed, List<Path> typeChanged,
+                            List<Path> modified, long unchangedCount, long skippedCount) {
+        this.left = left;
+        this.right = right;
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+        this.typeChanged = Collections.unmodifiableList(typeChanged);
+        this.modified = Collections.unmodifiableList(modified);
+        this.unchangedCount = unchangedCount;
+        this.skippedCount = skippedCount;
+    }
+
+    /**
+     * Obtiene la carpeta de referencia.
+     *
+     * @return La carpeta de referencia.
+     */
+    public Path getLeft() {
+        return left;
+    }
+
+    /**
+     * Obtiene la carpeta que se compara con la de referencia.
+     *
+     * @return La carpeta comparada.
+     */
+    public Path getRight() {
+        return right;
+    }
+
+    /**
+     * Obtiene las entradas que solo existen en la carpeta comparada, ordenadas por ruta.
+     *
+     * @return Una lista no modificable de rutas relativas.
+     */
+    public List<Path> getAdded() {
+        return added;
+    }
+
+    /**
+     * Obtiene las entradas que solo existen en la carpeta de referencia, ordenadas por ruta.
+     *
+     * @return Una lista no modificable de rutas relativas.
+     */
+    public List<Path> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Obtiene las entradas que existen en ambas carpetas con distinto tipo, ordenadas por ruta.
+     *
+     * @return Una lista no modificable de rutas relativas.
+     */
+    public List<Path> getTypeChanged() {
+        return typeChanged;
+    }
+
+    /**
+     * Obtiene los archivos que existen en ambas carpetas con distinto contenido, ordenados por ruta.
+     *
+     * @return Una lista no modificable de rutas relativas.
+     */
+    public List<Path> getModified() {
+        return modified;
+    }
+
+    /**
+     * Obtiene el número de archivos que existen en ambas carpetas con el mismo contenido.
+     *
+     * @return El número de archivos iguales.
+     */
+    public long getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    /**
+     * Obtiene el número de entradas que no se pudieron leer y que no están clasificadas.
+     *
+     * @return El número de entradas omitidas.
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Indica si las dos carpetas son iguales, es decir, si no hay diferencias ni entradas omitidas.
+     *
+     * @return {@code true} si las carpetas son iguales.
+     */
+    public boolean isIdentical() {
+        return added.isEmpty() && removed.isEmpty() && typeChanged.isEmpty() && modified.isEmpty() && skippedCount == 0;
+    }
+}
@@ -1,17 +1,27 @@
 package com.drako.dk.file;
 
 import com.drako.dk.handler.CompletionHandler;
+import com.drako.dk.handler.ProgressHandler;
+import com.drako.dk.io.ChannelCache;
+import com.drako.dk.io.IOPriority;
+import com.drako.dk.io.IOScheduler;
+import com.drako.dk.io.PathLocks;
+import com.drako.dk.io.Throttle;
+import com.drako.dk.metrics.Metrics;
+import com.drako.dk.metrics.Operation;
+import com.drako.dk.metrics.OperationTimer;
 
-import java.io.File;
 import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
 import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
  * La clase FolderManager proporciona funcionalidades para la gestión de carpetas, incluyendo operaciones de
- * crear, eliminar y comprobar su existencia de forma asíncrona.
+ * crear, eliminar, comprimir, extraer y comprobar su existencia de forma asíncrona.
  */
 public class FolderManager {
     /**
@@ -21,16 +31,19 @@ public class FolderManager {
      * @param onComplete El manejador que se ejecutará después de que se haya completado la operación de creación de carpeta (opcional).
      */
     public static void createFolder(Path folderPath, CompletionHandler<Path> onComplete) {
-        new Thread(() -> {
+        IOScheduler.getInstance().submit(folderPath, IOPriority.NORMAL, () -> {
+            OperationTimer timer = Metrics.start(Operation.CREATE_FOLDER, folderPath);
             try {
                 Files.createDirectories(folderPath);
+                timer.success(-1L);
                 if (onComplete != null)
                     onComplete.onSuccessResult(folderPath);
             } catch (Exception e) {
+                timer.failure(e);
                 if (onComplete != null)
                     onComplete.onError(e);
             }
-        }).start();
+        }, onComplete);
     }
 
     /**
@@ -40,18 +53,289 @@ public class FolderManager {
      * @param onComplete El manejador que se ejecutará después de que se haya completado la operación de eliminación de carpeta (opcional).
      */
     public static void deleteFolder(Path folderPath, CompletionHandler<Path> onComplete) {
-        new Thread(() -> {
+        deleteFolder(folderPath, IOPriority.LOW, onComplete);
+    }
+
+    /**
+     * Elimina una carpeta y su contenido en la ruta especificada con la prioridad indicada.
+     *
+     * @param folderPath La ruta de la carpeta que se eliminará.
+     * @param priority   La prioridad con la que se planificará la operación.
+     * @param onComplete El manejador que se ejecutará después de que se haya completado la operación de eliminación de carpeta (opcional).
+     */
+    public static void deleteFolder(Path folderPath, IOPriority priority, CompletionHandler<Path> onComplete) {
+        IOScheduler.getInstance().submit(folderPath, priority, () -> {
+            OperationTimer timer = Metrics.start(Operation.DELETE_FOLDER, folderPath);
             try (Stream<Path> files = Files.walk(folderPath)) {
                 files.sorted(Comparator.reverseOrder())
-                        .map(Path::toFile)
-                        .forEach(File::delete);
+                        .forEach(FolderManager::deleteLocked);
+                timer.success(-1L);
                 if (onComplete != null)
                     onComplete.onSuccessResult(folderPath);
             } catch (Exception e) {
+                timer.failure(e);
+                if (onComplete != null)
+                    onComplete.onError(e);
+            }
+        }, onComplete);
+    }
+
+    /**
+     * Elimina una carpeta y su contenido de forma diferida: la renombra a la papelera de su carpeta superior, lo que
+     * no depende del número de archivos que contiene, e informa del resultado de inmediato. El contenido se elimina
+     * después en segundo plano con {@link TrashManager}.
+     *
+     * @param folderPath La ruta de la carpeta que se eliminará.
+     * @param onComplete El manejador que recibirá la ruta original cuando la carpeta esté en la papelera (opcional).
+     */
+    public static void trashFolder(Path folderPath, CompletionHandler<Path> onComplete) {
+        IOScheduler.getInstance().submit(folderPath, IOPriority.NORMAL, () -> {
+            OperationTimer timer = Metrics.start(Operation.TRASH, folderPath);
+            try {
+                if (!Files.isDirectory(folderPath))
+                    throw new NotDirectoryException(folderPath.toString());
+                TrashManager.moveToTrash(folderPath);
+                timer.success(-1L);
+                if (onComplete != null)
+                    onComplete.onSuccessResult(folderPath);
+            } catch (Exception e) {
+                timer.failure(e);
+                if (onComplete != null)
+                    onComplete.onError(e);
+            }
+        }, onComplete);
+    }
+
+    /**
+     * Elimina un archivo o carpeta vacía mientras se mantiene el bloqueo exclusivo de su ruta. La espera de
+     * {@link Throttle} se realiza antes de adquirir el bloqueo.
+     *
+     * @param path La ruta a eliminar.
+     */
+    private static void deleteLocked(Path path) {
+        Throttle.acquire(Operation.DELETE_FOLDER, 1L, 0L);
+        try (PathLocks.Lock ignored = PathLocks.acquire(path, true)) {
+            ChannelCache.invalidate(path);
+            path.toFile().delete();
+        }
+    }
+
+    /**
+     * Comprime el contenido de una carpeta en un archivo ZIP, comprimiendo varias entradas en paralelo.
+     * Utiliza tantos hilos como procesadores disponibles.
+     *
+     * @param folderPath La ruta de la carpeta que se comprimirá.
+     * @param zipPath    La ruta del archivo ZIP que se creará. Si existe se sobrescribe.
+     * @param onProgress El manejador que recibirá el número de entradas escritas (opcional).
+     * @param onComplete El manejador que se ejecutará después de que se haya completado la operación (opcional).
+     */
+    public static void zipFolder(Path folderPath, Path zipPath, ProgressHandler onProgress, CompletionHandler<Path> onComplete) {
+        zipFolder(folderPath, zipPath, Runtime.getRuntime().availableProcessors(), onProgress, onComplete);
+    }
+
+    /**
+     * Comprime el contenido de una carpeta en un archivo ZIP, comprimiendo varias entradas en paralelo.
+     * Si alguna entrada no se puede comprimir, el archivo se crea con el resto de entradas y el manejador recibe una
+     * {@link java.io.IOException} con cada fallo como excepción suprimida.
+     *
+     * @param folderPath  La ruta de la carpeta que se comprimirá.
+     * @param zipPath     La ruta del archivo ZIP que se creará. Si existe se sobrescribe.
+     * @param parallelism El número máximo de entradas que se comprimen simultáneamente.
+     * @param onProgress  El manejador que recibirá el número de entradas escritas (opcional).
+     * @param onComplete  El manejador que se ejecutará después de que se haya completado la operación (opcional).
+     * @throws IllegalArgumentException Si el nivel de paralelismo es menor que 1.
+     */
+    public static void zipFolder(Path folderPath, Path zipPath, int parallelism, ProgressHandler onProgress, CompletionHandler<Path> onComplete) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0.");
+        }
+        IOScheduler.getInstance().submit(folderPath, IOPriority.LOW, () -> {
+            OperationTimer timer = Metrics.start(Operation.ZIP_FOLDER, zipPath);
+            try {
+                timer.success(ZipArchiver.zip(folderPath, zipPath, parallelism, onProgress));
+                if (onComplete != null)
+                    onComplete.onSuccessResult(zipPath);
+            } catch (Exception e) {
+                timer.failure(e);
+                if (onComplete != null)
+                    onComplete.onError(e);
+            }
+        }, onComplete);
+    }
+
+    /**
+     * Extrae el contenido de un archivo ZIP en una carpeta, extrayendo varias entradas en paralelo.
+     * Utiliza tantos hilos como procesadores disponibles.
+     *
+     * @param zipPath         La ruta del archivo ZIP.
+     * @param destinationPath La ruta de la carpeta donde se extraerá el contenido. Se crea si no existe.
+     * @param onProgress      El manejador que recibirá el número de entradas extraídas (opcional).
+     * @param onComplete      El manejador que se ejecutará después de que se haya completado la operación (opcional).
+     */
+    public static void unzip(Path zipPath, Path destinationPath, ProgressHandler onProgress, CompletionHandler<Path> onComplete) {
+        unzip(zipPath, destinationPath, Runtime.getRuntime().availableProcessors(), onProgress, onComplete);
+    }
+
+    /**
+     * Extrae el contenido de un archivo ZIP en una carpeta, extrayendo varias entradas en paralelo.
+     * Las entradas cuyo nombre apunta fuera de la carpeta de destino no se extraen. Si alguna entrada falla, el resto
+     * se extrae igualmente y el manejador recibe una {@link java.io.IOException} con cada fallo como excepción
+     * suprimida.
+     *
+     * @param zipPath         La ruta del archivo ZIP.
+     * @param destinationPath La ruta de la carpeta donde se extraerá el contenido. Se crea si no existe.
+     * @param parallelism     El número máximo de entradas que se extraen simultáneamente.
+     * @param onProgress      El manejador que recibirá el número de entradas extraídas (opcional).
+     * @param onComplete      El manejador que se ejecutará después de que se haya completado la operación (opcional).
+     * @throws IllegalArgumentException Si el nivel de paralelismo es menor que 1.
+     */
+    public static void unzip(Path zipPath, Path destinationPath, int parallelism, ProgressHandler onProgress, CompletionHandler<Path> onComplete) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0.");
+        }
+        IOScheduler.getInstance().submit(destinationPath, IOPriority.LOW, () -> {
+            OperationTimer timer = Metrics.start(Operation.UNZIP, zipPath);
+            try {
+                timer.success(ZipArchiver.unzip(zipPath, destinationPath, parallelism, onProgress));
+                if (onComplete != null)
+                    onComplete.onSuccessResult(destinationPath);
+            } catch (Exception e) {
+                timer.failure(e);
+                if (onComplete != null)
+                    onComplete.onError(e);
+            }
+        }, onComplete);
+    }
+
+    /**
+     * Calcula el tamaño total de los archivos de una carpeta y de todas sus subcarpetas, examinando las subcarpetas
+     * en paralelo y reutilizando los datos en caché de las carpetas que no han cambiado.
+     *
+     * @param folderPath La ruta de la carpeta.
+     * @param onComplete El manejador que recibirá el tamaño total en bytes (opcional).
+     */
+    public static void size(Path folderPath, CompletionHandler<Long> onComplete) {
+        usage(folderPath, 0, true, new CompletionHandler<DirectoryUsage>() {
+            @Override
+            public void onSuccessResult(DirectoryUsage result) {
+                if (onComplete != null)
+                    onComplete.onSuccessResult(result.getSize());
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (onComplete != null)
+                    onComplete.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Obtiene un resumen del espacio ocupado por una carpeta con el desglose de sus subcarpetas hasta la
+     * profundidad indicada, reutilizando los datos en caché de las carpetas que no han cambiado.
+     *
+     * @param folderPath La ruta de la carpeta.
+     * @param depth      El número de niveles de subcarpetas que se desglosan. Con 0 solo se obtienen los totales.
+     * @param onComplete El manejador que recibirá el resumen (opcional).
+     */
+    public static void usage(Path folderPath, int depth, CompletionHandler<DirectoryUsage> onComplete) {
+        usage(folderPath, depth, true, onComplete);
+    }
+
+    /**
+     * Obtiene un resumen del espacio ocupado por una carpeta con el desglose de sus subcarpetas hasta la
+     * profundidad indicada. Cada subcarpeta se examina en una tarea paralela y el tamaño de los archivos se toma de
+     * los atributos del propio recorrido, sin consultar cada archivo por separado.
+     * <p>
+     * Con la caché activada, los totales de cada carpeta se guardan asociados a su fecha de modificación y las
+     * consultas posteriores solo vuelven a examinar las carpetas cuya fecha ha cambiado. La fecha de una carpeta no
+     * cambia cuando se modifica el contenido de un archivo existente; en ese caso se debe usar
+     * {@link #invalidateUsageCache(Path)} o desactivar la caché.
+     *
+     * @param folderPath La ruta de la carpeta.
+     * @param depth      El número de niveles de subcarpetas que se desglosan. Con 0 solo se obtienen los totales.
+     * @param useCache   Indica si se reutilizan y actualizan los datos en caché.
+     * @param onComplete El manejador que recibirá el resumen (opcional).
+     * @throws IllegalArgumentException Si la profundidad es negativa.
+     */
+    public static void usage(Path folderPath, int depth, boolean useCache, CompletionHandler<DirectoryUsage> onComplete) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth must not be negative.");
+        }
+        IOScheduler.getInstance().submit(folderPath, IOPriority.LOW, () -> {
+            OperationTimer timer = Metrics.start(Operation.FOLDER_USAGE, folderPath);
+            try {
+                DirectoryUsage usage = UsageScanner.scan(folderPath, depth, useCache);
+                timer.success(-1L);
+                if (onComplete != null)
+                    onComplete.onSuccessResult(usage);
+            } catch (Exception e) {
+                timer.failure(e);
+                if (onComplete != null)
+                    onComplete.onError(e);
+            }
+        }, onComplete);
+    }
+
+    /**
+     * Elimina de la caché de {@link #usage} los datos de una carpeta y de todas las que contiene, de modo que la
+     * siguiente consulta las vuelva a examinar.
+     *
+     * @param folderPath La ruta de la carpeta.
+     */
+    public static void invalidateUsageCache(Path folderPath) {
+        UsageScanner.invalidate(folderPath);
+    }
+
+    /**
+     * Vacía por completo la caché de {@link #usage}.
+     */
+    public static void clearUsageCache() {
+        UsageScanner.clearCache();
+    }
+
+    /**
+     * Compara dos carpetas y clasifica sus diferencias en entradas añadidas, eliminadas, con distinto tipo y
+     * archivos modificados.
+     *
+     * @param left       La carpeta de referencia, por ejemplo el original.
+     * @param right      La carpeta que se compara con la de referencia, por ejemplo la copia.
+     * @param onComplete El manejador que recibirá el resultado de la comparación (opcional).
+     * @see #compare(Path, Path, boolean, CompletionHandler)
+     */
+    public static void compare(Path left, Path right, CompletionHandler<FolderComparison> onComplete) {
+        compare(left, right, false, onComplete);
+    }
+
+    /**
+     * Compara dos carpetas y clasifica sus diferencias en entradas añadidas, eliminadas, con distinto tipo y
+     * archivos modificados. Cada pareja de subcarpetas se compara en una tarea paralela.
+     * <p>
+     * Los archivos con distinto tamaño se consideran modificados sin leerlos. Los archivos con el mismo tamaño y la
+     * misma fecha de modificación se consideran iguales, salvo que se indique {@code alwaysCompareContent}; en los
+     * demás casos se compara su contenido por bloques proyectados en memoria, deteniéndose en la primera diferencia.
+     *
+     * @param left                 La carpeta de referencia, por ejemplo el original.
+     * @param right                La carpeta que se compara con la de referencia, por ejemplo la copia.
+     * @param alwaysCompareContent Indica si se compara el contenido de los archivos aunque coincidan su tamaño y su
+     *                             fecha de modificación.
+     * @param onComplete           El manejador que recibirá el resultado de la comparación (opcional).
+     */
+    public static void compare(Path left, Path right, boolean alwaysCompareContent, CompletionHandler<FolderComparison> onComplete) {
+        IOScheduler.getInstance().submit(left, IOPriority.LOW, () -> {
+            OperationTimer timer = Metrics.start(Operation.COMPARE_FOLDERS, left);
+            AtomicLong bytesRead = new AtomicLong();
+            try {
+                FolderComparison comparison = FolderComparer.compare(left, right, alwaysCompareContent, bytesRead);
+                timer.success(bytesRead.get());
+                if (onComplete != null)
+                    onComplete.onSuccessResult(comparison);
+            } catch (Exception e) {
+                timer.failure(e);
                 if (onComplete != null)
                     onComplete.onError(e);
             }
-        }).start();
+        }, onComplete);
     }
 
     /**
@@ -0,0 +1,124 @@
+package com.drako.dk.file;
+
+/**
+ * Opciones de la copia en paralelo de un único archivo con {@link FileManager#copyFileParallel}.
+ * Los métodos devuelven las propias opciones para poder encadenarlos.
+ */
+public class ParallelCopyOptions {
+    /**
+     * Tamaño predeterminado de cada rango copiado por un hilo.
+     */
+    public static final long DEFAULT_RANGE_SIZE = 64L << 20;
+
+    /**
+     * Número de rangos que se copian simultáneamente.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Tamaño de cada rango en bytes.
+     */
+    private long rangeSize = DEFAULT_RANGE_SIZE;
+
+    /**
+     * Indica si se comprueba la suma de verificación de cada rango tras copiarlo.
+     */
+    private boolean verify;
+
+    /**
+     * Indica si se mantiene un archivo de control para poder reanudar la copia.
+     */
+    private boolean resumable;
+
+    /**
+     * Establece el número de rangos que se copian simultáneamente.
+     *
+     * @param parallelism El nivel de paralelismo.
+     * @return Estas opciones.
+     * @throws IllegalArgumentException Si el nivel de paralelismo es menor que 1.
+     */
+    public ParallelCopyOptions parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0.");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Establece el tamaño de cada rango.
+     *
+     * @param rangeSize El tamaño en bytes de cada rango.
+     * @return Estas opciones.
+     * @throws IllegalArgumentException Si el tamaño es menor que 1.
+     */
+    public ParallelCopyOptions rangeSize(long rangeSize) {
+        if (rangeSize < 1) {
+            throw new IllegalArgumentException("rangeSize must be greater than 0.");
+        }
+        this.rangeSize = rangeSize;
+        return this;
+    }
+
+    /**
+     * Indica si se debe comprobar cada rango tras copiarlo. Se calcula un CRC-32C de los bytes leídos del origen y
+     * se compara con el de los bytes releídos del destino.
+     *
+     * @param verify {@code true} para comprobar cada rango.
+     * @return Estas opciones.
+     */
+    public ParallelCopyOptions verify(boolean verify) {
+        this.verify = verify;
+        return this;
+    }
+
+    /**
+     * Indica si la copia se puede reanudar. Se mantiene junto al destino un archivo de control con los rangos ya
+     * copiados, que se elimina al terminar correctamente. Si la copia se interrumpe, la siguiente copia con las
+     * mismas rutas y el mismo tamaño de rango solo copia los rangos pendientes, siempre que el origen no haya
+     * cambiado de tamaño ni de fecha de modificación.
+     *
+     * @param resumable {@code true} para permitir reanudar la copia.
+     * @return Estas opciones.
+     */
+    public ParallelCopyOptions resumable(boolean resumable) {
+        this.resumable = resumable;
+        return this;
+    }
+
+    /**
+     * Obtiene el número de rangos que se copian simultáneamente.
+     *
+     * @return El nivel de paralelismo.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Obtiene el tamaño de cada rango.
+     *
+     * @return El tamaño en bytes de cada rango.
+     */
+    public long getRangeSize() {
+        return rangeSize;
+    }
+
+    /**
+     * Indica si se comprueba cada rango tras copiarlo.
+     *
+     * @return {@code true} si se comprueban los rangos.
+     */
+    public boolean isVerify() {
+        return verify;
+    }
+
+    /**
+     * Indica si la copia se puede reanudar.
+     *
+     * @return {@code true} si se mantiene el archivo de control.
+     */
+    public boolean isResumable() {
+        return resumable;
+    }
+}
@@ -0,0 +1,276 @@
+package com.drako.dk.file;
+
+import com.drako.dk.handler.ProgressHandler;
+import com.drako.dk.io.BufferPool;
+import com.drako.dk.io.PathLocks;
+import com.drako.dk.io.Throttle;
+import com.drako.dk.metrics.Operation;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Copia de un único archivo dividida en rangos que se copian en paralelo.
+ * <p>
+ * El destino se reserva con el tamaño final antes de empezar y cada hilo copia sus rangos con lecturas y escrituras
+ * posicionales de {@link FileChannel}, usando búferes directos del {@link BufferPool#shared() conjunto compartido}.
+ * Si la copia se puede reanudar, junto al destino se mantiene un archivo de control con una cabecera que identifica
+ * el origen y un byte por rango que se marca cuando el rango está copiado y sincronizado en disco.
+ */
+class RangeCopier {
+    /**
+     * Sufijo del archivo de control que se crea junto al destino.
+     */
+    static final String CHECKPOINT_SUFFIX = ".dkcopy";
+
+    private static final int CHECKPOINT_MAGIC = 0x444B4350;
+    private static final int CHECKPOINT_VERSION = 1;
+    private static final int CHECKPOINT_HEADER_SIZE = 40;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private RangeCopier() {
+    }
+
+    /**
+     * Obtiene la ruta del archivo de control asociado a un destino.
+     *
+     * @param destinationPath La ruta del destino.
+     * @return La ruta del archivo de control.
+     */
+    static Path checkpointPath(Path destinationPath) {
+        return destinationPath.resolveSibling(destinationPath.getFileName() + CHECKPOINT_SUFFIX);
+    }
+
+    /**
+     * Copia un archivo por rangos en paralelo.
+     *
+     * @param sourcePath      La ruta del archivo de origen.
+     * @param destinationPath La ruta del archivo de destino. Si existe se sobrescribe, salvo los rangos ya copiados
+     *                        cuando se reanuda una copia.
+     * @param options         Las opciones de la copia.
+     * @param onProgress      El manejador que recibirá los bytes copiados, incluidos los de una copia anterior que se
+     *                        reanuda (opcional).
+     * @return El número de bytes copiados en esta ejecución, o {@code 0} si el origen y el destino son el mismo
+     * archivo.
+     * @throws IOException Si falla algún rango. El resto de rangos se cancelan y, si la copia se puede reanudar, el
+     *                     archivo de control se conserva.
+     */
+    static long copy(Path sourcePath, Path destinationPath, ParallelCopyOptions options, ProgressHandler onProgress) throws IOException {
+        Throttle.acquire(Operation.COPY_FILE, 1L, 0L);
+        BasicFileAttributes attributes = Files.readAttributes(sourcePath, BasicFileAttributes.class);
+        long size = attributes.size();
+        long rangeSize = options.getRangeSize();
+        long ranges = (size + rangeSize - 1) / rangeSize;
+        if (ranges > Integer.MAX_VALUE)
+            throw new IOException("Range size " + rangeSize + " is too small for a file of " + size + " bytes");
+        int rangeCount = (int) ranges;
+        Path checkpointPath = checkpointPath(destinationPath);
+        long copied;
+        try (PathLocks.Lock ignored = PathLocks.acquire(sourcePath, false, destinationPath, true)) {
+            // Como Files.copy, copiar un archivo sobre sí mismo no hace nada; abrir el destino lo truncaría.
+            if (Files.exists(destinationPath) && Files.isSameFile(sourcePath, destinationPath))
+                return 0L;
+            copied = copyLocked(sourcePath, destinationPath, checkpointPath, attributes, rangeCount, options, onProgress);
+        }
+        if (options.isResumable())
+            Files.deleteIfExists(checkpointPath);
+        return copied;
+    }
+
+    /**
+     * Copia los rangos pendientes con los bloqueos de origen y destino ya adquiridos.
+     */
+    private static long copyLocked(Path sourcePath, Path destinationPath, Path checkpointPath,
+                                   BasicFileAttributes attributes, int rangeCount, ParallelCopyOptions options,
+                                   ProgressHandler onProgress) throws IOException {
+        long size = attributes.size();
+        long rangeSize = options.getRangeSize();
+        try (FileChannel in = FileChannel.open(sourcePath, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(destinationPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean[] done = new boolean[rangeCount];
+            FileChannel checkpoint = options.isResumable()
+                    ? openCheckpoint(checkpointPath, size, attributes.lastModifiedTime().toMillis(), rangeSize, out.size() == size, done)
+                    : null;
+            try {
+                List<Integer> pending = new ArrayList<>();
+                for (int i = 0; i < rangeCount; i++) {
+                    if (!done[i])
+                        pending.add(i);
+                }
+                if (pending.size() == rangeCount) {
+                    out.truncate(0);
+                    if (size > 0)
+                        out.write(ByteBuffer.allocate(1), size - 1);
+                }
+                long alreadyCopied = 0;
+                for (int i = 0; i < rangeCount; i++) {
+                    if (done[i])
+                        alreadyCopied += rangeLength(i, rangeSize, size);
+                }
+                return copyRanges(in, out, checkpoint, pending, size, alreadyCopied, options, onProgress);
+            } finally {
+                if (checkpoint != null)
+                    checkpoint.close();
+            }
+        }
+    }
+
+    private static long copyRanges(FileChannel in, FileChannel out, FileChannel checkpoint, List<Integer> pending,
+                                   long size, long alreadyCopied, ParallelCopyOptions options,
+                                   ProgressHandler onProgress) throws IOException {
+        if (pending.isEmpty())
+            return 0L;
+        AtomicLong progress = new AtomicLong(alreadyCopied);
+        AtomicLong copied = new AtomicLong();
+        int threads = Math.min(options.getParallelism(), pending.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "dk-copy-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(pending.size());
+            for (int index : pending) {
+                futures.add(executor.submit(() -> {
+                    long length = copyRange(in, out, index, options.getRangeSize(), size, options.isVerify());
+                    if (checkpoint != null) {
+                        out.force(false);
+                        checkpoint.write(ByteBuffer.wrap(new byte[]{1}), CHECKPOINT_HEADER_SIZE + index);
+                    }
+                    copied.addAndGet(length);
+                    if (onProgress != null)
+                        onProgress.onProgress(progress.addAndGet(length), size);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    executor.shutdownNow();
+                    Throwable cause = e.getCause();
+                    throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while copying file", e);
+                }
+            }
+            return copied.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Copia un rango del origen en la misma posición del destino.
+     *
+     * @return El número de bytes copiados.
+     */
+    private static long copyRange(FileChannel in, FileChannel out, int index, long rangeSize, long size,
+                                  boolean verify) throws IOException {
+        long start = index * rangeSize;
+        long end = start + rangeLength(index, rangeSize, size);
+        BufferPool pool = BufferPool.shared();
+        ByteBuffer buffer = pool.acquire();
+        try {
+            CRC32C checksum = verify ? new CRC32C() : null;
+            long position = start;
+            while (position < end) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                int read = in.read(buffer, position);
+                if (read < 0)
+                    throw new EOFException("Source file ended at offset " + position + " while copying range " + index);
+                buffer.flip();
+                Throttle.acquire(Operation.COPY_FILE, 0L, read);
+                if (checksum != null) {
+                    checksum.update(buffer);
+                    buffer.rewind();
+                }
+                while (buffer.hasRemaining())
+                    position += out.write(buffer, position);
+            }
+            if (checksum != null && checksum(out, start, end, buffer) != checksum.getValue())
+                throw new IOException("Checksum mismatch in range " + index + " [" + start + ", " + end + ")");
+            return end - start;
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    private static long checksum(FileChannel channel, long start, long end, ByteBuffer buffer) throws IOException {
+        CRC32C checksum = new CRC32C();
+        long position = start;
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new EOFException("Destination file ended at offset " + position);
+            buffer.flip();
+            checksum.update(buffer);
+            position += read;
+        }
+        return checksum.getValue();
+    }
+
+    private static long rangeLength(int index, long rangeSize, long size) {
+        return Math.min(rangeSize, size - index * rangeSize);
+    }
+
+    /**
+     * Abre el archivo de control. Si existe, corresponde al mismo origen y el destino tiene ya el tamaño final, se
+     * cargan los rangos completados; en caso contrario se crea de nuevo con todos los rangos pendientes.
+     */
+    private static FileChannel openCheckpoint(Path checkpointPath, long size, long lastModified, long rangeSize,
+                                              boolean destinationReady, boolean[] done) throws IOException {
+        FileChannel channel = FileChannel.open(checkpointPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(CHECKPOINT_HEADER_SIZE);
+            boolean valid = false;
+            if (destinationReady && channel.size() == CHECKPOINT_HEADER_SIZE + done.length) {
+                while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                    // Lee la cabecera completa.
+                }
+                header.flip();
+                valid = header.remaining() == CHECKPOINT_HEADER_SIZE && header.getInt() == CHECKPOINT_MAGIC
+                        && header.getInt() == CHECKPOINT_VERSION && header.getLong() == size
+                        && header.getLong() == lastModified && header.getLong() == rangeSize
+                        && header.getLong() == done.length;
+            }
+            if (valid) {
+                ByteBuffer flags = ByteBuffer.allocate(done.length);
+                while (flags.hasRemaining() && channel.read(flags, CHECKPOINT_HEADER_SIZE + flags.position()) > 0) {
+                    // Lee todas las marcas de rango.
+                }
+                for (int i = 0; i < done.length; i++)
+                    done[i] = flags.get(i) == 1;
+                return channel;
+            }
+            channel.truncate(0);
+            header.clear();
+            header.putInt(CHECKPOINT_MAGIC).putInt(CHECKPOINT_VERSION).putLong(size).putLong(lastModified)
+                    .putLong(rangeSize).putLong(done.length).flip();
+            channel.write(header, 0);
+            channel.write(ByteBuffer.allocate(done.length), CHECKPOINT_HEADER_SIZE);
+            channel.force(true);
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.drako.dk.file;
+
+import java.nio.file.Path;
+
+/**
+ * Coincidencia encontrada por {@link FileManager#search}.
+ */
+public class SearchMatch {
+    /**
+     * La ruta del archivo.
+     */
+    private final Path path;
+
+    /**
+     * El número de la línea, empezando por 1.
+     */
+    private final long lineNumber;
+
+    /**
+     * La posición en bytes del comienzo de la coincidencia dentro del archivo.
+     */
+    private final long offset;
+
+    /**
+     * El texto de la línea, sin el salto de línea.
+     */
+    private final String line;
+
+    /**
+     * Crea una nueva coincidencia.
+     *
+     * @param path       La ruta del archivo.
+     * @param lineNumber El número de la línea, empezando por 1.
+     * @param offset     La posición en bytes del comienzo de la coincidencia dentro del archivo.
+     * @param line       El texto de la línea, sin el salto de línea.
+     */
+    public SearchMatch(Path path, long lineNumber, long offset, String line) {
+        this.path = path;
+        this.lineNumber = lineNumber;
+        this.offset = offset;
+        this.line = line;
+    }
+
+    /**
+     * Obtiene la ruta del archivo.
+     *
+     * @return La ruta del archivo.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Obtiene el número de la línea que contiene la coincidencia.
+     *
+     * @return El número de la línea, empezando por 1.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Obtiene la posición en bytes del comienzo de la coincidencia dentro del archivo.
+     *
+     * @return La posición de la coincidencia.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Obtiene el texto de la línea que contiene la coincidencia.
+     *
+     * @return El texto de la línea, sin el salto de línea.
+     */
+    public String getLine() {
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        return path + ":" + lineNumber + ":" + line;
+    }
+}
@@ -0,0 +1,138 @@
+package com.drako.dk.file;
+
+/**
+ * Opciones de la búsqueda de contenido con {@link FileManager#search}.
+ * Los métodos devuelven las propias opciones para poder encadenarlos.
+ */
+public class SearchOptions {
+    /**
+     * Indica si el patrón es una expresión regular en lugar de un texto literal.
+     */
+    private boolean regex;
+
+    /**
+     * Indica si se ignoran las diferencias entre mayúsculas y minúsculas.
+     */
+    private boolean ignoreCase;
+
+    /**
+     * Indica si se examinan también los archivos binarios.
+     */
+    private boolean includeBinary;
+
+    /**
+     * Patrón glob que debe cumplir el nombre de los archivos, o {@code null} para examinarlos todos.
+     */
+    private String glob;
+
+    /**
+     * Número de archivos que se examinan simultáneamente.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Indica si el patrón es una expresión regular. Por defecto se busca como texto literal, lo que permite
+     * comparar los bytes del archivo sin decodificarlos.
+     *
+     * @param regex {@code true} para interpretar el patrón como expresión regular.
+     * @return Estas opciones.
+     */
+    public SearchOptions regex(boolean regex) {
+        this.regex = regex;
+        return this;
+    }
+
+    /**
+     * Indica si se ignoran las diferencias entre mayúsculas y minúsculas.
+     *
+     * @param ignoreCase {@code true} para ignorarlas.
+     * @return Estas opciones.
+     */
+    public SearchOptions ignoreCase(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        return this;
+    }
+
+    /**
+     * Indica si se examinan también los archivos binarios. Se considera binario un archivo cuyos primeros
+     * {@value ContentSearcher#BINARY_PROBE_SIZE} bytes contienen un byte nulo.
+     *
+     * @param includeBinary {@code true} para examinar los archivos binarios.
+     * @return Estas opciones.
+     */
+    public SearchOptions includeBinary(boolean includeBinary) {
+        this.includeBinary = includeBinary;
+        return this;
+    }
+
+    /**
+     * Establece el patrón glob que debe cumplir el nombre de los archivos, por ejemplo {@code *.txt}.
+     *
+     * @param glob El patrón, o {@code null} para examinar todos los archivos.
+     * @return Estas opciones.
+     */
+    public SearchOptions glob(String glob) {
+        this.glob = glob;
+        return this;
+    }
+
+    /**
+     * Establece el número de archivos que se examinan simultáneamente.
+     *
+     * @param parallelism El nivel de paralelismo.
+     * @return Estas opciones.
+     * @throws IllegalArgumentException Si el nivel de paralelismo es menor que 1.
+     */
+    public SearchOptions parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0.");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Indica si el patrón es una expresión regular.
+     *
+     * @return {@code true} si el patrón es una expresión regular.
+     */
+    public boolean isRegex() {
+        return regex;
+    }
+
+    /**
+     * Indica si se ignoran las diferencias entre mayúsculas y minúsculas.
+     *
+     * @return {@code true} si se ignoran.
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     * Indica si se examinan también los archivos binarios.
+     *
+     * @return {@code true} si se examinan los archivos binarios.
+     */
+    public boolean isIncludeBinary() {
+        return includeBinary;
+    }
+
+    /**
+     * Obtiene el patrón glob que debe cumplir el nombre de los archivos.
+     *
+     * @return El patrón, o {@code null} si se examinan todos los archivos.
+     */
+    public String getGlob() {
+        return glob;
+    }
+
+    /**
+     * Obtiene el número de archivos que se examinan simultáneamente.
+     *
+     * @return El nivel de paralelismo.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+}
@@ -0,0 +1,385 @@
+package com.drako.dk.file;
+
+import com.drako.dk.io.ChannelCache;
+import com.drako.dk.io.PathLocks;
+import com.drako.dk.io.Throttle;
+import com.drako.dk.metrics.Metrics;
+import com.drako.dk.metrics.Operation;
+import com.drako.dk.metrics.OperationTimer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Papelera para la eliminación diferida de archivos y carpetas, utilizada por {@link FileManager#trashFile} y
+ * {@link FolderManager#trashFolder}.
+ * <p>
+ * Eliminar un elemento consiste en renombrarlo de forma atómica a una carpeta oculta {@value #TRASH_FOLDER_NAME}
+ * situada junto a él, lo que garantiza que ambos están en el mismo sistema de archivos y que la operación no depende
+ * del tamaño del elemento. Un único hilo de baja prioridad elimina después el contenido de las papeleras, limitando
+ * el número de entradas eliminadas por segundo para no competir con el resto de operaciones. Cuando una papelera
+ * queda vacía, se elimina. Los recorridos de la biblioteca (tamaño y uso de carpetas, compresión, comparación,
+ * búsqueda y listado) omiten las carpetas de papelera, por lo que los elementos eliminados dejan de aparecer en ellos
+ * aunque todavía no se hayan borrado del disco.
+ * <p>
+ * Al usar por primera vez en el proceso la papelera de una carpeta, se vacían los elementos que conserve de una
+ * ejecución anterior interrumpida. Opcionalmente, con {@link #setRegistryPath(Path)}, las carpetas de papelera
+ * utilizadas se anotan en un archivo de registro elegido por la aplicación, y al usar la papelera por primera vez en
+ * el proceso se vacían también las papeleras anotadas en él. Por defecto no se utiliza ningún registro.
+ */
+public final class TrashManager {
+    /**
+     * Nombre de la carpeta de papelera que se crea junto a los elementos eliminados.
+     */
+    public static final String TRASH_FOLDER_NAME = ".dk-trash";
+
+    /**
+     * Número de entradas eliminadas por segundo por defecto.
+     */
+    public static final int DEFAULT_MAX_DELETIONS_PER_SECOND = 2000;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final AtomicLong NAME_COUNTER = new AtomicLong();
+    private static final BlockingQueue<Path> QUEUE = new LinkedBlockingQueue<>();
+    private static final Object MONITOR = new Object();
+
+    /**
+     * Carpetas de papelera conocidas en este proceso, protegidas por {@link #MONITOR}.
+     */
+    private static final Set<Path> KNOWN = new LinkedHashSet<>();
+
+    private static volatile Path registryPath;
+    private static volatile Consumer<Exception> onError;
+
+    /**
+     * Número de elementos enviados a la papelera que aún no se han eliminado, protegido por {@link #MONITOR}.
+     */
+    private static int pending;
+    private static Thread thread;
+
+    static {
+        Throttle.forOperation(Operation.PURGE_TRASH).setOpsPerSecond(DEFAULT_MAX_DELETIONS_PER_SECOND);
+    }
+
+    private TrashManager() {
+    }
+
+    /**
+     * Obtiene la ruta del archivo en el que se anotan las carpetas de papelera utilizadas.
+     *
+     * @return La ruta del registro, o {@code null} si no se utiliza ningún registro (por defecto).
+     */
+    public static Path getRegistryPath() {
+        return registryPath;
+    }
+
+    /**
+     * Establece la ruta del archivo en el que se anotan las carpetas de papelera utilizadas. Debe llamarse antes de
+     * usar la papelera por primera vez para que se vacíen las papeleras anotadas en él.
+     *
+     * @param registryPath La ruta del registro, o {@code null} para no utilizar ningún registro.
+     */
+    public static void setRegistryPath(Path registryPath) {
+        TrashManager.registryPath = registryPath;
+    }
+
+    /**
+     * Obtiene el número máximo de entradas que se eliminan por segundo al vaciar las papeleras, que corresponde al
+     * límite de operaciones de {@link Operation#PURGE_TRASH} en {@link Throttle}.
+     *
+     * @return El número máximo de entradas por segundo.
+     */
+    public static int getMaxDeletionsPerSecond() {
+        return (int) Throttle.forOperation(Operation.PURGE_TRASH).getOpsPerSecond();
+    }
+
+    /**
+     * Indica si una ruta relativa es una carpeta de papelera o está dentro de una, según los nombres que la componen.
+     * Los recorridos de carpetas la utilizan para omitir las papeleras, cuyo contenido ya se considera eliminado.
+     *
+     * @param relative La ruta relativa a la carpeta recorrida, o solo el nombre de la entrada.
+     * @return {@code true} si alguno de los nombres de la ruta es {@value #TRASH_FOLDER_NAME}.
+     */
+    static boolean isTrash(Path relative) {
+        for (Path name : relative) {
+            if (name.toString().equals(TRASH_FOLDER_NAME))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Establece el número máximo de entradas que se eliminan por segundo al vaciar las papeleras, que corresponde al
+     * límite de operaciones de {@link Operation#PURGE_TRASH} en {@link Throttle}. El limitador global de
+     * {@link Throttle} también se respeta.
+     *
+     * @param maxDeletionsPerSecond El número máximo de entradas por segundo.
+     */
+    public static void setMaxDeletionsPerSecond(int maxDeletionsPerSecond) {
+        if (maxDeletionsPerSecond <= 0) {
+            throw new IllegalArgumentException("maxDeletionsPerSecond must be greater than 0.");
+        }
+        Throttle.forOperation(Operation.PURGE_TRASH).setOpsPerSecond(maxDeletionsPerSecond);
+    }
+
+    /**
+     * Establece el manejador que recibirá los errores al vaciar las papeleras. Los elementos que no se pudieron
+     * eliminar se conservan en la papelera y se vuelven a intentar en la siguiente ejecución.
+     *
+     * @param onError El manejador de error (opcional).
+     */
+    public static void setOnError(Consumer<Exception> onError) {
+        TrashManager.onError = onError;
+    }
+
+    /**
+     * Obtiene el número de elementos enviados a la papelera que aún no se han eliminado.
+     *
+     * @return El número de elementos pendientes.
+     */
+    public static int getPendingCount() {
+        synchronized (MONITOR) {
+            return pending;
+        }
+    }
+
+    /**
+     * Espera a que se eliminen todos los elementos de las papeleras.
+     *
+     * @param timeoutMillis El tiempo máximo de espera en milisegundos.
+     * @return {@code true} si no quedan elementos pendientes; {@code false} si se agotó el tiempo o se interrumpió la
+     * espera.
+     */
+    public static boolean awaitPurged(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (MONITOR) {
+            while (pending > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0)
+                    return false;
+                try {
+                    MONITOR.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mueve un archivo o una carpeta a la papelera de su carpeta y programa su eliminación.
+     *
+     * @param path La ruta del elemento.
+     * @return La ruta del elemento dentro de la papelera.
+     * @throws IOException Si el elemento no existe o no se puede renombrar.
+     */
+    static Path moveToTrash(Path path) throws IOException {
+        Path absolute = path.toAbsolutePath().normalize();
+        Path parent = absolute.getParent();
+        if (parent == null) {
+            throw new IOException("Cannot move a root folder to the trash: " + path);
+        }
+        Path trash = parent.resolve(TRASH_FOLDER_NAME);
+        if (absolute.equals(trash) || absolute.startsWith(trash)) {
+            throw new IOException("Path is already in the trash: " + path);
+        }
+        ensureStarted();
+        register(trash);
+        Path target = trash.resolve(NAME_COUNTER.incrementAndGet() + "-" + System.currentTimeMillis() + "-" + absolute.getFileName());
+        try (PathLocks.Lock ignored = PathLocks.acquire(trash, false, absolute, true)) {
+            if (!Files.exists(absolute, LinkOption.NOFOLLOW_LINKS))
+                throw new NoSuchFileException(path.toString());
+            Files.createDirectories(trash);
+            if (Files.isDirectory(absolute))
+                ChannelCache.invalidateTree(absolute);
+            else
+                ChannelCache.invalidate(absolute);
+            Files.move(absolute, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        enqueue(target);
+        return target;
+    }
+
+    /**
+     * Anota una carpeta de papelera como conocida, y en el registro si se utiliza, si aún no se conocía en este
+     * proceso. Si la carpeta conserva elementos de una ejecución anterior, se programa su eliminación.
+     */
+    private static void register(Path trash) throws IOException {
+        synchronized (MONITOR) {
+            if (!KNOWN.add(trash))
+                return;
+            Path registry = registryPath;
+            if (registry != null) {
+                if (registry.getParent() != null)
+                    Files.createDirectories(registry.getParent());
+                Files.write(registry, List.of(trash.toString()), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        }
+        enqueueLeftovers(trash);
+    }
+
+    /**
+     * Inicia el hilo que vacía las papeleras y programa la eliminación de los elementos que quedaron en las
+     * papeleras del registro.
+     */
+    private static void ensureStarted() {
+        List<Path> leftovers;
+        synchronized (MONITOR) {
+            if (thread != null)
+                return;
+            thread = new Thread(TrashManager::run, "dk-trash-purger-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+            leftovers = loadRegistry();
+        }
+        for (Path trash : leftovers)
+            enqueueLeftovers(trash);
+    }
+
+    /**
+     * Lee el registro, si se utiliza, descarta las papeleras que ya no existen y devuelve las restantes. Debe
+     * llamarse con el monitor adquirido.
+     */
+    private static List<Path> loadRegistry() {
+        Path registry = registryPath;
+        List<Path> existing = new ArrayList<>();
+        if (registry == null || !Files.exists(registry))
+            return existing;
+        try {
+            Set<Path> listed = new LinkedHashSet<>();
+            for (String line : Files.readAllLines(registry, StandardCharsets.UTF_8)) {
+                if (!line.isBlank())
+                    listed.add(Paths.get(line));
+            }
+            List<String> lines = new ArrayList<>();
+            for (Path trash : listed) {
+                if (Files.isDirectory(trash)) {
+                    existing.add(trash);
+                    lines.add(trash.toString());
+                    KNOWN.add(trash);
+                }
+            }
+            Files.write(registry, lines, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            report(e);
+        }
+        return existing;
+    }
+
+    private static void enqueueLeftovers(Path trash) {
+        if (!Files.isDirectory(trash))
+            return;
+        try (Stream<Path> entries = Files.list(trash)) {
+            entries.forEach(TrashManager::enqueue);
+        } catch (IOException e) {
+            report(e);
+        }
+    }
+
+    private static void enqueue(Path entry) {
+        synchronized (MONITOR) {
+            pending++;
+        }
+        QUEUE.add(entry);
+    }
+
+    private static void run() {
+        while (true) {
+            Path entry;
+            try {
+                entry = QUEUE.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            try {
+                purge(entry);
+            } catch (Throwable e) {
+                // Ningún error debe detener el hilo que vacía las papeleras.
+                report(e instanceof Exception ? (Exception) e : new IllegalStateException("Failed to purge " + entry, e));
+            } finally {
+                synchronized (MONITOR) {
+                    pending--;
+                    MONITOR.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Elimina un elemento de la papelera y, si la papelera queda vacía, la propia papelera.
+     */
+    private static void purge(Path entry) {
+        OperationTimer timer = Metrics.start(Operation.PURGE_TRASH, entry);
+        try {
+            Files.walkFileTree(entry, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    Throttle.acquire(Operation.PURGE_TRASH, 1L, 0L);
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path directory, IOException exc) throws IOException {
+                    if (exc != null)
+                        throw exc;
+                    Throttle.acquire(Operation.PURGE_TRASH, 1L, 0L);
+                    Files.deleteIfExists(directory);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            timer.success(-1L);
+        } catch (NoSuchFileException e) {
+            timer.success(-1L);
+        } catch (IOException e) {
+            timer.failure(e);
+            report(e);
+            return;
+        }
+        Path trash = entry.getParent();
+        try (PathLocks.Lock ignored = PathLocks.acquire(trash, true)) {
+            Files.deleteIfExists(trash);
+        } catch (DirectoryNotEmptyException ignored) {
+            // Quedan otros elementos pendientes en la papelera.
+        } catch (IOException e) {
+            report(e);
+        }
+    }
+
+    private static void report(Exception e) {
+        Consumer<Exception> handler = onError;
+        if (handler == null)
+            return;
+        try {
+            handler.accept(e);
+        } catch (Throwable ignored) {
+            // El manejador de error no debe detener el hilo que vacía las papeleras.
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.drako.dk.file;
+
+import com.drako.dk.io.PathLocks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Cálculo en paralelo del espacio ocupado por una carpeta.
+ * <p>
+ * Cada carpeta se examina en una tarea propia que suma los tamaños de sus archivos a partir de los atributos que
+ * devuelve el recorrido del directorio, sin una segunda consulta por archivo, y lanza una tarea por cada
+ * subcarpeta. Opcionalmente, el resultado de cada carpeta se guarda en una caché asociado a su fecha de
+ * modificación: si la fecha no ha cambiado, se reutilizan los totales de sus archivos y la lista de subcarpetas, y
+ * solo se consulta la fecha de estas últimas. Como la fecha de una carpeta solo cambia al añadir, eliminar o
+ * renombrar entradas, los cambios de tamaño de archivos existentes no se detectan hasta que se limpia la caché.
+ */
+class UsageScanner {
+    /**
+     * Número máximo de carpetas en la caché. Al superarlo, la caché se vacía.
+     */
+    static final int MAX_CACHED_DIRECTORIES = 100_000;
+
+    /**
+     * Datos de cada carpeta examinada, indexados por su ruta absoluta normalizada.
+     */
+    private static final ConcurrentHashMap<Path, CachedDirectory> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Hilos que examinan las carpetas.
+     */
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private UsageScanner() {
+    }
+
+    /**
+     * Calcula el espacio ocupado por una carpeta.
+     *
+     * @param folderPath La ruta de la carpeta.
+     * @param depth      El número de niveles de subcarpetas para los que se incluye un resumen propio.
+     * @param useCache   Indica si se reutilizan y actualizan los datos de la caché.
+     * @return El resumen de la carpeta.
+     * @throws IOException Si la carpeta no existe, no es una carpeta o no se puede leer.
+     */
+    static DirectoryUsage scan(Path folderPath, int depth, boolean useCache) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(folderPath, BasicFileAttributes.class);
+        if (!attributes.isDirectory())
+            throw new NotDirectoryException(folderPath.toString());
+        try {
+            return POOL.invoke(new DirectoryTask(folderPath, attributes.lastModifiedTime(), depth, useCache));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Elimina todos los datos de la caché.
+     */
+    static void clearCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * Elimina de la caché los datos de una carpeta y de todas las que contiene.
+     *
+     * @param folderPath La ruta de la carpeta.
+     */
+    static void invalidate(Path folderPath) {
+        Path key = PathLocks.normalize(folderPath);
+        CACHE.keySet().removeIf(path -> path.startsWith(key));
+    }
+
+    /**
+     * Obtiene el número de carpetas en la caché.
+     *
+     * @return El número de carpetas en la caché.
+     */
+    static int cacheSize() {
+        return CACHE.size();
+    }
+
+    /**
+     * Tarea que examina una carpeta y sus subcarpetas.
+     */
+    private static final class DirectoryTask extends RecursiveTask<DirectoryUsage> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path path;
+        private final FileTime lastModified;
+        private final int depth;
+        private final boolean useCache;
+
+        private DirectoryTask(Path path, FileTime lastModified, int depth, boolean useCache) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.depth = depth;
+            this.useCache = useCache;
+        }
+
+        @Override
+        protected DirectoryUsage compute() {
+            Path key = PathLocks.normalize(path);
+            CachedDirectory cached = useCache ? CACHE.get(key) : null;
+            long skipped = 0;
+            List<DirectoryTask> tasks = new ArrayList<>();
+            if (cached != null && cached.lastModified.equals(lastModified)) {
+                for (Path subdirectory : cached.subdirectories) {
+                    try {
+                        BasicFileAttributes attributes = Files.readAttributes(subdirectory, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                        tasks.add(new DirectoryTask(subdirectory, attributes.lastModifiedTime(), depth - 1, useCache));
+                    } catch (IOException e) {
+                        skipped++;
+                    }
+                }
+            } else {
+                Listing listing = new Listing(path);
+                try {
+                    Files.walkFileTree(path, EnumSet.noneOf(FileVisitOption.class), 1, listing);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                cached = new CachedDirectory(lastModified, listing.fileBytes, listing.fileCount, listing.subdirectories);
+                skipped = listing.skipped;
+                for (int i = 0; i < listing.subdirectories.size(); i++)
+                    tasks.add(new DirectoryTask(listing.subdirectories.get(i), listing.subdirectoryTimes.get(i), depth - 1, useCache));
+                if (useCache) {
+                    if (CACHE.size() >= MAX_CACHED_DIRECTORIES)
+                        CACHE.clear();
+                    CACHE.put(key, cached);
+                }
+            }
+            for (DirectoryTask task : tasks)
+                task.fork();
+            long size = cached.fileBytes;
+            long files = cached.fileCount;
+            long directories = 0;
+            List<DirectoryUsage> children = new ArrayList<>();
+            for (DirectoryTask task : tasks) {
+                DirectoryUsage child;
+                try {
+                    child = task.join();
+                } catch (UncheckedIOException e) {
+                    skipped++;
+                    continue;
+                }
+                size += child.getSize();
+                files += child.getFileCount();
+                directories += child.getDirectoryCount() + 1;
+                skipped += child.getSkippedCount();
+                if (depth > 0)
+                    children.add(child);
+            }
+            children.sort(Comparator.comparing(DirectoryUsage::getPath));
+            return new DirectoryUsage(path, size, files, directories, skipped, children);
+        }
+    }
+
+    /**
+     * Visitante que recoge las entradas directas de una carpeta con los atributos que proporciona el recorrido.
+     */
+    private static final class Listing extends SimpleFileVisitor<Path> {
+        private final Path root;
+        private final List<Path> subdirectories = new ArrayList<>();
+        private final List<FileTime> subdirectoryTimes = new ArrayList<>();
+        private long fileBytes;
+        private long fileCount;
+        private long skipped;
+
+        private Listing(Path root) {
+            this.root = root;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+            if (attributes.isDirectory() && TrashManager.isTrash(file.getFileName()))
+                return FileVisitResult.CONTINUE;
+            if (attributes.isDirectory()) {
+                subdirectories.add(file);
+                subdirectoryTimes.add(attributes.lastModifiedTime());
+            } else {
+                fileBytes += attributes.size();
+                fileCount++;
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+            if (file.equals(root))
+                throw exc;
+            skipped++;
+            return FileVisitResult.CONTINUE;
+        }
+    }
+
+    /**
+     * Datos guardados en la caché para una carpeta.
+     */
+    private static final class CachedDirectory {
+        private final FileTime lastModified;
+        private final long fileBytes;
+        private final long fileCount;
+        private final List<Path> subdirectories;
+
+        private CachedDirectory(FileTime lastModified, long fileBytes, long fileCount, List<Path> subdirectories) {
+            this.lastModified = lastModified;
+            this.fileBytes = fileBytes;
+            this.fileCount = fileCount;
+            this.subdirectories = Collections.unmodifiableList(subdirectories);
+        }
+    }
+}
@@ -0,0 +1,561 @@
+package com.drako.dk.file;
+
+import com.drako.dk.handler.ProgressHandler;
+import com.drako.dk.io.ChannelCache;
+import com.drako.dk.io.CountingOutputStream;
+import com.drako.dk.io.PathLocks;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Creación y extracción de archivos ZIP en paralelo.
+ * <p>
+ * Al comprimir, cada entrada se comprime con deflate en un hilo de trabajo sobre un búfer propio (o sobre un archivo
+ * temporal si supera {@link #SPILL_THRESHOLD}) y el hilo que ensambla escribe las entradas en orden en el archivo
+ * final, generando directamente las cabeceras locales, el directorio central y, si hace falta, los registros ZIP64.
+ * Solo se mantienen en memoria unas pocas entradas comprimidas a la vez. El archivo se escribe en un archivo temporal
+ * junto al destino y se mueve a su ruta al terminar, por lo que el bloqueo del archivo ZIP solo se mantiene durante
+ * ese movimiento y nunca a la vez que el de una entrada.
+ * <p>
+ * Al extraer, las entradas se leen de forma independiente del {@link ZipFile} y se descomprimen directamente en disco
+ * en paralelo. Cada entrada bloquea el archivo ZIP y su destino a la vez con
+ * {@link PathLocks#acquire(Path, boolean, Path, boolean)}.
+ */
+class ZipArchiver {
+    /**
+     * Tamaño a partir del cual una entrada comprimida se vuelca a un archivo temporal en lugar de mantenerse en memoria.
+     */
+    static final int SPILL_THRESHOLD = 8 << 20;
+
+    private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+    private static final int ZIP64_COUNT_LIMIT = 0xFFFF;
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int DIRECTORY_ATTRIBUTE = 0x10;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private ZipArchiver() {
+    }
+
+    /**
+     * Comprime el contenido de una carpeta en un archivo ZIP.
+     * Las entradas que no se pueden comprimir se omiten y se informan al final mediante una excepción agregada.
+     *
+     * @param folderPath  La carpeta a comprimir.
+     * @param zipPath     La ruta del archivo ZIP a crear.
+     * @param parallelism El número de entradas que se comprimen simultáneamente.
+     * @param onProgress  El manejador de progreso, que recibe el número de entradas escritas (opcional).
+     * @return El tamaño en bytes del archivo ZIP creado.
+     * @throws IOException Si no se puede crear el archivo o si alguna entrada falla. En el segundo caso el archivo
+     *                     contiene el resto de entradas y la excepción incluye cada fallo como excepción suprimida.
+     */
+    static long zip(Path folderPath, Path zipPath, int parallelism, ProgressHandler onProgress) throws IOException {
+        Path zipKey = PathLocks.normalize(zipPath);
+        List<Path> paths;
+        try (Stream<Path> stream = Files.walk(folderPath)) {
+            paths = stream.filter(path -> !path.equals(folderPath) && !PathLocks.normalize(path).equals(zipKey)
+                            && !TrashManager.isTrash(folderPath.relativize(path)))
+                    .collect(Collectors.toList());
+        }
+        long total = paths.size();
+        long completed = 0;
+        List<IOException> errors = new ArrayList<>();
+        List<ArchivedEntry> archived = new ArrayList<>(paths.size());
+        Deque<Future<CompressedEntry>> window = new ArrayDeque<>();
+        Path temporaryPath = zipKey.resolveSibling(
+                zipKey.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+        boolean moved = false;
+        ExecutorService executor = newExecutor(parallelism, "dk-zip-");
+        try (CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temporaryPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                BUFFER_SIZE))) {
+            for (Path path : paths) {
+                if (window.size() >= parallelism * 2) {
+                    append(window.poll(), out, archived, errors);
+                    progress(onProgress, ++completed, total);
+                }
+                String name = entryName(folderPath, path);
+                window.add(executor.submit(() -> compress(path, name)));
+            }
+            while (!window.isEmpty()) {
+                append(window.poll(), out, archived, errors);
+                progress(onProgress, ++completed, total);
+            }
+            writeCentralDirectory(out, archived);
+            out.close();
+            replace(temporaryPath, zipPath);
+            moved = true;
+            if (!errors.isEmpty())
+                throw aggregate("Failed to archive " + errors.size() + " of " + total + " entries", errors);
+            return out.getCount();
+        } finally {
+            executor.shutdownNow();
+            for (Future<CompressedEntry> pending : window)
+                discard(pending);
+            if (!moved)
+                Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    /**
+     * Reemplaza el archivo ZIP por el archivo temporal completo mientras se mantiene el bloqueo exclusivo de su ruta.
+     *
+     * @param temporaryPath El archivo temporal, en la misma carpeta que el archivo ZIP.
+     * @param zipPath       La ruta del archivo ZIP.
+     * @throws IOException Si no se puede mover el archivo.
+     */
+    private static void replace(Path temporaryPath, Path zipPath) throws IOException {
+        try (PathLocks.Lock ignored = PathLocks.acquire(zipPath, true)) {
+            ChannelCache.invalidate(zipPath);
+            try {
+                Files.move(temporaryPath, zipPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryPath, zipPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Extrae el contenido de un archivo ZIP en una carpeta.
+     * Las entradas que no se pueden extraer, incluidas las que apuntan fuera de la carpeta de destino, se omiten y
+     * se informan al final mediante una excepción agregada.
+     *
+     * @param zipPath         La ruta del archivo ZIP.
+     * @param destinationPath La carpeta donde se extraerá el contenido. Se crea si no existe.
+     * @param parallelism     El número de entradas que se extraen simultáneamente.
+     * @param onProgress      El manejador de progreso, que recibe el número de entradas extraídas (opcional).
+     * @return El número total de bytes extraídos.
+     * @throws IOException Si no se puede leer el archivo o si alguna entrada falla. En el segundo caso la excepción
+     *                     incluye cada fallo como excepción suprimida.
+     */
+    static long unzip(Path zipPath, Path destinationPath, int parallelism, ProgressHandler onProgress) throws IOException {
+        Path root = PathLocks.normalize(destinationPath);
+        Files.createDirectories(root);
+        Queue<IOException> errors = new ConcurrentLinkedQueue<>();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        ExecutorService executor = newExecutor(parallelism, "dk-unzip-");
+        try (ZipFile zipFile = open(zipPath)) {
+            List<? extends ZipEntry> entries = Collections.list(zipFile.entries());
+            long total = entries.size();
+            List<Future<?>> futures = new ArrayList<>();
+            for (ZipEntry entry : entries) {
+                Path target = root.resolve(entry.getName()).normalize();
+                if (!target.startsWith(root) || target.equals(root)) {
+                    errors.add(new IOException("Entry is outside of the destination folder: " + entry.getName()));
+                    progress(onProgress, completed.incrementAndGet(), total);
+                } else if (entry.isDirectory()) {
+                    try {
+                        Files.createDirectories(target);
+                    } catch (IOException e) {
+                        errors.add(new IOException(entry.getName() + ": " + e.getMessage(), e));
+                    }
+                    progress(onProgress, completed.incrementAndGet(), total);
+                } else {
+                    futures.add(executor.submit(() -> {
+                        try {
+                            bytes.addAndGet(extract(zipPath, zipFile, entry, target));
+                        } catch (IOException e) {
+                            errors.add(new IOException(entry.getName() + ": " + e.getMessage(), e));
+                        }
+                        progress(onProgress, completed.incrementAndGet(), total);
+                    }));
+                }
+            }
+            for (Future<?> future : futures)
+                await(future);
+            if (!errors.isEmpty())
+                throw aggregate("Failed to extract " + errors.size() + " of " + total + " entries", errors);
+            return bytes.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Abre el archivo ZIP mientras se mantiene el bloqueo compartido de su ruta.
+     */
+    private static ZipFile open(Path zipPath) throws IOException {
+        try (PathLocks.Lock ignored = PathLocks.acquire(zipPath, false)) {
+            return new ZipFile(zipPath.toFile(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static long extract(Path zipPath, ZipFile zipFile, ZipEntry entry, Path target) throws IOException {
+        Path parent = target.getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        long size;
+        try (PathLocks.Lock ignored = PathLocks.acquire(zipPath, false, target, true);
+             InputStream in = zipFile.getInputStream(entry)) {
+            ChannelCache.invalidate(target);
+            size = Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (entry.getLastModifiedTime() != null)
+            Files.setLastModifiedTime(target, entry.getLastModifiedTime());
+        return size;
+    }
+
+    /**
+     * Comprime una entrada en el hilo de trabajo.
+     *
+     * @param path La ruta del archivo o carpeta.
+     * @param name El nombre de la entrada dentro del archivo ZIP.
+     * @return La entrada comprimida.
+     * @throws IOException Si ocurre un error al leer o comprimir el archivo.
+     */
+    private static CompressedEntry compress(Path path, String name) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long dosTime = toDosTime(attributes.lastModifiedTime().toMillis());
+        if (attributes.isDirectory())
+            return new CompressedEntry(name + "/", true, dosTime, 0L, 0L, new SpillOutputStream());
+        CRC32 crc = new CRC32();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        SpillOutputStream data = new SpillOutputStream();
+        long size = 0;
+        try (PathLocks.Lock ignored = PathLocks.acquire(path, false);
+             InputStream in = Files.newInputStream(path);
+             DeflaterOutputStream deflaterStream = new DeflaterOutputStream(data, deflater, BUFFER_SIZE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                crc.update(buffer, 0, read);
+                deflaterStream.write(buffer, 0, read);
+                size += read;
+            }
+        } catch (IOException | RuntimeException e) {
+            data.discard();
+            throw e;
+        } finally {
+            deflater.end();
+        }
+        return new CompressedEntry(name, false, dosTime, crc.getValue(), size, data);
+    }
+
+    /**
+     * Escribe en el archivo la siguiente entrada comprimida, o registra su error.
+     */
+    private static void append(Future<CompressedEntry> future, CountingOutputStream out,
+                               List<ArchivedEntry> archived, List<IOException> errors) throws IOException {
+        CompressedEntry entry;
+        try {
+            entry = future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            errors.add(cause instanceof IOException ? (IOException) cause : new IOException(cause));
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while creating archive", e);
+        }
+        try {
+            long offset = out.getCount();
+            writeLocalHeader(out, entry);
+            entry.data.writeTo(out);
+            archived.add(new ArchivedEntry(entry, offset));
+        } finally {
+            entry.data.discard();
+        }
+    }
+
+    private static void writeLocalHeader(OutputStream out, CompressedEntry entry) throws IOException {
+        byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+        boolean zip64 = entry.size >= ZIP64_LIMIT || entry.compressedSize() >= ZIP64_LIMIT;
+        ByteBuffer header = littleEndian(30 + name.length + (zip64 ? 20 : 0));
+        header.putInt(LOCAL_HEADER_SIGNATURE)
+                .putShort((short) (zip64 ? 45 : 20))
+                .putShort((short) UTF8_FLAG)
+                .putShort((short) entry.method())
+                .putShort((short) entry.dosTime)
+                .putShort((short) (entry.dosTime >>> 16))
+                .putInt((int) entry.crc)
+                .putInt((int) (zip64 ? ZIP64_LIMIT : entry.compressedSize()))
+                .putInt((int) (zip64 ? ZIP64_LIMIT : entry.size))
+                .putShort((short) name.length)
+                .putShort((short) (zip64 ? 20 : 0))
+                .put(name);
+        if (zip64) {
+            header.putShort((short) 0x0001).putShort((short) 16).putLong(entry.size).putLong(entry.compressedSize());
+        }
+        out.write(header.array());
+    }
+
+    private static void writeCentralDirectory(CountingOutputStream out, List<ArchivedEntry> archived) throws IOException {
+        long start = out.getCount();
+        for (ArchivedEntry archivedEntry : archived) {
+            CompressedEntry entry = archivedEntry.entry;
+            byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+            boolean sizeOverflow = entry.size >= ZIP64_LIMIT;
+            boolean compressedOverflow = entry.compressedSize() >= ZIP64_LIMIT;
+            boolean offsetOverflow = archivedEntry.offset >= ZIP64_LIMIT;
+            int extraLength = (sizeOverflow ? 8 : 0) + (compressedOverflow ? 8 : 0) + (offsetOverflow ? 8 : 0);
+            boolean zip64 = extraLength > 0;
+            ByteBuffer header = littleEndian(46 + name.length + (zip64 ? 4 + extraLength : 0));
+            header.putInt(CENTRAL_HEADER_SIGNATURE)
+                    .putShort((short) 45)
+                    .putShort((short) (zip64 ? 45 : 20))
+                    .putShort((short) UTF8_FLAG)
+                    .putShort((short) entry.method())
+                    .putShort((short) entry.dosTime)
+                    .putShort((short) (entry.dosTime >>> 16))
+                    .putInt((int) entry.crc)
+                    .putInt((int) (compressedOverflow ? ZIP64_LIMIT : entry.compressedSize()))
+                    .putInt((int) (sizeOverflow ? ZIP64_LIMIT : entry.size))
+                    .putShort((short) name.length)
+                    .putShort((short) (zip64 ? 4 + extraLength : 0))
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putInt(entry.directory ? DIRECTORY_ATTRIBUTE : 0)
+                    .putInt((int) (offsetOverflow ? ZIP64_LIMIT : archivedEntry.offset))
+                    .put(name);
+            if (zip64) {
+                header.putShort((short) 0x0001).putShort((short) extraLength);
+                if (sizeOverflow)
+                    header.putLong(entry.size);
+                if (compressedOverflow)
+                    header.putLong(entry.compressedSize());
+                if (offsetOverflow)
+                    header.putLong(archivedEntry.offset);
+            }
+            out.write(header.array());
+        }
+        long end = out.getCount();
+        long size = end - start;
+        long count = archived.size();
+        boolean zip64 = count >= ZIP64_COUNT_LIMIT || start >= ZIP64_LIMIT || size >= ZIP64_LIMIT;
+        if (zip64) {
+            ByteBuffer record = littleEndian(56 + 20);
+            record.putInt(ZIP64_END_SIGNATURE)
+                    .putLong(44)
+                    .putShort((short) 45)
+                    .putShort((short) 45)
+                    .putInt(0)
+                    .putInt(0)
+                    .putLong(count)
+                    .putLong(count)
+                    .putLong(size)
+                    .putLong(start);
+            record.putInt(ZIP64_LOCATOR_SIGNATURE)
+                    .putInt(0)
+                    .putLong(end)
+                    .putInt(1);
+            out.write(record.array());
+        }
+        ByteBuffer record = littleEndian(22);
+        record.putInt(END_SIGNATURE)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) (zip64 ? ZIP64_COUNT_LIMIT : count))
+                .putShort((short) (zip64 ? ZIP64_COUNT_LIMIT : count))
+                .putInt((int) (zip64 ? ZIP64_LIMIT : size))
+                .putInt((int) (zip64 ? ZIP64_LIMIT : start))
+                .putShort((short) 0);
+        out.write(record.array());
+    }
+
+    private static ByteBuffer littleEndian(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static String entryName(Path folderPath, Path path) {
+        StringBuilder name = new StringBuilder();
+        for (Path part : folderPath.relativize(path)) {
+            if (name.length() > 0)
+                name.append('/');
+            name.append(part);
+        }
+        return name.toString();
+    }
+
+    /**
+     * Convierte una marca de tiempo a formato de fecha y hora de MS-DOS, con la fecha en los 16 bits superiores.
+     */
+    static long toDosTime(long millis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        if (time.getYear() < 1980)
+            return (1 << 21) | (1 << 16);
+        return ((long) (time.getYear() - 1980) << 25) | (time.getMonthValue() << 21) | (time.getDayOfMonth() << 16)
+                | (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() >> 1);
+    }
+
+    private static void progress(ProgressHandler onProgress, long completed, long total) {
+        if (onProgress != null)
+            onProgress.onProgress(completed, total);
+    }
+
+    private static IOException aggregate(String message, Collection<IOException> errors) {
+        IOException exception = new IOException(message);
+        errors.forEach(exception::addSuppressed);
+        return exception;
+    }
+
+    private static void await(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting archive", e);
+        }
+    }
+
+    private static void discard(Future<CompressedEntry> future) {
+        future.cancel(true);
+        try {
+            if (future.isDone() && !future.isCancelled())
+                future.get().data.discard();
+        } catch (Exception ignored) {
+            // La entrada falló o se canceló: no hay datos que liberar.
+        }
+    }
+
+    private static ExecutorService newExecutor(int parallelism, String prefix) {
+        return Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, prefix + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Entrada comprimida pendiente de escribir en el archivo.
+     */
+    private static final class CompressedEntry {
+        private final String name;
+        private final boolean directory;
+        private final long dosTime;
+        private final long crc;
+        private final long size;
+        private final SpillOutputStream data;
+
+        private CompressedEntry(String name, boolean directory, long dosTime, long crc, long size, SpillOutputStream data) {
+            this.name = name;
+            this.directory = directory;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+        }
+
+        private int method() {
+            return directory ? ZipEntry.STORED : ZipEntry.DEFLATED;
+        }
+
+        private long compressedSize() {
+            return data.count;
+        }
+    }
+
+    /**
+     * Entrada ya escrita en el archivo junto con la posición de su cabecera local.
+     */
+    private static final class ArchivedEntry {
+        private final CompressedEntry entry;
+        private final long offset;
+
+        private ArchivedEntry(CompressedEntry entry, long offset) {
+            this.entry = entry;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Flujo de salida que conserva los datos en memoria hasta {@link #SPILL_THRESHOLD} bytes y a partir de ahí los
+     * vuelca a un archivo temporal.
+     */
+    private static final class SpillOutputStream extends OutputStream {
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private Path spillPath;
+        private OutputStream spill;
+        private long count;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (spill == null && count + len > SPILL_THRESHOLD) {
+                spillPath = Files.createTempFile("dk-zip-", ".deflate");
+                spill = new BufferedOutputStream(Files.newOutputStream(spillPath), BUFFER_SIZE);
+                memory.writeTo(spill);
+                memory = null;
+            }
+            if (spill != null)
+                spill.write(b, off, len);
+            else
+                memory.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (spill != null)
+                spill.close();
+        }
+
+        private void writeTo(OutputStream out) throws IOException {
+            if (spillPath != null)
+                Files.copy(spillPath, out);
+            else
+                memory.writeTo(out);
+        }
+
+        private void discard() {
+            try {
+                if (spill != null)
+                    spill.close();
+                if (spillPath != null)
+                    Files.deleteIfExists(spillPath);
+            } catch (IOException ignored) {
+                // El archivo temporal se eliminará con el resto de temporales del sistema.
+            }
+            memory = null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.drako.dk.handler;
+
+/**
+ * Interfaz funcional para recibir el progreso de una operación asíncrona de larga duración.
+ */
+@FunctionalInterface
+public interface ProgressHandler {
+    /**
+     * Se llama cada vez que la operación avanza.
+     *
+     * @param completed El número de unidades completadas hasta el momento.
+     * @param total     El número total de unidades de la operación, o -1 si se desconoce.
+     */
+    void onProgress(long completed, long total);
+}
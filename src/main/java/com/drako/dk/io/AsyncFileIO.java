@@ -0,0 +1,279 @@
+package com.drako.dk.io;
+
+import com.drako.dk.handler.CompletionHandler;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lectura y escritura completa de archivos mediante {@link AsynchronousFileChannel}.
+ * <p>
+ * Cada operación se planifica en el {@link IOScheduler} con {@link IOScheduler#submitAsync}, adquiere el bloqueo
+ * de la ruta en {@link PathLocks} y divide el contenido en segmentos de {@link #SEGMENT_SIZE} bytes que se leen o
+ * escriben con operaciones posicionales simultáneas. Ningún hilo queda esperando mientras la operación está en
+ * curso: si la ruta está bloqueada, la operación libera su plaza del planificador y se vuelve a planificar tras una
+ * espera creciente de hasta {@value #MAX_RETRY_DELAY_MILLIS} ms en lugar de bloquear el hilo de trabajo. El bloqueo y
+ * la plaza del planificador se liberan desde el hilo que completa el último segmento, y el
+ * resultado se entrega al {@link CompletionHandler} desde ese mismo hilo. El número de operaciones simultáneas por
+ * dispositivo sigue limitado por el planificador.
+ * <p>
+ * Los canales se asocian a un grupo de hilos propio de la librería. En plataformas sin entrada/salida asíncrona
+ * nativa para archivos, la máquina virtual ejecuta cada segmento en uno de esos hilos.
+ */
+public final class AsyncFileIO {
+    /**
+     * Tamaño de cada segmento leído o escrito con una operación independiente.
+     */
+    public static final int SEGMENT_SIZE = 1 << 20;
+
+    /**
+     * Tamaño máximo de un archivo que se puede leer completo en un único búfer.
+     */
+    private static final long MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Espera máxima entre dos intentos de adquirir el bloqueo de una ruta ocupada.
+     */
+    static final long MAX_RETRY_DELAY_MILLIS = 64L;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    /**
+     * Hilos que completan las operaciones asíncronas sobre archivos de la librería.
+     */
+    static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+                Thread thread = new Thread(runnable, "dk-aio-" + THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private AsyncFileIO() {
+    }
+
+    /**
+     * Lee el contenido completo de un archivo de forma asíncrona.
+     *
+     * @param path       La ruta del archivo.
+     * @param priority   La prioridad con la que se planificará la operación.
+     * @param onComplete El manejador que recibirá un búfer con el contenido, listo para leer, o el error.
+     */
+    public static void read(Path path, IOPriority priority, CompletionHandler<ByteBuffer> onComplete) {
+        start(path, priority, false, onComplete, (operation) -> {
+            AsynchronousFileChannel channel = operation.open(Set.of(StandardOpenOption.READ));
+            long size = channel.size();
+            if (size > MAX_BUFFER_SIZE)
+                throw new IOException("File is too large to be read into memory: " + path + " (" + size + " bytes)");
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            operation.transfer(buffer, 0L, false, () -> buffer.rewind());
+        });
+    }
+
+    /**
+     * Escribe un contenido en un archivo de forma asíncrona. El archivo se crea si no existe.
+     *
+     * @param path       La ruta del archivo.
+     * @param data       El contenido a escribir, desde su posición hasta su límite.
+     * @param append     {@code true} para añadir el contenido al final del archivo; {@code false} para reemplazarlo.
+     * @param priority   La prioridad con la que se planificará la operación.
+     * @param onComplete El manejador que recibirá el número de bytes escritos, o el error.
+     */
+    public static void write(Path path, ByteBuffer data, boolean append, IOPriority priority, CompletionHandler<Long> onComplete) {
+        start(path, priority, true, onComplete, (operation) -> {
+            Set<OpenOption> options = append
+                    ? Set.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE)
+                    : Set.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            AsynchronousFileChannel channel = operation.open(options);
+            long base = append ? channel.size() : 0L;
+            long length = data.remaining();
+            operation.transfer(data.slice(), base, true, () -> length);
+        });
+    }
+
+    /**
+     * Ejecuta una tarea en los hilos de la librería tras una espera que crece con el número de intentos.
+     *
+     * @param attempt El número de intentos realizados hasta ahora.
+     * @param task    La tarea a ejecutar.
+     */
+    static void retryLater(int attempt, Runnable task) {
+        long delay = Math.min(MAX_RETRY_DELAY_MILLIS, 1L << Math.min(attempt, 6));
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, EXECUTOR).execute(task);
+    }
+
+    private static <T> void start(Path path, IOPriority priority, boolean exclusive, CompletionHandler<T> onComplete,
+                                  Starter<T> starter) {
+        start(path, priority, exclusive, onComplete, starter, 0);
+    }
+
+    private static <T> void start(Path path, IOPriority priority, boolean exclusive, CompletionHandler<T> onComplete,
+                                  Starter<T> starter, int attempt) {
+        try {
+            IOScheduler.getInstance().submitAsync(path, priority, release -> {
+                PathLocks.Lock lock = PathLocks.tryAcquire(path, exclusive);
+                if (lock == null) {
+                    release.run();
+                    retryLater(attempt, () -> start(path, priority, exclusive, onComplete, starter, attempt + 1));
+                    return;
+                }
+                Operation<T> operation = new Operation<>(path, lock, release, onComplete);
+                try {
+                    starter.start(operation);
+                } catch (IOException | RuntimeException e) {
+                    operation.finish(e, null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            onComplete.onError(e);
+        }
+    }
+
+    /**
+     * Inicio de una operación concreta dentro del planificador.
+     */
+    @FunctionalInterface
+    private interface Starter<T> {
+        void start(Operation<T> operation) throws IOException;
+    }
+
+    /**
+     * Resultado que se calcula cuando todos los segmentos se han completado.
+     */
+    @FunctionalInterface
+    private interface Result<T> {
+        T get();
+    }
+
+    /**
+     * Operación en curso sobre un archivo, con los recursos que se deben liberar al terminar.
+     */
+    private static final class Operation<T> implements java.nio.channels.CompletionHandler<Integer, Segment> {
+        private final Path path;
+        private final PathLocks.Lock lock;
+        private final Runnable release;
+        private final CompletionHandler<T> onComplete;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private AsynchronousFileChannel channel;
+        private boolean writing;
+        private Result<T> result;
+
+        private Operation(Path path, PathLocks.Lock lock, Runnable release, CompletionHandler<T> onComplete) {
+            this.path = path;
+            this.lock = lock;
+            this.release = release;
+            this.onComplete = onComplete;
+        }
+
+        private AsynchronousFileChannel open(Set<? extends OpenOption> options) throws IOException {
+            channel = AsynchronousFileChannel.open(path, options, EXECUTOR);
+            return channel;
+        }
+
+        /**
+         * Inicia una operación posicional por cada segmento del búfer.
+         */
+        private void transfer(ByteBuffer buffer, long base, boolean writing, Result<T> result) {
+            this.writing = writing;
+            this.result = result;
+            int length = buffer.remaining();
+            int segments = (length + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+            if (segments == 0) {
+                finish(null, result.get());
+                return;
+            }
+            pending.set(segments);
+            for (int offset = 0; offset < length; offset += SEGMENT_SIZE) {
+                ByteBuffer slice = buffer.slice(offset, Math.min(SEGMENT_SIZE, length - offset));
+                issue(new Segment(slice, base + offset));
+            }
+        }
+
+        private void issue(Segment segment) {
+            try {
+                if (writing)
+                    channel.write(segment.buffer, segment.position, segment, this);
+                else
+                    channel.read(segment.buffer, segment.position, segment, this);
+            } catch (RuntimeException e) {
+                failed(e, segment);
+            }
+        }
+
+        @Override
+        public void completed(Integer transferred, Segment segment) {
+            if (transferred < 0) {
+                failed(new EOFException("File ended at offset " + segment.position + ": " + path), segment);
+                return;
+            }
+            segment.position += transferred;
+            if (segment.buffer.hasRemaining() && failure.get() == null) {
+                issue(segment);
+                return;
+            }
+            segmentDone();
+        }
+
+        @Override
+        public void failed(Throwable cause, Segment segment) {
+            failure.compareAndSet(null, cause);
+            segmentDone();
+        }
+
+        private void segmentDone() {
+            if (pending.decrementAndGet() != 0)
+                return;
+            Throwable cause = failure.get();
+            if (cause == null)
+                finish(null, result.get());
+            else
+                finish(cause instanceof Exception ? (Exception) cause : new IOException(cause), null);
+        }
+
+        /**
+         * Libera el canal, el bloqueo y la plaza del planificador, y notifica el resultado.
+         */
+        private void finish(Exception error, T value) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    if (error == null)
+                        error = e;
+                }
+            }
+            lock.close();
+            release.run();
+            if (error != null)
+                onComplete.onError(error);
+            else
+                onComplete.onSuccessResult(value);
+        }
+    }
+
+    /**
+     * Parte del búfer que se transfiere con una operación posicional.
+     */
+    private static final class Segment {
+        private final ByteBuffer buffer;
+        private long position;
+
+        private Segment(ByteBuffer buffer, long position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.drako.dk.io;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conjunto de búferes directos reutilizables de tamaño fijo.
+ * <p>
+ * Reservar búferes directos es costoso y su memoria solo se libera cuando el recolector de basura los reclama, por
+ * lo que las operaciones que copian grandes volúmenes de datos toman los búferes de este conjunto y los devuelven al
+ * terminar. El conjunto conserva como máximo {@link #getMaxPooled()} búferes libres; los que se devuelven por
+ * encima de ese límite se descartan.
+ */
+public final class BufferPool {
+    /**
+     * Tamaño de los búferes del conjunto compartido.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Conjunto compartido por las operaciones de la librería.
+     */
+    private static final BufferPool SHARED = new BufferPool(DEFAULT_BUFFER_SIZE, 64);
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * Crea un conjunto de búferes.
+     *
+     * @param bufferSize El tamaño en bytes de cada búfer.
+     * @param maxPooled  El número máximo de búferes libres que se conservan.
+     * @throws IllegalArgumentException Si el tamaño es menor que 1 o el máximo es negativo.
+     */
+    public BufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize < 1 || maxPooled < 0) {
+            throw new IllegalArgumentException("bufferSize must be greater than 0 and maxPooled must not be negative.");
+        }
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Obtiene el conjunto compartido, con búferes de {@link #DEFAULT_BUFFER_SIZE} bytes.
+     *
+     * @return El conjunto compartido.
+     */
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Toma un búfer libre o reserva uno nuevo si no hay ninguno disponible.
+     *
+     * @return Un búfer vacío, listo para escribir en él.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null)
+            return ByteBuffer.allocateDirect(bufferSize);
+        pooled.decrementAndGet();
+        return buffer.clear();
+    }
+
+    /**
+     * Devuelve un búfer al conjunto. El búfer no debe usarse después de devolverlo.
+     *
+     * @param buffer El búfer obtenido con {@link #acquire()}. Se ignora si es {@code null} o si no pertenece a un
+     *               conjunto de este tamaño.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize)
+            return;
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        free.add(buffer);
+    }
+
+    /**
+     * Obtiene el tamaño de los búferes del conjunto.
+     *
+     * @return El tamaño en bytes de cada búfer.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Obtiene el número máximo de búferes libres que se conservan.
+     *
+     * @return El número máximo de búferes libres.
+     */
+    public int getMaxPooled() {
+        return maxPooled;
+    }
+
+    /**
+     * Obtiene el número de búferes libres en este momento.
+     *
+     * @return El número de búferes libres.
+     */
+    public int getPooledCount() {
+        return pooled.get();
+    }
+}
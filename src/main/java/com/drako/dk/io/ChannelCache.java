@@ -0,0 +1,461 @@
+package com.drako.dk.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Caché opcional de canales de archivo abiertos, utilizada por {@code PersistManager} para evitar abrir y cerrar
+ * el archivo en cada operación cuando se accede de forma continuada a los mismos archivos.
+ * <p>
+ * Los canales se indexan por ruta absoluta normalizada y modo de apertura y se mantienen en una lista LRU acotada
+ * por {@link #getCapacity()}. Cada uso se obtiene con {@link #acquire(Path, Mode)} y se libera al cerrar el
+ * {@link Handle}; un canal nunca se cierra mientras tiene usos activos, sino cuando se libera el último de ellos.
+ * Los accesos se realizan con lecturas y escrituras posicionales, por lo que varios usos simultáneos del mismo
+ * canal no interfieren entre sí.
+ * <p>
+ * {@code FileManager} y {@code FolderManager} invalidan las entradas de las rutas que mueven, sobrescriben o
+ * eliminan. Los cambios realizados fuera de la librería (por ejemplo, reemplazar el archivo desde otro proceso) no
+ * se detectan y requieren llamar a {@link #invalidate(Path)}.
+ * <p>
+ * La caché está desactivada por defecto. Se activa con {@link #setEnabled(boolean)} o con la propiedad del sistema
+ * {@code dk.channelCache.enabled=true}.
+ */
+public final class ChannelCache {
+    /**
+     * Número máximo predeterminado de canales abiertos en la caché.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Modo de apertura de un canal.
+     */
+    public enum Mode {
+        /**
+         * Solo lectura. El archivo debe existir.
+         */
+        READ,
+
+        /**
+         * Lectura y escritura. El archivo se crea si no existe.
+         */
+        WRITE
+    }
+
+    /**
+     * Entradas de la caché en orden de acceso, de la menos a la más reciente.
+     */
+    private static final LinkedHashMap<Key, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static volatile boolean enabled = Boolean.getBoolean("dk.channelCache.enabled");
+    private static int capacity = DEFAULT_CAPACITY;
+    private static long hitCount;
+    private static long missCount;
+
+    private ChannelCache() {
+    }
+
+    /**
+     * Indica si la caché está activada.
+     *
+     * @return {@code true} si los canales se conservan abiertos entre operaciones.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Activa o desactiva la caché. Al desactivarla se cierran todos los canales que no estén en uso; los que lo
+     * estén se cierran al liberarse.
+     *
+     * @param enabled {@code true} para activar la caché.
+     */
+    public static void setEnabled(boolean enabled) {
+        ChannelCache.enabled = enabled;
+        if (!enabled)
+            clear();
+    }
+
+    /**
+     * Obtiene el número máximo de canales que se conservan abiertos.
+     *
+     * @return La capacidad de la caché.
+     */
+    public static int getCapacity() {
+        synchronized (ENTRIES) {
+            return capacity;
+        }
+    }
+
+    /**
+     * Establece el número máximo de canales que se conservan abiertos. Si hay más, se descartan los usados hace
+     * más tiempo.
+     *
+     * @param capacity La capacidad de la caché.
+     * @throws IllegalArgumentException Si la capacidad es menor que 1.
+     */
+    public static void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be greater than 0.");
+        }
+        List<FileChannel> toClose;
+        synchronized (ENTRIES) {
+            ChannelCache.capacity = capacity;
+            toClose = evictExcess();
+        }
+        closeAll(toClose);
+    }
+
+    /**
+     * Obtiene un canal abierto sobre un archivo, reutilizando el de la caché si existe. Si la caché está
+     * desactivada, el canal se abre para este uso y se cierra al liberar el {@link Handle}.
+     *
+     * @param path La ruta del archivo.
+     * @param mode El modo de apertura.
+     * @return Un uso del canal, que debe cerrarse para liberarlo.
+     * @throws IOException Si no se puede abrir el archivo.
+     */
+    public static Handle acquire(Path path, Mode mode) throws IOException {
+        Key key = new Key(PathLocks.normalize(path), mode);
+        synchronized (ENTRIES) {
+            Entry entry = ENTRIES.get(key);
+            if (entry != null && entry.channel.isOpen()) {
+                entry.references++;
+                hitCount++;
+                return new Handle(entry);
+            }
+            if (entry != null)
+                ENTRIES.remove(key);
+            missCount++;
+        }
+        FileChannel channel = mode == Mode.READ
+                ? FileChannel.open(path, StandardOpenOption.READ)
+                : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Entry created = new Entry(channel);
+        created.references = 1;
+        List<FileChannel> toClose;
+        synchronized (ENTRIES) {
+            Entry existing = ENTRIES.get(key);
+            if (existing != null && existing.channel.isOpen()) {
+                existing.references++;
+                toClose = List.of(channel);
+                created = existing;
+            } else if (!enabled) {
+                created.retired = true;
+                toClose = List.of();
+            } else {
+                ENTRIES.put(key, created);
+                toClose = evictExcess();
+            }
+        }
+        closeAll(toClose);
+        return new Handle(created);
+    }
+
+    /**
+     * Descarta los canales de un archivo en todos sus modos. Los canales que estén en uso se cierran al liberarse.
+     *
+     * @param path La ruta del archivo.
+     */
+    public static void invalidate(Path path) {
+        Path normalized = PathLocks.normalize(path);
+        List<FileChannel> toClose = new ArrayList<>();
+        synchronized (ENTRIES) {
+            if (ENTRIES.isEmpty())
+                return;
+            for (Mode mode : Mode.values()) {
+                Entry entry = ENTRIES.remove(new Key(normalized, mode));
+                if (entry != null && retire(entry))
+                    toClose.add(entry.channel);
+            }
+        }
+        closeAll(toClose);
+    }
+
+    /**
+     * Descarta los canales de todos los archivos que se encuentran dentro de una carpeta o de sus subcarpetas. Los
+     * canales que estén en uso se cierran al liberarse.
+     *
+     * @param folderPath La ruta de la carpeta.
+     */
+    public static void invalidateTree(Path folderPath) {
+        Path normalized = PathLocks.normalize(folderPath);
+        List<FileChannel> toClose = new ArrayList<>();
+        synchronized (ENTRIES) {
+            Iterator<Map.Entry<Key, Entry>> iterator = ENTRIES.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, Entry> entry = iterator.next();
+                if (!entry.getKey().path.startsWith(normalized))
+                    continue;
+                iterator.remove();
+                if (retire(entry.getValue()))
+                    toClose.add(entry.getValue().channel);
+            }
+        }
+        closeAll(toClose);
+    }
+
+    /**
+     * Descarta todos los canales de la caché. Los canales que estén en uso se cierran al liberarse.
+     */
+    public static void clear() {
+        List<FileChannel> toClose = new ArrayList<>();
+        synchronized (ENTRIES) {
+            for (Entry entry : ENTRIES.values()) {
+                if (retire(entry))
+                    toClose.add(entry.channel);
+            }
+            ENTRIES.clear();
+        }
+        closeAll(toClose);
+    }
+
+    /**
+     * Obtiene el número de canales en la caché.
+     *
+     * @return El número de canales abiertos en la caché.
+     */
+    public static int size() {
+        synchronized (ENTRIES) {
+            return ENTRIES.size();
+        }
+    }
+
+    /**
+     * Obtiene el número de usos que reutilizaron un canal de la caché.
+     *
+     * @return El número de aciertos.
+     */
+    public static long getHitCount() {
+        synchronized (ENTRIES) {
+            return hitCount;
+        }
+    }
+
+    /**
+     * Obtiene el número de usos que tuvieron que abrir el archivo.
+     *
+     * @return El número de fallos.
+     */
+    public static long getMissCount() {
+        synchronized (ENTRIES) {
+            return missCount;
+        }
+    }
+
+    /**
+     * Descarta las entradas usadas hace más tiempo hasta respetar la capacidad. Debe llamarse con el monitor de
+     * {@link #ENTRIES}.
+     *
+     * @return Los canales que se deben cerrar fuera del monitor.
+     */
+    private static List<FileChannel> evictExcess() {
+        List<FileChannel> toClose = new ArrayList<>();
+        Iterator<Map.Entry<Key, Entry>> iterator = ENTRIES.entrySet().iterator();
+        while (ENTRIES.size() > capacity && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            iterator.remove();
+            if (retire(entry))
+                toClose.add(entry.channel);
+        }
+        return toClose;
+    }
+
+    /**
+     * Marca una entrada como descartada. Debe llamarse con el monitor de {@link #ENTRIES}.
+     *
+     * @return {@code true} si la entrada no está en uso y su canal se puede cerrar ya.
+     */
+    private static boolean retire(Entry entry) {
+        entry.retired = true;
+        return entry.references == 0;
+    }
+
+    private static void release(Entry entry) {
+        boolean close;
+        synchronized (ENTRIES) {
+            entry.references--;
+            close = entry.retired && entry.references == 0;
+        }
+        if (close)
+            closeAll(List.of(entry.channel));
+    }
+
+    private static void closeAll(List<FileChannel> channels) {
+        for (FileChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // El canal ya no se utilizará.
+            }
+        }
+    }
+
+    /**
+     * Uso de un canal de la caché. Debe cerrarse una única vez al terminar de usar el canal.
+     */
+    public static final class Handle implements AutoCloseable {
+        private final Entry entry;
+        private boolean released;
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * Obtiene el canal. No se debe cerrar directamente ni modificar su posición; se deben usar lecturas y
+         * escrituras posicionales.
+         *
+         * @return El canal abierto.
+         */
+        public FileChannel channel() {
+            return entry.channel;
+        }
+
+        /**
+         * Crea un flujo de entrada que lee el archivo desde la posición indicada. Al cerrarlo se libera este uso.
+         *
+         * @param position La posición inicial de lectura.
+         * @return El flujo de entrada.
+         */
+        public InputStream newInputStream(long position) {
+            return new PositionalInputStream(this, position);
+        }
+
+        /**
+         * Crea un flujo de salida que escribe en el archivo desde la posición indicada. Al cerrarlo se libera este uso.
+         *
+         * @param position La posición inicial de escritura.
+         * @return El flujo de salida.
+         */
+        public OutputStream newOutputStream(long position) {
+            return new PositionalOutputStream(this, position);
+        }
+
+        /**
+         * Libera este uso del canal. Las llamadas posteriores no tienen efecto.
+         */
+        @Override
+        public void close() {
+            if (released)
+                return;
+            released = true;
+            release(entry);
+        }
+    }
+
+    /**
+     * Flujo de entrada basado en lecturas posicionales sobre un canal de la caché.
+     */
+    private static final class PositionalInputStream extends InputStream {
+        private final Handle handle;
+        private long position;
+
+        private PositionalInputStream(Handle handle, long position) {
+            this.handle = handle;
+            this.position = position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0)
+                return 0;
+            int read = handle.channel().read(ByteBuffer.wrap(b, off, len), position);
+            if (read > 0)
+                position += read;
+            return read;
+        }
+
+        @Override
+        public void close() {
+            handle.close();
+        }
+    }
+
+    /**
+     * Flujo de salida basado en escrituras posicionales sobre un canal de la caché.
+     */
+    private static final class PositionalOutputStream extends OutputStream {
+        private final Handle handle;
+        private long position;
+
+        private PositionalOutputStream(Handle handle, long position) {
+            this.handle = handle;
+            this.position = position;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while (buffer.hasRemaining())
+                position += handle.channel().write(buffer, position);
+        }
+
+        @Override
+        public void close() {
+            handle.close();
+        }
+    }
+
+    /**
+     * Clave de una entrada de la caché.
+     */
+    private static final class Key {
+        private final Path path;
+        private final Mode mode;
+
+        private Key(Path path, Mode mode) {
+            this.path = path;
+            this.mode = mode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return path.equals(key.path) && mode == key.mode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, mode);
+        }
+    }
+
+    /**
+     * Canal de la caché junto con su número de usos activos.
+     */
+    private static final class Entry {
+        private final FileChannel channel;
+        private int references;
+        private boolean retired;
+
+        private Entry(FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.drako.dk.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Flujo de entrada que cuenta los bytes leídos del flujo subyacente.
+ */
+public class CountingInputStream extends FilterInputStream {
+    private long count;
+
+    /**
+     * Crea un flujo que cuenta los bytes leídos del flujo indicado.
+     *
+     * @param in El flujo subyacente.
+     */
+    public CountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0)
+            count++;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = in.read(b, off, len);
+        if (read > 0)
+            count += read;
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        count += skipped;
+        return skipped;
+    }
+
+    /**
+     * Obtiene el número de bytes leídos.
+     *
+     * @return El número de bytes leídos.
+     */
+    public long getCount() {
+        return count;
+    }
+}
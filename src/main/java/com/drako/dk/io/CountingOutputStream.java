@@ -0,0 +1,42 @@
+package com.drako.dk.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Flujo de salida que cuenta los bytes escritos en el flujo subyacente.
+ */
+public class CountingOutputStream extends FilterOutputStream {
+    private long count;
+
+    /**
+     * Crea un flujo que cuenta los bytes escritos en el flujo indicado.
+     *
+     * @param out El flujo subyacente.
+     */
+    public CountingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        count += len;
+    }
+
+    /**
+     * Obtiene el número de bytes escritos.
+     *
+     * @return El número de bytes escritos.
+     */
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,285 @@
+package com.drako.dk.io;
+
+import com.drako.dk.metrics.Metrics;
+import com.drako.dk.metrics.Operation;
+import com.drako.dk.metrics.OperationTimer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publicador que entrega el contenido de un archivo como una secuencia de fragmentos {@link ByteBuffer}, respetando
+ * la demanda que el suscriptor indica con {@link Flow.Subscription#request(long)}.
+ * <p>
+ * Cada fragmento se lee con una lectura posicional de {@link AsynchronousFileChannel} sobre un búfer tomado de un
+ * {@link BufferPool}, y solo se lee un fragmento cuando hay demanda pendiente para él, por lo que un suscriptor lento
+ * nunca obliga a mantener en memoria más de un fragmento. El búfer entregado a
+ * {@link Flow.Subscriber#onNext(Object)} solo es válido durante esa llamada: al terminar se devuelve al conjunto y
+ * se reutiliza para otras lecturas. Si el suscriptor necesita conservar los datos, debe copiarlos.
+ * <p>
+ * Cada suscripción lee el archivo completo desde el principio de forma independiente. El bloqueo compartido de la
+ * ruta en {@link PathLocks} solo se mantiene durante cada lectura, nunca mientras el suscriptor procesa un
+ * fragmento, por lo que el contenido no es una instantánea si el archivo se modifica durante la suscripción. Si la
+ * ruta está bloqueada para escritura, la lectura se reintenta más tarde en lugar de bloquear el hilo que solicita los
+ * datos.
+ */
+public class FileChunkPublisher implements Flow.Publisher<ByteBuffer> {
+    /**
+     * Marca del final del archivo como resultado de una lectura.
+     */
+    private static final Object END_OF_FILE = new Object();
+
+    private final Path filePath;
+    private final BufferPool bufferPool;
+
+    /**
+     * Crea un publicador que lee en fragmentos de {@link BufferPool#DEFAULT_BUFFER_SIZE} bytes con el conjunto de
+     * búferes compartido.
+     *
+     * @param filePath La ruta del archivo.
+     */
+    public FileChunkPublisher(Path filePath) {
+        this(filePath, BufferPool.shared());
+    }
+
+    /**
+     * Crea un publicador que lee en fragmentos del tamaño de los búferes del conjunto indicado.
+     *
+     * @param filePath   La ruta del archivo.
+     * @param bufferPool El conjunto del que se toman los búferes de cada fragmento.
+     */
+    public FileChunkPublisher(Path filePath, BufferPool bufferPool) {
+        if (filePath == null || bufferPool == null) {
+            throw new IllegalArgumentException("filePath and bufferPool must not be null.");
+        }
+        this.filePath = filePath;
+        this.bufferPool = bufferPool;
+    }
+
+    /**
+     * Obtiene la ruta del archivo que se publica.
+     *
+     * @return La ruta del archivo.
+     */
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Suscribe un nuevo suscriptor, que recibirá el contenido del archivo desde el principio. Si el archivo no se
+     * puede abrir, el error se notifica con {@link Flow.Subscriber#onError(Throwable)} tras la primera petición.
+     *
+     * @param subscriber El suscriptor.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber must not be null.");
+        }
+        ChunkSubscription subscription = new ChunkSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Suscripción que lee el siguiente fragmento cuando hay demanda y ninguna lectura en curso.
+     * <p>
+     * Todas las señales al suscriptor se emiten desde {@link #drain()}, que solo ejecuta un hilo a la vez: el que
+     * gana el contador {@link #wip}. Las peticiones y las lecturas completadas que llegan mientras tanto se
+     * procesan en la siguiente vuelta del bucle de ese mismo hilo.
+     */
+    private final class ChunkSubscription implements Flow.Subscription, CompletionHandler<Integer, ByteBuffer> {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final OperationTimer timer = Metrics.start(Operation.STREAM_FILE, filePath);
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+
+        /**
+         * Indica que la siguiente lectura espera un reintento porque la ruta estaba bloqueada.
+         */
+        private volatile boolean lockRetryPending;
+
+        /**
+         * Resultado de la lectura en curso: el fragmento leído, {@link #END_OF_FILE} o el error. Es {@code null}
+         * mientras la lectura no ha terminado.
+         */
+        private volatile Object result;
+
+        // Estado confinado al hilo que ejecuta drain().
+        private AsynchronousFileChannel channel;
+        private PathLocks.Lock lock;
+        private boolean reading;
+        private boolean terminated;
+        private long position;
+        private int lockAttempts;
+
+        private ChunkSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("n must be greater than 0.");
+            } else {
+                long current;
+                do {
+                    current = demand.get();
+                } while (!demand.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        @Override
+        public void completed(Integer read, ByteBuffer buffer) {
+            lock.close();
+            if (read < 0) {
+                bufferPool.release(buffer);
+                result = END_OF_FILE;
+            } else {
+                result = buffer.flip();
+            }
+            drain();
+        }
+
+        @Override
+        public void failed(Throwable cause, ByteBuffer buffer) {
+            lock.close();
+            bufferPool.release(buffer);
+            result = cause;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0)
+                return;
+            int missed = 1;
+            do {
+                step();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Procesa el resultado de la lectura terminada y, si corresponde, inicia la siguiente.
+         */
+        private void step() {
+            while (!terminated) {
+                if (reading) {
+                    Object completed = result;
+                    if (completed == null)
+                        return;
+                    result = null;
+                    reading = false;
+                    if (!deliver(completed))
+                        return;
+                } else if (cancelled) {
+                    terminate();
+                    timer.success(position);
+                } else if (invalidRequest != null) {
+                    fail(invalidRequest);
+                } else if (lockRetryPending) {
+                    return;
+                } else if (demand.get() > 0) {
+                    read();
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Entrega al suscriptor el resultado de una lectura.
+         *
+         * @return {@code true} si la suscripción sigue activa.
+         */
+        private boolean deliver(Object completed) {
+            if (completed == END_OF_FILE) {
+                terminate();
+                timer.success(position);
+                subscriber.onComplete();
+                return false;
+            }
+            if (completed instanceof Throwable) {
+                fail((Throwable) completed);
+                return false;
+            }
+            ByteBuffer chunk = (ByteBuffer) completed;
+            if (cancelled) {
+                bufferPool.release(chunk);
+                return true;
+            }
+            position += chunk.remaining();
+            demand.decrementAndGet();
+            try {
+                subscriber.onNext(chunk);
+            } catch (RuntimeException e) {
+                cancelled = true;
+                bufferPool.release(chunk);
+                fail(e);
+                return false;
+            }
+            bufferPool.release(chunk);
+            return true;
+        }
+
+        private void read() {
+            try {
+                if (channel == null)
+                    channel = AsynchronousFileChannel.open(filePath, Set.of(StandardOpenOption.READ), AsyncFileIO.EXECUTOR);
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+                return;
+            }
+            lock = PathLocks.tryAcquire(filePath, false);
+            if (lock == null) {
+                lockRetryPending = true;
+                AsyncFileIO.retryLater(lockAttempts++, () -> {
+                    lockRetryPending = false;
+                    drain();
+                });
+                return;
+            }
+            lockAttempts = 0;
+            ByteBuffer buffer = bufferPool.acquire();
+            reading = true;
+            try {
+                channel.read(buffer, position, buffer, this);
+            } catch (RuntimeException e) {
+                failed(e, buffer);
+            }
+        }
+
+        private void fail(Throwable cause) {
+            terminate();
+            timer.failure(cause instanceof Exception ? (Exception) cause : new IOException(cause));
+            subscriber.onError(cause);
+        }
+
+        private void terminate() {
+            terminated = true;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // La suscripción ya ha terminado.
+                }
+            }
+        }
+    }
+}
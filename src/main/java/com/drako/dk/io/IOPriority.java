@@ -0,0 +1,22 @@
+package com.drako.dk.io;
+
+/**
+ * Enumeración que define las clases de prioridad con las que se planifican las operaciones de entrada/salida.
+ */
+public enum IOPriority {
+
+    /**
+     * Operaciones sensibles a la latencia, como las lecturas de objetos o de texto.
+     */
+    HIGH,
+
+    /**
+     * Operaciones habituales de escritura, creación o movimiento.
+     */
+    NORMAL,
+
+    /**
+     * Operaciones masivas o de fondo, como las copias o las eliminaciones de carpetas completas.
+     */
+    LOW
+}
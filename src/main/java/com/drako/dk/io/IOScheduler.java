@@ -0,0 +1,649 @@
+package com.drako.dk.io;
+
+import com.drako.dk.handler.CompletionHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Planificador de las operaciones asíncronas de entrada/salida de la librería.
+ * <p>
+ * Cada operación se asocia al dispositivo (sistema de archivos) en el que reside su ruta. Para cada dispositivo se
+ * limita el número de operaciones en curso; las operaciones que superan ese límite esperan en colas separadas por
+ * {@link IOPriority} y se despachan siempre empezando por la prioridad más alta. El número total de operaciones en
+ * espera está acotado: cuando se alcanza el límite, el envío se rechaza o se bloquea según la
+ * {@link RejectionPolicy} configurada. Los hilos de trabajo son hilos demonio y nunca se bloquean esperando espacio
+ * en las colas, por lo que una operación que envía otras no puede detener el dispositivo en el que se ejecuta.
+ * <p>
+ * Las operaciones de prioridad {@link IOPriority#LOW LOW}, como las copias y las eliminaciones de carpetas, pueden
+ * pasar mucho tiempo en su hueco esperando a {@link Throttle}. Por eso no pueden ocupar todos los huecos de un
+ * dispositivo: una cuarta parte de ellos, al menos uno, queda reservada para las prioridades más altas, salvo cuando
+ * el límite del dispositivo es 1.
+ */
+public final class IOScheduler {
+    /**
+     * Número máximo predeterminado de operaciones en curso por dispositivo.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Capacidad predeterminada de las colas de espera.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+    /**
+     * Número máximo de carpetas cuya clave de dispositivo se conserva en caché.
+     */
+    static final int ROOT_KEY_CACHE_SIZE = 4096;
+
+    /**
+     * Política que se aplica cuando las colas de espera están llenas.
+     */
+    public enum RejectionPolicy {
+        /**
+         * El envío se rechaza con una {@link RejectedExecutionException}.
+         */
+        REJECT,
+
+        /**
+         * El hilo que envía la operación se bloquea hasta que haya espacio en las colas. Los envíos desde los hilos de
+         * trabajo del planificador se rechazan en lugar de bloquearse.
+         */
+        BLOCK
+    }
+
+    /**
+     * Instancia compartida del planificador.
+     */
+    private static volatile IOScheduler scheduler;
+
+    /**
+     * Contador utilizado para nombrar los hilos de trabajo.
+     */
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    /**
+     * Clave de dispositivo de cada carpeta, para no consultar el sistema de archivos en cada envío.
+     */
+    private static final Map<Path, Object> ROOT_KEYS = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Map<Object, RootState> roots = new HashMap<>();
+    private final ThreadPoolExecutor workers;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private int maxInFlightPerRoot;
+    private int queueCapacity;
+    private RejectionPolicy rejectionPolicy;
+    private int queued;
+
+    /**
+     * Crea un planificador con la configuración predeterminada, que rechaza los envíos cuando las colas están llenas.
+     */
+    public IOScheduler() {
+        this(DEFAULT_MAX_IN_FLIGHT, DEFAULT_QUEUE_CAPACITY, RejectionPolicy.REJECT);
+    }
+
+    /**
+     * Crea un planificador con la configuración indicada.
+     *
+     * @param maxInFlightPerRoot El número máximo de operaciones en curso por dispositivo.
+     * @param queueCapacity      El número máximo de operaciones en espera entre todos los dispositivos.
+     * @param rejectionPolicy    La política a aplicar cuando las colas de espera están llenas.
+     * @throws IllegalArgumentException Si algún límite es menor que 1 o la política es nula.
+     */
+    public IOScheduler(int maxInFlightPerRoot, int queueCapacity, RejectionPolicy rejectionPolicy) {
+        checkPositive(maxInFlightPerRoot, "maxInFlightPerRoot");
+        checkPositive(queueCapacity, "queueCapacity");
+        if (rejectionPolicy == null) {
+            throw new IllegalArgumentException("rejectionPolicy must not be null.");
+        }
+        this.maxInFlightPerRoot = maxInFlightPerRoot;
+        this.queueCapacity = queueCapacity;
+        this.rejectionPolicy = rejectionPolicy;
+        this.workers = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 1, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> new WorkerThread(runnable, "dk-io-" + THREAD_COUNTER.incrementAndGet()));
+    }
+
+    /**
+     * Obtiene la instancia compartida del planificador, utilizada por las operaciones asíncronas de la librería.
+     *
+     * @return La instancia compartida del planificador.
+     */
+    public static IOScheduler getInstance() {
+        IOScheduler instance = scheduler;
+        if (instance == null) {
+            synchronized (IOScheduler.class) {
+                instance = scheduler;
+                if (instance == null) {
+                    instance = new IOScheduler();
+                    scheduler = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Envía una operación para que se ejecute en un hilo de trabajo.
+     *
+     * @param path     La ruta sobre la que actúa la operación. Determina el dispositivo cuyo límite se aplica.
+     * @param priority La prioridad de la operación.
+     * @param task     La operación a ejecutar.
+     * @throws RejectedExecutionException Si las colas están llenas y la política es {@link RejectionPolicy#REJECT}
+     *                                    o el envío se realiza desde un hilo de trabajo, o si el hilo se interrumpe
+     *                                    mientras espera.
+     */
+    public void submit(Path path, IOPriority priority, Runnable task) {
+        submitAsync(path, priority, release -> {
+            try {
+                task.run();
+            } finally {
+                release.run();
+            }
+        });
+    }
+
+    /**
+     * Envía una operación y, si se rechaza, notifica el rechazo al manejador indicado en lugar de lanzar la excepción.
+     *
+     * @param path       La ruta sobre la que actúa la operación.
+     * @param priority   La prioridad de la operación.
+     * @param task       La operación a ejecutar.
+     * @param onComplete El manejador de la operación, al que se notifica el rechazo (opcional).
+     */
+    public void submit(Path path, IOPriority priority, Runnable task, CompletionHandler<?> onComplete) {
+        try {
+            submit(path, priority, task);
+        } catch (RejectedExecutionException e) {
+            if (onComplete != null)
+                onComplete.onError(e);
+        }
+    }
+
+    /**
+     * Envía una operación cuya finalización no coincide con el retorno de la tarea, como una operación que inicia
+     * entrada/salida asíncrona. La tarea recibe una acción de liberación que debe ejecutar cuando la operación
+     * termine; hasta entonces cuenta como una operación en curso de su dispositivo.
+     *
+     * @param path     La ruta sobre la que actúa la operación.
+     * @param priority La prioridad de la operación.
+     * @param task     La operación a ejecutar, que recibe la acción de liberación.
+     * @throws RejectedExecutionException Si las colas están llenas y la política es {@link RejectionPolicy#REJECT}
+     *                                    o el envío se realiza desde un hilo de trabajo, o si el hilo se interrumpe
+     *                                    mientras espera.
+     */
+    public void submitAsync(Path path, IOPriority priority, Consumer<Runnable> task) {
+        Object key = rootKey(path);
+        ScheduledTask scheduled = new ScheduledTask(priority, task);
+        lock.lock();
+        try {
+            RootState root = roots.computeIfAbsent(key, k -> new RootState(k, path));
+            while (!root.canStart(priority)) {
+                if (queued < queueCapacity) {
+                    root.queues[priority.ordinal()].add(scheduled);
+                    queued++;
+                    return;
+                }
+                if (rejectionPolicy == RejectionPolicy.REJECT || Thread.currentThread() instanceof WorkerThread) {
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("I/O queue is full (" + queueCapacity + " operations).");
+                }
+                try {
+                    notFull.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("Interrupted while waiting for I/O queue space.", e);
+                }
+            }
+            root.start(scheduled);
+        } finally {
+            lock.unlock();
+        }
+        dispatch(scheduled);
+    }
+
+    /**
+     * Establece el número máximo predeterminado de operaciones en curso por dispositivo.
+     * No afecta a los dispositivos con un límite propio establecido mediante {@link #setMaxInFlight(Path, int)}.
+     *
+     * @param maxInFlightPerRoot El nuevo límite.
+     * @throws IllegalArgumentException Si el límite es menor que 1.
+     */
+    public void setMaxInFlightPerRoot(int maxInFlightPerRoot) {
+        checkPositive(maxInFlightPerRoot, "maxInFlightPerRoot");
+        List<ScheduledTask> ready = new ArrayList<>();
+        lock.lock();
+        try {
+            this.maxInFlightPerRoot = maxInFlightPerRoot;
+            for (RootState root : roots.values())
+                root.drainReady(ready);
+        } finally {
+            lock.unlock();
+        }
+        ready.forEach(this::dispatch);
+    }
+
+    /**
+     * Establece el número máximo de operaciones en curso para el dispositivo en el que reside la ruta indicada.
+     *
+     * @param path        Una ruta cualquiera del dispositivo.
+     * @param maxInFlight El nuevo límite.
+     * @throws IllegalArgumentException Si el límite es menor que 1.
+     */
+    public void setMaxInFlight(Path path, int maxInFlight) {
+        checkPositive(maxInFlight, "maxInFlight");
+        Object key = rootKey(path);
+        List<ScheduledTask> ready = new ArrayList<>();
+        lock.lock();
+        try {
+            RootState root = roots.computeIfAbsent(key, k -> new RootState(k, path));
+            root.maxInFlight = maxInFlight;
+            root.drainReady(ready);
+        } finally {
+            lock.unlock();
+        }
+        ready.forEach(this::dispatch);
+    }
+
+    /**
+     * Establece la capacidad total de las colas de espera.
+     *
+     * @param queueCapacity La nueva capacidad.
+     * @throws IllegalArgumentException Si la capacidad es menor que 1.
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        checkPositive(queueCapacity, "queueCapacity");
+        lock.lock();
+        try {
+            this.queueCapacity = queueCapacity;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Establece la política que se aplica cuando las colas de espera están llenas.
+     *
+     * @param rejectionPolicy La nueva política.
+     * @throws IllegalArgumentException Si la política es nula.
+     */
+    public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+        if (rejectionPolicy == null) {
+            throw new IllegalArgumentException("rejectionPolicy must not be null.");
+        }
+        lock.lock();
+        try {
+            this.rejectionPolicy = rejectionPolicy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtiene el número total de operaciones en espera.
+     *
+     * @return El número de operaciones en espera en todas las colas.
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtiene el número de operaciones en espera con una prioridad determinada.
+     *
+     * @param priority La prioridad a consultar.
+     * @return El número de operaciones en espera con esa prioridad.
+     */
+    public int getQueueDepth(IOPriority priority) {
+        lock.lock();
+        try {
+            int depth = 0;
+            for (RootState root : roots.values())
+                depth += root.queues[priority.ordinal()].size();
+            return depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtiene el número total de operaciones en curso.
+     *
+     * @return El número de operaciones en curso en todos los dispositivos.
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            int inFlight = 0;
+            for (RootState root : roots.values())
+                inFlight += root.inFlight;
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtiene el número de operaciones completadas desde la creación del planificador.
+     *
+     * @return El número de operaciones completadas.
+     */
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    /**
+     * Obtiene el número de envíos rechazados desde la creación del planificador.
+     *
+     * @return El número de envíos rechazados.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Obtiene una instantánea del estado de cada dispositivo conocido por el planificador.
+     *
+     * @return Una lista con las métricas de cada dispositivo.
+     */
+    public List<RootStats> getRootStats() {
+        lock.lock();
+        try {
+            List<RootStats> stats = new ArrayList<>(roots.size());
+            for (RootState root : roots.values()) {
+                int[] depths = new int[IOPriority.values().length];
+                for (int i = 0; i < depths.length; i++)
+                    depths[i] = root.queues[i].size();
+                stats.add(new RootStats(root.name, root.inFlight, root.maxInFlight(), depths));
+            }
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch(ScheduledTask scheduled) {
+        try {
+            workers.execute(scheduled);
+        } catch (RejectedExecutionException e) {
+            scheduled.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Libera el hueco de una operación terminada y despacha las operaciones en espera del mismo dispositivo que
+     * puedan empezar.
+     *
+     * @param finished La operación terminada.
+     */
+    private void onFinished(ScheduledTask finished) {
+        completed.incrementAndGet();
+        List<ScheduledTask> ready = new ArrayList<>();
+        lock.lock();
+        try {
+            RootState root = finished.root;
+            root.inFlight--;
+            if (finished.priority == IOPriority.LOW)
+                root.lowInFlight--;
+            root.drainReady(ready);
+        } finally {
+            lock.unlock();
+        }
+        ready.forEach(this::dispatch);
+    }
+
+    /**
+     * Obtiene la clave del dispositivo en el que reside una ruta. La clave se calcula a partir de la carpeta que
+     * contiene la ruta y se conserva en caché por carpeta.
+     *
+     * @param path La ruta.
+     * @return La clave del dispositivo.
+     */
+    private static Object rootKey(Path path) {
+        Path absolute = path.toAbsolutePath().normalize();
+        Path folder = absolute.getParent() != null ? absolute.getParent() : absolute;
+        Object key = ROOT_KEYS.get(folder);
+        if (key == null) {
+            key = lookupRootKey(folder);
+            // La caché se vacía al llenarse; recalcular una clave solo requiere una consulta al sistema de archivos.
+            if (ROOT_KEYS.size() >= ROOT_KEY_CACHE_SIZE)
+                ROOT_KEYS.clear();
+            ROOT_KEYS.put(folder, key);
+        }
+        return key;
+    }
+
+    /**
+     * Consulta la clave del dispositivo en el que reside una ruta. Se utiliza el identificador de dispositivo del
+     * ancestro existente más cercano y, si el sistema de archivos no lo admite, la raíz de la ruta.
+     *
+     * @param path La ruta absoluta y normalizada.
+     * @return La clave del dispositivo.
+     */
+    private static Object lookupRootKey(Path path) {
+        Path current = path;
+        while (current != null) {
+            try {
+                return Files.getAttribute(current, "unix:dev", LinkOption.NOFOLLOW_LINKS);
+            } catch (UnsupportedOperationException | IllegalArgumentException e) {
+                break;
+            } catch (IOException e) {
+                current = current.getParent();
+            }
+        }
+        Path root = path.getRoot();
+        return root != null ? root : "";
+    }
+
+    /**
+     * Obtiene el ancestro existente más cercano de una ruta, incluida la propia ruta.
+     *
+     * @param path La ruta.
+     * @return El ancestro existente más cercano.
+     */
+    private static Path existingAncestor(Path path) {
+        Path current = path.toAbsolutePath().normalize();
+        while (current.getParent() != null && !Files.exists(current))
+            current = current.getParent();
+        return current;
+    }
+
+    private static void checkPositive(int value, String name) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be greater than 0.");
+        }
+    }
+
+    /**
+     * Estado de planificación de un dispositivo. Se accede siempre con el bloqueo del planificador adquirido.
+     */
+    private final class RootState {
+        private final String name;
+        @SuppressWarnings("unchecked")
+        private final ArrayDeque<ScheduledTask>[] queues =
+                (ArrayDeque<ScheduledTask>[]) new ArrayDeque<?>[IOPriority.values().length];
+        private int inFlight;
+        private int lowInFlight;
+        private int maxInFlight;
+
+        private RootState(Object key, Path path) {
+            String storeName;
+            try {
+                storeName = Files.getFileStore(existingAncestor(path)).toString();
+            } catch (IOException | RuntimeException e) {
+                storeName = String.valueOf(key);
+            }
+            this.name = storeName;
+            for (int i = 0; i < queues.length; i++)
+                queues[i] = new ArrayDeque<>();
+        }
+
+        private int maxInFlight() {
+            return maxInFlight > 0 ? maxInFlight : maxInFlightPerRoot;
+        }
+
+        private int maxLowInFlight() {
+            int max = maxInFlight();
+            return Math.max(1, max - Math.max(1, max / 4));
+        }
+
+        private boolean canStart(IOPriority priority) {
+            return inFlight < maxInFlight() && (priority != IOPriority.LOW || lowInFlight < maxLowInFlight());
+        }
+
+        private void start(ScheduledTask task) {
+            inFlight++;
+            if (task.priority == IOPriority.LOW)
+                lowInFlight++;
+            task.root = this;
+        }
+
+        private ScheduledTask poll() {
+            for (IOPriority priority : IOPriority.values()) {
+                ArrayDeque<ScheduledTask> queue = queues[priority.ordinal()];
+                if (!queue.isEmpty() && canStart(priority))
+                    return queue.poll();
+            }
+            return null;
+        }
+
+        private void drainReady(List<ScheduledTask> ready) {
+            ScheduledTask next;
+            while ((next = poll()) != null) {
+                start(next);
+                queued--;
+                ready.add(next);
+                notFull.signal();
+            }
+        }
+    }
+
+    /**
+     * Hilo de trabajo del planificador. Es un hilo demonio para no impedir que la máquina virtual termine.
+     */
+    private static final class WorkerThread extends Thread {
+        private WorkerThread(Runnable runnable, String name) {
+            super(runnable, name);
+            setDaemon(true);
+        }
+    }
+
+    /**
+     * Operación planificada junto con el dispositivo que la ejecuta.
+     */
+    private final class ScheduledTask implements Runnable {
+        private final IOPriority priority;
+        private final Consumer<Runnable> task;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private RootState root;
+
+        private ScheduledTask(IOPriority priority, Consumer<Runnable> task) {
+            this.priority = priority;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.accept(this::release);
+            } catch (RuntimeException e) {
+                release();
+                throw e;
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true))
+                onFinished(this);
+        }
+    }
+
+    /**
+     * Instantánea de las métricas de planificación de un dispositivo.
+     */
+    public static final class RootStats {
+        private final String name;
+        private final int inFlight;
+        private final int maxInFlight;
+        private final int[] queueDepths;
+
+        private RootStats(String name, int inFlight, int maxInFlight, int[] queueDepths) {
+            this.name = name;
+            this.inFlight = inFlight;
+            this.maxInFlight = maxInFlight;
+            this.queueDepths = queueDepths;
+        }
+
+        /**
+         * Obtiene el nombre descriptivo del dispositivo.
+         *
+         * @return El nombre del dispositivo.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Obtiene el número de operaciones en curso en el dispositivo.
+         *
+         * @return El número de operaciones en curso.
+         */
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        /**
+         * Obtiene el número máximo de operaciones en curso permitido en el dispositivo.
+         *
+         * @return El límite de operaciones en curso.
+         */
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        /**
+         * Obtiene el número de operaciones en espera en el dispositivo con una prioridad determinada.
+         *
+         * @param priority La prioridad a consultar.
+         * @return El número de operaciones en espera.
+         */
+        public int getQueueDepth(IOPriority priority) {
+            return queueDepths[priority.ordinal()];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s [inFlight=%d/%d, high=%d, normal=%d, low=%d]", name, inFlight, maxInFlight,
+                    queueDepths[IOPriority.HIGH.ordinal()], queueDepths[IOPriority.NORMAL.ordinal()],
+                    queueDepths[IOPriority.LOW.ordinal()]);
+        }
+    }
+}
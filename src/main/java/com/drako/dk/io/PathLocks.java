@@ -0,0 +1,167 @@
+package com.drako.dk.io;
+
+import java.nio.file.Path;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Registro interno de bloqueos por ruta utilizado por {@code FileManager}, {@code FolderManager} y
+ * {@code PersistManager} para que las operaciones sobre una misma ruta no se solapen.
+ * <p>
+ * Las rutas se normalizan y se reparten entre un número fijo de franjas (stripes), cada una protegida por un
+ * {@link StampedLock}, por lo que el coste para rutas sin contención es el de una operación atómica y no se crea
+ * ningún objeto por ruta. Dos rutas distintas pueden compartir franja; en ese caso simplemente se serializan.
+ * Los bloqueos no son reentrantes: una operación no debe adquirir un segundo bloqueo mientras conserva otro.
+ * Las operaciones sobre dos rutas deben usar {@link #acquire(Path, boolean, Path, boolean)}, que adquiere las
+ * franjas siempre en el mismo orden para evitar interbloqueos.
+ * <p>
+ * Los bloqueos se basan en la ruta absoluta normalizada, no en la ruta real, por lo que los enlaces simbólicos que
+ * apuntan al mismo archivo no comparten bloqueo.
+ */
+public final class PathLocks {
+    /**
+     * Número de franjas de bloqueo. Debe ser una potencia de dos.
+     */
+    static final int STRIPES = 256;
+
+    /**
+     * Bloqueos de cada franja.
+     */
+    private static final StampedLock[] LOCKS = new StampedLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new StampedLock();
+        }
+    }
+
+    private PathLocks() {
+    }
+
+    /**
+     * Adquiere el bloqueo de una ruta.
+     *
+     * @param path      La ruta a bloquear.
+     * @param exclusive {@code true} para un bloqueo exclusivo (escritura, movimiento o eliminación);
+     *                  {@code false} para un bloqueo compartido (lectura).
+     * @return El bloqueo adquirido, que debe cerrarse para liberarlo.
+     */
+    public static Lock acquire(Path path, boolean exclusive) {
+        return acquireStripe(stripe(path), exclusive);
+    }
+
+    /**
+     * Intenta adquirir el bloqueo de una ruta sin esperar.
+     *
+     * @param path      La ruta a bloquear.
+     * @param exclusive {@code true} para un bloqueo exclusivo; {@code false} para un bloqueo compartido.
+     * @return El bloqueo adquirido, que debe cerrarse para liberarlo, o {@code null} si la ruta está bloqueada.
+     */
+    public static Lock tryAcquire(Path path, boolean exclusive) {
+        int stripe = stripe(path);
+        long stamp = exclusive ? LOCKS[stripe].tryWriteLock() : LOCKS[stripe].tryReadLock();
+        return stamp != 0L ? new Lock(stripe, exclusive, stamp, -1, false, 0L) : null;
+    }
+
+    /**
+     * Adquiere los bloqueos de dos rutas en un orden consistente para evitar interbloqueos.
+     * Si ambas rutas comparten franja se adquiere un único bloqueo, exclusivo si alguna de ellas lo requiere.
+     *
+     * @param first           La primera ruta.
+     * @param firstExclusive  Indica si la primera ruta requiere un bloqueo exclusivo.
+     * @param second          La segunda ruta.
+     * @param secondExclusive Indica si la segunda ruta requiere un bloqueo exclusivo.
+     * @return El bloqueo adquirido, que debe cerrarse para liberar ambas rutas.
+     */
+    public static Lock acquire(Path first, boolean firstExclusive, Path second, boolean secondExclusive) {
+        int firstStripe = stripe(first);
+        int secondStripe = stripe(second);
+        if (firstStripe == secondStripe) {
+            return acquireStripe(firstStripe, firstExclusive || secondExclusive);
+        }
+        if (firstStripe > secondStripe) {
+            int stripe = firstStripe;
+            firstStripe = secondStripe;
+            secondStripe = stripe;
+            boolean exclusive = firstExclusive;
+            firstExclusive = secondExclusive;
+            secondExclusive = exclusive;
+        }
+        long firstStamp = lock(firstStripe, firstExclusive);
+        long secondStamp = lock(secondStripe, secondExclusive);
+        return new Lock(firstStripe, firstExclusive, firstStamp, secondStripe, secondExclusive, secondStamp);
+    }
+
+    /**
+     * Obtiene la clave normalizada con la que se identifica una ruta.
+     *
+     * @param path La ruta.
+     * @return La ruta absoluta y normalizada.
+     */
+    public static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Obtiene la franja que corresponde a una ruta.
+     *
+     * @param path La ruta.
+     * @return El índice de la franja.
+     */
+    static int stripe(Path path) {
+        int hash = normalize(path).hashCode();
+        hash ^= (hash >>> 16);
+        return hash & (STRIPES - 1);
+    }
+
+    private static Lock acquireStripe(int stripe, boolean exclusive) {
+        return new Lock(stripe, exclusive, lock(stripe, exclusive), -1, false, 0L);
+    }
+
+    private static long lock(int stripe, boolean exclusive) {
+        return exclusive ? LOCKS[stripe].writeLock() : LOCKS[stripe].readLock();
+    }
+
+    private static void unlock(int stripe, boolean exclusive, long stamp) {
+        if (exclusive)
+            LOCKS[stripe].unlockWrite(stamp);
+        else
+            LOCKS[stripe].unlockRead(stamp);
+    }
+
+    /**
+     * Bloqueo adquirido sobre una o dos rutas. Puede liberarse desde cualquier hilo, lo que permite mantenerlo
+     * durante operaciones asíncronas.
+     */
+    public static final class Lock implements AutoCloseable {
+        private final int firstStripe;
+        private final boolean firstExclusive;
+        private final long firstStamp;
+        private final int secondStripe;
+        private final boolean secondExclusive;
+        private final long secondStamp;
+        private boolean released;
+
+        private Lock(int firstStripe, boolean firstExclusive, long firstStamp,
+                     int secondStripe, boolean secondExclusive, long secondStamp) {
+            this.firstStripe = firstStripe;
+            this.firstExclusive = firstExclusive;
+            this.firstStamp = firstStamp;
+            this.secondStripe = secondStripe;
+            this.secondExclusive = secondExclusive;
+            this.secondStamp = secondStamp;
+        }
+
+        /**
+         * Libera el bloqueo. Las llamadas posteriores no tienen efecto.
+         */
+        @Override
+        public void close() {
+            if (released)
+                return;
+            released = true;
+            if (secondStripe >= 0)
+                unlock(secondStripe, secondExclusive, secondStamp);
+            unlock(firstStripe, firstExclusive, firstStamp);
+        }
+    }
+}
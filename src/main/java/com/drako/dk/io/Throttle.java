@@ -0,0 +1,226 @@
+package com.drako.dk.io;
+
+import com.drako.dk.metrics.Operation;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitador del ancho de banda y del número de operaciones por segundo de las operaciones de archivos.
+ * <p>
+ * Existe un limitador global, que se aplica a todas las operaciones, y uno por cada {@link Operation}; una operación
+ * debe respetar ambos. Cada limitador tiene dos cubetas de fichas independientes, una de bytes por segundo y otra de
+ * operaciones por segundo, que se rellenan de forma continua y admiten ráfagas de hasta un segundo de capacidad. Por
+ * defecto no hay ningún límite, y los límites se pueden cambiar en cualquier momento; los cambios se aplican a las
+ * siguientes solicitudes de fichas.
+ * <p>
+ * Las solicitudes mayores que las fichas disponibles dejan la cubeta en negativo y el hilo espera el tiempo
+ * necesario para reponer la diferencia, de modo que una solicitud grande no se bloquea indefinidamente y el ritmo
+ * medio respeta el límite. Las operaciones que se limitan son las copias de archivos, la eliminación de archivos y
+ * carpetas, las escrituras de {@code PersistManager} y la eliminación en segundo plano de la papelera.
+ */
+public final class Throttle {
+    /**
+     * Valor de los límites que indica que no se limita.
+     */
+    public static final long UNLIMITED = 0L;
+
+    private static final Throttle GLOBAL = new Throttle();
+    private static final Map<Operation, Throttle> OPERATIONS = new EnumMap<>(Operation.class);
+
+    static {
+        for (Operation operation : Operation.values())
+            OPERATIONS.put(operation, new Throttle());
+    }
+
+    private final Bucket bytes = new Bucket();
+    private final Bucket ops = new Bucket();
+
+    private Throttle() {
+    }
+
+    /**
+     * Obtiene el limitador global, que se aplica a todas las operaciones.
+     *
+     * @return El limitador global.
+     */
+    public static Throttle global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Obtiene el limitador de una operación, que se aplica además del limitador global.
+     *
+     * @param operation La operación.
+     * @return El limitador de la operación.
+     */
+    public static Throttle forOperation(Operation operation) {
+        if (operation == null) {
+            throw new IllegalArgumentException("operation must not be null.");
+        }
+        return OPERATIONS.get(operation);
+    }
+
+    /**
+     * Indica si una operación está limitada por su limitador o por el limitador global.
+     *
+     * @param operation La operación.
+     * @return {@code true} si hay algún límite que se aplique a la operación.
+     */
+    public static boolean isLimited(Operation operation) {
+        return GLOBAL.isLimited() || forOperation(operation).isLimited();
+    }
+
+    /**
+     * Espera hasta que los limitadores global y de la operación permitan realizar operaciones y transferir bytes.
+     * Si el hilo se interrumpe durante la espera, se conserva el estado de interrupción y se deja de esperar.
+     *
+     * @param operation La operación.
+     * @param opCount   El número de operaciones.
+     * @param byteCount El número de bytes.
+     */
+    public static void acquire(Operation operation, long opCount, long byteCount) {
+        long waitNanos = reserve(operation, opCount, byteCount);
+        if (waitNanos <= 0)
+            return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reserva las fichas de los limitadores global y de la operación sin esperar. Permite a quien no debe ocupar un
+     * hilo durante la espera, como una operación del planificador, retrasar la operación el tiempo indicado.
+     *
+     * @param operation La operación.
+     * @param opCount   El número de operaciones.
+     * @param byteCount El número de bytes.
+     * @return El tiempo en nanosegundos que se debe esperar antes de realizar la operación, o 0 si no hay que esperar.
+     */
+    public static long reserve(Operation operation, long opCount, long byteCount) {
+        Throttle throttle = forOperation(operation);
+        if (!GLOBAL.isLimited() && !throttle.isLimited())
+            return 0L;
+        // Se reservan las fichas de ambos limitadores y se espera por el que más tarde en reponerlas.
+        return Math.max(GLOBAL.reserve(opCount, byteCount), throttle.reserve(opCount, byteCount));
+    }
+
+    /**
+     * Envuelve un flujo de salida para que cada escritura respete los límites de bytes de una operación.
+     *
+     * @param operation La operación.
+     * @param out       El flujo de salida.
+     * @return El flujo limitado, o el propio flujo si la operación no está limitada.
+     */
+    public static OutputStream outputStream(Operation operation, OutputStream out) {
+        if (!isLimited(operation))
+            return out;
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                acquire(operation, 0L, 1L);
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                acquire(operation, 0L, len);
+                out.write(b, off, len);
+            }
+        };
+    }
+
+    /**
+     * Obtiene el límite de bytes por segundo.
+     *
+     * @return El límite, o {@link #UNLIMITED} si no hay límite.
+     */
+    public long getBytesPerSecond() {
+        return bytes.rate;
+    }
+
+    /**
+     * Establece el límite de bytes por segundo.
+     *
+     * @param bytesPerSecond El límite, o {@link #UNLIMITED} para no limitar.
+     */
+    public void setBytesPerSecond(long bytesPerSecond) {
+        bytes.setRate(bytesPerSecond, "bytesPerSecond");
+    }
+
+    /**
+     * Obtiene el límite de operaciones por segundo.
+     *
+     * @return El límite, o {@link #UNLIMITED} si no hay límite.
+     */
+    public long getOpsPerSecond() {
+        return ops.rate;
+    }
+
+    /**
+     * Establece el límite de operaciones por segundo.
+     *
+     * @param opsPerSecond El límite, o {@link #UNLIMITED} para no limitar.
+     */
+    public void setOpsPerSecond(long opsPerSecond) {
+        ops.setRate(opsPerSecond, "opsPerSecond");
+    }
+
+    /**
+     * Indica si este limitador tiene algún límite.
+     *
+     * @return {@code true} si hay un límite de bytes o de operaciones.
+     */
+    public boolean isLimited() {
+        return bytes.rate != UNLIMITED || ops.rate != UNLIMITED;
+    }
+
+    /**
+     * Reserva fichas de ambas cubetas.
+     *
+     * @return El tiempo de espera en nanosegundos hasta que se repongan las fichas reservadas.
+     */
+    private long reserve(long opCount, long byteCount) {
+        return Math.max(ops.reserve(opCount), bytes.reserve(byteCount));
+    }
+
+    /**
+     * Cubeta de fichas con un ritmo de reposición y una capacidad de un segundo.
+     */
+    private static final class Bucket {
+        private volatile long rate = UNLIMITED;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        private synchronized void setRate(long rate, String name) {
+            if (rate < 0) {
+                throw new IllegalArgumentException(name + " must not be negative.");
+            }
+            refill(System.nanoTime());
+            // Al activar el límite, la cubeta comienza llena.
+            tokens = this.rate == UNLIMITED ? rate : Math.min(tokens, rate);
+            this.rate = rate;
+        }
+
+        private synchronized long reserve(long amount) {
+            long currentRate = rate;
+            if (currentRate == UNLIMITED || amount <= 0)
+                return 0L;
+            refill(System.nanoTime());
+            tokens -= amount;
+            return tokens >= 0 ? 0L : (long) (-tokens * TimeUnit.SECONDS.toNanos(1) / currentRate);
+        }
+
+        private void refill(long now) {
+            if (rate != UNLIMITED)
+                tokens = Math.min(rate, tokens + (now - lastRefill) * (double) rate / TimeUnit.SECONDS.toNanos(1));
+            lastRefill = now;
+        }
+    }
+}
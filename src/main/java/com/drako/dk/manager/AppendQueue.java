@@ -0,0 +1,140 @@
+package com.drako.dk.manager;
+
+import com.drako.dk.handler.CompletionHandler;
+import com.drako.dk.io.IOPriority;
+import com.drako.dk.io.IOScheduler;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cola de escrituras por adición (append) asociada a un único archivo.
+ * Las adiciones concurrentes sobre la misma ruta se serializan en el orden en que se enviaron y un único hilo
+ * drenador las agrupa en escrituras de mayor tamaño. Las adiciones sobre rutas distintas avanzan en paralelo.
+ */
+class AppendQueue {
+    /**
+     * Número máximo de caracteres que se agrupan en una sola escritura.
+     */
+    static final int MAX_COALESCED_CHARS = 1 << 20;
+
+    /**
+     * Colas activas indexadas por la ruta absoluta y normalizada del archivo.
+     */
+    private static final ConcurrentHashMap<Path, AppendQueue> QUEUES = new ConcurrentHashMap<>();
+
+    /**
+     * Adiciones pendientes de escribir, en orden de envío.
+     */
+    private final Queue<PendingAppend> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Indica si hay un hilo drenando la cola.
+     */
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private AppendQueue() {
+    }
+
+    /**
+     * Encola contenido para añadirlo al final del archivo de un gestor. La escritura se realiza con ese mismo gestor,
+     * de modo que respeta su configuración, como el bloqueo entre procesos.
+     *
+     * @param manager    El gestor del archivo.
+     * @param content    El contenido que se añadirá.
+     * @param onComplete El manejador que se ejecutará una vez que el contenido se haya escrito en el archivo.
+     *                   Si el planificador rechaza el drenado, las adiciones pendientes se escriben en el hilo que envía.
+     */
+    static void submit(PersistManager manager, String content, CompletionHandler<Path> onComplete) {
+        Path filePath = manager.getFileFullPath();
+        Path key = filePath.toAbsolutePath().normalize();
+        PendingAppend append = new PendingAppend(manager, content, onComplete);
+        AppendQueue queue = QUEUES.compute(key, (path, current) -> {
+            AppendQueue target = current != null ? current : new AppendQueue();
+            target.pending.add(append);
+            return target;
+        });
+        if (queue.draining.compareAndSet(false, true)) {
+            try {
+                IOScheduler.getInstance().submit(filePath, IOPriority.NORMAL, () -> queue.drain(key));
+            } catch (RejectedExecutionException e) {
+                queue.drain(key);
+            }
+        }
+    }
+
+    /**
+     * Escribe todas las adiciones pendientes agrupándolas en bloques y notifica a sus manejadores. Solo se agrupan
+     * adiciones consecutivas de gestores con la misma configuración de escritura. Cuando la cola queda vacía se
+     * elimina del registro.
+     *
+     * @param key La clave con la que la cola está registrada.
+     */
+    private void drain(Path key) {
+        do {
+            PendingAppend next;
+            while ((next = pending.poll()) != null) {
+                PersistManager manager = next.manager;
+                List<PendingAppend> batch = new ArrayList<>();
+                StringBuilder content = new StringBuilder();
+                do {
+                    batch.add(next);
+                    content.append(next.content);
+                    // Solo este hilo extrae elementos de la cola, por lo que poll() devuelve el elemento consultado.
+                    next = pending.peek();
+                } while (content.length() < MAX_COALESCED_CHARS && next != null && compatible(manager, next.manager)
+                        && pending.poll() != null);
+                write(manager, content.toString(), batch);
+            }
+            draining.set(false);
+        } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        QUEUES.computeIfPresent(key, (path, current) ->
+                current == this && pending.isEmpty() && !draining.get() ? null : current);
+    }
+
+    /**
+     * Indica si las adiciones de dos gestores se pueden escribir juntas con la configuración del primero.
+     */
+    private static boolean compatible(PersistManager first, PersistManager second) {
+        return first == second || (first.isCrossProcessLocking() == second.isCrossProcessLocking()
+                && first.isDeltaSave() == second.isDeltaSave());
+    }
+
+    private void write(PersistManager manager, String content, List<PendingAppend> batch) {
+        AtomicReference<Exception> error = new AtomicReference<>();
+        manager.writeTextFile(content, true, error::set);
+        Exception cause = error.get();
+        for (PendingAppend append : batch) {
+            try {
+                if (cause == null)
+                    append.onComplete.onSuccessResult(append.manager.getFileFullPath());
+                else
+                    append.onComplete.onError(cause);
+            } catch (RuntimeException ignored) {
+                // Un manejador defectuoso no debe impedir la notificación del resto del lote.
+            }
+        }
+    }
+
+    /**
+     * Contenido pendiente de añadir junto con su manejador de finalización.
+     */
+    private static class PendingAppend {
+        private final PersistManager manager;
+        private final String content;
+        private final CompletionHandler<Path> onComplete;
+
+        private PendingAppend(PersistManager manager, String content, CompletionHandler<Path> onComplete) {
+            this.manager = manager;
+            this.content = content;
+            this.onComplete = onComplete;
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package com.drako.dk.manager;
+
+import com.drako.dk.io.ChannelCache;
+import com.drako.dk.io.PathLocks;
+import com.drako.dk.metrics.Metrics;
+import com.drako.dk.metrics.Operation;
+import com.drako.dk.metrics.OperationTimer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Almacén de arreglos primitivos y registros de tamaño fijo en archivos proyectados en memoria.
+ * <p>
+ * A diferencia de {@link PersistManager#saveObject}, los datos no pasan por {@link java.io.ObjectOutputStream}: se
+ * copian directamente entre el arreglo y la proyección del archivo, sin copias intermedias en el heap, y al abrir un
+ * archivo con {@link #map(Path)} los elementos se leen a través de vistas como {@link LongBuffer} o
+ * {@link DoubleBuffer} sin cargar el contenido en memoria; el sistema operativo lee las páginas a medida que se
+ * accede a ellas.
+ * <p>
+ * Cada archivo comienza con una cabecera de {@link #HEADER_SIZE} bytes, siempre en orden big-endian, con el tipo de
+ * los elementos, su tamaño, su número y el orden de bytes con el que se escribieron, seguida de los elementos
+ * contiguos. Los elementos se escriben con el orden de bytes nativo y se leen con el orden indicado en la cabecera,
+ * por lo que los archivos se pueden leer en plataformas con otro orden.
+ * <p>
+ * Como {@code MemorySegment} todavía no es una API estable en Java 17, cada archivo se proyecta con un único
+ * {@link MappedByteBuffer}, por lo que los datos de un archivo no pueden superar {@link #MAX_DATA_SIZE} bytes. Las
+ * proyecciones se liberan cuando el recolector de basura reclama sus vistas.
+ */
+public final class ArrayStore {
+    /**
+     * Tamaño de la cabecera, que mantiene los elementos alineados a 8 bytes.
+     */
+    public static final int HEADER_SIZE = 32;
+
+    /**
+     * Tamaño máximo de los datos de un archivo, limitado por el tamaño máximo de una proyección.
+     */
+    public static final long MAX_DATA_SIZE = Integer.MAX_VALUE - HEADER_SIZE;
+
+    private static final int MAGIC = 0x444B4152;
+    private static final short VERSION = 1;
+
+    /**
+     * Tipo de los elementos de un archivo.
+     */
+    public enum Type {
+        BYTE(1),
+        SHORT(2),
+        INT(4),
+        LONG(8),
+        FLOAT(4),
+        DOUBLE(8),
+
+        /**
+         * Registros de tamaño fijo, cuyo tamaño se indica al crear el archivo.
+         */
+        RECORD(0);
+
+        private final int size;
+
+        Type(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Obtiene el tamaño en bytes de cada elemento de este tipo.
+         *
+         * @return El tamaño del elemento, o {@code 0} para los registros, cuyo tamaño es variable.
+         */
+        public int size() {
+            return size;
+        }
+    }
+
+    private ArrayStore() {
+    }
+
+    /**
+     * Guarda un arreglo de {@code long} en un archivo, reemplazando su contenido.
+     *
+     * @param path   La ruta del archivo.
+     * @param values Los valores a guardar.
+     * @throws IOException Si ocurre un error al escribir el archivo.
+     */
+    public static void writeLongs(Path path, long[] values) throws IOException {
+        write(path, Type.LONG, Type.LONG.size, values.length, buffer -> buffer.asLongBuffer().put(values));
+    }
+
+    /**
+     * Guarda un arreglo de {@code double} en un archivo, reemplazando su contenido.
+     *
+     * @param path   La ruta del archivo.
+     * @param values Los valores a guardar.
+     * @throws IOException Si ocurre un error al escribir el archivo.
+     */
+    public static void writeDoubles(Path path, double[] values) throws IOException {
+        write(path, Type.DOUBLE, Type.DOUBLE.size, values.length, buffer -> buffer.asDoubleBuffer().put(values));
+    }
+
+    /**
+     * Guarda un arreglo de {@code int} en un archivo, reemplazando su contenido.
+     *
+     * @param path   La ruta del archivo.
+     * @param values Los valores a guardar.
+     * @throws IOException Si ocurre un error al escribir el archivo.
+     */
+    public static void writeInts(Path path, int[] values) throws IOException {
+        write(path, Type.INT, Type.INT.size, values.length, buffer -> buffer.asIntBuffer().put(values));
+    }
+
+    /**
+     * Lee un archivo de {@code long} en un nuevo arreglo.
+     *
+     * @param path La ruta del archivo.
+     * @return Los valores del archivo.
+     * @throws IOException Si ocurre un error al leer el archivo o si no contiene elementos de tipo {@code long}.
+     */
+    public static long[] readLongs(Path path) throws IOException {
+        try (MappedArray array = read(path, Type.LONG)) {
+            long[] values = new long[array.intLength()];
+            array.asLongBuffer().get(values);
+            return values;
+        }
+    }
+
+    /**
+     * Lee un archivo de {@code double} en un nuevo arreglo.
+     *
+     * @param path La ruta del archivo.
+     * @return Los valores del archivo.
+     * @throws IOException Si ocurre un error al leer el archivo o si no contiene elementos de tipo {@code double}.
+     */
+    public static double[] readDoubles(Path path) throws IOException {
+        try (MappedArray array = read(path, Type.DOUBLE)) {
+            double[] values = new double[array.intLength()];
+            array.asDoubleBuffer().get(values);
+            return values;
+        }
+    }
+
+    /**
+     * Lee un archivo de {@code int} en un nuevo arreglo.
+     *
+     * @param path La ruta del archivo.
+     * @return Los valores del archivo.
+     * @throws IOException Si ocurre un error al leer el archivo o si no contiene elementos de tipo {@code int}.
+     */
+    public static int[] readInts(Path path) throws IOException {
+        try (MappedArray array = read(path, Type.INT)) {
+            int[] values = new int[array.intLength()];
+            array.asIntBuffer().get(values);
+            return values;
+        }
+    }
+
+    /**
+     * Crea un archivo con espacio para un número de elementos y lo proyecta en modo escritura, de modo que los
+     * elementos se puedan escribir directamente en el archivo sin un arreglo intermedio. El contenido anterior del
+     * archivo se descarta y los elementos se inicializan a cero.
+     *
+     * @param path   La ruta del archivo.
+     * @param type   El tipo de los elementos. Para registros se debe usar {@link #createRecords}.
+     * @param length El número de elementos.
+     * @return La proyección del archivo, en modo escritura.
+     * @throws IOException Si ocurre un error al crear el archivo.
+     */
+    public static MappedArray create(Path path, Type type, long length) throws IOException {
+        if (type == Type.RECORD) {
+            throw new IllegalArgumentException("Use createRecords to create record files.");
+        }
+        return createMapped(path, type, type.size, length);
+    }
+
+    /**
+     * Crea un archivo de registros de tamaño fijo y lo proyecta en modo escritura. Cada registro se escribe con
+     * {@link MappedArray#record(int)}. El contenido anterior del archivo se descarta y los registros se inicializan
+     * a cero.
+     *
+     * @param path       La ruta del archivo.
+     * @param recordSize El tamaño en bytes de cada registro.
+     * @param count      El número de registros.
+     * @return La proyección del archivo, en modo escritura.
+     * @throws IOException Si ocurre un error al crear el archivo.
+     */
+    public static MappedArray createRecords(Path path, int recordSize, long count) throws IOException {
+        if (recordSize < 1) {
+            throw new IllegalArgumentException("recordSize must be greater than 0.");
+        }
+        return createMapped(path, Type.RECORD, recordSize, count);
+    }
+
+    /**
+     * Proyecta un archivo en modo lectura. La operación no lee los elementos, solo la cabecera.
+     *
+     * @param path La ruta del archivo.
+     * @return La proyección del archivo, de solo lectura.
+     * @throws IOException Si ocurre un error al abrir el archivo o si su cabecera no es válida.
+     */
+    public static MappedArray map(Path path) throws IOException {
+        return map(path, false);
+    }
+
+    /**
+     * Proyecta un archivo en modo lectura o escritura. Los cambios realizados a través de una proyección de
+     * escritura se guardan en el archivo y son visibles para el resto de proyecciones del mismo archivo.
+     *
+     * @param path     La ruta del archivo.
+     * @param writable {@code true} para permitir modificar los elementos.
+     * @return La proyección del archivo.
+     * @throws IOException Si ocurre un error al abrir el archivo o si su cabecera no es válida.
+     */
+    public static MappedArray map(Path path, boolean writable) throws IOException {
+        try (PathLocks.Lock ignored = PathLocks.acquire(path, false);
+             FileChannel channel = writable
+                     ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                     : FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0)
+                    throw new IOException("Not an array store file: " + path);
+            }
+            header.flip();
+            if (header.getInt() != MAGIC)
+                throw new IOException("Not an array store file: " + path);
+            short version = header.getShort();
+            if (version != VERSION)
+                throw new IOException("Unsupported array store version " + version + ": " + path);
+            int typeCode = header.get();
+            ByteOrder order = header.get() == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            int elementSize = header.getInt();
+            long length = header.getLong();
+            Type[] types = Type.values();
+            if (typeCode < 0 || typeCode >= types.length || elementSize < 1
+                    || (types[typeCode] != Type.RECORD && types[typeCode].size != elementSize))
+                throw new IOException("Corrupted array store header: " + path);
+            long dataSize = dataSize(elementSize, length);
+            if (channel.size() < HEADER_SIZE + dataSize)
+                throw new IOException("Array store file is truncated: " + path);
+            MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE, dataSize);
+            buffer.order(order);
+            return new MappedArray(types[typeCode], elementSize, length, buffer, writable);
+        }
+    }
+
+    /**
+     * Contenido de una escritura completa sobre la proyección de los datos.
+     */
+    @FunctionalInterface
+    private interface Filler {
+        void fill(ByteBuffer data);
+    }
+
+    private static void write(Path path, Type type, int elementSize, long length, Filler filler) throws IOException {
+        OperationTimer timer = Metrics.start(Operation.SAVE_OBJECT, path);
+        try (MappedArray array = createMapped(path, type, elementSize, length)) {
+            filler.fill(array.buffer);
+            timer.success(HEADER_SIZE + array.buffer.capacity());
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
+    }
+
+    private static MappedArray read(Path path, Type type) throws IOException {
+        OperationTimer timer = Metrics.start(Operation.READ_OBJECT, path);
+        try {
+            MappedArray array = map(path);
+            if (array.getType() != type) {
+                array.close();
+                throw new IOException("Array store file contains " + array.getType() + " elements, not " + type + ": " + path);
+            }
+            timer.success(HEADER_SIZE + array.buffer.capacity());
+            return array;
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
+    }
+
+    private static MappedArray createMapped(Path path, Type type, int elementSize, long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative.");
+        }
+        long dataSize = dataSize(elementSize, length);
+        ByteOrder order = ByteOrder.nativeOrder();
+        ChannelCache.invalidate(path);
+        try (PathLocks.Lock ignored = PathLocks.acquire(path, true);
+             FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putShort(VERSION)
+                    .put((byte) type.ordinal())
+                    .put((byte) (order == ByteOrder.BIG_ENDIAN ? 0 : 1))
+                    .putInt(elementSize)
+                    .putLong(length);
+            header.clear();
+            while (header.hasRemaining())
+                channel.write(header, header.position());
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, dataSize);
+            buffer.order(order);
+            return new MappedArray(type, elementSize, length, buffer, true);
+        }
+    }
+
+    private static long dataSize(int elementSize, long length) throws IOException {
+        if (length > MAX_DATA_SIZE / elementSize)
+            throw new IOException("Array of " + length + " elements of " + elementSize + " bytes exceeds the maximum of "
+                    + MAX_DATA_SIZE + " bytes per file.");
+        return length * elementSize;
+    }
+
+    /**
+     * Proyección en memoria de los elementos de un archivo del almacén.
+     * <p>
+     * Las vistas obtenidas comparten la memoria de la proyección: no copian los elementos y, en modo escritura,
+     * los cambios realizados a través de ellas se guardan en el archivo. La proyección no mantiene ningún bloqueo
+     * sobre el archivo mientras está abierta.
+     */
+    public static final class MappedArray implements AutoCloseable {
+        private final Type type;
+        private final int elementSize;
+        private final long length;
+        private final MappedByteBuffer buffer;
+        private final boolean writable;
+
+        private MappedArray(Type type, int elementSize, long length, MappedByteBuffer buffer, boolean writable) {
+            this.type = type;
+            this.elementSize = elementSize;
+            this.length = length;
+            this.buffer = buffer;
+            this.writable = writable;
+        }
+
+        /**
+         * Obtiene el tipo de los elementos.
+         *
+         * @return El tipo de los elementos.
+         */
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * Obtiene el tamaño en bytes de cada elemento o registro.
+         *
+         * @return El tamaño del elemento.
+         */
+        public int getElementSize() {
+            return elementSize;
+        }
+
+        /**
+         * Obtiene el número de elementos.
+         *
+         * @return El número de elementos.
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * Obtiene el orden de bytes de los elementos.
+         *
+         * @return El orden de bytes con el que se escribió el archivo.
+         */
+        public ByteOrder getOrder() {
+            return buffer.order();
+        }
+
+        /**
+         * Indica si los elementos se pueden modificar a través de esta proyección.
+         *
+         * @return {@code true} si la proyección es de escritura.
+         */
+        public boolean isWritable() {
+            return writable;
+        }
+
+        /**
+         * Obtiene una vista de los bytes de los elementos con el orden de bytes del archivo.
+         *
+         * @return Una vista independiente de la proyección; es de solo lectura si la proyección lo es.
+         */
+        public ByteBuffer asByteBuffer() {
+            ByteBuffer view = writable ? buffer.duplicate() : buffer.asReadOnlyBuffer();
+            return view.order(buffer.order());
+        }
+
+        /**
+         * Obtiene una vista de los elementos como {@code long}.
+         *
+         * @return La vista de los elementos.
+         * @throws IllegalStateException Si los elementos no son de tipo {@link Type#LONG}.
+         */
+        public LongBuffer asLongBuffer() {
+            checkType(Type.LONG);
+            return asByteBuffer().asLongBuffer();
+        }
+
+        /**
+         * Obtiene una vista de los elementos como {@code double}.
+         *
+         * @return La vista de los elementos.
+         * @throws IllegalStateException Si los elementos no son de tipo {@link Type#DOUBLE}.
+         */
+        public DoubleBuffer asDoubleBuffer() {
+            checkType(Type.DOUBLE);
+            return asByteBuffer().asDoubleBuffer();
+        }
+
+        /**
+         * Obtiene una vista de los elementos como {@code int}.
+         *
+         * @return La vista de los elementos.
+         * @throws IllegalStateException Si los elementos no son de tipo {@link Type#INT}.
+         */
+        public IntBuffer asIntBuffer() {
+            checkType(Type.INT);
+            return asByteBuffer().asIntBuffer();
+        }
+
+        /**
+         * Obtiene una vista de los bytes de un registro, con el orden de bytes del archivo. Los campos se leen y
+         * escriben con los métodos absolutos de {@link ByteBuffer}, a partir de la posición 0.
+         *
+         * @param index El índice del registro.
+         * @return La vista del registro.
+         * @throws IndexOutOfBoundsException Si el índice está fuera de rango.
+         */
+        public ByteBuffer record(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Record " + index + " out of bounds for length " + length);
+            }
+            return asByteBuffer().slice(index * elementSize, elementSize).order(buffer.order());
+        }
+
+        /**
+         * Escribe en el disco los cambios pendientes de una proyección de escritura.
+         */
+        public void force() {
+            if (writable)
+                buffer.force();
+        }
+
+        /**
+         * Escribe en el disco los cambios pendientes. La memoria proyectada se libera cuando el recolector de basura
+         * reclama esta proyección y sus vistas.
+         */
+        @Override
+        public void close() {
+            force();
+        }
+
+        private int intLength() {
+            return (int) length;
+        }
+
+        private void checkType(Type expected) {
+            if (type != expected) {
+                throw new IllegalStateException("Array contains " + type + " elements, not " + expected + ".");
+            }
+        }
+    }
+}
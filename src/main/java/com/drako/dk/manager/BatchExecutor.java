@@ -0,0 +1,88 @@
+package com.drako.dk.manager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Ejecuta operaciones por lotes sobre un conjunto de rutas utilizando un número acotado de hilos.
+ * Los resultados se devuelven en el mismo orden en que se recibieron las rutas.
+ */
+class BatchExecutor {
+    /**
+     * Contador utilizado para nombrar los hilos de los lotes.
+     */
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private BatchExecutor() {
+    }
+
+    /**
+     * Ejecuta una operación sobre cada ruta con un nivel de concurrencia máximo.
+     *
+     * @param paths       Las rutas sobre las que se ejecutará la operación.
+     * @param concurrency El número máximo de operaciones simultáneas.
+     * @param operation   La operación a ejecutar. Recibe la ruta y un consumidor de excepciones, y devuelve el valor obtenido.
+     * @param <R>         El tipo del valor obtenido por cada operación.
+     * @return Una lista con el resultado de cada ruta, en el mismo orden de entrada.
+     * @throws IllegalArgumentException Si el nivel de concurrencia es menor que 1.
+     */
+    static <R> List<BatchResult<R>> run(List<Path> paths, int concurrency,
+                                        BiFunction<Path, Consumer<Exception>, Optional<R>> operation) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be greater than 0.");
+        }
+        List<BatchResult<R>> results = new ArrayList<>(paths.size());
+        if (paths.isEmpty()) {
+            return results;
+        }
+        List<Callable<BatchResult<R>>> tasks = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            tasks.add(() -> execute(path, operation));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, paths.size()), runnable -> {
+            Thread thread = new Thread(runnable, "dk-batch-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<BatchResult<R>>> futures = executor.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(BatchResult.failure(paths.get(i), e));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (int i = results.size(); i < paths.size(); i++) {
+                results.add(BatchResult.failure(paths.get(i), e));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    private static <R> BatchResult<R> execute(Path path, BiFunction<Path, Consumer<Exception>, Optional<R>> operation) {
+        AtomicReference<Exception> error = new AtomicReference<>();
+        Optional<R> value = operation.apply(path, error::set);
+        if (value.isPresent()) {
+            return BatchResult.success(path, value.get());
+        }
+        Exception cause = error.get();
+        return BatchResult.failure(path, cause != null ? cause : new IOException("Operation failed for " + path));
+    }
+}
@@ -0,0 +1,93 @@
+package com.drako.dk.manager;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Resultado individual de una operación dentro de un lote (batch) de lectura o escritura.
+ * Cada resultado conserva la ruta del archivo procesado junto con el valor obtenido o la excepción producida.
+ *
+ * @param <T> El tipo del valor obtenido por la operación.
+ */
+public class BatchResult<T> {
+    /**
+     * La ruta del archivo sobre el que se realizó la operación.
+     */
+    private final Path path;
+
+    /**
+     * El valor obtenido por la operación, o {@code null} si falló.
+     */
+    private final T value;
+
+    /**
+     * La excepción producida por la operación, o {@code null} si se completó con éxito.
+     */
+    private final Exception error;
+
+    private BatchResult(Path path, T value, Exception error) {
+        this.path = path;
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Crea un resultado exitoso.
+     *
+     * @param path  La ruta del archivo procesado.
+     * @param value El valor obtenido por la operación.
+     * @param <T>   El tipo del valor obtenido.
+     * @return Un resultado exitoso para la ruta indicada.
+     */
+    public static <T> BatchResult<T> success(Path path, T value) {
+        return new BatchResult<>(path, value, null);
+    }
+
+    /**
+     * Crea un resultado fallido.
+     *
+     * @param path  La ruta del archivo procesado.
+     * @param error La excepción que causó el fallo.
+     * @param <T>   El tipo del valor esperado.
+     * @return Un resultado fallido para la ruta indicada.
+     */
+    public static <T> BatchResult<T> failure(Path path, Exception error) {
+        return new BatchResult<>(path, null, error);
+    }
+
+    /**
+     * Obtiene la ruta del archivo procesado.
+     *
+     * @return La ruta del archivo procesado.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Obtiene el valor obtenido por la operación.
+     *
+     * @return Un {@link Optional} con el valor si la operación fue exitosa; de lo contrario, un Optional vacío.
+     */
+    public Optional<T> getValue() {
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Obtiene la excepción producida por la operación.
+     *
+     * @return Un {@link Optional} con la excepción si la operación falló; de lo contrario, un Optional vacío.
+     */
+    public Optional<Exception> getError() {
+        return Optional.ofNullable(error);
+    }
+
+    /**
+     * Indica si la operación se completó con éxito.
+     *
+     * @return {@code true} si la operación fue exitosa; de lo contrario, {@code false}.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
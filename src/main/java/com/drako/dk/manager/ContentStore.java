@@ -0,0 +1,405 @@
+package com.drako.dk.manager;
+
+import com.drako.dk.io.PathLocks;
+import com.drako.dk.metrics.Metrics;
+import com.drako.dk.metrics.Operation;
+import com.drako.dk.metrics.OperationTimer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Almacén direccionado por contenido que guarda una sola copia de cada contenido distinto.
+ * <p>
+ * Cada contenido se guarda una única vez en un archivo inmutable cuyo nombre es su resumen SHA-256, repartido en
+ * subcarpetas según los dos primeros caracteres del resumen ({@code objects/ab/cdef...}) para no acumular todos los
+ * archivos en una misma carpeta. Las rutas lógicas, como la ruta de un {@link PersistManager}, se asocian a los
+ * resúmenes en un índice de solo adición ({@value #INDEX_FILE_NAME}) que se carga en memoria al abrir el almacén y se
+ * compacta cuando la mayoría de sus entradas están obsoletas.
+ * <p>
+ * El almacén lleva la cuenta de cuántas rutas hacen referencia a cada contenido. Guardar un contenido que ya existe
+ * solo añade una entrada al índice, y volver a guardar el mismo contenido en la misma ruta no realiza ninguna
+ * escritura. Los contenidos que ya no tienen referencias se eliminan con {@link #gc()}.
+ * <p>
+ * Los contenidos se escriben antes que su entrada del índice, por lo que una interrupción solo puede dejar
+ * contenidos sin referencias, que {@link #gc()} elimina. Un mismo almacén no debe abrirse desde varios procesos a
+ * la vez.
+ */
+public final class ContentStore implements Closeable {
+    /**
+     * Nombre del archivo del índice dentro de la carpeta del almacén.
+     */
+    public static final String INDEX_FILE_NAME = "index.log";
+
+    /**
+     * Nombre de la carpeta de los contenidos dentro de la carpeta del almacén.
+     */
+    public static final String OBJECTS_FOLDER_NAME = "objects";
+
+    /**
+     * Número mínimo de entradas obsoletas del índice a partir del cual se compacta.
+     */
+    static final int COMPACTION_THRESHOLD = 1024;
+
+    private static final char PUT = 'P';
+    private static final char DELETE = 'D';
+
+    private final Path root;
+    private final Path objects;
+    private final Path indexPath;
+
+    /**
+     * Resumen asociado a cada ruta lógica, protegido por el monitor del almacén.
+     */
+    private final Map<String, String> index = new HashMap<>();
+
+    /**
+     * Número de referencias de cada resumen, incluidas las de guardados en curso, protegido por el monitor del
+     * almacén.
+     */
+    private final Map<String, Integer> references = new HashMap<>();
+
+    private FileChannel indexChannel;
+    private long indexEntries;
+
+    private ContentStore(Path root) {
+        this.root = root;
+        this.objects = root.resolve(OBJECTS_FOLDER_NAME);
+        this.indexPath = root.resolve(INDEX_FILE_NAME);
+    }
+
+    /**
+     * Abre un almacén, creándolo si no existe, y carga su índice.
+     *
+     * @param root La carpeta del almacén.
+     * @return El almacén abierto.
+     * @throws IOException Si no se puede crear la carpeta o leer el índice.
+     */
+    public static ContentStore open(Path root) throws IOException {
+        ContentStore store = new ContentStore(root);
+        Files.createDirectories(store.objects);
+        synchronized (store) {
+            store.load();
+            if (store.indexEntries - store.index.size() >= COMPACTION_THRESHOLD
+                    && store.indexEntries > 2L * store.index.size())
+                store.compact();
+            else
+                store.openIndex();
+        }
+        return store;
+    }
+
+    /**
+     * Obtiene la carpeta del almacén.
+     *
+     * @return La carpeta del almacén.
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Guarda un contenido asociado a una ruta lógica, reemplazando el contenido anterior de esa ruta.
+     *
+     * @param path La ruta lógica.
+     * @param data El contenido.
+     * @return {@code true} si el contenido no existía en el almacén y se escribió; {@code false} si ya existía y
+     * solo se actualizó el índice, o si la ruta ya tenía ese mismo contenido.
+     * @throws IOException Si no se puede escribir el contenido o el índice.
+     */
+    public boolean put(Path path, byte[] data) throws IOException {
+        String key = key(path);
+        String digest = digest(data);
+        synchronized (this) {
+            ensureOpen();
+            if (digest.equals(index.get(key)))
+                return false;
+            // La referencia se reserva antes de escribir para que gc() no elimine el contenido mientras tanto.
+            references.merge(digest, 1, Integer::sum);
+        }
+        boolean written;
+        try {
+            written = writeObject(digest, data);
+            synchronized (this) {
+                ensureOpen();
+                appendIndex(PUT + digest + ' ' + key);
+                String previous = index.put(key, digest);
+                if (previous != null)
+                    release(previous);
+            }
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                release(digest);
+            }
+            throw e;
+        }
+        return written;
+    }
+
+    /**
+     * Obtiene el contenido asociado a una ruta lógica.
+     *
+     * @param path La ruta lógica.
+     * @return El contenido, o un {@link Optional} vacío si la ruta no tiene contenido en el almacén.
+     * @throws IOException Si no se puede leer el contenido.
+     */
+    public Optional<byte[]> get(Path path) throws IOException {
+        String key = key(path);
+        while (true) {
+            String digest;
+            synchronized (this) {
+                ensureOpen();
+                digest = index.get(key);
+            }
+            if (digest == null)
+                return Optional.empty();
+            Path object = objectPath(digest);
+            try (PathLocks.Lock ignored = PathLocks.acquire(object, false)) {
+                // Si la ruta cambió de contenido y gc() eliminó el anterior antes de bloquearlo, se vuelve a consultar.
+                synchronized (this) {
+                    if (!references.containsKey(digest))
+                        continue;
+                }
+                return Optional.of(Files.readAllBytes(object));
+            }
+        }
+    }
+
+    /**
+     * Indica si una ruta lógica tiene contenido en el almacén.
+     *
+     * @param path La ruta lógica.
+     * @return {@code true} si la ruta tiene contenido.
+     */
+    public synchronized boolean contains(Path path) {
+        return index.containsKey(key(path));
+    }
+
+    /**
+     * Elimina la asociación de una ruta lógica. El contenido se conserva hasta la siguiente llamada a
+     * {@link #gc()} aunque no le queden referencias.
+     *
+     * @param path La ruta lógica.
+     * @return {@code true} si la ruta tenía contenido.
+     * @throws IOException Si no se puede escribir el índice.
+     */
+    public synchronized boolean delete(Path path) throws IOException {
+        ensureOpen();
+        String key = key(path);
+        if (!index.containsKey(key))
+            return false;
+        appendIndex(DELETE + key);
+        release(index.remove(key));
+        return true;
+    }
+
+    /**
+     * Obtiene el número de rutas lógicas con contenido.
+     *
+     * @return El número de rutas.
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Obtiene el número de contenidos distintos con al menos una referencia.
+     *
+     * @return El número de contenidos referenciados.
+     */
+    public synchronized int objectCount() {
+        return references.size();
+    }
+
+    /**
+     * Elimina los contenidos sin referencias y compacta el índice.
+     *
+     * @return El número de bytes liberados.
+     * @throws IOException Si no se puede recorrer la carpeta de contenidos o reescribir el índice.
+     */
+    public long gc() throws IOException {
+        OperationTimer timer = Metrics.start(Operation.CONTENT_STORE_GC, root);
+        try {
+            long freed = 0;
+            List<Path> candidates = new ArrayList<>();
+            try (Stream<Path> files = Files.walk(objects, 2)) {
+                files.filter(Files::isRegularFile).forEach(candidates::add);
+            }
+            for (Path file : candidates) {
+                // Los archivos temporales se bloquean con la ruta de su contenido, igual que al escribirlos.
+                String name = file.getFileName().toString();
+                Path object = name.endsWith(".tmp") ? file.resolveSibling(name.substring(0, name.length() - 4)) : file;
+                String digest = object.getParent().getFileName().toString() + object.getFileName();
+                try (PathLocks.Lock ignored = PathLocks.acquire(object, true)) {
+                    synchronized (this) {
+                        if (references.containsKey(digest))
+                            continue;
+                    }
+                    long size = Files.size(file);
+                    if (Files.deleteIfExists(file))
+                        freed += size;
+                } catch (NoSuchFileException ignored) {
+                    // Otro proceso de limpieza ya lo eliminó.
+                }
+            }
+            synchronized (this) {
+                ensureOpen();
+                compact();
+            }
+            timer.success(freed);
+            return freed;
+        } catch (IOException | RuntimeException e) {
+            timer.failure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Cierra el índice. Las operaciones posteriores lanzan {@link IllegalStateException}.
+     *
+     * @throws IOException Si no se puede cerrar el índice.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (indexChannel != null) {
+            indexChannel.close();
+            indexChannel = null;
+        }
+    }
+
+    /**
+     * Escribe un contenido si aún no existe.
+     *
+     * @return {@code true} si se escribió.
+     */
+    private boolean writeObject(String digest, byte[] data) throws IOException {
+        Path object = objectPath(digest);
+        try (PathLocks.Lock ignored = PathLocks.acquire(object, true)) {
+            if (Files.exists(object))
+                return false;
+            Files.createDirectories(object.getParent());
+            Path temp = object.resolveSibling(object.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+                channel.force(false);
+            }
+            try {
+                Files.move(temp, object, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                Files.deleteIfExists(temp);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private Path objectPath(String digest) {
+        return objects.resolve(digest.substring(0, 2)).resolve(digest.substring(2));
+    }
+
+    private void release(String digest) {
+        references.computeIfPresent(digest, (d, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void ensureOpen() {
+        if (indexChannel == null) {
+            throw new IllegalStateException("Content store is closed.");
+        }
+    }
+
+    /**
+     * Carga el índice. Una última línea incompleta, fruto de una escritura interrumpida, se descarta.
+     */
+    private void load() throws IOException {
+        if (!Files.exists(indexPath))
+            return;
+        String content = new String(Files.readAllBytes(indexPath), StandardCharsets.UTF_8);
+        int start = 0;
+        int end;
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            String line = content.substring(start, end);
+            start = end + 1;
+            if (line.isEmpty())
+                continue;
+            indexEntries++;
+            if (line.charAt(0) == PUT && line.length() > 66) {
+                index.put(line.substring(66), line.substring(1, 65));
+            } else if (line.charAt(0) == DELETE) {
+                index.remove(line.substring(1));
+            }
+        }
+        for (String digest : index.values())
+            references.merge(digest, 1, Integer::sum);
+    }
+
+    private void openIndex() throws IOException {
+        indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void appendIndex(String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((line + '\n').getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining())
+            indexChannel.write(buffer);
+        indexEntries++;
+    }
+
+    /**
+     * Reescribe el índice con una entrada por cada ruta lógica. Debe llamarse con el monitor adquirido.
+     */
+    private void compact() throws IOException {
+        Path temp = indexPath.resolveSibling(INDEX_FILE_NAME + ".tmp");
+        StringBuilder content = new StringBuilder();
+        for (Map.Entry<String, String> entry : index.entrySet())
+            content.append(PUT).append(entry.getValue()).append(' ').append(entry.getKey()).append('\n');
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(false);
+        }
+        close();
+        try {
+            Files.move(temp, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            indexEntries = index.size();
+        } finally {
+            openIndex();
+        }
+    }
+
+    private static String key(Path path) {
+        return PathLocks.normalize(path).toString();
+    }
+
+    private static String digest(byte[] data) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash)
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,543 @@
+package com.drako.dk.manager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reescritura por bloques de un archivo persistido, utilizada por {@link PersistManager} en el modo de guardado
+ * diferencial.
+ * <p>
+ * El archivo se divide en bloques de {@link #BLOCK_SIZE} bytes y el resumen SHA-256 de cada bloque se guarda en un
+ * archivo auxiliar con la extensión {@value #SIDECAR_SUFFIX}. Al guardar un nuevo contenido, cada bloque se compara
+ * con el resumen del bloque anterior y solo los bloques distintos se escriben en su posición. El archivo auxiliar
+ * guarda también el tamaño, la fecha de modificación y una suma CRC32C de todo el archivo. Antes de usar los
+ * resúmenes se comprueban el tamaño y la fecha y se recalcula la suma leyendo el archivo, de modo que una escritura
+ * externa que conserve tamaño y fecha (por ejemplo, dentro de la resolución de la fecha del sistema de archivos)
+ * también se detecta. Si el archivo auxiliar no existe o no corresponde al archivo, los resúmenes se calculan de
+ * nuevo a partir del contenido actual.
+ * <p>
+ * El ahorro es solo de escritura: cada guardado lee el archivo completo, para comprobar la suma o para calcular los
+ * resúmenes, y solo escribe los bloques que cambian. En un archivo grande con pocos cambios, cada guardado cuesta
+ * una lectura completa del archivo más la escritura de unos pocos bloques en el diario y en el archivo.
+ * <p>
+ * Los bloques modificados se escriben primero en un diario con la extensión {@value #JOURNAL_SUFFIX}. Su cabecera
+ * identifica el contenido sobre el que se calculó (tamaño, fecha de modificación y suma CRC32C) y termina con la nueva
+ * longitud, los nuevos resúmenes y una suma de verificación de todo su contenido. Solo cuando el diario está completo
+ * y sincronizado con el disco se marca como en aplicación, se aplican los bloques al archivo, se trunca si el nuevo
+ * contenido es más corto y se actualiza el archivo auxiliar. Si el proceso se interrumpe antes de completar el
+ * diario, el archivo conserva su contenido anterior; si se interrumpe después, el diario se vuelve a aplicar en la
+ * siguiente operación con {@link #recover(Path)}. Un diario que aún no se había empezado a aplicar solo se aplica si
+ * el archivo sigue siendo aquel sobre el que se calculó; si otra escritura lo ha reemplazado, el diario se descarta.
+ */
+class DeltaFile {
+    /**
+     * Tamaño de cada bloque comparado, en bytes.
+     */
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * Extensión del archivo auxiliar con los resúmenes de los bloques.
+     */
+    static final String SIDECAR_SUFFIX = ".dkblocks";
+
+    /**
+     * Extensión del diario de bloques pendientes de aplicar.
+     */
+    static final String JOURNAL_SUFFIX = ".dkjournal";
+
+    private static final int SIDECAR_MAGIC = 0x444B4232;
+    private static final int JOURNAL_MAGIC = 0x444B4A32;
+    private static final int JOURNAL_HEADER_SIZE = 32;
+    private static final int COMMIT_MARKER = -1;
+    private static final byte APPLYING_MARKER = 1;
+    private static final int HASH_SIZE = 32;
+
+    /**
+     * Monitor que serializa la recuperación de diarios, que puede iniciarse desde varias lecturas simultáneas.
+     */
+    private static final Object RECOVERY_LOCK = new Object();
+
+    private DeltaFile() {
+    }
+
+    static Path sidecarPath(Path filePath) {
+        return filePath.resolveSibling(filePath.getFileName() + SIDECAR_SUFFIX);
+    }
+
+    static Path journalPath(Path filePath) {
+        return filePath.resolveSibling(filePath.getFileName() + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * Aplica el diario pendiente de un archivo, si existe y está completo, o lo descarta si quedó incompleto o si no
+     * se había empezado a aplicar y el archivo ya no es aquel sobre el que se calculó.
+     *
+     * @param filePath La ruta del archivo.
+     * @throws IOException Si ocurre un error al leer el diario o al aplicarlo.
+     */
+    static void recover(Path filePath) throws IOException {
+        Path journalPath = journalPath(filePath);
+        if (!Files.exists(journalPath))
+            return;
+        synchronized (RECOVERY_LOCK) {
+            Commit commit;
+            try {
+                commit = readJournal(journalPath);
+            } catch (NoSuchFileException e) {
+                return;
+            }
+            if (commit == null || (!commit.applying && !matchesBase(filePath, commit))) {
+                Files.deleteIfExists(journalPath);
+                return;
+            }
+            long checksum;
+            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                apply(channel, journalPath, commit);
+                checksum = checksum(filePath, channel, commit.length);
+            }
+            writeSidecar(filePath, commit.length, checksum, commit.hashes);
+            Files.deleteIfExists(journalPath);
+        }
+    }
+
+    /**
+     * Comprueba si el archivo conserva el tamaño, la fecha de modificación y la suma del contenido sobre el que se
+     * calculó un diario.
+     */
+    private static boolean matchesBase(Path filePath, Commit commit) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            return channel.size() == commit.baseLength
+                    && Files.getLastModifiedTime(filePath).toMillis() == commit.baseModified
+                    && checksum(filePath, channel, commit.baseLength) == commit.baseChecksum;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Abre un flujo que reemplaza el contenido del archivo reescribiendo solo los bloques que cambian. Los cambios
+     * se aplican al cerrar el flujo.
+     *
+     * @param filePath La ruta del archivo.
+     * @param channel  Un canal de escritura abierto sobre el archivo, que se cierra junto con el flujo.
+     * @return El flujo de salida.
+     * @throws IOException Si no se pueden obtener los resúmenes del contenido actual.
+     */
+    static OutputStream open(Path filePath, FileChannel channel) throws IOException {
+        try {
+            recover(filePath);
+            return new DeltaOutputStream(filePath, channel, current(filePath, channel));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene la suma y los resúmenes del contenido actual del archivo, desde el archivo auxiliar si es válido o
+     * leyendo el archivo en caso contrario.
+     */
+    private static Sidecar current(Path filePath, FileChannel channel) throws IOException {
+        long length = channel.size();
+        Sidecar sidecar = readSidecar(filePath, length);
+        if (sidecar != null && sidecar.checksum == checksum(filePath, channel, length))
+            return sidecar;
+        MessageDigest digest = newDigest();
+        CRC32C crc = new CRC32C();
+        int count = blockCount(length);
+        byte[] hashes = new byte[count * HASH_SIZE];
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        for (int i = 0; i < count; i++) {
+            block.clear().limit((int) Math.min(BLOCK_SIZE, length - (long) i * BLOCK_SIZE));
+            while (block.hasRemaining()) {
+                if (channel.read(block, (long) i * BLOCK_SIZE + block.position()) < 0)
+                    throw new EOFException("File changed while computing block hashes: " + filePath);
+            }
+            digest.update(block.array(), 0, block.limit());
+            crc.update(block.array(), 0, block.limit());
+            System.arraycopy(digest.digest(), 0, hashes, i * HASH_SIZE, HASH_SIZE);
+        }
+        return new Sidecar(crc.getValue(), hashes);
+    }
+
+    /**
+     * Calcula la suma CRC32C de todo el contenido del archivo.
+     */
+    private static long checksum(Path filePath, FileChannel channel, long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        long position = 0;
+        while (position < length) {
+            block.clear().limit((int) Math.min(BLOCK_SIZE, length - position));
+            while (block.hasRemaining()) {
+                if (channel.read(block, position + block.position()) < 0)
+                    throw new EOFException("File changed while computing its checksum: " + filePath);
+            }
+            block.flip();
+            crc.update(block);
+            position += block.limit();
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Lee el archivo auxiliar. La suma del contenido no se comprueba: debe compararla quien lo utilice.
+     *
+     * @return Los datos del archivo auxiliar, o {@code null} si no existe o su tamaño o fecha no corresponden al
+     * archivo.
+     */
+    private static Sidecar readSidecar(Path filePath, long length) throws IOException {
+        Path sidecarPath = sidecarPath(filePath);
+        if (!Files.exists(sidecarPath))
+            return null;
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(sidecarPath))) {
+            if (input.readInt() != SIDECAR_MAGIC || input.readInt() != BLOCK_SIZE)
+                return null;
+            long storedLength = input.readLong();
+            long storedModified = input.readLong();
+            long checksum = input.readLong();
+            int count = input.readInt();
+            if (storedLength != length || count != blockCount(length)
+                    || storedModified != Files.getLastModifiedTime(filePath).toMillis())
+                return null;
+            byte[] hashes = new byte[count * HASH_SIZE];
+            input.readFully(hashes);
+            return new Sidecar(checksum, hashes);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reemplaza el archivo auxiliar con la suma y los resúmenes del contenido actual.
+     */
+    private static void writeSidecar(Path filePath, long length, long checksum, byte[] hashes) throws IOException {
+        Path sidecarPath = sidecarPath(filePath);
+        Path temporaryPath = sidecarPath.resolveSibling(sidecarPath.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+            output.writeInt(SIDECAR_MAGIC);
+            output.writeInt(BLOCK_SIZE);
+            output.writeLong(length);
+            output.writeLong(Files.getLastModifiedTime(filePath).toMillis());
+            output.writeLong(checksum);
+            output.writeInt(hashes.length / HASH_SIZE);
+            output.write(hashes);
+        }
+        try {
+            Files.move(temporaryPath, sidecarPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryPath, sidecarPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Lee un diario completo.
+     *
+     * @return Los datos de la confirmación, o {@code null} si el diario está incompleto o dañado.
+     */
+    private static Commit readJournal(Path journalPath) throws IOException {
+        CRC32C crc = new CRC32C();
+        List<Record> records = new ArrayList<>();
+        try (DataInputStream input = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(journalPath)), crc))) {
+            if (input.readInt() != JOURNAL_MAGIC || input.readInt() != BLOCK_SIZE)
+                return null;
+            long baseLength = input.readLong();
+            long baseModified = input.readLong();
+            long baseChecksum = input.readLong();
+            long offset = JOURNAL_HEADER_SIZE;
+            while (true) {
+                int index = input.readInt();
+                offset += 4;
+                if (index == COMMIT_MARKER)
+                    break;
+                int length = input.readInt();
+                if (index < 0 || length <= 0 || length > BLOCK_SIZE)
+                    return null;
+                records.add(new Record(index, offset + 4, length));
+                skipFully(input, length);
+                offset += 4 + length;
+            }
+            long length = input.readLong();
+            int count = input.readInt();
+            if (length < 0 || count != blockCount(length))
+                return null;
+            byte[] hashes = new byte[count * HASH_SIZE];
+            input.readFully(hashes);
+            long expected = crc.getValue();
+            if (input.readLong() != expected)
+                return null;
+            boolean applying = input.read() == APPLYING_MARKER;
+            return new Commit(records, length, hashes, baseLength, baseModified, baseChecksum, applying);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void skipFully(InputStream input, int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            long skipped = input.skip(remaining);
+            if (skipped <= 0) {
+                if (input.read() < 0)
+                    throw new EOFException();
+                skipped = 1;
+            }
+            remaining -= (int) skipped;
+        }
+    }
+
+    /**
+     * Copia los bloques del diario a su posición en el archivo, ajusta su longitud y sincroniza el contenido.
+     */
+    private static void apply(FileChannel channel, Path journalPath, Commit commit) throws IOException {
+        try (FileChannel journal = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+            for (Record record : commit.records) {
+                block.clear().limit(record.length);
+                while (block.hasRemaining()) {
+                    if (journal.read(block, record.offset + block.position()) < 0)
+                        throw new EOFException("Journal ended unexpectedly: " + journalPath);
+                }
+                block.flip();
+                long position = (long) record.index * BLOCK_SIZE;
+                while (block.hasRemaining())
+                    position += channel.write(block, position);
+            }
+        }
+        if (channel.size() > commit.length)
+            channel.truncate(commit.length);
+        channel.force(false);
+    }
+
+    private static int blockCount(long length) {
+        return (int) ((length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /**
+     * Flujo que agrupa el contenido en bloques, escribe en el diario los que han cambiado y aplica el diario al
+     * cerrarse.
+     */
+    private static final class DeltaOutputStream extends OutputStream {
+        private final Path filePath;
+        private final Path journalPath;
+        private final FileChannel channel;
+        private final byte[] oldHashes;
+        private final long oldLength;
+        private final long oldModified;
+        private final long oldChecksum;
+        private final MessageDigest digest = newDigest();
+        private final CRC32C contentCrc = new CRC32C();
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private final List<Record> records = new ArrayList<>();
+        private byte[] newHashes = new byte[HASH_SIZE * 16];
+        private int filled;
+        private int index;
+        private long length;
+        private CRC32C crc;
+        private DataOutputStream journal;
+        private long journalOffset;
+        private boolean closed;
+
+        private DeltaOutputStream(Path filePath, FileChannel channel, Sidecar old) throws IOException {
+            this.filePath = filePath;
+            this.journalPath = journalPath(filePath);
+            this.channel = channel;
+            this.oldHashes = old.hashes;
+            this.oldLength = channel.size();
+            this.oldModified = Files.getLastModifiedTime(filePath).toMillis();
+            this.oldChecksum = old.checksum;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (closed)
+                throw new IOException("Stream closed.");
+            while (len > 0) {
+                int count = Math.min(len, BLOCK_SIZE - filled);
+                System.arraycopy(b, off, block, filled, count);
+                filled += count;
+                off += count;
+                len -= count;
+                if (filled == BLOCK_SIZE)
+                    completeBlock();
+            }
+        }
+
+        /**
+         * Calcula el resumen del bloque actual y, si difiere del anterior, lo escribe en el diario.
+         */
+        private void completeBlock() throws IOException {
+            digest.update(block, 0, filled);
+            contentCrc.update(block, 0, filled);
+            byte[] hash = digest.digest();
+            if ((index + 1) * HASH_SIZE > newHashes.length)
+                newHashes = Arrays.copyOf(newHashes, newHashes.length * 2);
+            System.arraycopy(hash, 0, newHashes, index * HASH_SIZE, HASH_SIZE);
+            long start = (long) index * BLOCK_SIZE;
+            boolean unchanged = (index + 1) * HASH_SIZE <= oldHashes.length
+                    && Math.min(BLOCK_SIZE, oldLength - start) == filled
+                    && Arrays.equals(oldHashes, index * HASH_SIZE, (index + 1) * HASH_SIZE, hash, 0, HASH_SIZE);
+            if (!unchanged) {
+                DataOutputStream output = journal();
+                output.writeInt(index);
+                output.writeInt(filled);
+                records.add(new Record(index, journalOffset + 8, filled));
+                output.write(block, 0, filled);
+                journalOffset += 8 + filled;
+            }
+            length += filled;
+            index++;
+            filled = 0;
+        }
+
+        private DataOutputStream journal() throws IOException {
+            if (journal == null) {
+                crc = new CRC32C();
+                journal = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(journalPath,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)), crc));
+                journal.writeInt(JOURNAL_MAGIC);
+                journal.writeInt(BLOCK_SIZE);
+                journal.writeLong(oldLength);
+                journal.writeLong(oldModified);
+                journal.writeLong(oldChecksum);
+                journalOffset = JOURNAL_HEADER_SIZE;
+            }
+            return journal;
+        }
+
+        /**
+         * Completa el último bloque, confirma el diario y lo aplica al archivo.
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed)
+                return;
+            closed = true;
+            try {
+                if (filled > 0)
+                    completeBlock();
+                byte[] hashes = Arrays.copyOf(newHashes, index * HASH_SIZE);
+                if (journal == null && length == oldLength) {
+                    Sidecar sidecar = readSidecar(filePath, length);
+                    if (sidecar == null || sidecar.checksum != contentCrc.getValue())
+                        writeSidecar(filePath, length, contentCrc.getValue(), hashes);
+                    return;
+                }
+                DataOutputStream output = journal();
+                output.writeInt(COMMIT_MARKER);
+                output.writeLong(length);
+                output.writeInt(index);
+                output.write(hashes);
+                output.flush();
+                long checksum = crc.getValue();
+                output.writeLong(checksum);
+                output.close();
+                try (FileChannel journalChannel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+                    journalChannel.force(true);
+                    // A partir de aquí el archivo puede quedar a medio aplicar, por lo que la recuperación debe
+                    // aplicar el diario aunque el archivo ya no coincida con el contenido de partida.
+                    journalChannel.write(ByteBuffer.wrap(new byte[]{APPLYING_MARKER}), journalChannel.size());
+                    journalChannel.force(false);
+                }
+                apply(channel, journalPath, new Commit(records, length, hashes, oldLength, oldModified, oldChecksum, true));
+                writeSidecar(filePath, length, contentCrc.getValue(), hashes);
+                Files.deleteIfExists(journalPath);
+            } finally {
+                if (journal != null)
+                    journal.close();
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Bloque escrito en el diario.
+     */
+    private static final class Record {
+        private final int index;
+        private final long offset;
+        private final int length;
+
+        private Record(int index, long offset, int length) {
+            this.index = index;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Suma del contenido de un archivo y resúmenes de sus bloques, leídos del archivo auxiliar o calculados.
+     */
+    private static final class Sidecar {
+        private final long checksum;
+        private final byte[] hashes;
+
+        private Sidecar(long checksum, byte[] hashes) {
+            this.checksum = checksum;
+            this.hashes = hashes;
+        }
+    }
+
+    /**
+     * Datos de la confirmación de un diario.
+     */
+    private static final class Commit {
+        private final List<Record> records;
+        private final long length;
+        private final byte[] hashes;
+        private final long baseLength;
+        private final long baseModified;
+        private final long baseChecksum;
+        private final boolean applying;
+
+        private Commit(List<Record> records, long length, byte[] hashes, long baseLength, long baseModified,
+                       long baseChecksum, boolean applying) {
+            this.records = records;
+            this.length = length;
+            this.hashes = hashes;
+            this.baseLength = baseLength;
+            this.baseModified = baseModified;
+            this.baseChecksum = baseChecksum;
+            this.applying = applying;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.drako.dk.manager;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada del archivo de log obtenida mediante una consulta de {@link LogManager}.
+ */
+public class LogEntry {
+    /**
+     * La fecha y hora de la entrada.
+     */
+    private final LocalDateTime timestamp;
+
+    /**
+     * El nivel de la entrada.
+     */
+    private final LogLevel level;
+
+    /**
+     * El mensaje de la entrada, incluidas las líneas de continuación si las hubiera.
+     */
+    private final String message;
+
+    /**
+     * La posición en bytes del inicio de la entrada dentro del archivo.
+     */
+    private final long offset;
+
+    /**
+     * Crea una nueva entrada de log.
+     *
+     * @param timestamp La fecha y hora de la entrada.
+     * @param level     El nivel de la entrada.
+     * @param message   El mensaje de la entrada.
+     * @param offset    La posición en bytes del inicio de la entrada dentro del archivo.
+     */
+    public LogEntry(LocalDateTime timestamp, LogLevel level, String message, long offset) {
+        this.timestamp = timestamp;
+        this.level = level;
+        this.message = message;
+        this.offset = offset;
+    }
+
+    /**
+     * Obtiene la fecha y hora de la entrada.
+     *
+     * @return La fecha y hora de la entrada.
+     */
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Obtiene el nivel de la entrada.
+     *
+     * @return El nivel de la entrada.
+     */
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Obtiene el mensaje de la entrada.
+     *
+     * @return El mensaje de la entrada.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Obtiene la posición en bytes del inicio de la entrada dentro del archivo.
+     *
+     * @return La posición de la entrada.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public String toString() {
+        return "LogEntry{" +
+                "timestamp=" + timestamp +
+                ", level=" + level +
+                ", message='" + message + '\'' +
+                ", offset=" + offset +
+                '}';
+    }
+}
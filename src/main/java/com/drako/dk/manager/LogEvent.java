@@ -0,0 +1,109 @@
+package com.drako.dk.manager;
+
+import java.util.Arrays;
+
+/**
+ * Evento de log estructurado, obtenido con {@link LogManager#at(LogLevel)}.
+ * <p>
+ * Los eventos se reutilizan: el evento guarda la plantilla del mensaje, sus argumentos y los campos clave/valor sin
+ * darles formato, y el hilo escritor del log los convierte en texto o JSON y devuelve el evento al conjunto de
+ * eventos libres. Por ello, un evento no se debe usar después de llamar a {@link #log(String, Object...)}, y los
+ * argumentos y valores no deben modificarse después de registrarlos, ya que se convierten en texto más tarde.
+ */
+public final class LogEvent {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final LogWriter writer;
+    private LogLevel level;
+    private String template;
+    private Object[] arguments = new Object[INITIAL_CAPACITY];
+    private int argumentCount;
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int fieldCount;
+
+    LogEvent(LogWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Añade un campo clave/valor al evento.
+     *
+     * @param key   El nombre del campo.
+     * @param value El valor del campo, que se convierte en texto en el hilo escritor.
+     * @return Este evento.
+     */
+    public LogEvent with(String key, Object value) {
+        if (fieldCount == keys.length) {
+            keys = Arrays.copyOf(keys, fieldCount * 2);
+            values = Arrays.copyOf(values, fieldCount * 2);
+        }
+        keys[fieldCount] = key;
+        values[fieldCount] = value;
+        fieldCount++;
+        return this;
+    }
+
+    /**
+     * Registra el evento con un mensaje. Cada aparición de {@code {}} en la plantilla se sustituye por el siguiente
+     * argumento. Si sobra un último argumento y es un {@link Throwable}, se añade su traza al mensaje.
+     *
+     * @param template  La plantilla del mensaje.
+     * @param arguments Los argumentos de la plantilla.
+     */
+    public void log(String template, Object... arguments) {
+        this.template = template;
+        if (arguments.length > this.arguments.length)
+            this.arguments = new Object[arguments.length];
+        System.arraycopy(arguments, 0, this.arguments, 0, arguments.length);
+        this.argumentCount = arguments.length;
+        writer.submit(this);
+    }
+
+    /**
+     * Prepara el evento para un nuevo uso.
+     */
+    void start(LogLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * Elimina las referencias del evento antes de devolverlo al conjunto de eventos libres.
+     */
+    void clear() {
+        template = null;
+        Arrays.fill(arguments, 0, argumentCount, null);
+        Arrays.fill(keys, 0, fieldCount, null);
+        Arrays.fill(values, 0, fieldCount, null);
+        argumentCount = 0;
+        fieldCount = 0;
+    }
+
+    LogLevel getLevel() {
+        return level;
+    }
+
+    String getTemplate() {
+        return template;
+    }
+
+    int getArgumentCount() {
+        return argumentCount;
+    }
+
+    Object getArgument(int index) {
+        return arguments[index];
+    }
+
+    int getFieldCount() {
+        return fieldCount;
+    }
+
+    String getKey(int index) {
+        return keys[index];
+    }
+
+    Object getValue(int index) {
+        return values[index];
+    }
+}
@@ -0,0 +1,18 @@
+package com.drako.dk.manager;
+
+/**
+ * Formato con el que se escriben los eventos de log estructurados.
+ */
+public enum LogFormat {
+    /**
+     * Una línea de texto por evento con el formato {@code [fecha] [NIVEL] mensaje clave=valor}, compatible con
+     * {@link LogManager#query(LogQuery)}.
+     */
+    TEXT,
+
+    /**
+     * Un objeto JSON por línea (JSON Lines) con las propiedades {@code time}, {@code level}, {@code message} y una
+     * propiedad por cada campo del evento.
+     */
+    JSON
+}
@@ -1,10 +1,16 @@
 package com.drako.dk.manager;
 
+import com.drako.dk.file.FileTailer;
 import com.drako.dk.handler.CompletionHandler;
+import com.drako.dk.metrics.Metrics;
+import com.drako.dk.metrics.Operation;
+import com.drako.dk.metrics.OperationTimer;
 
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Clase para gestionar registros de logs.
@@ -30,12 +36,18 @@ public class LogManager {
      */
     private final PersistManager persistManager;
 
+    /**
+     * Escritor en segundo plano de los eventos estructurados.
+     */
+    private final LogWriter writer;
+
     /**
      * Constructor privado para evitar instanciación directa.
      * Se utiliza un manejador persistente con un archivo de log predeterminado.
      */
     private LogManager() {
         this.persistManager = new PersistManager("", LogFileName);
+        this.writer = new LogWriter(persistManager);
     }
 
     /**
@@ -89,8 +101,14 @@ public class LogManager {
      * @return {@code true} si el log se escribió correctamente en el archivo; de lo contrario, {@code false}.
      */
     public boolean log(String message, LogLevel level) {
+        OperationTimer timer = Metrics.start(Operation.LOG, persistManager.getFileFullPath());
         String logMessage = getLogMessage(message, level);
-        return persistManager.writeTextFile(logMessage, true);
+        boolean result = persistManager.writeTextFile(logMessage, true);
+        if (result)
+            timer.success(-1L);
+        else
+            timer.failure();
+        return result;
     }
 
     /**
@@ -104,7 +122,130 @@ public class LogManager {
      *                   en caso de éxito, o con una excepción en caso de error.
      */
     public void logAsync(String message, LogLevel level, CompletionHandler<Path> onComplete) {
+        OperationTimer timer = Metrics.start(Operation.LOG, persistManager.getFileFullPath());
         String logMessage = getLogMessage(message, level);
-        persistManager.writeTextFileAsync(logMessage, true, onComplete);
+        persistManager.writeTextFileAsync(logMessage, true, timer.wrap(onComplete));
+    }
+
+    /**
+     * Registra un mensaje estructurado. Cada aparición de {@code {}} en la plantilla se sustituye por el siguiente
+     * argumento; si sobra un último argumento y es un {@link Throwable}, se añade su traza.
+     * <p>
+     * El hilo que llama solo guarda la plantilla y los argumentos en un evento reutilizable; el formato del mensaje y
+     * la escritura se realizan en un hilo escritor en segundo plano, que agrupa los eventos en lotes. Los argumentos
+     * no deben modificarse después de la llamada. Los eventos estructurados y los registrados con
+     * {@link #log(String, LogLevel)} se escriben en el mismo archivo. La hora de un evento estructurado es la del
+     * momento en que el hilo escritor le da formato, por lo que el archivo se mantiene en orden cronológico.
+     *
+     * @param level     El nivel de importancia del mensaje.
+     * @param template  La plantilla del mensaje.
+     * @param arguments Los argumentos de la plantilla.
+     */
+    public void log(LogLevel level, String template, Object... arguments) {
+        writer.obtain(level).log(template, arguments);
+    }
+
+    /**
+     * Inicia un evento estructurado al que se pueden añadir campos clave/valor antes de registrarlo con
+     * {@link LogEvent#log(String, Object...)}. Por ejemplo:
+     * <pre>{@code
+     * LogManager.getInstance().at(LogLevel.INFO).with("user", user).with("ms", elapsed).log("request served");
+     * }</pre>
+     *
+     * @param level El nivel de importancia del evento.
+     * @return El evento, que no se debe usar después de registrarlo.
+     */
+    public LogEvent at(LogLevel level) {
+        return writer.obtain(level);
+    }
+
+    /**
+     * Espera a que se escriban en el archivo todos los eventos estructurados registrados antes de la llamada.
+     *
+     * @param timeoutMillis El tiempo máximo de espera en milisegundos.
+     * @return {@code true} si se escribieron todos los eventos; {@code false} si se agotó el tiempo o se
+     * interrumpió la espera.
+     */
+    public boolean flush(long timeoutMillis) {
+        return writer.flush(timeoutMillis);
+    }
+
+    /**
+     * Obtiene el formato con el que se escriben los eventos estructurados.
+     *
+     * @return El formato de los eventos.
+     */
+    public LogFormat getFormat() {
+        return writer.getFormat();
+    }
+
+    /**
+     * Establece el formato con el que se escriben los eventos estructurados. Los mensajes registrados con
+     * {@link #log(String, LogLevel)} siempre se escriben como texto. Las consultas con {@link #query(LogQuery)} solo
+     * reconocen el formato {@link LogFormat#TEXT}.
+     *
+     * @param format El formato de los eventos.
+     */
+    public void setFormat(LogFormat format) {
+        writer.setFormat(format);
+    }
+
+    /**
+     * Establece el manejador que recibirá los errores del hilo escritor de los eventos estructurados.
+     *
+     * @param onError El manejador de errores, o {@code null} para ignorarlos.
+     */
+    public void setOnError(Consumer<Exception> onError) {
+        writer.setOnError(onError);
+    }
+
+    /**
+     * Busca en el archivo de log las entradas que cumplen los criterios de una consulta.
+     *
+     * @param query Los criterios de la consulta.
+     * @return Un flujo ordenado y perezoso con las entradas encontradas. Debe cerrarse si no se consume por completo.
+     * @see #query(Path, LogQuery, Consumer)
+     */
+    public Stream<LogEntry> query(LogQuery query) {
+        return query(query, null);
+    }
+
+    /**
+     * Busca en el archivo de log las entradas que cumplen los criterios de una consulta.
+     *
+     * @param query   Los criterios de la consulta.
+     * @param onError El manejador de error que se ejecutará si falla la lectura del archivo (opcional).
+     * @return Un flujo ordenado y perezoso con las entradas encontradas. Debe cerrarse si no se consume por completo.
+     * @see #query(Path, LogQuery, Consumer)
+     */
+    public Stream<LogEntry> query(LogQuery query, Consumer<Exception> onError) {
+        return query(persistManager.getFileFullPath(), query, onError);
+    }
+
+    /**
+     * Busca en un archivo de log las entradas que cumplen los criterios de una consulta.
+     * El inicio del rango de tiempo se localiza mediante búsqueda binaria, por lo que el archivo debe estar en orden
+     * cronológico, y el rango se examina en paralelo por fragmentos mapeados en memoria. Las entradas se entregan en
+     * el orden del archivo a medida que se consumen.
+     *
+     * @param logFile La ruta del archivo de log.
+     * @param query   Los criterios de la consulta.
+     * @param onError El manejador de error que se ejecutará si falla la lectura del archivo (opcional). Tras un
+     *                error el flujo termina.
+     * @return Un flujo ordenado y perezoso con las entradas encontradas. Debe cerrarse si no se consume por completo.
+     */
+    public static Stream<LogEntry> query(Path logFile, LogQuery query, Consumer<Exception> onError) {
+        return LogSearcher.search(logFile, query, onError);
+    }
+
+    /**
+     * Sigue el archivo de log y entrega cada nueva entrada a medida que se escribe.
+     *
+     * @param onLine  El consumidor que recibirá cada línea nueva del log.
+     * @param onError El manejador de error que se ejecutará si falla una lectura (opcional).
+     * @return El lector iniciado, que debe cerrarse cuando ya no se necesite.
+     */
+    public FileTailer tail(Consumer<String> onLine, Consumer<Exception> onError) {
+        return persistManager.tail(true, onLine, onError);
     }
 }
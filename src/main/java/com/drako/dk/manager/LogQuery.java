@@ -0,0 +1,173 @@
+package com.drako.dk.manager;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Criterios de búsqueda de entradas en el archivo de log.
+ * Todos los criterios son opcionales; una consulta sin criterios devuelve todas las entradas.
+ * Los métodos devuelven la propia consulta para poder encadenarlos.
+ */
+public class LogQuery {
+    /**
+     * Fecha y hora mínima de las entradas, incluida, o {@code null} si no hay límite inferior.
+     */
+    private LocalDateTime from;
+
+    /**
+     * Fecha y hora máxima de las entradas, incluida, o {@code null} si no hay límite superior.
+     */
+    private LocalDateTime to;
+
+    /**
+     * Niveles de log aceptados.
+     */
+    private final Set<LogLevel> levels = EnumSet.allOf(LogLevel.class);
+
+    /**
+     * Texto que debe contener el mensaje, o {@code null} si no se filtra por texto.
+     */
+    private String contains;
+
+    /**
+     * Expresión regular que debe encontrarse en el mensaje, o {@code null} si no se filtra por expresión.
+     */
+    private Pattern pattern;
+
+    /**
+     * Número de fragmentos del archivo que se examinan simultáneamente.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Establece la fecha y hora mínima de las entradas.
+     *
+     * @param from La fecha y hora mínima, incluida, o {@code null} para no limitarla.
+     * @return Esta consulta.
+     */
+    public LogQuery from(LocalDateTime from) {
+        this.from = from;
+        return this;
+    }
+
+    /**
+     * Establece la fecha y hora máxima de las entradas.
+     *
+     * @param to La fecha y hora máxima, incluida, o {@code null} para no limitarla.
+     * @return Esta consulta.
+     */
+    public LogQuery to(LocalDateTime to) {
+        this.to = to;
+        return this;
+    }
+
+    /**
+     * Limita la consulta a los niveles indicados.
+     *
+     * @param level  Un nivel aceptado.
+     * @param others Otros niveles aceptados.
+     * @return Esta consulta.
+     */
+    public LogQuery levels(LogLevel level, LogLevel... others) {
+        levels.clear();
+        levels.addAll(EnumSet.of(level, others));
+        return this;
+    }
+
+    /**
+     * Limita la consulta a los mensajes que contienen un texto.
+     *
+     * @param text El texto a buscar, o {@code null} para no filtrar por texto.
+     * @return Esta consulta.
+     */
+    public LogQuery contains(String text) {
+        this.contains = text;
+        return this;
+    }
+
+    /**
+     * Limita la consulta a los mensajes en los que se encuentra una expresión regular.
+     *
+     * @param regex La expresión regular, o {@code null} para no filtrar por expresión.
+     * @return Esta consulta.
+     * @throws java.util.regex.PatternSyntaxException Si la expresión no es válida.
+     */
+    public LogQuery matches(String regex) {
+        this.pattern = regex != null ? Pattern.compile(regex) : null;
+        return this;
+    }
+
+    /**
+     * Establece el número de fragmentos del archivo que se examinan simultáneamente.
+     *
+     * @param parallelism El nivel de paralelismo.
+     * @return Esta consulta.
+     * @throws IllegalArgumentException Si el nivel de paralelismo es menor que 1.
+     */
+    public LogQuery parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than 0.");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Obtiene la fecha y hora mínima de las entradas.
+     *
+     * @return La fecha y hora mínima, o {@code null} si no hay límite inferior.
+     */
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    /**
+     * Obtiene la fecha y hora máxima de las entradas.
+     *
+     * @return La fecha y hora máxima, o {@code null} si no hay límite superior.
+     */
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    /**
+     * Obtiene los niveles aceptados.
+     *
+     * @return Una copia del conjunto de niveles aceptados.
+     */
+    public Set<LogLevel> getLevels() {
+        return EnumSet.copyOf(levels);
+    }
+
+    /**
+     * Obtiene el nivel de paralelismo de la consulta.
+     *
+     * @return El número de fragmentos que se examinan simultáneamente.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Comprueba si un mensaje cumple los criterios de texto de la consulta.
+     *
+     * @param message El mensaje.
+     * @return {@code true} si el mensaje cumple los criterios.
+     */
+    boolean acceptsMessage(String message) {
+        if (contains != null && !message.contains(contains))
+            return false;
+        return pattern == null || pattern.matcher(message).find();
+    }
+
+    /**
+     * Indica si la consulta filtra por el texto del mensaje.
+     *
+     * @return {@code true} si hay algún criterio de texto.
+     */
+    boolean filtersMessage() {
+        return contains != null || pattern != null;
+    }
+}
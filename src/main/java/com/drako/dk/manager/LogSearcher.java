@@ -0,0 +1,408 @@
+package com.drako.dk.manager;
+
+import com.drako.dk.metrics.Metrics;
+import com.drako.dk.metrics.Operation;
+import com.drako.dk.metrics.OperationTimer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Motor de consultas sobre archivos de log con el formato de {@link LogManager#getLogMessage(String, LogLevel)}.
+ * <p>
+ * Como las entradas se escriben en orden cronológico, el inicio y el final del rango de tiempo se localizan con una
+ * búsqueda binaria sobre las posiciones del archivo, leyendo solo la cabecera de unas pocas líneas. El rango
+ * resultante se divide en fragmentos que empiezan siempre al comienzo de una entrada y que se examinan en paralelo
+ * mediante archivos mapeados en memoria. Los resultados se entregan en orden y de forma perezosa: solo se examinan
+ * por adelantado unos pocos fragmentos más de los que ya ha consumido el llamador.
+ * <p>
+ * Las líneas que no empiezan por una cabecera válida se consideran continuación del mensaje de la entrada anterior.
+ * Varios escritores que añaden entradas a la vez pueden dejarlas ligeramente desordenadas, por lo que la búsqueda
+ * binaria amplía el rango {@value #SEEK_SLACK_SECONDS} segundos por cada lado y las entradas sobrantes se descartan
+ * al examinarlas. Si el archivo está más desordenado, la búsqueda binaria puede omitir entradas del rango.
+ */
+class LogSearcher implements Iterator<LogEntry> {
+    /**
+     * Tamaño mínimo de cada fragmento examinado en paralelo.
+     */
+    static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * Tamaño máximo de cada fragmento examinado en paralelo.
+     */
+    static final int MAX_CHUNK_SIZE = 64 << 20;
+
+    /**
+     * Margen, en segundos, con el que se amplía a cada lado el rango localizado por la búsqueda binaria.
+     */
+    static final int SEEK_SLACK_SECONDS = 10;
+
+    /**
+     * Longitud de la parte fija de la cabecera: {@code [yyyy-MM-dd HH:mm:ss] [}.
+     */
+    private static final int HEADER_LENGTH = 23;
+
+    /**
+     * Longitud máxima del nombre de un nivel de log.
+     */
+    private static final int MAX_LEVEL_LENGTH = 16;
+
+    private static final int SCAN_BLOCK_SIZE = 8192;
+    private static final LogLevel[] LEVELS = LogLevel.values();
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final FileChannel channel;
+    private final long size;
+    private final LogQuery query;
+    private final Set<LogLevel> levels;
+    private final long fromKey;
+    private final long toKey;
+    private final Charset charset = Charset.defaultCharset();
+    private final OperationTimer timer;
+    private final Consumer<Exception> onError;
+    private final List<long[]> chunks;
+    private final Deque<Future<List<LogEntry>>> window = new ArrayDeque<>();
+    private final ExecutorService executor;
+    private int nextChunk;
+    private long scanned;
+    private Iterator<LogEntry> current = Collections.emptyIterator();
+    private boolean closed;
+
+    private LogSearcher(Path logFile, LogQuery query, OperationTimer timer, Consumer<Exception> onError) throws IOException {
+        this.query = query;
+        this.levels = query.getLevels();
+        this.timer = timer;
+        this.onError = onError;
+        this.fromKey = query.getFrom() != null ? key(query.getFrom()) : Long.MIN_VALUE;
+        this.toKey = query.getTo() != null ? key(query.getTo()) : Long.MAX_VALUE;
+        this.channel = FileChannel.open(logFile, StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            long start = query.getFrom() != null ? seek(key(query.getFrom().minusSeconds(SEEK_SLACK_SECONDS))) : 0L;
+            long end = query.getTo() != null ? seek(key(query.getTo().plusSeconds(SEEK_SLACK_SECONDS)) + 1) : size;
+            this.chunks = split(start, end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        int threads = Math.max(1, Math.min(query.getParallelism(), chunks.size()));
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "dk-log-query-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < query.getParallelism() * 2; i++)
+            submitNext();
+    }
+
+    /**
+     * Ejecuta una consulta sobre un archivo de log.
+     *
+     * @param logFile La ruta del archivo de log.
+     * @param query   Los criterios de la consulta.
+     * @param onError El manejador de error que se ejecutará si falla la lectura del archivo (opcional). Tras un error
+     *                el flujo termina.
+     * @return Un flujo ordenado y perezoso con las entradas que cumplen los criterios. Debe cerrarse si no se
+     * consume por completo.
+     */
+    static Stream<LogEntry> search(Path logFile, LogQuery query, Consumer<Exception> onError) {
+        OperationTimer timer = Metrics.start(Operation.QUERY_LOG, logFile);
+        LogSearcher searcher;
+        try {
+            searcher = new LogSearcher(logFile, query, timer, onError);
+        } catch (IOException e) {
+            timer.failure(e);
+            if (onError != null)
+                onError.accept(e);
+            return Stream.empty();
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(searcher, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(searcher::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            Future<List<LogEntry>> next = window.poll();
+            if (closed || next == null) {
+                close();
+                return false;
+            }
+            try {
+                current = next.get().iterator();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                fail(cause instanceof Exception ? (Exception) cause : new IOException(cause));
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+                return false;
+            }
+            submitNext();
+        }
+        return true;
+    }
+
+    @Override
+    public LogEntry next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        return current.next();
+    }
+
+    /**
+     * Detiene la consulta y libera el archivo. Las llamadas posteriores no tienen efecto.
+     */
+    void close() {
+        if (closed)
+            return;
+        closed = true;
+        timer.success(scanned);
+        release();
+    }
+
+    private void fail(Exception e) {
+        if (closed)
+            return;
+        closed = true;
+        timer.failure(e);
+        release();
+        if (onError != null)
+            onError.accept(e);
+    }
+
+    private void release() {
+        executor.shutdownNow();
+        current = Collections.emptyIterator();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // El canal solo se utilizaba para lectura.
+        }
+    }
+
+    private void submitNext() {
+        if (nextChunk >= chunks.size())
+            return;
+        long[] chunk = chunks.get(nextChunk++);
+        scanned += chunk[1] - chunk[0];
+        window.add(executor.submit(() -> scan(chunk[0], chunk[1])));
+    }
+
+    /**
+     * Busca la primera entrada cuya marca de tiempo es igual o posterior a la indicada.
+     *
+     * @param targetKey La marca de tiempo buscada, en formato numérico {@code yyyyMMddHHmmss}.
+     * @return La posición de la entrada, o el tamaño del archivo si no existe.
+     */
+    private long seek(long targetKey) throws IOException {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            long middle = low + (high - low) / 2;
+            long header = headerAtOrAfter(middle);
+            if (header == size || keyAt(header) >= targetKey)
+                high = middle;
+            else
+                low = middle + 1;
+        }
+        return headerAtOrAfter(low);
+    }
+
+    /**
+     * Divide un rango del archivo en fragmentos que empiezan al comienzo de una entrada.
+     */
+    private List<long[]> split(long start, long end) throws IOException {
+        List<long[]> result = new ArrayList<>();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, (end - start) / (query.getParallelism() * 4L)));
+        long chunkStart = start;
+        while (chunkStart < end) {
+            long chunkEnd = end - chunkStart > chunkSize ? Math.min(headerAtOrAfter(chunkStart + chunkSize), end) : end;
+            result.add(new long[]{chunkStart, chunkEnd});
+            chunkStart = chunkEnd;
+        }
+        return result;
+    }
+
+    /**
+     * Obtiene la posición de la primera línea con cabecera válida que empieza en la posición indicada o después.
+     *
+     * @param position La posición a partir de la que se busca.
+     * @return La posición de la línea, o el tamaño del archivo si no existe.
+     */
+    private long headerAtOrAfter(long position) throws IOException {
+        if (position == 0 && keyAt(0) >= 0)
+            return 0;
+        ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK_SIZE);
+        long scan = Math.max(position - 1, 0);
+        while (scan < size) {
+            block.clear();
+            int read = channel.read(block, scan);
+            if (read <= 0)
+                break;
+            for (int i = 0; i < read; i++) {
+                if (block.get(i) != '\n')
+                    continue;
+                long lineStart = scan + i + 1;
+                if (lineStart >= size)
+                    return size;
+                if (lineStart >= position && keyAt(lineStart) >= 0)
+                    return lineStart;
+            }
+            scan += read;
+        }
+        return size;
+    }
+
+    private long keyAt(long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        while (header.hasRemaining() && channel.read(header, position + header.position()) > 0) {
+            // Lee la cabecera completa o hasta el final del archivo.
+        }
+        header.flip();
+        return headerKey(header, 0);
+    }
+
+    /**
+     * Examina un fragmento del archivo y devuelve las entradas que cumplen los criterios.
+     */
+    private List<LogEntry> scan(long start, long end) throws IOException {
+        if (end - start > Integer.MAX_VALUE)
+            throw new IOException("Log entry at offset " + start + " is too large to be mapped");
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        List<LogEntry> entries = new ArrayList<>();
+        int limit = buffer.limit();
+        int entryStart = -1;
+        long entryKey = 0;
+        LogLevel entryLevel = null;
+        boolean accepted = false;
+        int messageStart = 0;
+        int messageEnd = 0;
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n')
+                lineEnd++;
+            long key = headerKey(buffer, lineStart);
+            int levelEnd = key >= 0 ? levelEnd(buffer, lineStart, lineEnd) : -1;
+            LogLevel level = levelEnd >= 0 ? level(buffer, lineStart + HEADER_LENGTH, levelEnd) : null;
+            if (level != null) {
+                if (accepted)
+                    addEntry(entries, buffer, start + entryStart, entryKey, entryLevel, messageStart, messageEnd);
+                entryStart = lineStart;
+                entryKey = key;
+                entryLevel = level;
+                accepted = key >= fromKey && key <= toKey && levels.contains(level);
+                messageStart = Math.min(levelEnd + 2, lineEnd);
+            }
+            messageEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            lineStart = lineEnd + 1;
+        }
+        if (accepted)
+            addEntry(entries, buffer, start + entryStart, entryKey, entryLevel, messageStart, messageEnd);
+        return entries;
+    }
+
+    private void addEntry(List<LogEntry> entries, ByteBuffer buffer, long offset, long key, LogLevel level,
+                          int messageStart, int messageEnd) {
+        String message = charset.decode(buffer.slice(messageStart, Math.max(0, messageEnd - messageStart))).toString();
+        if (query.acceptsMessage(message))
+            entries.add(new LogEntry(timestamp(key), level, message, offset));
+    }
+
+    /**
+     * Obtiene la marca de tiempo de una cabecera en formato numérico {@code yyyyMMddHHmmss}.
+     *
+     * @param buffer El búfer que contiene la línea.
+     * @param index  La posición del inicio de la línea.
+     * @return La marca de tiempo, o -1 si la línea no empieza por una cabecera válida.
+     */
+    static long headerKey(ByteBuffer buffer, int index) {
+        if (index + HEADER_LENGTH > buffer.limit() || buffer.get(index) != '[' || buffer.get(index + 20) != ']'
+                || buffer.get(index + 21) != ' ' || buffer.get(index + 22) != '[')
+            return -1;
+        long key = 0;
+        for (int i = 1; i < 20; i++) {
+            byte b = buffer.get(index + i);
+            switch (i) {
+                case 5:
+                case 8:
+                    if (b != '-')
+                        return -1;
+                    break;
+                case 11:
+                    if (b != ' ')
+                        return -1;
+                    break;
+                case 14:
+                case 17:
+                    if (b != ':')
+                        return -1;
+                    break;
+                default:
+                    if (b < '0' || b > '9')
+                        return -1;
+                    key = key * 10 + (b - '0');
+            }
+        }
+        return key;
+    }
+
+    private static int levelEnd(ByteBuffer buffer, int lineStart, int lineEnd) {
+        int limit = Math.min(lineEnd, lineStart + HEADER_LENGTH + MAX_LEVEL_LENGTH);
+        for (int i = lineStart + HEADER_LENGTH; i < limit; i++) {
+            if (buffer.get(i) == ']')
+                return i;
+        }
+        return -1;
+    }
+
+    private static LogLevel level(ByteBuffer buffer, int start, int end) {
+        for (LogLevel level : LEVELS) {
+            String name = level.name();
+            if (name.length() != end - start)
+                continue;
+            int i = 0;
+            while (i < name.length() && buffer.get(start + i) == name.charAt(i))
+                i++;
+            if (i == name.length())
+                return level;
+        }
+        return null;
+    }
+
+    static long key(LocalDateTime time) {
+        return time.getYear() * 10_000_000_000L + time.getMonthValue() * 100_000_000L + time.getDayOfMonth() * 1_000_000L
+                + time.getHour() * 10_000L + time.getMinute() * 100L + time.getSecond();
+    }
+
+    private static LocalDateTime timestamp(long key) {
+        return LocalDateTime.of((int) (key / 10_000_000_000L), (int) (key / 100_000_000L % 100), (int) (key / 1_000_000L % 100),
+                (int) (key / 10_000L % 100), (int) (key / 100L % 100), (int) (key % 100));
+    }
+}
@@ -0,0 +1,397 @@
+package com.drako.dk.manager;
+
+import com.drako.dk.metrics.Metrics;
+import com.drako.dk.metrics.Operation;
+import com.drako.dk.metrics.OperationTimer;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Escritor en segundo plano de los eventos de log estructurados.
+ * <p>
+ * Los hilos que registran eventos solo rellenan un {@link LogEvent} tomado de un conjunto de eventos libres y lo
+ * encolan. Un único hilo escritor toma los eventos en lotes, les da formato en un búfer de texto reutilizable,
+ * escribe cada lote con una sola adición al archivo y devuelve los eventos al conjunto. Si la cola está llena, los
+ * hilos que registran esperan a que el escritor la vacíe.
+ * <p>
+ * La hora de cada evento es la del momento en que el escritor le da formato, no la de la llamada, para que el
+ * archivo siga en orden cronológico aunque los eventos esperen en la cola y se intercalen con las entradas escritas
+ * directamente por {@link LogManager#log(String, LogLevel)}.
+ * <p>
+ * Cada evento ocupa exactamente una línea: en el formato de texto los saltos de línea del mensaje, de los campos y
+ * de las trazas de excepción se escriben como {@code \n} y {@code \r}. Un único gancho de apagado, compartido por
+ * todos los escritores, espera a que se escriban los eventos pendientes antes de que termine la máquina virtual.
+ */
+class LogWriter {
+    /**
+     * Número máximo de eventos pendientes de escribir.
+     */
+    static final int QUEUE_CAPACITY = 8192;
+
+    /**
+     * Número máximo de eventos libres que se conservan para reutilizarlos.
+     */
+    static final int POOL_CAPACITY = 1024;
+
+    /**
+     * Número máximo de eventos escritos con una sola adición al archivo.
+     */
+    static final int MAX_BATCH = 512;
+
+    private static final DateTimeFormatter TEXT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter JSON_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    /**
+     * Tiempo máximo que el gancho de apagado espera a que se escriban los eventos pendientes.
+     */
+    private static final long SHUTDOWN_FLUSH_MILLIS = 5_000L;
+
+    /**
+     * Escritores con hilo iniciado, que el gancho de apagado compartido vacía.
+     */
+    private static final Set<LogWriter> STARTED = ConcurrentHashMap.newKeySet();
+    private static final AtomicBoolean SHUTDOWN_HOOK = new AtomicBoolean();
+
+    private final PersistManager persistManager;
+    private final BlockingQueue<LogEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Queue<LogEvent> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private volatile LogFormat format = LogFormat.TEXT;
+    private volatile Consumer<Exception> onError;
+    private Thread thread;
+
+    /**
+     * Número de eventos escritos, protegido por el monitor de este escritor.
+     */
+    private long written;
+
+    // Estado confinado al hilo escritor.
+    private final List<LogEvent> batch = new ArrayList<>(MAX_BATCH);
+    private final StringBuilder text = new StringBuilder(8192);
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedTextTime;
+
+    LogWriter(PersistManager persistManager) {
+        this.persistManager = persistManager;
+    }
+
+    LogFormat getFormat() {
+        return format;
+    }
+
+    void setFormat(LogFormat format) {
+        if (format == null) {
+            throw new IllegalArgumentException("format must not be null.");
+        }
+        this.format = format;
+    }
+
+    void setOnError(Consumer<Exception> onError) {
+        this.onError = onError;
+    }
+
+    /**
+     * Toma un evento libre, o crea uno nuevo si no hay ninguno, y lo prepara con el nivel indicado.
+     */
+    LogEvent obtain(LogLevel level) {
+        LogEvent event = pool.poll();
+        if (event == null)
+            event = new LogEvent(this);
+        else
+            pooled.decrementAndGet();
+        event.start(level);
+        return event;
+    }
+
+    /**
+     * Encola un evento para escribirlo, esperando si la cola está llena.
+     */
+    void submit(LogEvent event) {
+        ensureStarted();
+        submitted.incrementAndGet();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(event);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Espera a que se escriban todos los eventos registrados antes de la llamada.
+     *
+     * @param timeoutMillis El tiempo máximo de espera en milisegundos.
+     * @return {@code true} si se escribieron todos los eventos; {@code false} si se agotó el tiempo o se
+     * interrumpió la espera.
+     */
+    boolean flush(long timeoutMillis) {
+        long target = submitted.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (this) {
+            while (written < target) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0)
+                    return false;
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private synchronized void ensureStarted() {
+        if (thread != null)
+            return;
+        thread = new Thread(this::run, "dk-log-writer-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+        STARTED.add(this);
+        if (SHUTDOWN_HOOK.compareAndSet(false, true))
+            Runtime.getRuntime().addShutdownHook(new Thread(LogWriter::flushAll, "dk-log-shutdown"));
+    }
+
+    /**
+     * Espera a que todos los escritores iniciados escriban sus eventos pendientes, con un único plazo común.
+     */
+    private static void flushAll() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_FLUSH_MILLIS);
+        for (LogWriter writer : STARTED) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0 || !writer.flush(remaining))
+                return;
+        }
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            writeBatch();
+        }
+    }
+
+    /**
+     * Da formato al lote actual y lo escribe. Ningún error, tampoco uno lanzado por el manejador de error, detiene el
+     * hilo escritor: los eventos del lote se cuentan como escritos y se devuelven al conjunto en cualquier caso, para
+     * que {@link #flush(long)} y {@link #submit(LogEvent)} no esperen indefinidamente.
+     */
+    private void writeBatch() {
+        Consumer<Exception> onError = this::report;
+        LogFormat currentFormat = format;
+        try {
+            long timestamp = System.currentTimeMillis();
+            for (LogEvent event : batch) {
+                int start = text.length();
+                try {
+                    if (currentFormat == LogFormat.JSON)
+                        renderJson(event, timestamp);
+                    else
+                        renderText(event, timestamp);
+                } catch (Throwable e) {
+                    // Un argumento cuyo toString falla no debe detener el hilo escritor.
+                    text.setLength(start);
+                    report(e);
+                    continue;
+                }
+                text.append(System.lineSeparator());
+            }
+            if (text.length() > 0) {
+                OperationTimer timer = Metrics.start(Operation.LOG, persistManager.getFileFullPath());
+                if (persistManager.writeTextFile(text.toString(), true, onError))
+                    timer.success(-1L);
+                else
+                    timer.failure();
+            }
+        } catch (Throwable e) {
+            report(e);
+        } finally {
+            int count = batch.size();
+            for (LogEvent event : batch)
+                release(event);
+            batch.clear();
+            text.setLength(0);
+            if (text.capacity() > MAX_BATCH * 1024)
+                text.trimToSize();
+            synchronized (this) {
+                written += count;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Entrega un error al manejador, si existe, ignorando cualquier error que lance el propio manejador.
+     */
+    private void report(Throwable error) {
+        Consumer<Exception> handler = onError;
+        if (handler == null)
+            return;
+        try {
+            handler.accept(error instanceof Exception ? (Exception) error
+                    : new IllegalStateException("Failed to write log events.", error));
+        } catch (Throwable ignored) {
+            // El manejador de error no debe detener el hilo escritor.
+        }
+    }
+
+    private void release(LogEvent event) {
+        event.clear();
+        if (pooled.incrementAndGet() > POOL_CAPACITY) {
+            pooled.decrementAndGet();
+            return;
+        }
+        pool.add(event);
+    }
+
+    private void renderText(LogEvent event, long timestamp) {
+        long second = timestamp / 1000L;
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTextTime = dateTime(timestamp).format(TEXT_FORMATTER);
+        }
+        text.append('[').append(cachedTextTime).append("] [").append(event.getLevel()).append("] ");
+        int start = text.length();
+        renderMessage(event);
+        for (int i = 0; i < event.getFieldCount(); i++)
+            text.append(' ').append(event.getKey(i)).append('=').append(event.getValue(i));
+        escapeLineBreaks(start);
+    }
+
+    private void renderJson(LogEvent event, long timestamp) {
+        text.append("{\"time\":\"").append(dateTime(timestamp).format(JSON_FORMATTER))
+                .append("\",\"level\":\"").append(event.getLevel()).append("\",\"message\":\"");
+        int start = text.length();
+        renderMessage(event);
+        escapeJson(start);
+        text.append('"');
+        for (int i = 0; i < event.getFieldCount(); i++) {
+            text.append(",\"");
+            start = text.length();
+            text.append(event.getKey(i));
+            escapeJson(start);
+            text.append("\":");
+            Object value = event.getValue(i);
+            if (value == null || value instanceof Boolean || value instanceof Integer || value instanceof Long
+                    || value instanceof Short || value instanceof Byte
+                    || (value instanceof Double && Double.isFinite((Double) value))
+                    || (value instanceof Float && Float.isFinite((Float) value))) {
+                text.append(value);
+            } else {
+                text.append('"');
+                start = text.length();
+                text.append(value);
+                escapeJson(start);
+                text.append('"');
+            }
+        }
+        text.append('}');
+    }
+
+    /**
+     * Sustituye cada {@code {}} de la plantilla por el siguiente argumento y añade la traza de un último
+     * argumento {@link Throwable} que no se haya utilizado.
+     */
+    private void renderMessage(LogEvent event) {
+        String template = event.getTemplate();
+        int used = 0;
+        if (template == null) {
+            text.append("null");
+        } else {
+            int from = 0;
+            int index;
+            while (used < event.getArgumentCount() && (index = template.indexOf("{}", from)) >= 0) {
+                text.append(template, from, index).append(event.getArgument(used++));
+                from = index + 2;
+            }
+            text.append(template, from, template.length());
+        }
+        if (used < event.getArgumentCount() && event.getArgument(event.getArgumentCount() - 1) instanceof Throwable) {
+            StringWriter trace = new StringWriter();
+            ((Throwable) event.getArgument(event.getArgumentCount() - 1)).printStackTrace(new PrintWriter(trace));
+            text.append(System.lineSeparator()).append(trace.toString().stripTrailing());
+        }
+    }
+
+    /**
+     * Escapa los saltos de línea a partir de una posición del búfer para que el evento ocupe una sola línea.
+     */
+    private void escapeLineBreaks(int start) {
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                text.replace(i, i + 1, c == '\n' ? "\\n" : "\\r");
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Escapa los caracteres especiales de JSON a partir de una posición del búfer.
+     */
+    private void escapeJson(int start) {
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement;
+            switch (c) {
+                case '"':
+                    replacement = "\\\"";
+                    break;
+                case '\\':
+                    replacement = "\\\\";
+                    break;
+                case '\n':
+                    replacement = "\\n";
+                    break;
+                case '\r':
+                    replacement = "\\r";
+                    break;
+                case '\t':
+                    replacement = "\\t";
+                    break;
+                default:
+                    replacement = c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+            }
+            if (replacement != null) {
+                text.replace(i, i + 1, replacement);
+                i += replacement.length() - 1;
+            }
+        }
+    }
+
+    private static LocalDateTime dateTime(long timestamp) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+}
@@ -1,17 +1,68 @@
 package com.drako.dk.manager;
 
 import com.drako.dk.file.FileDescriptor;
+import com.drako.dk.file.FileTailer;
 import com.drako.dk.handler.CompletionHandler;
+import com.drako.dk.io.AsyncFileIO;
+import com.drako.dk.io.ChannelCache;
+import com.drako.dk.io.CountingInputStream;
+import com.drako.dk.io.CountingOutputStream;
+import com.drako.dk.io.FileChunkPublisher;
+import com.drako.dk.io.IOPriority;
+import com.drako.dk.io.IOScheduler;
+import com.drako.dk.io.PathLocks;
+import com.drako.dk.io.Throttle;
+import com.drako.dk.metrics.Metrics;
+import com.drako.dk.metrics.Operation;
+import com.drako.dk.metrics.OperationTimer;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Flow;
 import java.util.function.Consumer;
 
 /**
  * La clase PersistManager facilita la persistencia de datos al proporcionar métodos para almacenar y recuperar objetos serializables en archivos binarios, así como para escribir y leer contenido de texto en archivos.
+ * <p>
+ * Los métodos asíncronos de lectura y de reemplazo de contenido utilizan {@link AsyncFileIO}, por lo que ningún hilo
+ * queda bloqueado mientras la operación está en curso. Si el bloqueo entre procesos o el guardado diferencial están
+ * activados, se ejecutan como operaciones bloqueantes en el {@link IOScheduler}, ya que {@link FileChannel#lock()} y
+ * la comparación por bloques requieren un canal síncrono. Lo mismo ocurre con los métodos de objetos si se guardan
+ * en un {@link ContentStore} y con las escrituras limitadas por {@link Throttle}.
  */
 public class PersistManager extends FileDescriptor {
+    /**
+     * Nivel de concurrencia predeterminado para las operaciones por lotes.
+     */
+    public static final int DEFAULT_BATCH_CONCURRENCY = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Indica si, además del bloqueo interno por ruta, se bloquea el archivo a nivel de sistema operativo
+     * mediante {@link FileChannel#lock()} para proteger el acceso desde otros procesos.
+     */
+    private boolean crossProcessLocking;
+
+    /**
+     * Indica si los reemplazos de contenido reescriben solo los bloques que cambian mediante {@link DeltaFile}.
+     */
+    private boolean deltaSave;
+
+    /**
+     * El almacén direccionado por contenido en el que se guardan los objetos, o {@code null} para guardarlos en el
+     * propio archivo.
+     */
+    private ContentStore contentStore;
 
     /**
      * Crea un nuevo objeto PersistManager con la ruta completa del archivo.
@@ -65,10 +116,22 @@ public class PersistManager extends FileDescriptor {
      * @return {@code true} si el objeto se guardó exitosamente; de lo contrario, {@code false}.
      */
     public <T extends Serializable> boolean saveObject(T object, Consumer<Exception> onError) {
-        try (ObjectOutputStream outputStream = new ObjectOutputStream(new FileOutputStream(fileFullPath.toFile()))) {
+        if (contentStore != null) {
+            byte[] data = serializeOrFail(object, onError);
+            return data != null && saveSerialized(data, onError);
+        }
+        Throttle.acquire(Operation.SAVE_OBJECT, 1L, 0L);
+        OperationTimer timer = Metrics.start(Operation.SAVE_OBJECT, fileFullPath);
+        try (PathLocks.Lock ignored = lockFile(true);
+             CountingOutputStream counter = new CountingOutputStream(
+                     Throttle.outputStream(Operation.SAVE_OBJECT, openOutputStream(false)));
+             ObjectOutputStream outputStream = new ObjectOutputStream(counter)) {
             outputStream.writeObject(object);
+            outputStream.flush();
+            timer.success(counter.getCount());
             return true;
         } catch (Exception e) {
+            timer.failure(e);
             if (onError != null)
                 onError.accept(e);
         }
@@ -77,6 +140,8 @@ public class PersistManager extends FileDescriptor {
 
     /**
      * Guarda un objeto serializable de manera asíncrona en un archivo.
+     * El objeto se serializa en el hilo que llama a este método, por lo que los cambios posteriores en el objeto no
+     * afectan al contenido guardado.
      *
      * @param object     El objeto serializable que se va a guardar.
      * @param onComplete El manejador de finalización que se llamará una vez que la operación de guardado se haya completado.
@@ -89,11 +154,19 @@ public class PersistManager extends FileDescriptor {
         if (onComplete == null) {
             throw new IllegalArgumentException("CompletionHandler must not be null.");
         }
-        new Thread(() -> {
-            boolean result = saveObject(object, onComplete::onError);
-            if (result)
-                onComplete.onSuccessResult(fileFullPath);
-        }).start();
+        byte[] data = serializeOrFail(object, onComplete::onError);
+        if (data == null)
+            return;
+        if (crossProcessLocking || deltaSave || contentStore != null || Throttle.isLimited(Operation.SAVE_OBJECT)) {
+            IOScheduler.getInstance().submit(fileFullPath, IOPriority.NORMAL, () -> {
+                boolean result = saveSerialized(data, onComplete::onError);
+                if (result)
+                    onComplete.onSuccessResult(fileFullPath);
+            }, onComplete);
+            return;
+        }
+        OperationTimer timer = Metrics.start(Operation.SAVE_OBJECT, fileFullPath);
+        writeAsync(ByteBuffer.wrap(data), timer, onComplete);
     }
 
     /**
@@ -119,10 +192,34 @@ public class PersistManager extends FileDescriptor {
      * @return Un {@link Optional} que contiene el objeto leído si se realizó la lectura correctamente; de lo contrario, un Optional vacío.
      */
     public <T extends Serializable> Optional<T> readObject(Class<T> objectClass, Consumer<Exception> onError) {
-        try (ObjectInputStream inputStream = new ObjectInputStream(new FileInputStream(fileFullPath.toFile()))) {
+        OperationTimer timer = Metrics.start(Operation.READ_OBJECT, fileFullPath);
+        ContentStore store = contentStore;
+        if (store != null) {
+            try {
+                byte[] data = store.get(fileFullPath)
+                        .orElseThrow(() -> new NoSuchFileException(fileFullPath.toString()));
+                T result;
+                try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(data))) {
+                    result = objectClass.cast(inputStream.readObject());
+                }
+                timer.success(data.length);
+                return Optional.of(result);
+            } catch (Exception e) {
+                timer.failure(e);
+                if (onError != null)
+                    onError.accept(e);
+            }
+            return Optional.empty();
+        }
+        try (PathLocks.Lock ignored = lockFile(false);
+             CountingInputStream counter = new CountingInputStream(openInputStream());
+             ObjectInputStream inputStream = new ObjectInputStream(counter)) {
             Object objectRes = inputStream.readObject();
-            return Optional.of(objectClass.cast(objectRes));
+            T result = objectClass.cast(objectRes);
+            timer.success(counter.getCount());
+            return Optional.of(result);
         } catch (Exception e) {
+            timer.failure(e);
             if (onError != null)
                 onError.accept(e);
         }
@@ -142,10 +239,19 @@ public class PersistManager extends FileDescriptor {
         if (onComplete == null) {
             throw new IllegalArgumentException("CompletionHandler must not be null.");
         }
-        new Thread(() -> {
-            readObject(objectClass, onComplete::onError)
-                    .ifPresent(onComplete::onSuccessResult);
-        }).start();
+        if (crossProcessLocking || deltaSave || contentStore != null) {
+            IOScheduler.getInstance().submit(fileFullPath, IOPriority.HIGH, () -> {
+                readObject(objectClass, onComplete::onError)
+                        .ifPresent(onComplete::onSuccessResult);
+            }, onComplete);
+            return;
+        }
+        readAsync(Operation.READ_OBJECT, buffer -> {
+            try (ObjectInputStream inputStream = new ObjectInputStream(
+                    new ByteArrayInputStream(buffer.array(), buffer.arrayOffset(), buffer.remaining()))) {
+                return objectClass.cast(inputStream.readObject());
+            }
+        }, onComplete);
     }
 
     /**
@@ -179,10 +285,18 @@ public class PersistManager extends FileDescriptor {
      * @return {@code true} si el contenido se escribió correctamente en el archivo; de lo contrario, {@code false}.
      */
     public boolean writeTextFile(String content, boolean append, Consumer<Exception> onError) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileFullPath.toFile(), append))) {
+        Throttle.acquire(Operation.WRITE_TEXT, 1L, 0L);
+        OperationTimer timer = Metrics.start(Operation.WRITE_TEXT, fileFullPath);
+        try (PathLocks.Lock ignored = lockFile(true);
+             CountingOutputStream counter = new CountingOutputStream(
+                     Throttle.outputStream(Operation.WRITE_TEXT, openOutputStream(append)));
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(counter))) {
             writer.write(content);
+            writer.flush();
+            timer.success(counter.getCount());
             return true;
         } catch (Exception e) {
+            timer.failure(e);
             if (onError != null)
                 onError.accept(e);
         }
@@ -198,16 +312,28 @@ public class PersistManager extends FileDescriptor {
      *                   Debe proporcionarse y no puede ser nulo. La implementación de CompletionHandler se invocará con el
      *                   resultado de la operación de escritura y la ruta completa del archivo donde se escribió el contenido
      *                   en caso de éxito, o con una excepción en caso de error.
+     *                   Cuando {@code append} es {@code true}, las adiciones concurrentes sobre el mismo archivo se
+     *                   escriben en el orden en que se enviaron, agrupadas en escrituras de mayor tamaño, y el manejador
+     *                   se invoca una vez que el contenido se ha escrito.
      */
     public void writeTextFileAsync(String content, boolean append, CompletionHandler<Path> onComplete) {
         if (onComplete == null) {
             throw new IllegalArgumentException("CompletionHandler must not be null.");
         }
-        new Thread(() -> {
-            boolean result = writeTextFile(content, append, onComplete::onError);
-            if (result)
-                onComplete.onSuccessResult(fileFullPath);
-        }).start();
+        if (append) {
+            AppendQueue.submit(this, content, onComplete);
+            return;
+        }
+        if (crossProcessLocking || deltaSave || Throttle.isLimited(Operation.WRITE_TEXT)) {
+            IOScheduler.getInstance().submit(fileFullPath, IOPriority.NORMAL, () -> {
+                boolean result = writeTextFile(content, append, onComplete::onError);
+                if (result)
+                    onComplete.onSuccessResult(fileFullPath);
+            }, onComplete);
+            return;
+        }
+        OperationTimer timer = Metrics.start(Operation.WRITE_TEXT, fileFullPath);
+        writeAsync(Charset.defaultCharset().encode(content), timer, onComplete);
     }
 
     /**
@@ -227,14 +353,19 @@ public class PersistManager extends FileDescriptor {
      * @return Un {@link Optional} que contiene el contenido del archivo de texto si la lectura se realizó correctamente; de lo contrario, un Optional vacío.
      */
     public Optional<String> readTextFile(Consumer<Exception> onError) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(fileFullPath.toFile()))) {
+        OperationTimer timer = Metrics.start(Operation.READ_TEXT, fileFullPath);
+        try (PathLocks.Lock ignored = lockFile(false);
+             CountingInputStream counter = new CountingInputStream(openInputStream());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(counter))) {
             StringBuilder stringBuilder = new StringBuilder();
             String line;
             while ((line = reader.readLine()) != null) {
                 stringBuilder.append(line).append("\n");
             }
+            timer.success(counter.getCount());
             return Optional.of(stringBuilder.toString());
         } catch (Exception e) {
+            timer.failure(e);
             if (onError != null)
                 onError.accept(e);
         }
@@ -252,9 +383,443 @@ public class PersistManager extends FileDescriptor {
         if (onComplete == null) {
             throw new IllegalArgumentException("CompletionHandler must not be null.");
         }
-        new Thread(() -> {
-            readTextFile(onComplete::onError)
-                    .ifPresent(onComplete::onSuccessResult);
-        }).start();
+        if (crossProcessLocking || deltaSave) {
+            IOScheduler.getInstance().submit(fileFullPath, IOPriority.HIGH, () -> {
+                readTextFile(onComplete::onError)
+                        .ifPresent(onComplete::onSuccessResult);
+            }, onComplete);
+            return;
+        }
+        readAsync(Operation.READ_TEXT, buffer -> {
+            StringBuilder stringBuilder = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new StringReader(Charset.defaultCharset().decode(buffer).toString()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    stringBuilder.append(line).append("\n");
+                }
+            }
+            return stringBuilder.toString();
+        }, onComplete);
+    }
+
+    /**
+     * Obtiene un publicador que entrega el contenido del archivo en fragmentos a medida que el suscriptor los
+     * solicita, sin cargar el archivo completo en memoria. Cada fragmento solo es válido durante la llamada a
+     * {@link Flow.Subscriber#onNext(Object)}; consulte {@link FileChunkPublisher} para más detalles.
+     *
+     * @return El publicador del contenido del archivo.
+     */
+    public Flow.Publisher<ByteBuffer> readChunks() {
+        return new FileChunkPublisher(fileFullPath);
+    }
+
+    /**
+     * Lee el archivo completo con {@link AsyncFileIO} y convierte su contenido en el hilo que completa la lectura.
+     *
+     * @param operation  La operación con la que se registran las métricas.
+     * @param decoder    La conversión del contenido leído en el resultado.
+     * @param onComplete El manejador que recibirá el resultado o el error.
+     */
+    private <T> void readAsync(Operation operation, Decoder<T> decoder, CompletionHandler<T> onComplete) {
+        OperationTimer timer = Metrics.start(operation, fileFullPath);
+        AsyncFileIO.read(fileFullPath, IOPriority.HIGH, new CompletionHandler<ByteBuffer>() {
+            @Override
+            public void onSuccessResult(ByteBuffer result) {
+                T value;
+                try {
+                    int size = result.remaining();
+                    value = decoder.decode(result);
+                    timer.success(size);
+                } catch (Exception e) {
+                    timer.failure(e);
+                    onComplete.onError(e);
+                    return;
+                }
+                onComplete.onSuccessResult(value);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                timer.failure(e);
+                onComplete.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Reemplaza el contenido del archivo con {@link AsyncFileIO}.
+     *
+     * @param data       El contenido a escribir.
+     * @param timer      El temporizador de la operación, iniciado por quien llama.
+     * @param onComplete El manejador que recibirá la ruta del archivo o el error.
+     */
+    private void writeAsync(ByteBuffer data, OperationTimer timer, CompletionHandler<Path> onComplete) {
+        AsyncFileIO.write(fileFullPath, data, false, IOPriority.NORMAL, new CompletionHandler<Long>() {
+            @Override
+            public void onSuccessResult(Long result) {
+                timer.success(result);
+                onComplete.onSuccessResult(fileFullPath);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                timer.failure(e);
+                onComplete.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Sigue el archivo de texto y entrega cada línea que se le añada, leyendo solo los bytes nuevos en lugar del
+     * archivo completo. El seguimiento continúa tras truncados y rotaciones del archivo.
+     *
+     * @param fromEnd {@code true} para entregar solo las líneas añadidas a partir de ahora; {@code false} para
+     *                entregar también el contenido existente.
+     * @param onLine  El consumidor que recibirá cada línea nueva, sin el salto de línea.
+     * @param onError El manejador de error que se ejecutará si falla una lectura (opcional).
+     * @return El lector iniciado, que debe cerrarse cuando ya no se necesite.
+     */
+    public FileTailer tail(boolean fromEnd, Consumer<String> onLine, Consumer<Exception> onError) {
+        return FileTailer.follow(fileFullPath, fromEnd, onLine, onError);
+    }
+
+    /**
+     * Indica si se bloquea el archivo a nivel de sistema operativo durante las operaciones de lectura y escritura.
+     *
+     * @return {@code true} si el bloqueo entre procesos está activado; de lo contrario, {@code false}.
+     */
+    public boolean isCrossProcessLocking() {
+        return crossProcessLocking;
+    }
+
+    /**
+     * Activa o desactiva el bloqueo del archivo a nivel de sistema operativo mediante {@link FileChannel#lock()}.
+     * Las escrituras adquieren un bloqueo exclusivo y las lecturas uno compartido. Mientras esté activado, las
+     * lecturas dentro del mismo proceso también se serializan, ya que la máquina virtual no permite bloqueos
+     * solapados sobre un mismo archivo.
+     *
+     * @param crossProcessLocking {@code true} para activar el bloqueo entre procesos; {@code false} para desactivarlo.
+     */
+    public void setCrossProcessLocking(boolean crossProcessLocking) {
+        this.crossProcessLocking = crossProcessLocking;
+    }
+
+    /**
+     * Indica si el guardado diferencial está activado.
+     *
+     * @return {@code true} si los reemplazos de contenido solo reescriben los bloques que cambian.
+     */
+    public boolean isDeltaSave() {
+        return deltaSave;
+    }
+
+    /**
+     * Activa o desactiva el guardado diferencial. Cuando está activado, {@link #saveObject} y {@link #writeTextFile}
+     * comparan el nuevo contenido con el anterior en bloques de 64 KB y solo reescriben en su posición los bloques que
+     * cambian, truncando el archivo si el nuevo contenido es más corto. Cada guardado sigue leyendo el archivo
+     * completo para comprobar que los resúmenes guardados corresponden a su contenido, por lo que el ahorro es de
+     * escritura, no de lectura. Los resúmenes de los bloques se guardan en un archivo auxiliar junto al archivo
+     * ({@code .dkblocks}) y los bloques modificados pasan antes por un diario ({@code .dkjournal}) que permite
+     * completar o descartar un guardado interrumpido. El diario pendiente se aplica en la siguiente lectura o
+     * escritura del archivo, salvo que el archivo haya sido reemplazado por otra escritura antes de empezar a
+     * aplicarlo.
+     * <p>
+     * Mientras esté activado, los métodos asíncronos se ejecutan como operaciones bloqueantes en el
+     * {@link IOScheduler}.
+     *
+     * @param deltaSave {@code true} para activar el guardado diferencial; {@code false} para desactivarlo.
+     */
+    public void setDeltaSave(boolean deltaSave) {
+        this.deltaSave = deltaSave;
+    }
+
+    /**
+     * Obtiene el almacén direccionado por contenido en el que se guardan los objetos.
+     *
+     * @return El almacén, o {@code null} si los objetos se guardan en el propio archivo.
+     */
+    public ContentStore getContentStore() {
+        return contentStore;
+    }
+
+    /**
+     * Establece un almacén direccionado por contenido en el que {@link #saveObject} y {@link #readObject} guardan y
+     * leen los objetos en lugar de usar el propio archivo. La ruta de este gestor se utiliza como ruta lógica del
+     * almacén, de modo que los objetos con el mismo contenido guardados desde distintos gestores ocupan una sola copia,
+     * y volver a guardar un objeto sin cambios no escribe nada. Los métodos de texto no se ven afectados.
+     * <p>
+     * Mientras haya un almacén establecido, los métodos asíncronos de objetos se ejecutan como operaciones bloqueantes
+     * en el {@link IOScheduler}.
+     *
+     * @param contentStore El almacén, o {@code null} para volver a guardar los objetos en el propio archivo.
+     */
+    public void setContentStore(ContentStore contentStore) {
+        this.contentStore = contentStore;
+    }
+
+    /**
+     * Serializa un objeto en memoria.
+     *
+     * @param object El objeto a serializar.
+     * @return Los bytes del objeto serializado.
+     * @throws IOException Si el objeto no se puede serializar.
+     */
+    private static byte[] serialize(Serializable object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+            outputStream.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Serializa un objeto en memoria y, si falla, registra el error en las métricas y lo notifica.
+     *
+     * @param object  El objeto a serializar.
+     * @param onError El manejador del error (opcional).
+     * @return Los bytes del objeto serializado, o {@code null} si no se pudo serializar.
+     */
+    private byte[] serializeOrFail(Serializable object, Consumer<Exception> onError) {
+        try {
+            return serialize(object);
+        } catch (Exception e) {
+            Metrics.start(Operation.SAVE_OBJECT, fileFullPath).failure(e);
+            if (onError != null)
+                onError.accept(e);
+        }
+        return null;
+    }
+
+    /**
+     * Guarda un objeto ya serializado en el {@link ContentStore almacén} establecido o en el propio archivo.
+     *
+     * @param data    Los bytes del objeto serializado.
+     * @param onError El manejador del error (opcional).
+     * @return {@code true} si el objeto se guardó correctamente; de lo contrario, {@code false}.
+     */
+    private boolean saveSerialized(byte[] data, Consumer<Exception> onError) {
+        Throttle.acquire(Operation.SAVE_OBJECT, 1L, 0L);
+        OperationTimer timer = Metrics.start(Operation.SAVE_OBJECT, fileFullPath);
+        ContentStore store = contentStore;
+        try {
+            if (store != null) {
+                long written = store.put(fileFullPath, data) ? data.length : 0L;
+                timer.success(written);
+                Throttle.acquire(Operation.SAVE_OBJECT, 0L, written);
+                return true;
+            }
+            try (PathLocks.Lock ignored = lockFile(true);
+                 OutputStream outputStream = Throttle.outputStream(Operation.SAVE_OBJECT, openOutputStream(false))) {
+                outputStream.write(data);
+            }
+            timer.success(data.length);
+            return true;
+        } catch (Exception e) {
+            timer.failure(e);
+            if (onError != null)
+                onError.accept(e);
+        }
+        return false;
+    }
+
+    /**
+     * Adquiere el bloqueo interno de la ruta del archivo.
+     *
+     * @param exclusive Indica si la operación requiere acceso exclusivo.
+     * @return El bloqueo adquirido.
+     */
+    private PathLocks.Lock lockFile(boolean exclusive) {
+        return PathLocks.acquire(fileFullPath, exclusive || crossProcessLocking);
+    }
+
+    /**
+     * Abre un flujo de salida hacia el archivo, bloqueándolo a nivel de sistema operativo si corresponde.
+     * Si la {@link ChannelCache caché de canales} está activada y no se bloquea entre procesos, se reutiliza el
+     * canal en caché y se escribe con escrituras posicionales.
+     *
+     * @param append Indica si se debe escribir al final del archivo existente o reemplazarlo.
+     * @return El flujo de salida abierto. Al cerrarlo se libera el bloqueo del sistema operativo.
+     * @throws IOException Si ocurre un error al abrir o bloquear el archivo.
+     */
+    private OutputStream openOutputStream(boolean append) throws IOException {
+        if (deltaSave) {
+            if (append) {
+                DeltaFile.recover(fileFullPath);
+            } else {
+                FileChannel channel = FileChannel.open(fileFullPath,
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                try {
+                    if (crossProcessLocking)
+                        channel.lock();
+                } catch (IOException | RuntimeException e) {
+                    channel.close();
+                    throw e;
+                }
+                return DeltaFile.open(fileFullPath, channel);
+            }
+        }
+        if (!crossProcessLocking && ChannelCache.isEnabled()) {
+            ChannelCache.Handle handle = ChannelCache.acquire(fileFullPath, ChannelCache.Mode.WRITE);
+            try {
+                FileChannel channel = handle.channel();
+                if (!append)
+                    channel.truncate(0);
+                return handle.newOutputStream(append ? channel.size() : 0L);
+            } catch (IOException | RuntimeException e) {
+                handle.close();
+                throw e;
+            }
+        }
+        if (!crossProcessLocking)
+            return new FileOutputStream(fileFullPath.toFile(), append);
+        FileChannel channel = FileChannel.open(fileFullPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            channel.lock();
+            if (append)
+                channel.position(channel.size());
+            else
+                channel.truncate(0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return Channels.newOutputStream(channel);
+    }
+
+    /**
+     * Abre un flujo de entrada desde el archivo, bloqueándolo en modo compartido a nivel de sistema operativo si corresponde.
+     * Si la {@link ChannelCache caché de canales} está activada y no se bloquea entre procesos, se reutiliza el
+     * canal en caché y se lee con lecturas posicionales.
+     *
+     * @return El flujo de entrada abierto. Al cerrarlo se libera el bloqueo del sistema operativo.
+     * @throws IOException Si ocurre un error al abrir o bloquear el archivo.
+     */
+    private InputStream openInputStream() throws IOException {
+        if (deltaSave)
+            DeltaFile.recover(fileFullPath);
+        if (!crossProcessLocking && ChannelCache.isEnabled())
+            return ChannelCache.acquire(fileFullPath, ChannelCache.Mode.READ).newInputStream(0L);
+        if (!crossProcessLocking)
+            return new FileInputStream(fileFullPath.toFile());
+        FileChannel channel = FileChannel.open(fileFullPath, StandardOpenOption.READ);
+        try {
+            channel.lock(0L, Long.MAX_VALUE, true);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return Channels.newInputStream(channel);
+    }
+
+    /**
+     * Guarda varios objetos {@link Serializable} en sus respectivos archivos binarios utilizando
+     * {@link #DEFAULT_BATCH_CONCURRENCY} operaciones simultáneas como máximo.
+     *
+     * @param objects Un mapa con la ruta de cada archivo y el objeto que se guardará en ella.
+     * @param <T>     El tipo de los objetos a guardar, que debe implementar la interfaz Serializable.
+     * @return Una lista con el resultado de cada archivo, en el orden de iteración del mapa.
+     */
+    public static <T extends Serializable> List<BatchResult<Path>> saveAll(Map<Path, T> objects) {
+        return saveAll(objects, DEFAULT_BATCH_CONCURRENCY);
+    }
+
+    /**
+     * Guarda varios objetos {@link Serializable} en sus respectivos archivos binarios con un nivel de concurrencia acotado.
+     *
+     * @param objects     Un mapa con la ruta de cada archivo y el objeto que se guardará en ella.
+     * @param concurrency El número máximo de archivos que se escribirán simultáneamente.
+     * @param <T>         El tipo de los objetos a guardar, que debe implementar la interfaz Serializable.
+     * @return Una lista con el resultado de cada archivo, en el orden de iteración del mapa.
+     * @throws IllegalArgumentException Si el nivel de concurrencia es menor que 1.
+     */
+    public static <T extends Serializable> List<BatchResult<Path>> saveAll(Map<Path, T> objects, int concurrency) {
+        return BatchExecutor.run(new ArrayList<>(objects.keySet()), concurrency, (path, onError) ->
+                new PersistManager(path).saveObject(objects.get(path), onError) ? Optional.of(path) : Optional.empty());
+    }
+
+    /**
+     * Lee varios objetos serializados desde sus archivos binarios utilizando
+     * {@link #DEFAULT_BATCH_CONCURRENCY} operaciones simultáneas como máximo.
+     *
+     * @param paths       Las rutas de los archivos que se leerán.
+     * @param objectClass El tipo de clase de los objetos que se esperan leer.
+     * @param <T>         El tipo de los objetos a leer, que debe implementar la interfaz {@link Serializable}.
+     * @return Una lista con el resultado de cada archivo, en el orden de iteración de la colección.
+     */
+    public static <T extends Serializable> List<BatchResult<T>> readAll(Collection<Path> paths, Class<T> objectClass) {
+        return readAll(paths, objectClass, DEFAULT_BATCH_CONCURRENCY);
+    }
+
+    /**
+     * Lee varios objetos serializados desde sus archivos binarios con un nivel de concurrencia acotado.
+     *
+     * @param paths       Las rutas de los archivos que se leerán.
+     * @param objectClass El tipo de clase de los objetos que se esperan leer.
+     * @param concurrency El número máximo de archivos que se leerán simultáneamente.
+     * @param <T>         El tipo de los objetos a leer, que debe implementar la interfaz {@link Serializable}.
+     * @return Una lista con el resultado de cada archivo, en el orden de iteración de la colección.
+     * @throws IllegalArgumentException Si el nivel de concurrencia es menor que 1.
+     */
+    public static <T extends Serializable> List<BatchResult<T>> readAll(Collection<Path> paths, Class<T> objectClass, int concurrency) {
+        return BatchExecutor.run(new ArrayList<>(paths), concurrency, (path, onError) ->
+                new PersistManager(path).readObject(objectClass, onError));
+    }
+
+    /**
+     * Escribe el contenido de varios archivos de texto utilizando
+     * {@link #DEFAULT_BATCH_CONCURRENCY} operaciones simultáneas como máximo.
+     *
+     * @param contents Un mapa con la ruta de cada archivo y el contenido que se escribirá en ella.
+     * @param append   Indica si se debe añadir el contenido al final de los archivos existentes o reemplazarlos.
+     * @return Una lista con el resultado de cada archivo, en el orden de iteración del mapa.
+     */
+    public static List<BatchResult<Path>> writeTextAll(Map<Path, String> contents, boolean append) {
+        return writeTextAll(contents, append, DEFAULT_BATCH_CONCURRENCY);
+    }
+
+    /**
+     * Escribe el contenido de varios archivos de texto con un nivel de concurrencia acotado.
+     *
+     * @param contents    Un mapa con la ruta de cada archivo y el contenido que se escribirá en ella.
+     * @param append      Indica si se debe añadir el contenido al final de los archivos existentes o reemplazarlos.
+     * @param concurrency El número máximo de archivos que se escribirán simultáneamente.
+     * @return Una lista con el resultado de cada archivo, en el orden de iteración del mapa.
+     * @throws IllegalArgumentException Si el nivel de concurrencia es menor que 1.
+     */
+    public static List<BatchResult<Path>> writeTextAll(Map<Path, String> contents, boolean append, int concurrency) {
+        return BatchExecutor.run(new ArrayList<>(contents.keySet()), concurrency, (path, onError) ->
+                new PersistManager(path).writeTextFile(contents.get(path), append, onError) ? Optional.of(path) : Optional.empty());
+    }
+
+    /**
+     * Lee el contenido de varios archivos de texto utilizando
+     * {@link #DEFAULT_BATCH_CONCURRENCY} operaciones simultáneas como máximo.
+     *
+     * @param paths Las rutas de los archivos que se leerán.
+     * @return Una lista con el resultado de cada archivo, en el orden de iteración de la colección.
+     */
+    public static List<BatchResult<String>> readTextAll(Collection<Path> paths) {
+        return readTextAll(paths, DEFAULT_BATCH_CONCURRENCY);
+    }
+
+    /**
+     * Lee el contenido de varios archivos de texto con un nivel de concurrencia acotado.
+     *
+     * @param paths       Las rutas de los archivos que se leerán.
+     * @param concurrency El número máximo de archivos que se leerán simultáneamente.
+     * @return Una lista con el resultado de cada archivo, en el orden de iteración de la colección.
+     * @throws IllegalArgumentException Si el nivel de concurrencia es menor que 1.
+     */
+    public static List<BatchResult<String>> readTextAll(Collection<Path> paths, int concurrency) {
+        return BatchExecutor.run(new ArrayList<>(paths), concurrency, (path, onError) ->
+                new PersistManager(path).readTextFile(onError));
+    }
+
+    /**
+     * Conversión del contenido completo de un archivo en el resultado de una lectura asíncrona.
+     */
+    @FunctionalInterface
+    private interface Decoder<T> {
+        T decode(ByteBuffer buffer) throws Exception;
     }
 }
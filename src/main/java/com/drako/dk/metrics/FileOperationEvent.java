@@ -0,0 +1,67 @@
+package com.drako.dk.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder emitido por cada operación de archivos, carpetas, persistencia o log.
+ * La duración del evento corresponde a la duración de la operación.
+ * <p>
+ * El evento solo se crea y se confirma cuando está habilitado en una grabación activa, por ejemplo con
+ * {@code -XX:StartFlightRecording} o habilitando {@value #NAME} en un {@link jdk.jfr.Recording}.
+ */
+@Name(FileOperationEvent.NAME)
+@Label("DKFileKit Operation")
+@Category("DKFileKit")
+@Description("File, folder, persistence or log operation performed by DKFileKit")
+public class FileOperationEvent extends Event {
+    /**
+     * Nombre con el que se registra el tipo de evento.
+     */
+    public static final String NAME = "com.drako.dk.FileOperation";
+
+    /**
+     * Resultado de una operación exitosa.
+     */
+    public static final String SUCCESS = "SUCCESS";
+
+    /**
+     * Resultado de una operación fallida.
+     */
+    public static final String ERROR = "ERROR";
+
+    /**
+     * El nombre de la operación, según {@link Operation}.
+     */
+    @Label("Operation")
+    String operation;
+
+    /**
+     * La ruta sobre la que se realizó la operación.
+     */
+    @Label("Path")
+    String path;
+
+    /**
+     * El número de bytes leídos o escritos, o -1 si se desconoce.
+     */
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * El resultado de la operación: {@value #SUCCESS} o {@value #ERROR}.
+     */
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * El mensaje de la excepción que hizo fallar la operación, si lo hay.
+     */
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,151 @@
+package com.drako.dk.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas log-lineales al estilo de HdrHistogram.
+ * <p>
+ * Los valores menores que {@code 2 * SUB_BUCKETS} se registran de forma exacta; por encima, cada potencia de dos se
+ * divide en {@link #SUB_BUCKETS} cubetas, lo que limita el error relativo de los percentiles a un 3 %. El registro no
+ * usa bloqueos: solo incrementa contadores atómicos, por lo que puede llamarse desde cualquier número de hilos.
+ */
+public class LatencyHistogram {
+    /**
+     * Número de bits de precisión de cada potencia de dos.
+     */
+    static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * Número de cubetas en que se divide cada potencia de dos.
+     */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Número total de cubetas, suficiente para cualquier valor positivo de tipo {@code long}.
+     */
+    static final int BUCKETS = 2 * SUB_BUCKETS + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Registra un valor.
+     *
+     * @param value El valor a registrar, normalmente una duración en nanosegundos. Los valores negativos se registran como 0.
+     */
+    public void record(long value) {
+        long sample = Math.max(0L, value);
+        counts.incrementAndGet(bucketIndex(sample));
+        count.increment();
+        sum.add(sample);
+        max.accumulate(sample);
+    }
+
+    /**
+     * Obtiene el número de valores registrados.
+     *
+     * @return El número de valores registrados.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Obtiene el valor máximo registrado.
+     *
+     * @return El valor máximo registrado, o 0 si no hay valores.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Obtiene la media de los valores registrados.
+     *
+     * @return La media de los valores, o 0 si no hay valores.
+     */
+    public double getMean() {
+        long total = count.sum();
+        return total == 0 ? 0.0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * Obtiene un percentil aproximado de los valores registrados.
+     *
+     * @param percentile El percentil a calcular, entre 0 y 100.
+     * @return El valor aproximado del percentil, o 0 si no hay valores.
+     */
+    public long getPercentile(double percentile) {
+        return getPercentiles(percentile)[0];
+    }
+
+    /**
+     * Obtiene varios percentiles aproximados recorriendo las cubetas una sola vez.
+     *
+     * @param percentiles Los percentiles a calcular, entre 0 y 100, en orden ascendente.
+     * @return Los valores aproximados de cada percentil.
+     */
+    public long[] getPercentiles(double... percentiles) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        long[] values = new long[percentiles.length];
+        if (total == 0)
+            return values;
+        long maxValue = max.get();
+        int bucket = 0;
+        long accumulated = snapshot[0];
+        for (int p = 0; p < percentiles.length; p++) {
+            long target = Math.max(1L, (long) Math.ceil(Math.min(100.0, percentiles[p]) / 100.0 * total));
+            while (accumulated < target && bucket < BUCKETS - 1)
+                accumulated += snapshot[++bucket];
+            values[p] = Math.min(maxValue, highestEquivalentValue(bucket));
+        }
+        return values;
+    }
+
+    /**
+     * Elimina todos los valores registrados.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            counts.set(i, 0L);
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Obtiene la cubeta en la que se registra un valor.
+     *
+     * @param value El valor, mayor o igual que 0.
+     * @return El índice de la cubeta.
+     */
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKETS)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return 2 * SUB_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Obtiene el mayor valor que se registra en una cubeta.
+     *
+     * @param index El índice de la cubeta.
+     * @return El mayor valor de la cubeta.
+     */
+    static long highestEquivalentValue(int index) {
+        if (index < 2 * SUB_BUCKETS)
+            return index;
+        int shift = (index - 2 * SUB_BUCKETS) / SUB_BUCKETS + 1;
+        long subBucket = (index - 2 * SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
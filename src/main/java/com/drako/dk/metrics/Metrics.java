@@ -0,0 +1,176 @@
+package com.drako.dk.metrics;
+
+import jdk.jfr.EventType;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Punto de acceso a las métricas de las operaciones de la librería: contadores por operación, errores, bytes leídos
+ * y escritos e histogramas de latencia.
+ * <p>
+ * Las métricas están desactivadas por defecto; pueden activarse con {@link #setEnabled(boolean)} o con la propiedad
+ * del sistema {@code dk.metrics.enabled=true}. Mientras están desactivadas, {@link #start(Operation)} devuelve un
+ * cronómetro compartido que no registra nada, por lo que las operaciones no leen el reloj. De forma independiente,
+ * cada operación emite un {@link FileOperationEvent} cuando ese evento está habilitado en una grabación de JFR.
+ * Al activarlas se registra además un MBean en {@value #OBJECT_NAME}.
+ */
+public final class Metrics {
+    /**
+     * Nombre con el que se registra el MBean de métricas.
+     */
+    public static final String OBJECT_NAME = "com.drako.dk:type=Metrics";
+
+    private static final Map<Operation, OperationMetrics> OPERATIONS = new EnumMap<>(Operation.class);
+
+    /**
+     * Tipo del evento de JFR, que permite comprobar si está habilitado sin crear un evento.
+     */
+    private static final EventType EVENT_TYPE = EventType.getEventType(FileOperationEvent.class);
+
+    private static volatile boolean enabled;
+
+    static {
+        for (Operation operation : Operation.values())
+            OPERATIONS.put(operation, new OperationMetrics(operation));
+        if (Boolean.getBoolean("dk.metrics.enabled"))
+            setEnabled(true);
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Indica si las métricas están activadas.
+     *
+     * @return {@code true} si las métricas están activadas.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Activa o desactiva las métricas. Al activarlas se registra el MBean si todavía no lo estaba.
+     *
+     * @param enabled {@code true} para activar las métricas; {@code false} para desactivarlas.
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+        if (enabled)
+            registerMBean();
+    }
+
+    /**
+     * Inicia el cronómetro de una operación.
+     *
+     * @param operation La operación que comienza.
+     * @return El cronómetro de la operación, o uno que no registra nada si las métricas están desactivadas.
+     */
+    public static OperationTimer start(Operation operation) {
+        return start(operation, null);
+    }
+
+    /**
+     * Inicia el cronómetro de una operación sobre una ruta.
+     *
+     * @param operation La operación que comienza.
+     * @param path      La ruta sobre la que actúa la operación (opcional). Solo se utiliza en los eventos de JFR.
+     * @return El cronómetro de la operación, o uno que no registra nada si las métricas están desactivadas y el
+     * evento {@link FileOperationEvent} no está habilitado.
+     */
+    public static OperationTimer start(Operation operation, Path path) {
+        boolean eventEnabled = EVENT_TYPE.isEnabled();
+        if (!enabled && !eventEnabled)
+            return OperationTimer.NOOP;
+        FileOperationEvent event = null;
+        if (eventEnabled) {
+            event = new FileOperationEvent();
+            event.operation = operation.name();
+            event.path = path != null ? path.toString() : null;
+            event.begin();
+        }
+        return new OperationTimer(enabled ? OPERATIONS.get(operation) : null, System.nanoTime(), event);
+    }
+
+    /**
+     * Obtiene una instantánea de las métricas de una operación.
+     *
+     * @param operation La operación.
+     * @return Las métricas de la operación.
+     */
+    public static OperationSnapshot snapshot(Operation operation) {
+        return OPERATIONS.get(operation).snapshot();
+    }
+
+    /**
+     * Obtiene una instantánea de las métricas de todas las operaciones.
+     *
+     * @return Las métricas de cada operación, en el orden de {@link Operation}.
+     */
+    public static List<OperationSnapshot> snapshot() {
+        List<OperationSnapshot> snapshots = new ArrayList<>(OPERATIONS.size());
+        for (OperationMetrics metrics : OPERATIONS.values())
+            snapshots.add(metrics.snapshot());
+        return snapshots;
+    }
+
+    /**
+     * Reinicia las métricas de todas las operaciones.
+     */
+    public static void reset() {
+        for (OperationMetrics metrics : OPERATIONS.values())
+            metrics.reset();
+    }
+
+    /**
+     * Registra el MBean de métricas en el servidor de MBeans de la plataforma si todavía no está registrado.
+     *
+     * @return {@code true} si el MBean queda registrado; {@code false} si no se pudo registrar.
+     */
+    public static synchronized boolean registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name))
+                server.registerMBean(new MBean(), name);
+            return true;
+        } catch (InstanceAlreadyExistsException e) {
+            return true;
+        } catch (JMException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Implementación del MBean de métricas, que delega en los métodos estáticos de {@link Metrics}.
+     */
+    private static final class MBean implements MetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return Metrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            Metrics.setEnabled(enabled);
+        }
+
+        @Override
+        public List<OperationSnapshot> getOperations() {
+            return Metrics.snapshot();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.drako.dk.metrics;
+
+import java.util.List;
+
+/**
+ * Interfaz de gestión JMX de las métricas de la librería, registrada como {@value Metrics#OBJECT_NAME}.
+ */
+public interface MetricsMXBean {
+    /**
+     * Indica si las métricas están activadas.
+     *
+     * @return {@code true} si las métricas están activadas.
+     */
+    boolean isEnabled();
+
+    /**
+     * Activa o desactiva las métricas.
+     *
+     * @param enabled {@code true} para activar las métricas.
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Obtiene una instantánea de las métricas de todas las operaciones.
+     *
+     * @return Las métricas de cada operación.
+     */
+    List<OperationSnapshot> getOperations();
+
+    /**
+     * Reinicia todas las métricas.
+     */
+    void reset();
+}
@@ -0,0 +1,145 @@
+package com.drako.dk.metrics;
+
+/**
+ * Enumeración que define las operaciones de la librería sobre las que se recogen métricas.
+ */
+public enum Operation {
+
+    /**
+     * Copia de un archivo con {@code FileManager.copyFile}.
+     */
+    COPY_FILE(true, true),
+
+    /**
+     * Movimiento de un archivo con {@code FileManager.moveFile}.
+     */
+    MOVE_FILE(false, false),
+
+    /**
+     * Eliminación de un archivo con {@code FileManager.deleteFile}.
+     */
+    DELETE_FILE(false, false),
+
+    /**
+     * Creación de una carpeta con {@code FolderManager.createFolder}.
+     */
+    CREATE_FOLDER(false, false),
+
+    /**
+     * Eliminación de una carpeta con {@code FolderManager.deleteFolder}.
+     */
+    DELETE_FOLDER(false, false),
+
+    /**
+     * Guardado de un objeto con {@code PersistManager.saveObject}.
+     */
+    SAVE_OBJECT(false, true),
+
+    /**
+     * Lectura de un objeto con {@code PersistManager.readObject}.
+     */
+    READ_OBJECT(true, false),
+
+    /**
+     * Escritura de texto con {@code PersistManager.writeTextFile}.
+     */
+    WRITE_TEXT(false, true),
+
+    /**
+     * Lectura de texto con {@code PersistManager.readTextFile}.
+     */
+    READ_TEXT(true, false),
+
+    /**
+     * Registro de un mensaje con {@code LogManager.log} o {@code LogManager.logAsync}. Los bytes escritos se
+     * contabilizan en {@link #WRITE_TEXT}.
+     */
+    LOG(false, false),
+
+    /**
+     * Compresión de una carpeta con {@code FolderManager.zipFolder}. Los bytes escritos corresponden al archivo ZIP.
+     */
+    ZIP_FOLDER(false, true),
+
+    /**
+     * Extracción de un archivo ZIP con {@code FolderManager.unzip}. Los bytes escritos corresponden a los archivos extraídos.
+     */
+    UNZIP(false, true),
+
+    /**
+     * Consulta del log con {@code LogManager.query}. Los bytes leídos corresponden a la parte del archivo recorrida.
+     */
+    QUERY_LOG(true, false),
+
+    /**
+     * Cálculo del espacio ocupado por una carpeta con {@code FolderManager.size} o {@code FolderManager.usage}.
+     */
+    FOLDER_USAGE(false, false),
+
+    /**
+     * Lectura de un archivo por fragmentos con {@code FileChunkPublisher}. Los bytes leídos corresponden a los
+     * fragmentos entregados al suscriptor.
+     */
+    STREAM_FILE(true, false),
+
+    /**
+     * Búsqueda de contenido con {@code FileManager.search}. Los bytes leídos corresponden a los archivos examinados.
+     */
+    SEARCH_FILES(true, false),
+
+    /**
+     * Comparación de dos carpetas con {@code FolderManager.compare}. Los bytes leídos corresponden a los contenidos
+     * comparados en ambas carpetas.
+     */
+    COMPARE_FOLDERS(true, false),
+
+    /**
+     * Traslado de un archivo o una carpeta a la papelera con {@code FileManager.trashFile} o
+     * {@code FolderManager.trashFolder}.
+     */
+    TRASH(false, false),
+
+    /**
+     * Eliminación en segundo plano de un elemento de la papelera con {@code TrashManager}.
+     */
+    PURGE_TRASH(false, false),
+
+    /**
+     * Eliminación de los contenidos sin referencias de un {@code ContentStore}. Los bytes corresponden al espacio
+     * liberado.
+     */
+    CONTENT_STORE_GC(false, false);
+
+    /**
+     * Indica si los bytes procesados por la operación cuentan como bytes leídos.
+     */
+    private final boolean reads;
+
+    /**
+     * Indica si los bytes procesados por la operación cuentan como bytes escritos.
+     */
+    private final boolean writes;
+
+    Operation(boolean reads, boolean writes) {
+        this.reads = reads;
+        this.writes = writes;
+    }
+
+    /**
+     * Indica si los bytes procesados por la operación cuentan como bytes leídos.
+     *
+     * @return {@code true} si la operación lee datos.
+     */
+    public boolean reads() {
+        return reads;
+    }
+
+    /**
+     * Indica si los bytes procesados por la operación cuentan como bytes escritos.
+     *
+     * @return {@code true} si la operación escribe datos.
+     */
+    public boolean writes() {
+        return writes;
+    }
+}
@@ -0,0 +1,53 @@
+package com.drako.dk.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores e histograma de latencias acumulados para una operación.
+ */
+class OperationMetrics {
+    private final Operation operation;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationMetrics(Operation operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Registra una operación terminada.
+     *
+     * @param nanos   La duración de la operación en nanosegundos.
+     * @param bytes   El número de bytes procesados, o un valor negativo si se desconoce.
+     * @param success Indica si la operación terminó con éxito.
+     */
+    void record(long nanos, long bytes, boolean success) {
+        count.increment();
+        if (!success)
+            errors.increment();
+        if (bytes > 0) {
+            if (operation.reads())
+                bytesRead.add(bytes);
+            if (operation.writes())
+                bytesWritten.add(bytes);
+        }
+        latency.record(nanos);
+    }
+
+    OperationSnapshot snapshot() {
+        long[] percentiles = latency.getPercentiles(50.0, 90.0, 99.0, 99.9);
+        return new OperationSnapshot(operation.name(), count.sum(), errors.sum(), bytesRead.sum(), bytesWritten.sum(),
+                latency.getMean(), percentiles[0], percentiles[1], percentiles[2], percentiles[3], latency.getMax());
+    }
+
+    void reset() {
+        count.reset();
+        errors.reset();
+        bytesRead.reset();
+        bytesWritten.reset();
+        latency.reset();
+    }
+}
@@ -0,0 +1,159 @@
+package com.drako.dk.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Instantánea inmutable de las métricas de una operación.
+ * Las latencias se expresan en nanosegundos.
+ */
+public class OperationSnapshot {
+    private final String operation;
+    private final long count;
+    private final long errors;
+    private final long bytesRead;
+    private final long bytesWritten;
+    private final double meanLatency;
+    private final long p50Latency;
+    private final long p90Latency;
+    private final long p99Latency;
+    private final long p999Latency;
+    private final long maxLatency;
+
+    /**
+     * Crea una instantánea con los valores indicados.
+     *
+     * @param operation    El nombre de la operación.
+     * @param count        El número de operaciones completadas, con o sin error.
+     * @param errors       El número de operaciones que terminaron con error.
+     * @param bytesRead    El número de bytes leídos.
+     * @param bytesWritten El número de bytes escritos.
+     * @param meanLatency  La latencia media.
+     * @param p50Latency   El percentil 50 de la latencia.
+     * @param p90Latency   El percentil 90 de la latencia.
+     * @param p99Latency   El percentil 99 de la latencia.
+     * @param p999Latency  El percentil 99,9 de la latencia.
+     * @param maxLatency   La latencia máxima.
+     */
+    @ConstructorProperties({"operation", "count", "errors", "bytesRead", "bytesWritten", "meanLatency",
+            "p50Latency", "p90Latency", "p99Latency", "p999Latency", "maxLatency"})
+    public OperationSnapshot(String operation, long count, long errors, long bytesRead, long bytesWritten,
+                             double meanLatency, long p50Latency, long p90Latency, long p99Latency,
+                             long p999Latency, long maxLatency) {
+        this.operation = operation;
+        this.count = count;
+        this.errors = errors;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.meanLatency = meanLatency;
+        this.p50Latency = p50Latency;
+        this.p90Latency = p90Latency;
+        this.p99Latency = p99Latency;
+        this.p999Latency = p999Latency;
+        this.maxLatency = maxLatency;
+    }
+
+    /**
+     * Obtiene el nombre de la operación.
+     *
+     * @return El nombre de la operación.
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Obtiene el número de operaciones completadas, con o sin error.
+     *
+     * @return El número de operaciones completadas, con o sin error.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Obtiene el número de operaciones que terminaron con error.
+     *
+     * @return El número de operaciones que terminaron con error.
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Obtiene el número de bytes leídos.
+     *
+     * @return El número de bytes leídos.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Obtiene el número de bytes escritos.
+     *
+     * @return El número de bytes escritos.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Obtiene la latencia media en nanosegundos.
+     *
+     * @return La latencia media en nanosegundos.
+     */
+    public double getMeanLatency() {
+        return meanLatency;
+    }
+
+    /**
+     * Obtiene el percentil 50 de la latencia en nanosegundos.
+     *
+     * @return El percentil 50 de la latencia en nanosegundos.
+     */
+    public long getP50Latency() {
+        return p50Latency;
+    }
+
+    /**
+     * Obtiene el percentil 90 de la latencia en nanosegundos.
+     *
+     * @return El percentil 90 de la latencia en nanosegundos.
+     */
+    public long getP90Latency() {
+        return p90Latency;
+    }
+
+    /**
+     * Obtiene el percentil 99 de la latencia en nanosegundos.
+     *
+     * @return El percentil 99 de la latencia en nanosegundos.
+     */
+    public long getP99Latency() {
+        return p99Latency;
+    }
+
+    /**
+     * Obtiene el percentil 99,9 de la latencia en nanosegundos.
+     *
+     * @return El percentil 99,9 de la latencia en nanosegundos.
+     */
+    public long getP999Latency() {
+        return p999Latency;
+    }
+
+    /**
+     * Obtiene la latencia máxima en nanosegundos.
+     *
+     * @return La latencia máxima en nanosegundos.
+     */
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [count=%d, errors=%d, read=%d B, written=%d B, mean=%.0f ns, p50=%d ns, p99=%d ns, max=%d ns]",
+                operation, count, errors, bytesRead, bytesWritten, meanLatency, p50Latency, p99Latency, maxLatency);
+    }
+}
@@ -0,0 +1,106 @@
+package com.drako.dk.metrics;
+
+import com.drako.dk.handler.CompletionHandler;
+
+import java.nio.file.Path;
+
+/**
+ * Cronómetro de una operación en curso, obtenido con {@link Metrics#start(Operation, Path)}.
+ * Debe finalizarse una sola vez con {@link #success(long)} o {@link #failure(Exception)}.
+ * Registra la operación en las métricas, si están activadas, y emite un {@link FileOperationEvent}, si el evento
+ * está habilitado en una grabación de Java Flight Recorder. Cuando ninguna de las dos cosas ocurre se devuelve una
+ * instancia compartida que no registra nada.
+ */
+public class OperationTimer {
+    /**
+     * Cronómetro compartido que no registra nada.
+     */
+    static final OperationTimer NOOP = new OperationTimer(null, 0L, null);
+
+    private final OperationMetrics metrics;
+    private final long startNanos;
+    private final FileOperationEvent event;
+
+    OperationTimer(OperationMetrics metrics, long startNanos, FileOperationEvent event) {
+        this.metrics = metrics;
+        this.startNanos = startNanos;
+        this.event = event;
+    }
+
+    /**
+     * Indica si el cronómetro registra la operación. Permite omitir trabajo adicional, como contar bytes,
+     * cuando las métricas están desactivadas.
+     *
+     * @return {@code true} si la operación se registrará.
+     */
+    public boolean isRecording() {
+        return metrics != null || event != null;
+    }
+
+    /**
+     * Registra la operación como exitosa.
+     *
+     * @param bytes El número de bytes leídos o escritos, o un valor negativo si se desconoce.
+     */
+    public void success(long bytes) {
+        if (metrics != null)
+            metrics.record(System.nanoTime() - startNanos, bytes, true);
+        if (event != null)
+            commit(bytes, FileOperationEvent.SUCCESS, null);
+    }
+
+    /**
+     * Registra la operación como fallida.
+     */
+    public void failure() {
+        failure(null);
+    }
+
+    /**
+     * Registra la operación como fallida.
+     *
+     * @param cause La excepción que hizo fallar la operación (opcional).
+     */
+    public void failure(Exception cause) {
+        if (metrics != null)
+            metrics.record(System.nanoTime() - startNanos, -1L, false);
+        if (event != null)
+            commit(-1L, FileOperationEvent.ERROR, cause != null ? cause.toString() : null);
+    }
+
+    private void commit(long bytes, String outcome, String error) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = bytes;
+            event.outcome = outcome;
+            event.error = error;
+            event.commit();
+        }
+    }
+
+    /**
+     * Envuelve un manejador de finalización para que registre la operación al completarse.
+     * Si el cronómetro no registra nada o el manejador es nulo se devuelve el mismo manejador.
+     *
+     * @param handler El manejador a envolver.
+     * @param <T>     El tipo del resultado de la operación.
+     * @return Un manejador que registra la operación y delega en el original.
+     */
+    public <T> CompletionHandler<T> wrap(CompletionHandler<T> handler) {
+        if (!isRecording() || handler == null)
+            return handler;
+        return new CompletionHandler<>() {
+            @Override
+            public void onSuccessResult(T result) {
+                success(-1L);
+                handler.onSuccessResult(result);
+            }
+
+            @Override
+            public void onError(Exception ex) {
+                failure(ex);
+                handler.onError(ex);
+            }
+        };
+    }
+}
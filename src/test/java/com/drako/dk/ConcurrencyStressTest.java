@@ -0,0 +1,335 @@
+package com.drako.dk;
+
+import com.drako.dk.file.FileManager;
+import com.drako.dk.handler.CompletionHandler;
+import com.drako.dk.manager.LogLevel;
+import com.drako.dk.manager.LogManager;
+import com.drako.dk.manager.PersistManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de estrés de las operaciones concurrentes. Se excluyen de la ejecución normal y se ejecutan con
+ * {@code mvn test -Pstress}. El número de hilos y de operaciones por hilo se ajusta con las propiedades
+ * {@code dk.stress.threads} y {@code dk.stress.operations}.
+ */
+@Tag("stress")
+class ConcurrencyStressTest {
+    static final int THREADS = Integer.getInteger("dk.stress.threads", 16);
+    static final int OPERATIONS = Integer.getInteger("dk.stress.operations", 500);
+    static final Path LOG_PATH = Paths.get(System.getProperty("user.dir"), LogManager.LogFileName);
+    static final Path APPEND_PATH = Paths.get("src", "test", "stress_append.txt");
+    static final Path FILES_PATH = Paths.get("src", "test", "stress_files");
+    static final int SLOTS = 8;
+
+    @Test
+    void testConcurrentLogging() throws Exception {
+        Files.deleteIfExists(LOG_PATH);
+        LogManager logManager = LogManager.getInstance();
+        String run = Long.toHexString(System.nanoTime());
+        Latencies latencies = new Latencies();
+        CountDownLatch asyncDone = new CountDownLatch(THREADS * ((OPERATIONS + 1) / 3));
+        ConcurrentLinkedQueue<Exception> errors = new ConcurrentLinkedQueue<>();
+
+        long start = System.nanoTime();
+        runThreads(thread -> {
+            for (int seq = 0; seq < OPERATIONS; seq++) {
+                String message = "stress " + run + " " + thread + " " + seq + " " + filler(seq);
+                long submitted = System.nanoTime();
+                switch (seq % 3) {
+                    case 0:
+                        assertTrue(logManager.log(message, LogLevel.INFO));
+                        latencies.record(System.nanoTime() - submitted);
+                        break;
+                    case 1:
+                        logManager.logAsync(message, LogLevel.INFO, handler(result -> {
+                            latencies.record(System.nanoTime() - submitted);
+                            asyncDone.countDown();
+                        }, errors));
+                        break;
+                    default:
+                        logManager.log(LogLevel.INFO, "{}", message);
+                        latencies.record(System.nanoTime() - submitted);
+                }
+            }
+        });
+        assertTrue(asyncDone.await(60, TimeUnit.SECONDS));
+        assertTrue(logManager.flush(60_000L));
+        long elapsed = System.nanoTime() - start;
+        assertTrue(errors.isEmpty(), () -> "Errors: " + errors);
+        latencies.report("log/logAsync/structured", elapsed);
+
+        Pattern line = Pattern.compile("\\[\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}] \\[INFO] stress " + run + " (\\d+) (\\d+) (x*)");
+        Set<String> seen = new HashSet<>();
+        for (String text : Files.readAllLines(LOG_PATH)) {
+            Matcher matcher = line.matcher(text);
+            assertTrue(matcher.matches(), () -> "Torn or unexpected line: " + text);
+            int seq = Integer.parseInt(matcher.group(2));
+            assertEquals(filler(seq), matcher.group(3), "Truncated line: " + text);
+            assertTrue(seen.add(matcher.group(1) + " " + seq), () -> "Duplicated line: " + text);
+        }
+        assertEquals(THREADS * OPERATIONS, seen.size(), "Lost log lines");
+    }
+
+    @Test
+    void testConcurrentAsyncAppends() throws Exception {
+        Files.deleteIfExists(APPEND_PATH);
+        PersistManager manager = new PersistManager(APPEND_PATH);
+        Latencies latencies = new Latencies();
+        CountDownLatch done = new CountDownLatch(THREADS * OPERATIONS);
+        ConcurrentLinkedQueue<Exception> errors = new ConcurrentLinkedQueue<>();
+        try {
+            long start = System.nanoTime();
+            runThreads(thread -> {
+                for (int seq = 0; seq < OPERATIONS; seq++) {
+                    String body = thread + " " + seq + " " + filler(seq);
+                    long submitted = System.nanoTime();
+                    manager.writeTextFileAsync(body + " " + crc(body) + "\n", true, handler(result -> {
+                        latencies.record(System.nanoTime() - submitted);
+                        done.countDown();
+                    }, errors));
+                }
+            });
+            assertTrue(done.await(60, TimeUnit.SECONDS));
+            long elapsed = System.nanoTime() - start;
+            assertTrue(errors.isEmpty(), () -> "Errors: " + errors);
+            latencies.report("writeTextFileAsync append", elapsed);
+
+            int[] nextSeq = new int[THREADS];
+            int count = 0;
+            for (String text : Files.readAllLines(APPEND_PATH)) {
+                int checksumStart = text.lastIndexOf(' ');
+                assertTrue(checksumStart > 0, () -> "Torn line: " + text);
+                String body = text.substring(0, checksumStart);
+                assertEquals(crc(body), Long.parseLong(text.substring(checksumStart + 1)), "Corrupted line: " + text);
+                String[] fields = body.split(" ");
+                int thread = Integer.parseInt(fields[0]);
+                int seq = Integer.parseInt(fields[1]);
+                // Las adiciones de un mismo hilo se escriben en el orden en que se enviaron.
+                assertEquals(nextSeq[thread]++, seq, "Out of order line: " + text);
+                count++;
+            }
+            assertEquals(THREADS * OPERATIONS, count, "Lost appends");
+        } finally {
+            Files.deleteIfExists(APPEND_PATH);
+        }
+    }
+
+    @Test
+    void testConcurrentCopyMoveDeleteOnOverlappingPaths() throws Exception {
+        Files.createDirectories(FILES_PATH);
+        Latencies latencies = new Latencies();
+        ConcurrentLinkedQueue<Exception> errors = new ConcurrentLinkedQueue<>();
+        try {
+            for (int slot = 0; slot < SLOTS; slot++)
+                assertTrue(new PersistManager(slot(slot)).saveObject(payload()));
+
+            long elapsed = runThreads(thread -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int seq = 0; seq < OPERATIONS; seq++) {
+                    Path source = slot(random.nextInt(SLOTS));
+                    Path target = slot(random.nextInt(SLOTS));
+                    int operation = random.nextInt(4);
+                    if (operation < 2 && source.equals(target))
+                        continue;
+                    long start = System.nanoTime();
+                    CompletableFuture<Path> future = new CompletableFuture<>();
+                    CompletionHandler<Path> onComplete = handler(future::complete, future::completeExceptionally);
+                    switch (operation) {
+                        case 0:
+                            FileManager.copyFile(source, target, onComplete);
+                            break;
+                        case 1:
+                            FileManager.moveFile(source, target, onComplete);
+                            break;
+                        case 2:
+                            FileManager.deleteFile(source, onComplete);
+                            break;
+                        default:
+                            if (new PersistManager(source).saveObject(payload(), future::completeExceptionally))
+                                future.complete(source);
+                    }
+                    try {
+                        future.get(60, TimeUnit.SECONDS);
+                    } catch (ExecutionException e) {
+                        // Otro hilo puede haber movido o eliminado el origen; cualquier otro error es un fallo.
+                        if (!(e.getCause() instanceof NoSuchFileException))
+                            errors.add((Exception) e.getCause());
+                    }
+                    latencies.record(System.nanoTime() - start);
+                }
+            });
+            assertTrue(errors.isEmpty(), () -> "Errors: " + errors);
+            latencies.report("copy/move/delete/save", elapsed);
+
+            try (Stream<Path> files = Files.list(FILES_PATH)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Optional<byte[]> content = new PersistManager(file).readObject(byte[].class, errors::add);
+                    assertTrue(content.isPresent(), () -> "Unreadable file " + file + ": " + errors);
+                    assertTrue(isValid(content.get()), "Corrupted file " + file);
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(FILES_PATH)) {
+                for (Path file : (Iterable<Path>) files::iterator)
+                    Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(FILES_PATH);
+        }
+    }
+
+    @AfterAll
+    static void clearLogFile() throws IOException {
+        Files.deleteIfExists(LOG_PATH);
+    }
+
+    /**
+     * Ejecuta una tarea en {@link #THREADS} hilos que comienzan a la vez.
+     *
+     * @return El tiempo transcurrido en nanosegundos hasta que terminan todos los hilos.
+     */
+    private static long runThreads(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            ready.await();
+            long start = System.nanoTime();
+            go.countDown();
+            for (Future<?> future : futures)
+                future.get();
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> CompletionHandler<T> handler(Consumer<T> onSuccess,
+                                                    Consumer<Exception> onError) {
+        return new CompletionHandler<T>() {
+            @Override
+            public void onSuccessResult(T result) {
+                onSuccess.accept(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                onError.accept(e);
+            }
+        };
+    }
+
+    private static <T> CompletionHandler<T> handler(Consumer<T> onSuccess,
+                                                    ConcurrentLinkedQueue<Exception> errors) {
+        return handler(onSuccess, (Consumer<Exception>) errors::add);
+    }
+
+    private static String filler(int seq) {
+        return "x".repeat(64 + (seq % 7) * 37);
+    }
+
+    private static long crc(String text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.getBytes());
+        return crc.getValue();
+    }
+
+    private static Path slot(int index) {
+        return FILES_PATH.resolve("slot" + index + ".bin");
+    }
+
+    /**
+     * Genera un contenido aleatorio cuyos últimos 8 bytes son el CRC32 del resto.
+     */
+    private static byte[] payload() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] content = new byte[1024 + random.nextInt(256 * 1024)];
+        random.nextBytes(content);
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length - 8);
+        ByteBuffer.wrap(content, content.length - 8, 8).putLong(crc.getValue());
+        return content;
+    }
+
+    private static boolean isValid(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length - 8);
+        return ByteBuffer.wrap(content, content.length - 8, 8).getLong() == crc.getValue();
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Latencias registradas desde varios hilos, con el cálculo de percentiles.
+     */
+    private static final class Latencies {
+        private final List<Long> samples = Collections.synchronizedList(new ArrayList<>());
+
+        private void record(long nanos) {
+            samples.add(nanos);
+        }
+
+        private void report(String name, long elapsedNanos) {
+            long[] sorted;
+            synchronized (samples) {
+                sorted = samples.stream().mapToLong(Long::longValue).toArray();
+            }
+            Arrays.sort(sorted);
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("[stress] %s: %d ops in %.2f s (%.0f ops/s), p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                    name, sorted.length, seconds, sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double fraction) {
+            if (sorted.length == 0)
+                return 0;
+            int index = (int) Math.ceil(fraction * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
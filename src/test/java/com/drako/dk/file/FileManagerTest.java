@@ -1,6 +1,11 @@
 package com.drako.dk.file;
 
 import com.drako.dk.handler.CompletionHandler;
+import com.drako.dk.io.IOPriority;
+import com.drako.dk.io.IOScheduler;
+import com.drako.dk.io.Throttle;
+import com.drako.dk.manager.PersistManager;
+import com.drako.dk.metrics.Operation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -8,8 +13,16 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -62,6 +75,168 @@ class FileManagerTest {
         }
     }
 
+    @Test
+    void testCopyFileHandlerCanAccessCopiedFile() throws Exception {
+        Path sourcePath = TEST_FILE_PATH.resolve(TEST_FILE_NAME);
+        Path destinationPath = TEST_FILE_PATH.resolve("handler_destination.txt");
+
+        CompletableFuture<Boolean> copyFuture = new CompletableFuture<>();
+        FileManager.copyFile(sourcePath, destinationPath, new CompletionHandler<Path>() {
+            @Override
+            public void onSuccessResult(Path result) {
+                copyFuture.complete(new PersistManager(result).writeTextFile("after copy"));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                copyFuture.completeExceptionally(e);
+            }
+        });
+
+        try {
+            assertTrue(copyFuture.get(10, TimeUnit.SECONDS));
+            assertEquals("after copy", Files.readString(destinationPath));
+        } finally {
+            Files.deleteIfExists(destinationPath);
+        }
+    }
+
+    @Test
+    void testCopyFileParallel() throws Exception {
+        Path sourcePath = TEST_FILE_PATH.resolve("parallel_source.bin");
+        Path destinationPath = TEST_FILE_PATH.resolve("parallel_destination.bin");
+        byte[] content = new byte[1_000_003];
+        new Random(7).nextBytes(content);
+        Files.write(sourcePath, content);
+        try {
+            AtomicLong lastProgress = new AtomicLong();
+            CompletableFuture<Path> copyFuture = new CompletableFuture<>();
+            ParallelCopyOptions options = new ParallelCopyOptions().parallelism(4).rangeSize(100_000).verify(true);
+            FileManager.copyFileParallel(sourcePath, destinationPath, options,
+                    (completed, total) -> lastProgress.accumulateAndGet(completed, Math::max), new CompletionHandler<Path>() {
+                        @Override
+                        public void onSuccessResult(Path result) {
+                            copyFuture.complete(result);
+                        }
+
+                        @Override
+                        public void onError(Exception e) {
+                            copyFuture.completeExceptionally(e);
+                        }
+                    });
+
+            assertArrayEquals(content, Files.readAllBytes(copyFuture.get()));
+            assertEquals(content.length, lastProgress.get());
+        } finally {
+            Files.deleteIfExists(sourcePath);
+            Files.deleteIfExists(destinationPath);
+        }
+    }
+
+    @Test
+    void testCopyFileParallelResumesFromCheckpoint() throws Exception {
+        Path sourcePath = TEST_FILE_PATH.resolve("resume_source.bin");
+        Path destinationPath = TEST_FILE_PATH.resolve("resume_destination.bin");
+        byte[] content = new byte[500_000];
+        new Random(11).nextBytes(content);
+        Files.write(sourcePath, content);
+        try {
+            ParallelCopyOptions options = new ParallelCopyOptions().parallelism(1).rangeSize(100_000).resumable(true);
+            assertThrows(IOException.class, () -> RangeCopier.copy(sourcePath, destinationPath, options, (completed, total) -> {
+                throw new IllegalStateException("Interrupted after " + completed + " bytes");
+            }));
+            assertTrue(Files.exists(RangeCopier.checkpointPath(destinationPath)));
+
+            long copied = RangeCopier.copy(sourcePath, destinationPath, options, null);
+            assertEquals(content.length - 100_000, copied);
+            assertArrayEquals(content, Files.readAllBytes(destinationPath));
+            assertFalse(Files.exists(RangeCopier.checkpointPath(destinationPath)));
+        } finally {
+            Files.deleteIfExists(sourcePath);
+            Files.deleteIfExists(destinationPath);
+            Files.deleteIfExists(RangeCopier.checkpointPath(destinationPath));
+        }
+    }
+
+    @Test
+    void testCopyFileParallelOntoItselfKeepsContent() throws Exception {
+        Path sourcePath = TEST_FILE_PATH.resolve("parallel_same.bin");
+        byte[] content = new byte[300_000];
+        new Random(13).nextBytes(content);
+        Files.write(sourcePath, content);
+        try {
+            ParallelCopyOptions options = new ParallelCopyOptions().parallelism(2).rangeSize(100_000);
+            assertEquals(0L, RangeCopier.copy(sourcePath, sourcePath, options, null));
+            assertEquals(0L, RangeCopier.copy(sourcePath, TEST_FILE_PATH.resolve(".").resolve("parallel_same.bin"), options, null));
+            assertArrayEquals(content, Files.readAllBytes(sourcePath));
+        } finally {
+            Files.deleteIfExists(sourcePath);
+        }
+    }
+
+    @Test
+    void testThrottledCopyOntoItselfKeepsContent() throws Exception {
+        Path sourcePath = TEST_FILE_PATH.resolve("throttled_same.bin");
+        Path destinationPath = TEST_FILE_PATH.resolve("throttled_destination.bin");
+        byte[] content = new byte[200_000];
+        new Random(17).nextBytes(content);
+        Files.write(sourcePath, content);
+        Files.write(destinationPath, new byte[500_000]);
+        Throttle.forOperation(Operation.COPY_FILE).setBytesPerSecond(100_000_000);
+        try {
+            assertEquals(sourcePath, copy(sourcePath, sourcePath));
+            assertEquals(sourcePath, copy(sourcePath, TEST_FILE_PATH.resolve(".").resolve("throttled_same.bin")).normalize());
+            assertArrayEquals(content, Files.readAllBytes(sourcePath));
+
+            copy(sourcePath, destinationPath);
+            assertArrayEquals(content, Files.readAllBytes(destinationPath));
+            try (Stream<Path> stream = Files.list(TEST_FILE_PATH)) {
+                assertTrue(stream.noneMatch(path -> path.getFileName().toString().endsWith(".tmp")));
+            }
+        } finally {
+            Throttle.forOperation(Operation.COPY_FILE).setBytesPerSecond(Throttle.UNLIMITED);
+            Files.deleteIfExists(sourcePath);
+            Files.deleteIfExists(destinationPath);
+        }
+    }
+
+    @Test
+    void testHighPriorityRunsWhileThrottledCopiesWait() throws Exception {
+        Path sourcePath = TEST_FILE_PATH.resolve("throttled_source.bin");
+        Path movePath = TEST_FILE_PATH.resolve("throttled_move.txt");
+        Path movedPath = TEST_FILE_PATH.resolve("throttled_moved.txt");
+        List<Path> copyPaths = List.of(TEST_FILE_PATH.resolve("throttled_copy_1.bin"), TEST_FILE_PATH.resolve("throttled_copy_2.bin"));
+        Files.write(sourcePath, new byte[200_000]);
+        Files.writeString(movePath, "move");
+        IOScheduler.getInstance().setMaxInFlight(TEST_FILE_PATH, 2);
+        Throttle.forOperation(Operation.COPY_FILE).setBytesPerSecond(100_000);
+        List<CompletableFuture<Path>> copies = new ArrayList<>();
+        try {
+            // La primera copia espera un segundo a Throttle; la segunda no puede ocupar el hueco restante.
+            for (Path copyPath : copyPaths) {
+                CompletableFuture<Path> future = new CompletableFuture<>();
+                FileManager.copyFile(sourcePath, copyPath, complete(future));
+                copies.add(future);
+            }
+            assertEquals(1, IOScheduler.getInstance().getQueueDepth(IOPriority.LOW));
+
+            CompletableFuture<Path> move = new CompletableFuture<>();
+            FileManager.moveFile(movePath, movedPath, IOPriority.HIGH, complete(move));
+            assertEquals(movedPath, move.get(500, TimeUnit.MILLISECONDS));
+            assertFalse(copies.get(0).isDone());
+        } finally {
+            Throttle.forOperation(Operation.COPY_FILE).setBytesPerSecond(Throttle.UNLIMITED);
+            for (CompletableFuture<Path> copy : copies)
+                copy.get(10, TimeUnit.SECONDS);
+            IOScheduler.getInstance().setMaxInFlight(TEST_FILE_PATH, IOScheduler.DEFAULT_MAX_IN_FLIGHT);
+            for (Path path : copyPaths)
+                Files.deleteIfExists(path);
+            Files.deleteIfExists(sourcePath);
+            Files.deleteIfExists(movePath);
+            Files.deleteIfExists(movedPath);
+        }
+    }
+
     @Test
     void testMoveFile() throws ExecutionException, InterruptedException {
         Path sourcePath = TEST_FILE_PATH.resolve(TEST_FILE_NAME);
@@ -111,4 +286,79 @@ class FileManagerTest {
         Path deletedPath = deleteFuture.get();
         assertFalse(Files.exists(deletedPath));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSearch() throws IOException {
+        Path root = TEST_FILE_PATH.resolve("search_root");
+        Path first = root.resolve("first.txt");
+        Path second = root.resolve("nested").resolve("second.log");
+        Path large = root.resolve("large.txt");
+        Path binary = root.resolve("data.bin");
+        Files.createDirectories(second.getParent());
+        try {
+            Files.write(first, "alpha\r\nNeedle here\nnothing\n".getBytes());
+            Files.write(second, "one\ntwo needle\nthree".getBytes());
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 50_000; i++)
+                text.append("line ").append(i).append('\n');
+            int offset = text.length() + 4;
+            text.append("the needle at the end");
+            Files.write(large, text.toString().getBytes());
+            Files.write(binary, new byte[]{'n', 'e', 'e', 'd', 'l', 'e', 0, 1, 2});
+
+            List<SearchMatch> matches;
+            try (Stream<SearchMatch> stream = FileManager.search(root, "needle", new SearchOptions().parallelism(2))) {
+                matches = stream.sorted(Comparator.comparing(match -> match.getPath().toString())).collect(Collectors.toList());
+            }
+            assertEquals(2, matches.size());
+            assertEquals(large, matches.get(0).getPath());
+            assertEquals(50_001, matches.get(0).getLineNumber());
+            assertEquals(offset, matches.get(0).getOffset());
+            assertEquals("the needle at the end", matches.get(0).getLine());
+            assertEquals(second, matches.get(1).getPath());
+            assertEquals(2, matches.get(1).getLineNumber());
+            assertEquals(8, matches.get(1).getOffset());
+
+            try (Stream<SearchMatch> stream = FileManager.search(root, "NEEDLE", new SearchOptions().ignoreCase(true).glob("*.txt"))) {
+                matches = stream.sorted(Comparator.comparing(SearchMatch::getLineNumber)).collect(Collectors.toList());
+            }
+            assertEquals(2, matches.size());
+            assertEquals(first, matches.get(0).getPath());
+            assertEquals(2, matches.get(0).getLineNumber());
+            assertEquals(7, matches.get(0).getOffset());
+            assertEquals("Needle here", matches.get(0).getLine());
+
+            try (Stream<SearchMatch> stream = FileManager.search(root, "n[a-z]+(e|g)$", new SearchOptions().regex(true).includeBinary(true))) {
+                matches = stream.collect(Collectors.toList());
+            }
+            assertEquals(2, matches.size());
+            assertTrue(matches.stream().anyMatch(match -> match.getPath().equals(second) && match.getLine().equals("two needle")));
+            assertTrue(matches.stream().anyMatch(match -> match.getPath().equals(first) && match.getLineNumber() == 3));
+        } finally {
+            try (Stream<Path> walk = Files.walk(root)) {
+                for (Path path : walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+                    Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static Path copy(Path sourcePath, Path destinationPath) throws Exception {
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        FileManager.copyFile(sourcePath, destinationPath, complete(future));
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    private static CompletionHandler<Path> complete(CompletableFuture<Path> future) {
+        return new CompletionHandler<Path>() {
+            @Override
+            public void onSuccessResult(Path result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                future.completeExceptionally(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.drako.dk.file;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTailerTest {
+    static final Path TEST_FILE_PATH = Paths.get("src", "test", "tail.txt");
+    static final Path ROTATED_FILE_PATH = Paths.get("src", "test", "tail.txt.1");
+
+    @AfterEach
+    void deleteFiles() throws IOException {
+        Files.deleteIfExists(TEST_FILE_PATH);
+        Files.deleteIfExists(ROTATED_FILE_PATH);
+    }
+
+    @Test
+    void testFollowFromStartAndAppend() throws Exception {
+        Files.writeString(TEST_FILE_PATH, "first\r\nsecond\n");
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        try (FileTailer ignored = new FileTailer(TEST_FILE_PATH, false, 50L, lines::add, null)) {
+            ignored.start();
+            assertEquals("first", lines.poll(5, TimeUnit.SECONDS));
+            assertEquals("second", lines.poll(5, TimeUnit.SECONDS));
+
+            append("thi");
+            append("rd\n");
+            assertEquals("third", lines.poll(5, TimeUnit.SECONDS));
+            assertEquals(Files.size(TEST_FILE_PATH), ignored.getPosition());
+        }
+    }
+
+    @Test
+    void testFollowFromEndSkipsExistingContent() throws Exception {
+        Files.writeString(TEST_FILE_PATH, "old\n");
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        try (FileTailer ignored = new FileTailer(TEST_FILE_PATH, true, 50L, lines::add, null)) {
+            ignored.start();
+            append("new\n");
+            assertEquals("new", lines.poll(5, TimeUnit.SECONDS));
+            assertNull(lines.poll(200, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    void testTruncationAndRotation() throws Exception {
+        Files.writeString(TEST_FILE_PATH, "a long line before truncation\n");
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        try (FileTailer ignored = new FileTailer(TEST_FILE_PATH, false, 50L, lines::add, null)) {
+            ignored.start();
+            assertEquals("a long line before truncation", lines.poll(5, TimeUnit.SECONDS));
+
+            Files.writeString(TEST_FILE_PATH, "short\n");
+            assertEquals("short", lines.poll(5, TimeUnit.SECONDS));
+
+            append("last before rotation\n");
+            assertEquals("last before rotation", lines.poll(5, TimeUnit.SECONDS));
+            Files.move(TEST_FILE_PATH, ROTATED_FILE_PATH);
+            Files.writeString(TEST_FILE_PATH, "after rotation, a longer line than before\n");
+            assertEquals("after rotation, a longer line than before", lines.poll(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testPublisherReceivesLinesAndCompletesOnClose() throws Exception {
+        Files.writeString(TEST_FILE_PATH, "one\ntwo\n");
+        List<String> received = new ArrayList<>();
+        CompletableFuture<List<String>> completed = new CompletableFuture<>();
+        FileTailer tailer = new FileTailer(TEST_FILE_PATH, false);
+        tailer.subscribe(new Flow.Subscriber<String>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(String item) {
+                received.add(item);
+                if (received.size() == 2)
+                    tailer.close();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.complete(received);
+            }
+        });
+        tailer.start();
+        assertEquals(List.of("one", "two"), completed.get(5, TimeUnit.SECONDS));
+    }
+
+    private static void append(String content) throws IOException {
+        Files.writeString(TEST_FILE_PATH, content, StandardOpenOption.APPEND);
+    }
+}
@@ -5,11 +5,23 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -80,4 +92,242 @@ class FolderManagerTest {
         Path deletedPath = deleteFuture.get();
         assertFalse(Files.exists(deletedPath));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testZipFolderAndUnzip() throws Exception {
+        Path sourcePath = TEST_FOLDER_PATH.resolve("zip_source");
+        Path zipPath = TEST_FOLDER_PATH.resolve("archive.zip");
+        Path extractedPath = TEST_FOLDER_PATH.resolve("zip_extracted");
+        Files.createDirectories(sourcePath.resolve("nested").resolve("empty"));
+        Files.writeString(sourcePath.resolve("hello.txt"), "Hello, ZIP!");
+        Files.writeString(sourcePath.resolve("nested").resolve("notes.txt"), "Texto ".repeat(10_000));
+        byte[] random = new byte[ZipArchiver.SPILL_THRESHOLD + 1024];
+        new Random(42).nextBytes(random);
+        Files.write(sourcePath.resolve("nested").resolve("random.bin"), random);
+
+        AtomicLong lastProgress = new AtomicLong();
+        CompletableFuture<Path> zipFuture = new CompletableFuture<>();
+        FolderManager.zipFolder(sourcePath, zipPath, 2, (completed, total) -> lastProgress.set(completed), handler(zipFuture));
+        zipFuture.get();
+        assertEquals(5, lastProgress.get());
+
+        try (ZipFile zipFile = new ZipFile(zipPath.toFile(), StandardCharsets.UTF_8)) {
+            assertEquals(5, zipFile.size());
+            assertTrue(zipFile.getEntry("nested/empty/").isDirectory());
+            assertEquals("Hello, ZIP!", new String(zipFile.getInputStream(zipFile.getEntry("hello.txt")).readAllBytes(), StandardCharsets.UTF_8));
+            assertArrayEquals(random, zipFile.getInputStream(zipFile.getEntry("nested/random.bin")).readAllBytes());
+        }
+
+        CompletableFuture<Path> unzipFuture = new CompletableFuture<>();
+        FolderManager.unzip(zipPath, extractedPath, 2, null, handler(unzipFuture));
+        unzipFuture.get();
+        assertEquals("Hello, ZIP!", Files.readString(extractedPath.resolve("hello.txt")));
+        assertEquals("Texto ".repeat(10_000), Files.readString(extractedPath.resolve("nested").resolve("notes.txt")));
+        assertArrayEquals(random, Files.readAllBytes(extractedPath.resolve("nested").resolve("random.bin")));
+        assertTrue(Files.isDirectory(extractedPath.resolve("nested").resolve("empty")));
+    }
+
+    @Test
+    void testZipAndUnzipManyEntries() throws Exception {
+        Path sourcePath = TEST_FOLDER_PATH.resolve("zip_many_source");
+        Path zipPath = TEST_FOLDER_PATH.resolve("many.zip");
+        Path extractedPath = TEST_FOLDER_PATH.resolve("zip_many_extracted");
+        try {
+            Files.createDirectories(sourcePath);
+            // Con 1000 entradas, varias comparten franja de bloqueo con el archivo ZIP.
+            int entries = 1000;
+            for (int i = 0; i < entries; i++)
+                Files.writeString(sourcePath.resolve("file" + i + ".txt"), "entry " + i);
+
+            CompletableFuture<Path> zipFuture = new CompletableFuture<>();
+            FolderManager.zipFolder(sourcePath, zipPath, 4, null, handler(zipFuture));
+            zipFuture.get(60, TimeUnit.SECONDS);
+            try (ZipFile zipFile = new ZipFile(zipPath.toFile(), StandardCharsets.UTF_8)) {
+                assertEquals(entries, zipFile.size());
+            }
+
+            CompletableFuture<Path> unzipFuture = new CompletableFuture<>();
+            FolderManager.unzip(zipPath, extractedPath, 4, null, handler(unzipFuture));
+            unzipFuture.get(60, TimeUnit.SECONDS);
+            for (int i = 0; i < entries; i++)
+                assertEquals("entry " + i, Files.readString(extractedPath.resolve("file" + i + ".txt")));
+        } finally {
+            for (Path root : new Path[]{sourcePath, zipPath, extractedPath})
+                deleteTree(root);
+        }
+    }
+
+    @Test
+    void testUnzipRejectsEntriesOutsideDestination() throws Exception {
+        Path zipPath = TEST_FOLDER_PATH.resolve("malicious.zip");
+        Path extractedPath = TEST_FOLDER_PATH.resolve("malicious_extracted");
+        try (OutputStream out = Files.newOutputStream(zipPath); ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("safe.txt"));
+            zip.write("safe".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("../escaped.txt"));
+            zip.write("escaped".getBytes(StandardCharsets.UTF_8));
+        }
+
+        CompletableFuture<Path> unzipFuture = new CompletableFuture<>();
+        FolderManager.unzip(zipPath, extractedPath, null, handler(unzipFuture));
+        ExecutionException exception = assertThrows(ExecutionException.class, unzipFuture::get);
+        assertInstanceOf(IOException.class, exception.getCause());
+        assertEquals(1, exception.getCause().getSuppressed().length);
+        assertEquals("safe", Files.readString(extractedPath.resolve("safe.txt")));
+        assertFalse(Files.exists(TEST_FOLDER_PATH.resolve("escaped.txt")));
+    }
+
+    @Test
+    void testUsageWithBreakdownAndCache() throws Exception {
+        Path rootPath = TEST_FOLDER_PATH.resolve("usage_root");
+        deleteTree(rootPath);
+        try {
+            Files.createDirectories(rootPath.resolve("a").resolve("deep"));
+            Files.createDirectories(rootPath.resolve("b"));
+            Files.write(rootPath.resolve("top.bin"), new byte[100]);
+            Files.write(rootPath.resolve("a").resolve("a.bin"), new byte[200]);
+            Files.write(rootPath.resolve("a").resolve("deep").resolve("deep.bin"), new byte[300]);
+            Files.write(rootPath.resolve("b").resolve("b.bin"), new byte[400]);
+            FolderManager.clearUsageCache();
+
+            DirectoryUsage usage = usage(rootPath, 1);
+            assertEquals(1000, usage.getSize());
+            assertEquals(4, usage.getFileCount());
+            assertEquals(3, usage.getDirectoryCount());
+            assertEquals(2, usage.getChildren().size());
+            DirectoryUsage a = usage.getChildren().get(0);
+            assertEquals(rootPath.resolve("a"), a.getPath());
+            assertEquals(500, a.getSize());
+            assertTrue(a.getChildren().isEmpty());
+
+            // La fecha de la carpeta se cambia explícitamente: con una resolución de 1 o 2 segundos, crear el
+            // archivo podría no modificarla y la caché devolvería el total anterior.
+            Path b = rootPath.resolve("b");
+            FileTime modified = Files.getLastModifiedTime(b);
+            Files.write(b.resolve("new.bin"), new byte[50]);
+            Files.setLastModifiedTime(b, FileTime.fromMillis(modified.toMillis() + 10_000L));
+            assertEquals(1050, usage(rootPath, 0).getSize());
+
+            CompletableFuture<Long> sizeFuture = new CompletableFuture<>();
+            FolderManager.size(rootPath, new CompletionHandler<Long>() {
+                @Override
+                public void onSuccessResult(Long result) {
+                    sizeFuture.complete(result);
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    sizeFuture.completeExceptionally(e);
+                }
+            });
+            assertEquals(1050L, sizeFuture.get());
+        } finally {
+            FolderManager.invalidateUsageCache(rootPath);
+            deleteTree(rootPath);
+        }
+    }
+
+    private static DirectoryUsage usage(Path folderPath, int depth) throws Exception {
+        CompletableFuture<DirectoryUsage> future = new CompletableFuture<>();
+        FolderManager.usage(folderPath, depth, new CompletionHandler<DirectoryUsage>() {
+            @Override
+            public void onSuccessResult(DirectoryUsage result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future.get();
+    }
+
+    private static CompletionHandler<Path> handler(CompletableFuture<Path> future) {
+        return new CompletionHandler<Path>() {
+            @Override
+            public void onSuccessResult(Path result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                future.completeExceptionally(e);
+            }
+        };
+    }
+
+    @Test
+    void testCompare() throws Exception {
+        Path left = TEST_FOLDER_PATH.resolve("compare_left");
+        Path right = TEST_FOLDER_PATH.resolve("compare_right");
+        for (Path root : new Path[]{left, right})
+            deleteTree(root);
+        try {
+            Files.createDirectories(left.resolve("nested"));
+            Files.createDirectories(right.resolve("nested"));
+            FileTime time = FileTime.fromMillis(1_600_000_000_000L);
+            FileTime otherTime = FileTime.fromMillis(1_600_000_100_000L);
+            writeFile(left.resolve("same.txt"), "same", time);
+            writeFile(right.resolve("same.txt"), "same", otherTime);
+            writeFile(left.resolve("resized.txt"), "short", time);
+            writeFile(right.resolve("resized.txt"), "much longer", time);
+            writeFile(left.resolve("nested").resolve("edited.txt"), "version 1", time);
+            writeFile(right.resolve("nested").resolve("edited.txt"), "version 2", otherTime);
+            writeFile(left.resolve("touched.txt"), "aaaa", time);
+            writeFile(right.resolve("touched.txt"), "bbbb", time);
+            writeFile(left.resolve("removed.txt"), "removed", time);
+            writeFile(right.resolve("added.txt"), "added", time);
+            Files.createDirectories(right.resolve("added_folder").resolve("inner"));
+            writeFile(left.resolve("kind"), "file", time);
+            Files.createDirectories(right.resolve("kind"));
+
+            FolderComparison comparison = compare(left, right, false);
+            assertEquals(List.of(Paths.get("added.txt"), Paths.get("added_folder")), comparison.getAdded());
+            assertEquals(List.of(Paths.get("removed.txt")), comparison.getRemoved());
+            assertEquals(List.of(Paths.get("kind")), comparison.getTypeChanged());
+            assertEquals(List.of(Paths.get("nested", "edited.txt"), Paths.get("resized.txt")), comparison.getModified());
+            assertEquals(2, comparison.getUnchangedCount());
+            assertFalse(comparison.isIdentical());
+
+            comparison = compare(left, right, true);
+            assertEquals(List.of(Paths.get("nested", "edited.txt"), Paths.get("resized.txt"), Paths.get("touched.txt")), comparison.getModified());
+            assertEquals(1, comparison.getUnchangedCount());
+
+            assertTrue(compare(left, left, true).isIdentical());
+        } finally {
+            for (Path root : new Path[]{left, right})
+                deleteTree(root);
+        }
+    }
+
+    private static FolderComparison compare(Path left, Path right, boolean alwaysCompareContent) throws Exception {
+        CompletableFuture<FolderComparison> future = new CompletableFuture<>();
+        FolderManager.compare(left, right, alwaysCompareContent, new CompletionHandler<FolderComparison>() {
+            @Override
+            public void onSuccessResult(FolderComparison result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future.get();
+    }
+
+    private static void writeFile(Path path, String content, FileTime lastModified) throws IOException {
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(path, lastModified);
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root))
+            return;
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator)
+                Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.drako.dk.file;
+
+import com.drako.dk.handler.CompletionHandler;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrashManagerTest {
+    static final Path TEST_FOLDER_PATH = Paths.get("src", "test", "trash_test");
+
+    @Test
+    void testTrashAndPurge() throws Exception {
+        Path work = TEST_FOLDER_PATH.resolve("work");
+        Path trash = work.resolve(TrashManager.TRASH_FOLDER_NAME);
+        Path registry = TEST_FOLDER_PATH.resolve("registry");
+        Path leftover = trash.resolve("leftover");
+        Path folder = work.resolve("tree");
+        Path file = work.resolve("file.txt");
+        try {
+            Files.createDirectories(leftover);
+            Files.writeString(leftover.resolve("old.txt"), "old");
+            Files.write(registry, List.of(trash.toAbsolutePath().normalize().toString()));
+            Files.createDirectories(folder.resolve("nested"));
+            for (int i = 0; i < 20; i++)
+                Files.writeString(folder.resolve("nested").resolve(i + ".txt"), "content " + i);
+            Files.writeString(file, "file");
+            TrashManager.setRegistryPath(registry);
+
+            CompletableFuture<Path> folderFuture = new CompletableFuture<>();
+            FolderManager.trashFolder(folder, handler(folderFuture));
+            assertEquals(folder, folderFuture.get());
+            assertFalse(Files.exists(folder));
+
+            CompletableFuture<Path> fileFuture = new CompletableFuture<>();
+            FileManager.trashFile(file, handler(fileFuture));
+            assertEquals(file, fileFuture.get());
+            assertFalse(Files.exists(file));
+
+            CompletableFuture<Path> missingFuture = new CompletableFuture<>();
+            FileManager.trashFile(work.resolve("missing.txt"), handler(missingFuture));
+            assertThrows(Exception.class, missingFuture::get);
+
+            assertTrue(TrashManager.awaitPurged(10_000L));
+            assertEquals(0, TrashManager.getPendingCount());
+            assertFalse(Files.exists(trash));
+            assertTrue(Files.exists(work));
+        } finally {
+            TrashManager.setRegistryPath(null);
+            deleteTree(TEST_FOLDER_PATH);
+        }
+    }
+
+    @Test
+    void testLeftoversArePurgedWithoutRegistry() throws Exception {
+        Path work = TEST_FOLDER_PATH.resolve("unregistered");
+        Path trash = work.resolve(TrashManager.TRASH_FOLDER_NAME);
+        Path leftover = trash.resolve("leftover");
+        Path file = work.resolve("file.txt");
+        try {
+            assertNull(TrashManager.getRegistryPath());
+            Files.createDirectories(leftover);
+            Files.writeString(leftover.resolve("old.txt"), "old");
+            Files.writeString(file, "file");
+
+            CompletableFuture<Path> fileFuture = new CompletableFuture<>();
+            FileManager.trashFile(file, handler(fileFuture));
+            assertEquals(file, fileFuture.get());
+
+            assertTrue(TrashManager.awaitPurged(10_000L));
+            assertFalse(Files.exists(trash));
+            assertTrue(Files.exists(work));
+        } finally {
+            deleteTree(TEST_FOLDER_PATH);
+        }
+    }
+
+    @Test
+    void testTrashIsSkippedBeforeItIsPurged() throws Exception {
+        Path parent = TEST_FOLDER_PATH.resolve("skipped");
+        Path child = parent.resolve("child");
+        Path zipPath = TEST_FOLDER_PATH.resolve("skipped.zip");
+        try {
+            Files.createDirectories(child);
+            Files.write(parent.resolve("kept.bin"), new byte[100]);
+            for (int i = 0; i < 50; i++)
+                Files.writeString(child.resolve(i + ".txt"), "trashed needle " + i);
+            // Con una eliminación por segundo, el contenido sigue en la papelera durante el resto de la prueba.
+            TrashManager.setMaxDeletionsPerSecond(1);
+
+            CompletableFuture<Path> trashFuture = new CompletableFuture<>();
+            FolderManager.trashFolder(child, handler(trashFuture));
+            assertEquals(child, trashFuture.get());
+            assertTrue(Files.isDirectory(parent.resolve(TrashManager.TRASH_FOLDER_NAME)));
+
+            CompletableFuture<Long> sizeFuture = new CompletableFuture<>();
+            FolderManager.size(parent, handler(sizeFuture));
+            assertEquals(100L, sizeFuture.get());
+            assertEquals(List.of(parent.resolve("kept.bin")), FileManager.listFilesInFolder(parent, false, true, null));
+            assertEquals(List.of(parent.resolve("kept.bin")), FileManager.listFilesInFolder(parent, true, false, null));
+            try (Stream<SearchMatch> matches = FileManager.search(parent, "needle", new SearchOptions())) {
+                assertEquals(0, matches.count());
+            }
+
+            CompletableFuture<Path> zipFuture = new CompletableFuture<>();
+            FolderManager.zipFolder(parent, zipPath, null, handler(zipFuture));
+            zipFuture.get();
+            try (ZipFile zipFile = new ZipFile(zipPath.toFile())) {
+                assertEquals(1, zipFile.size());
+                assertNotNull(zipFile.getEntry("kept.bin"));
+            }
+        } finally {
+            TrashManager.setMaxDeletionsPerSecond(TrashManager.DEFAULT_MAX_DELETIONS_PER_SECOND);
+            assertTrue(TrashManager.awaitPurged(10_000L));
+            Files.deleteIfExists(zipPath);
+            deleteTree(TEST_FOLDER_PATH);
+        }
+    }
+
+    private static <T> CompletionHandler<T> handler(CompletableFuture<T> future) {
+        return new CompletionHandler<T>() {
+            @Override
+            public void onSuccessResult(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                future.completeExceptionally(e);
+            }
+        };
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root))
+            return;
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator)
+                Files.delete(path);
+        }
+    }
+}
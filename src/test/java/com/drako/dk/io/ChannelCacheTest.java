@@ -0,0 +1,103 @@
+package com.drako.dk.io;
+
+import com.drako.dk.file.FileManager;
+import com.drako.dk.handler.CompletionHandler;
+import com.drako.dk.manager.PersistManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelCacheTest {
+    static final Path FIRST_PATH = Paths.get("src", "test", "cachedFirst.txt");
+    static final Path SECOND_PATH = Paths.get("src", "test", "cachedSecond.txt");
+
+    @BeforeEach
+    void enableCache() {
+        ChannelCache.setEnabled(true);
+        ChannelCache.setCapacity(ChannelCache.DEFAULT_CAPACITY);
+    }
+
+    @AfterEach
+    void disableCache() throws IOException {
+        ChannelCache.setEnabled(false);
+        Files.deleteIfExists(FIRST_PATH);
+        Files.deleteIfExists(SECOND_PATH);
+    }
+
+    @Test
+    void testPersistManagerReusesCachedChannels() {
+        PersistManager persistManager = new PersistManager(FIRST_PATH);
+        assertTrue(persistManager.writeTextFile("first line"));
+        long misses = ChannelCache.getMissCount();
+        long hits = ChannelCache.getHitCount();
+
+        assertTrue(persistManager.writeTextFile("replaced"));
+        assertTrue(persistManager.writeTextFile(" and appended", true));
+        assertEquals("replaced and appended\n", persistManager.readTextFile().orElseThrow());
+        assertEquals("replaced and appended\n", persistManager.readTextFile().orElseThrow());
+
+        assertEquals(misses + 1, ChannelCache.getMissCount());
+        assertEquals(hits + 3, ChannelCache.getHitCount());
+        assertEquals(2, ChannelCache.size());
+    }
+
+    @Test
+    void testDeleteThroughFileManagerInvalidatesChannels() throws Exception {
+        PersistManager persistManager = new PersistManager(FIRST_PATH);
+        assertTrue(persistManager.writeTextFile("content"));
+        assertEquals(1, ChannelCache.size());
+
+        CompletableFuture<Path> deleteFuture = new CompletableFuture<>();
+        FileManager.deleteFile(FIRST_PATH, new CompletionHandler<Path>() {
+            @Override
+            public void onSuccessResult(Path result) {
+                deleteFuture.complete(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                deleteFuture.completeExceptionally(e);
+            }
+        });
+        deleteFuture.get();
+        assertEquals(0, ChannelCache.size());
+
+        assertTrue(persistManager.writeTextFile("recreated"));
+        assertEquals("recreated", Files.readString(FIRST_PATH));
+    }
+
+    @Test
+    void testEvictionNeverClosesChannelsInUse() throws IOException {
+        ChannelCache.setCapacity(1);
+        try (ChannelCache.Handle first = ChannelCache.acquire(FIRST_PATH, ChannelCache.Mode.WRITE)) {
+            FileChannel channel = first.channel();
+            try (ChannelCache.Handle ignored = ChannelCache.acquire(SECOND_PATH, ChannelCache.Mode.WRITE)) {
+                assertEquals(1, ChannelCache.size());
+                assertTrue(channel.isOpen());
+            }
+            first.close();
+            assertFalse(channel.isOpen());
+        }
+    }
+
+    @Test
+    void testDisabledCacheClosesOnRelease() throws IOException {
+        ChannelCache.setEnabled(false);
+        FileChannel channel;
+        try (ChannelCache.Handle handle = ChannelCache.acquire(FIRST_PATH, ChannelCache.Mode.WRITE)) {
+            channel = handle.channel();
+            assertTrue(channel.isOpen());
+        }
+        assertFalse(channel.isOpen());
+        assertEquals(0, ChannelCache.size());
+    }
+}
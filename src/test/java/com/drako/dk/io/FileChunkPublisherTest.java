@@ -0,0 +1,147 @@
+package com.drako.dk.io;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileChunkPublisherTest {
+    static final Path CHUNKED_PATH = Paths.get("src", "test", "chunkedFile.bin");
+    static final int CHUNK_SIZE = 4096;
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(CHUNKED_PATH);
+    }
+
+    @Test
+    void testDeliversWholeFileOneChunkPerRequest() throws Exception {
+        byte[] content = new byte[CHUNK_SIZE * 5 / 2];
+        new Random(7).nextBytes(content);
+        Files.write(CHUNKED_PATH, content);
+        BufferPool pool = new BufferPool(CHUNK_SIZE, 4);
+
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        AtomicInteger chunks = new AtomicInteger();
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        new FileChunkPublisher(CHUNKED_PATH, pool).subscribe(new Flow.Subscriber<ByteBuffer>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                chunks.incrementAndGet();
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                received.writeBytes(bytes);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(received.toByteArray());
+            }
+        });
+
+        assertArrayEquals(content, future.get(10, TimeUnit.SECONDS));
+        assertEquals(3, chunks.get());
+        assertEquals(1, pool.getPooledCount());
+    }
+
+    @Test
+    void testReadsOnlyAsFarAsRequested() throws Exception {
+        Files.write(CHUNKED_PATH, new byte[CHUNK_SIZE * 4]);
+        BufferPool pool = new BufferPool(CHUNK_SIZE, 4);
+
+        AtomicInteger chunks = new AtomicInteger();
+        CompletableFuture<Flow.Subscription> firstChunk = new CompletableFuture<>();
+        CompletableFuture<Void> terminated = new CompletableFuture<>();
+        new FileChunkPublisher(CHUNKED_PATH, pool).subscribe(new Flow.Subscriber<ByteBuffer>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                chunks.incrementAndGet();
+                firstChunk.complete(subscription);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                terminated.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                terminated.complete(null);
+            }
+        });
+
+        Flow.Subscription subscription = firstChunk.get(10, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        assertEquals(1, chunks.get());
+        assertFalse(terminated.isDone());
+
+        subscription.cancel();
+        assertEquals(1, chunks.get());
+        assertFalse(terminated.isDone());
+    }
+
+    @Test
+    void testMissingFileSignalsError() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        new FileChunkPublisher(CHUNKED_PATH).subscribe(new Flow.Subscriber<ByteBuffer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                future.completeExceptionally(new AssertionError("Unexpected chunk"));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(null);
+            }
+        });
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(NoSuchFileException.class, exception.getCause());
+    }
+}
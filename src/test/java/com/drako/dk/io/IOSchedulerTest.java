@@ -0,0 +1,161 @@
+package com.drako.dk.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IOSchedulerTest {
+    static final Path TEST_PATH = Paths.get("src", "test");
+
+    @Test
+    void testHigherPriorityRunsFirst() throws InterruptedException {
+        IOScheduler scheduler = new IOScheduler(1, 16, IOScheduler.RejectionPolicy.REJECT);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        List<IOPriority> order = new CopyOnWriteArrayList<>();
+
+        scheduler.submit(TEST_PATH, IOPriority.LOW, () -> await(blocker));
+        for (IOPriority priority : new IOPriority[]{IOPriority.LOW, IOPriority.NORMAL, IOPriority.HIGH}) {
+            scheduler.submit(TEST_PATH, priority, () -> {
+                order.add(priority);
+                done.countDown();
+            });
+        }
+
+        assertEquals(3, scheduler.getQueueDepth());
+        assertEquals(1, scheduler.getQueueDepth(IOPriority.HIGH));
+        assertEquals(1, scheduler.getInFlight());
+        blocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(IOPriority.HIGH, IOPriority.NORMAL, IOPriority.LOW), order);
+        assertEquals(0, scheduler.getQueueDepth());
+    }
+
+    @Test
+    void testMaxInFlightIsRespected() throws InterruptedException {
+        IOScheduler scheduler = new IOScheduler(2, 64, IOScheduler.RejectionPolicy.BLOCK);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(20);
+
+        for (int i = 0; i < 20; i++) {
+            scheduler.submit(TEST_PATH, IOPriority.NORMAL, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(5);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void testLowPriorityCannotTakeReservedSlots() throws InterruptedException {
+        IOScheduler scheduler = new IOScheduler(4, 16, IOScheduler.RejectionPolicy.REJECT);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch high = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        try {
+            for (int i = 0; i < 4; i++) {
+                scheduler.submit(TEST_PATH, IOPriority.LOW, () -> {
+                    await(blocker);
+                    done.countDown();
+                });
+            }
+            assertEquals(3, scheduler.getInFlight());
+            assertEquals(1, scheduler.getQueueDepth(IOPriority.LOW));
+
+            scheduler.submit(TEST_PATH, IOPriority.HIGH, high::countDown);
+            assertTrue(high.await(5, TimeUnit.SECONDS));
+        } finally {
+            blocker.countDown();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, scheduler.getQueueDepth());
+    }
+
+    @Test
+    void testRejectWhenQueueIsFull() {
+        IOScheduler scheduler = new IOScheduler(1, 1, IOScheduler.RejectionPolicy.REJECT);
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            scheduler.submit(TEST_PATH, IOPriority.NORMAL, () -> await(blocker));
+            scheduler.submit(TEST_PATH, IOPriority.NORMAL, () -> { });
+            assertThrows(RejectedExecutionException.class,
+                    () -> scheduler.submit(TEST_PATH, IOPriority.NORMAL, () -> { }));
+            assertEquals(1, scheduler.getRejectedCount());
+        } finally {
+            blocker.countDown();
+        }
+    }
+
+    @Test
+    void testWorkerIsNotBlockedWhenQueueIsFull() throws InterruptedException {
+        IOScheduler scheduler = new IOScheduler(1, 1, IOScheduler.RejectionPolicy.BLOCK);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        AtomicReference<Boolean> daemon = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        scheduler.submit(TEST_PATH, IOPriority.NORMAL, () -> {
+            daemon.set(Thread.currentThread().isDaemon());
+            try {
+                scheduler.submit(TEST_PATH, IOPriority.NORMAL, () -> { });
+                scheduler.submit(TEST_PATH, IOPriority.NORMAL, () -> { });
+            } catch (RejectedExecutionException e) {
+                error.set(e);
+            }
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.get());
+        assertTrue(daemon.get());
+    }
+
+    @Test
+    void testAsyncTaskHoldsSlotUntilReleased() throws InterruptedException {
+        IOScheduler scheduler = new IOScheduler(1, 16, IOScheduler.RejectionPolicy.REJECT);
+        AtomicReference<Runnable> release = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+
+        scheduler.submitAsync(TEST_PATH, IOPriority.NORMAL, onDone -> {
+            release.set(onDone);
+            started.countDown();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        scheduler.submit(TEST_PATH, IOPriority.NORMAL, second::countDown);
+
+        assertFalse(second.await(100, TimeUnit.MILLISECONDS));
+        release.get().run();
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
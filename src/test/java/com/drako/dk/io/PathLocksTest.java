@@ -0,0 +1,135 @@
+package com.drako.dk.io;
+
+import com.drako.dk.handler.CompletionHandler;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathLocksTest {
+    static final Path FIRST_PATH = Paths.get("src", "test", "first.txt");
+    static final Path SECOND_PATH = Paths.get("src", "test", "second.txt");
+
+    @Test
+    void testNormalizedPathsShareStripe() {
+        Path aliasPath = Paths.get("src", "test", "..", "test", "first.txt");
+        assertEquals(PathLocks.stripe(FIRST_PATH), PathLocks.stripe(aliasPath));
+        assertEquals(PathLocks.normalize(FIRST_PATH), PathLocks.normalize(aliasPath));
+    }
+
+    @Test
+    void testExclusiveLockBlocksOtherThreads() throws InterruptedException {
+        AtomicBoolean acquired = new AtomicBoolean();
+        CountDownLatch released = new CountDownLatch(1);
+        Thread contender;
+        try (PathLocks.Lock ignored = PathLocks.acquire(FIRST_PATH, true)) {
+            contender = new Thread(() -> {
+                try (PathLocks.Lock lock = PathLocks.acquire(FIRST_PATH, false)) {
+                    acquired.set(true);
+                }
+                released.countDown();
+            });
+            contender.start();
+            assertFalse(released.await(100, TimeUnit.MILLISECONDS));
+            assertFalse(acquired.get());
+        }
+        assertTrue(released.await(5, TimeUnit.SECONDS));
+        assertTrue(acquired.get());
+    }
+
+    @Test
+    void testTryAcquireDoesNotWait() {
+        try (PathLocks.Lock ignored = PathLocks.acquire(FIRST_PATH, true)) {
+            assertNull(PathLocks.tryAcquire(FIRST_PATH, false));
+            assertNull(PathLocks.tryAcquire(FIRST_PATH, true));
+        }
+        try (PathLocks.Lock shared = PathLocks.tryAcquire(FIRST_PATH, false)) {
+            assertNotNull(shared);
+            assertNull(PathLocks.tryAcquire(FIRST_PATH, true));
+        }
+    }
+
+    @Test
+    void testAsyncReadRetriesWhilePathIsLocked() throws Exception {
+        Files.writeString(FIRST_PATH, "locked content");
+        try {
+            CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+            try (PathLocks.Lock ignored = PathLocks.acquire(FIRST_PATH, true)) {
+                AsyncFileIO.read(FIRST_PATH, IOPriority.NORMAL, new CompletionHandler<ByteBuffer>() {
+                    @Override
+                    public void onSuccessResult(ByteBuffer result) {
+                        future.complete(result);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+                Thread.sleep(100);
+                assertFalse(future.isDone());
+            }
+            ByteBuffer content = future.get(5, TimeUnit.SECONDS);
+            assertEquals("locked content", StandardCharsets.UTF_8.decode(content).toString());
+        } finally {
+            Files.deleteIfExists(FIRST_PATH);
+        }
+    }
+
+    @Test
+    void testSharedLocksDoNotBlockEachOther() throws InterruptedException {
+        CountDownLatch acquired = new CountDownLatch(1);
+        try (PathLocks.Lock ignored = PathLocks.acquire(FIRST_PATH, false)) {
+            new Thread(() -> {
+                try (PathLocks.Lock lock = PathLocks.acquire(FIRST_PATH, false)) {
+                    acquired.countDown();
+                }
+            }).start();
+            assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testTwoPathLocksInOppositeOrderDoNotDeadlock() throws InterruptedException {
+        int iterations = 10_000;
+        CountDownLatch done = new CountDownLatch(2);
+        Runnable forward = () -> {
+            for (int i = 0; i < iterations; i++) {
+                try (PathLocks.Lock ignored = PathLocks.acquire(FIRST_PATH, true, SECOND_PATH, true)) {
+                    Thread.onSpinWait();
+                }
+            }
+            done.countDown();
+        };
+        Runnable backward = () -> {
+            for (int i = 0; i < iterations; i++) {
+                try (PathLocks.Lock ignored = PathLocks.acquire(SECOND_PATH, true, FIRST_PATH, false)) {
+                    Thread.onSpinWait();
+                }
+            }
+            done.countDown();
+        };
+        new Thread(forward).start();
+        new Thread(backward).start();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSamePathTwiceAcquiresSingleLock() {
+        try (PathLocks.Lock ignored = PathLocks.acquire(FIRST_PATH, false, FIRST_PATH, true)) {
+            assertNotNull(ignored);
+        }
+        try (PathLocks.Lock ignored = PathLocks.acquire(FIRST_PATH, true)) {
+            assertNotNull(ignored);
+        }
+    }
+}
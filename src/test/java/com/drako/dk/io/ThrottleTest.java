@@ -0,0 +1,72 @@
+package com.drako.dk.io;
+
+import com.drako.dk.file.FileManager;
+import com.drako.dk.handler.CompletionHandler;
+import com.drako.dk.metrics.Operation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThrottleTest {
+    static final Path SOURCE_PATH = Paths.get("src", "test", "throttleSource.bin");
+    static final Path DESTINATION_PATH = Paths.get("src", "test", "throttleDestination.bin");
+
+    @AfterEach
+    void resetLimits() throws Exception {
+        Throttle.global().setBytesPerSecond(Throttle.UNLIMITED);
+        Throttle.global().setOpsPerSecond(Throttle.UNLIMITED);
+        Throttle.forOperation(Operation.COPY_FILE).setBytesPerSecond(Throttle.UNLIMITED);
+        Files.deleteIfExists(SOURCE_PATH);
+        Files.deleteIfExists(DESTINATION_PATH);
+    }
+
+    @Test
+    void testOpsPerSecond() {
+        Throttle.global().setOpsPerSecond(100);
+        assertTrue(Throttle.isLimited(Operation.DELETE_FILE));
+        long start = System.nanoTime();
+        for (int i = 0; i < 150; i++)
+            Throttle.acquire(Operation.DELETE_FILE, 1L, 0L);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // Las primeras 100 operaciones se consumen de la ráfaga inicial y las 50 restantes tardan medio segundo.
+        assertTrue(elapsed >= 400, "elapsed " + elapsed + " ms");
+
+        Throttle.global().setOpsPerSecond(Throttle.UNLIMITED);
+        assertFalse(Throttle.isLimited(Operation.DELETE_FILE));
+        assertThrows(IllegalArgumentException.class, () -> Throttle.global().setOpsPerSecond(-1));
+    }
+
+    @Test
+    void testCopyFileRespectsBytesPerSecond() throws Exception {
+        byte[] content = new byte[2_500_000];
+        new Random(5).nextBytes(content);
+        Files.write(SOURCE_PATH, content);
+        Throttle.forOperation(Operation.COPY_FILE).setBytesPerSecond(1_000_000);
+
+        long start = System.nanoTime();
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        FileManager.copyFile(SOURCE_PATH, DESTINATION_PATH, new CompletionHandler<Path>() {
+            @Override
+            public void onSuccessResult(Path result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.get();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsed >= 1_000, "elapsed " + elapsed + " ms");
+        assertArrayEquals(content, Files.readAllBytes(DESTINATION_PATH));
+    }
+}
@@ -0,0 +1,88 @@
+package com.drako.dk.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayStoreTest {
+    static final Path ARRAY_PATH = Paths.get("src", "test", "arrayStore.bin");
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(ARRAY_PATH);
+    }
+
+    @Test
+    void testWriteAndReadLongs() throws IOException {
+        long[] values = LongStream.range(0, 100_000).map(i -> i * 31 - 7).toArray();
+        ArrayStore.writeLongs(ARRAY_PATH, values);
+
+        assertEquals(ArrayStore.HEADER_SIZE + values.length * 8L, Files.size(ARRAY_PATH));
+        assertArrayEquals(values, ArrayStore.readLongs(ARRAY_PATH));
+        try (ArrayStore.MappedArray array = ArrayStore.map(ARRAY_PATH)) {
+            assertEquals(ArrayStore.Type.LONG, array.getType());
+            assertEquals(values.length, array.getLength());
+            assertEquals(ByteOrder.nativeOrder(), array.getOrder());
+            assertEquals(values[54_321], array.asLongBuffer().get(54_321));
+            assertThrows(IllegalStateException.class, array::asDoubleBuffer);
+        }
+        assertThrows(IOException.class, () -> ArrayStore.readDoubles(ARRAY_PATH));
+    }
+
+    @Test
+    void testCreateAndMapWritableDoubles() throws IOException {
+        try (ArrayStore.MappedArray array = ArrayStore.create(ARRAY_PATH, ArrayStore.Type.DOUBLE, 1000)) {
+            DoubleBuffer doubles = array.asDoubleBuffer();
+            for (int i = 0; i < 1000; i++)
+                doubles.put(i, i / 4.0);
+        }
+        try (ArrayStore.MappedArray array = ArrayStore.map(ARRAY_PATH, true)) {
+            array.asDoubleBuffer().put(10, -1.5);
+        }
+
+        double[] values = ArrayStore.readDoubles(ARRAY_PATH);
+        assertEquals(1000, values.length);
+        assertEquals(-1.5, values[10]);
+        assertEquals(2.75, values[11]);
+        assertEquals(249.75, values[999]);
+    }
+
+    @Test
+    void testFixedLayoutRecords() throws IOException {
+        try (ArrayStore.MappedArray array = ArrayStore.createRecords(ARRAY_PATH, 16, 3)) {
+            for (int i = 0; i < 3; i++) {
+                ByteBuffer record = array.record(i);
+                record.putLong(0, 1000L + i);
+                record.putInt(8, i * 2);
+                record.putFloat(12, i / 2f);
+            }
+        }
+
+        try (ArrayStore.MappedArray array = ArrayStore.map(ARRAY_PATH)) {
+            assertEquals(ArrayStore.Type.RECORD, array.getType());
+            assertEquals(16, array.getElementSize());
+            ByteBuffer record = array.record(2);
+            assertEquals(1002L, record.getLong(0));
+            assertEquals(4, record.getInt(8));
+            assertEquals(1f, record.getFloat(12));
+            assertThrows(IndexOutOfBoundsException.class, () -> array.record(3));
+            assertTrue(record.isReadOnly());
+        }
+    }
+
+    @Test
+    void testRejectsFilesWithoutHeader() throws IOException {
+        Files.writeString(ARRAY_PATH, "not an array store file, just text");
+        assertThrows(IOException.class, () -> ArrayStore.map(ARRAY_PATH));
+    }
+}
@@ -0,0 +1,133 @@
+package com.drako.dk.manager;
+
+import com.drako.dk.handler.CompletionHandler;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentStoreTest {
+    static final Path TEST_FOLDER_PATH = Paths.get("src", "test", "content_store");
+
+    @Test
+    void testDeduplicationAndGc() throws IOException {
+        deleteTree(TEST_FOLDER_PATH);
+        Path first = Paths.get("logical", "first.bin");
+        Path second = Paths.get("logical", "second.bin");
+        byte[] shared = "shared payload".getBytes(StandardCharsets.UTF_8);
+        byte[] other = "other payload".getBytes(StandardCharsets.UTF_8);
+        try {
+            try (ContentStore store = ContentStore.open(TEST_FOLDER_PATH)) {
+                assertTrue(store.put(first, shared));
+                assertFalse(store.put(second, shared));
+                assertEquals(1, objectFiles().size());
+                assertEquals(1, store.objectCount());
+
+                long indexSize = Files.size(TEST_FOLDER_PATH.resolve(ContentStore.INDEX_FILE_NAME));
+                assertFalse(store.put(first, shared));
+                assertEquals(indexSize, Files.size(TEST_FOLDER_PATH.resolve(ContentStore.INDEX_FILE_NAME)));
+
+                assertTrue(store.put(first, other));
+                assertArrayEquals(other, store.get(first).orElseThrow());
+                assertArrayEquals(shared, store.get(second).orElseThrow());
+                assertEquals(0L, store.gc());
+
+                assertTrue(store.delete(second));
+                assertTrue(store.get(second).isEmpty());
+                assertEquals(2, objectFiles().size());
+                assertEquals(shared.length, store.gc());
+                assertEquals(1, objectFiles().size());
+            }
+
+            try (ContentStore store = ContentStore.open(TEST_FOLDER_PATH)) {
+                assertEquals(1, store.size());
+                assertArrayEquals(other, store.get(first).orElseThrow());
+                assertFalse(store.contains(second));
+            }
+        } finally {
+            deleteTree(TEST_FOLDER_PATH);
+        }
+    }
+
+    @Test
+    void testPersistManagerWithContentStore() throws IOException {
+        Path root = TEST_FOLDER_PATH.resolve("persist");
+        deleteTree(root);
+        try (ContentStore store = ContentStore.open(root)) {
+            List<String> value = new ArrayList<>(List.of("a", "b", "c"));
+            for (String name : new String[]{"one.dat", "two.dat"}) {
+                PersistManager manager = new PersistManager(root.resolve("files"), name);
+                manager.setContentStore(store);
+                assertTrue(manager.saveObject((ArrayList<String>) value, e -> fail(e)));
+                assertEquals(value, manager.readObject(ArrayList.class, e -> fail(e)).orElseThrow());
+                assertFalse(Files.exists(manager.getFileFullPath()));
+            }
+            assertEquals(2, store.size());
+            assertEquals(1, store.objectCount());
+
+            PersistManager missing = new PersistManager(root.resolve("files"), "missing.dat");
+            missing.setContentStore(store);
+            List<Exception> errors = new ArrayList<>();
+            assertTrue(missing.readObject(ArrayList.class, errors::add).isEmpty());
+            assertEquals(1, errors.size());
+        } finally {
+            deleteTree(TEST_FOLDER_PATH);
+        }
+    }
+
+    @Test
+    void testSaveObjectAsyncSerializesOnCallerThread() throws Exception {
+        Path root = TEST_FOLDER_PATH.resolve("async");
+        deleteTree(root);
+        try (ContentStore store = ContentStore.open(root)) {
+            PersistManager manager = new PersistManager(root.resolve("files"), "async.dat");
+            manager.setContentStore(store);
+            ArrayList<String> value = new ArrayList<>(List.of("a", "b"));
+            CompletableFuture<Path> future = new CompletableFuture<>();
+            manager.saveObjectAsync(value, new CompletionHandler<Path>() {
+                @Override
+                public void onSuccessResult(Path result) {
+                    future.complete(result);
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            // Los cambios posteriores al envío no deben afectar al contenido guardado.
+            value.add("c");
+            future.get(10, TimeUnit.SECONDS);
+            assertEquals(List.of("a", "b"), manager.readObject(ArrayList.class, e -> fail(e)).orElseThrow());
+        } finally {
+            deleteTree(TEST_FOLDER_PATH);
+        }
+    }
+
+    private static List<Path> objectFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(TEST_FOLDER_PATH.resolve(ContentStore.OBJECTS_FOLDER_NAME))) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root))
+            return;
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator)
+                Files.delete(path);
+        }
+    }
+}
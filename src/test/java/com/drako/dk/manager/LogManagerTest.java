@@ -7,8 +7,15 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,6 +68,195 @@ class LogManagerTest {
         assertSame(logManager1, logManager2, "Instances are not the same");
     }
 
+    @Test
+    void testQueryByTimeRangeLevelAndText() throws IOException {
+        Path logFile = Path.of("src", "test", "query_log.txt");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+        LogLevel[] levels = LogLevel.values();
+        int count = 40_000;
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            content.append(String.format("[%s] [%s] message number %d with some padding text%n",
+                    start.plusSeconds(i).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")), levels[i % levels.length], i));
+            if (i == 20_005)
+                content.append("  continuation of entry 20005").append(System.lineSeparator());
+        }
+        Files.writeString(logFile, content.toString());
+        try {
+            LogQuery range = new LogQuery().from(start.plusSeconds(20_000)).to(start.plusSeconds(20_999)).parallelism(4);
+            try (Stream<LogEntry> entries = LogManager.query(logFile, range, null)) {
+                List<LogEntry> result = entries.collect(Collectors.toList());
+                assertEquals(1000, result.size());
+                assertEquals(start.plusSeconds(20_000), result.get(0).getTimestamp());
+                assertEquals(start.plusSeconds(20_999), result.get(999).getTimestamp());
+                assertEquals("message number 20005 with some padding text\n  continuation of entry 20005",
+                        result.get(5).getMessage().replace("\r", ""));
+            }
+
+            LogQuery filtered = new LogQuery().levels(LogLevel.ERROR, LogLevel.WARNING).matches("number 3\\d{4} ");
+            try (Stream<LogEntry> entries = LogManager.query(logFile, filtered, null)) {
+                List<LogEntry> result = entries.collect(Collectors.toList());
+                assertEquals(4000, result.size());
+                assertTrue(result.stream().allMatch(entry -> entry.getLevel() == LogLevel.ERROR || entry.getLevel() == LogLevel.WARNING));
+                for (int i = 1; i < result.size(); i++)
+                    assertTrue(result.get(i - 1).getOffset() < result.get(i).getOffset());
+            }
+
+            LogQuery none = new LogQuery().from(start.plusSeconds(count)).contains("message");
+            try (Stream<LogEntry> entries = LogManager.query(logFile, none, null)) {
+                assertEquals(0, entries.count());
+            }
+        } finally {
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    @Test
+    void testQueryToleratesSlightlyUnorderedEntries() throws IOException {
+        Path logFile = Path.of("src", "test", "unordered_log.txt");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+        int[] seconds = {0, 1, 2, 4, 5, 6, 7, 3, 8, 9};
+        StringBuilder content = new StringBuilder();
+        for (int second : seconds)
+            content.append(String.format("[%s] [INFO] entry %d%n",
+                    start.plusSeconds(second).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")), second));
+        Files.writeString(logFile, content.toString());
+        try {
+            LogQuery query = new LogQuery().from(start.plusSeconds(3)).to(start.plusSeconds(3));
+            try (Stream<LogEntry> entries = LogManager.query(logFile, query, null)) {
+                assertEquals(List.of("entry 3"), entries.map(LogEntry::getMessage).collect(Collectors.toList()));
+            }
+        } finally {
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    @Test
+    void testStructuredAndDirectLogsStayInTimeOrder() throws Exception {
+        Path logFile = Path.of("src", "test", "mixed_log.txt");
+        PersistManager persistManager = new PersistManager(logFile);
+        LogWriter writer = new LogWriter(persistManager);
+        try {
+            // El evento se obtiene antes de un cambio de segundo y se registra después de una entrada directa.
+            LogEvent event = writer.obtain(LogLevel.INFO);
+            long second = System.currentTimeMillis() / 1000L;
+            while (System.currentTimeMillis() / 1000L == second)
+                Thread.sleep(5L);
+            assertTrue(persistManager.writeTextFile(LogManager.getInstance().getLogMessage("direct", LogLevel.INFO), true));
+            event.log("structured");
+            assertTrue(writer.flush(5_000L));
+
+            List<LogEntry> entries;
+            try (Stream<LogEntry> stream = LogManager.query(logFile, new LogQuery(), null)) {
+                entries = stream.collect(Collectors.toList());
+            }
+            assertEquals(2, entries.size());
+            assertEquals("direct", entries.get(0).getMessage().strip());
+            assertFalse(entries.get(1).getTimestamp().isBefore(entries.get(0).getTimestamp()));
+            try (Stream<LogEntry> stream = LogManager.query(logFile, new LogQuery().from(entries.get(0).getTimestamp()), null)) {
+                assertEquals(2, stream.count());
+            }
+        } finally {
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    @Test
+    void testQueryMissingFileReportsError() {
+        List<Exception> errors = new ArrayList<>();
+        try (Stream<LogEntry> entries = LogManager.query(Path.of("src", "test", "missing_log.txt"), new LogQuery(), errors::add)) {
+            assertEquals(0, entries.count());
+        }
+        assertEquals(1, errors.size());
+    }
+
+    @Test
+    void testStructuredLogIsWrittenByWriterThread() throws IOException {
+        LogManager logManager = LogManager.getInstance();
+        logManager.log(LogLevel.INFO, "user {} took {} ms", "ana", 42);
+        logManager.at(LogLevel.WARNING).with("user", "bob").with("ms", 7).log("slow {}", "request");
+        assertTrue(logManager.flush(5_000L));
+
+        List<String> lines = Files.readAllLines(Path.of(System.getProperty("user.dir"), LogManager.LogFileName));
+        assertTrue(lines.stream().anyMatch(line -> line.endsWith("] [INFO] user ana took 42 ms")));
+        assertTrue(lines.stream().anyMatch(line -> line.endsWith("] [WARNING] slow request user=bob ms=7")));
+        try (Stream<LogEntry> entries = logManager.query(new LogQuery().levels(LogLevel.WARNING).contains("slow request"))) {
+            assertEquals(1, entries.count());
+        }
+    }
+
+    @Test
+    void testStructuredLogJsonFormat() throws IOException {
+        Path logFile = Path.of("src", "test", "json_log.txt");
+        LogWriter writer = new LogWriter(new PersistManager(logFile));
+        writer.setFormat(LogFormat.JSON);
+        try {
+            writer.obtain(LogLevel.ERROR).with("quote", "a\"b").with("count", 3).with("ok", true)
+                    .log("line\nbreak {} {}", "x");
+            writer.obtain(LogLevel.INFO).log("second");
+            assertTrue(writer.flush(5_000L));
+
+            List<String> lines = Files.readAllLines(logFile);
+            assertEquals(2, lines.size());
+            assertTrue(lines.get(0).startsWith("{\"time\":\""));
+            assertTrue(lines.get(0).endsWith("\",\"level\":\"ERROR\",\"message\":\"line\\nbreak x {}\",\"quote\":\"a\\\"b\",\"count\":3,\"ok\":true}"));
+            assertTrue(lines.get(1).endsWith("\"level\":\"INFO\",\"message\":\"second\"}"));
+        } finally {
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    @Test
+    void testStructuredLogTextKeepsOneLinePerEvent() throws IOException {
+        Path logFile = Path.of("src", "test", "text_log.txt");
+        LogWriter writer = new LogWriter(new PersistManager(logFile));
+        try {
+            writer.obtain(LogLevel.ERROR).with("note", "a\nb").log("failed {}", "task", new IllegalStateException("boom"));
+            writer.obtain(LogLevel.INFO).log("second");
+            assertTrue(writer.flush(5_000L));
+
+            List<String> lines = Files.readAllLines(logFile);
+            assertEquals(2, lines.size());
+            // En Windows la traza usa \r\n, que se escribe como \\r\\n.
+            String first = lines.get(0).replace("\\r", "");
+            assertTrue(first.contains("] [ERROR] failed task\\njava.lang.IllegalStateException: boom\\n\tat "));
+            assertTrue(first.endsWith(" note=a\\nb"));
+            assertTrue(lines.get(1).endsWith("] [INFO] second"));
+        } finally {
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    @Test
+    void testStructuredLogWriterSurvivesFailingHandler() throws IOException {
+        Path logFile = Path.of("src", "test", "failing_log.txt");
+        LogWriter writer = new LogWriter(new PersistManager(logFile));
+        AtomicInteger errors = new AtomicInteger();
+        writer.setOnError(e -> {
+            errors.incrementAndGet();
+            throw new IllegalStateException("handler failed");
+        });
+        Object broken = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("toString failed");
+            }
+        };
+        try {
+            writer.obtain(LogLevel.ERROR).log("broken {}", broken);
+            assertTrue(writer.flush(5_000L));
+            writer.obtain(LogLevel.INFO).log("still running");
+            assertTrue(writer.flush(5_000L));
+
+            assertEquals(1, errors.get());
+            List<String> lines = Files.readAllLines(logFile);
+            assertEquals(1, lines.size());
+            assertTrue(lines.get(0).endsWith("] [INFO] still running"));
+        } finally {
+            Files.deleteIfExists(logFile);
+        }
+    }
+
     @AfterAll
     static void clearLogFile(){
         try{
@@ -4,14 +4,28 @@ import com.drako.dk.handler.CompletionHandler;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,6 +35,11 @@ class PersistManagerTest {
     static final String OBJECT_ASYNC_FILE_NAME = "testObjectAsync.bin";
     static final String TEXT_FILE_NAME = "testTextFile.txt";
     static final String TEXT_ASYNC_FILE_NAME = "testTextFileAsync.txt";
+    static final String APPEND_FILE_NAME = "testAppendQueue.txt";
+    static final String LOCKED_FILE_NAME = "testLockedFile.txt";
+    static final String LARGE_ASYNC_FILE_NAME = "testLargeAsync.txt";
+    static final String DELTA_FILE_NAME = "testDeltaFile.txt";
+    static final int BATCH_SIZE = 8;
 
     @Test
     void testSaveAndReadObject() {
@@ -98,13 +117,258 @@ class PersistManagerTest {
         assertEquals(contentToWrite, readResult.get());
     }
 
+    @Test
+    void testSaveAllAndReadAll() {
+        Map<Path, String> objects = new LinkedHashMap<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            objects.put(Path.of(TEST_FILE_PATH, "batchObject" + i + ".bin"), "Batch object " + i);
+        }
+
+        List<BatchResult<Path>> saveResults = PersistManager.saveAll(objects, 3);
+        List<BatchResult<String>> readResults = PersistManager.readAll(objects.keySet(), String.class, 3);
+
+        assertEquals(BATCH_SIZE, saveResults.size());
+        assertTrue(saveResults.stream().allMatch(BatchResult::isSuccess));
+        int i = 0;
+        for (Map.Entry<Path, String> entry : objects.entrySet()) {
+            BatchResult<String> result = readResults.get(i++);
+            assertEquals(entry.getKey(), result.getPath());
+            assertEquals(Optional.of(entry.getValue()), result.getValue());
+        }
+    }
+
+    @Test
+    void testWriteTextAllAndReadTextAll() {
+        Map<Path, String> contents = new LinkedHashMap<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            contents.put(Path.of(TEST_FILE_PATH, "batchText" + i + ".txt"), "Batch text " + i + "\n");
+        }
+        Path missingPath = Path.of(TEST_FILE_PATH, "batch_missing", "missing.txt");
+
+        List<BatchResult<Path>> writeResults = PersistManager.writeTextAll(contents, false, 2);
+        List<BatchResult<String>> readResults = PersistManager.readTextAll(List.of(contents.keySet().iterator().next(), missingPath));
+
+        assertTrue(writeResults.stream().allMatch(BatchResult::isSuccess));
+        assertEquals(Optional.of("Batch text 0\n"), readResults.get(0).getValue());
+        assertFalse(readResults.get(1).isSuccess());
+        assertTrue(readResults.get(1).getError().isPresent());
+    }
+
+    @Test
+    void testConcurrentAsyncAppendsKeepSubmissionOrder() throws InterruptedException {
+        PersistManager persistManager = new PersistManager(TEST_FILE_PATH, APPEND_FILE_NAME);
+        persistManager.writeTextFile("");
+        int threads = 4;
+        int appendsPerThread = 200;
+        CountDownLatch latch = new CountDownLatch(threads * appendsPerThread);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int writer = t;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < appendsPerThread; i++) {
+                    persistManager.writeTextFileAsync(writer + ":" + i + "\n", true, new CompletionHandler<Path>() {
+                        @Override
+                        public void onSuccessResult(Path result) {
+                            latch.countDown();
+                        }
+
+                        @Override
+                        public void onError(Exception ex) {
+                            fail("Async append failed: " + ex.getMessage());
+                        }
+                    });
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        String[] lines = persistManager.readTextFile().orElseThrow().split("\n");
+        assertEquals(threads * appendsPerThread, lines.length);
+        int[] expectedNext = new int[threads];
+        for (String line : lines) {
+            String[] parts = line.split(":");
+            int writer = Integer.parseInt(parts[0]);
+            assertEquals(expectedNext[writer]++, Integer.parseInt(parts[1]));
+        }
+    }
+
+    @Test
+    void testConcurrentAsyncReadsOfMultiSegmentFile() throws Exception {
+        PersistManager persistManager = new PersistManager(TEST_FILE_PATH, LARGE_ASYNC_FILE_NAME);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; builder.length() < 3 * 1024 * 1024; i++) {
+            builder.append("line ").append(i).append("\r\n");
+        }
+        String expected = builder.toString().replace("\r\n", "\n");
+        CompletableFuture<Path> writeFuture = new CompletableFuture<>();
+        persistManager.writeTextFileAsync(builder.toString(), false, handler(writeFuture));
+        writeFuture.get(10, TimeUnit.SECONDS);
+
+        List<CompletableFuture<String>> reads = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            CompletableFuture<String> readFuture = new CompletableFuture<>();
+            persistManager.readTextFileAsync(handler(readFuture));
+            reads.add(readFuture);
+        }
+        for (CompletableFuture<String> read : reads) {
+            assertEquals(expected, read.get(10, TimeUnit.SECONDS));
+        }
+
+        CompletableFuture<Path> saveFuture = new CompletableFuture<>();
+        persistManager.saveObjectAsync(new ArrayList<>(List.of(1, 2, 3)), handler(saveFuture));
+        saveFuture.get(10, TimeUnit.SECONDS);
+        CompletableFuture<ArrayList> objectFuture = new CompletableFuture<>();
+        persistManager.readObjectAsync(ArrayList.class, handler(objectFuture));
+        assertEquals(List.of(1, 2, 3), objectFuture.get(10, TimeUnit.SECONDS));
+
+        CompletableFuture<String> missingFuture = new CompletableFuture<>();
+        new PersistManager(TEST_FILE_PATH, "missingAsync.txt").readTextFileAsync(handler(missingFuture));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> missingFuture.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(NoSuchFileException.class, exception.getCause());
+    }
+
+    private static <T> CompletionHandler<T> handler(CompletableFuture<T> future) {
+        return new CompletionHandler<T>() {
+            @Override
+            public void onSuccessResult(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                future.completeExceptionally(e);
+            }
+        };
+    }
+
+    @Test
+    void testDeltaSaveRewritesOnlyChangedBlocks() throws IOException {
+        Path filePath = Path.of(TEST_FILE_PATH, DELTA_FILE_NAME);
+        PersistManager persistManager = new PersistManager(filePath);
+        persistManager.setDeltaSave(true);
+        char[] content = "abcdefghij".repeat(DeltaFile.BLOCK_SIZE / 10 * 4).toCharArray();
+        assertTrue(persistManager.writeTextFile(new String(content)));
+        assertTrue(Files.exists(DeltaFile.sidecarPath(filePath)));
+
+        // Si el contenido no cambia no se escribe ningún bloque, por lo que la fecha de modificación se conserva.
+        FileTime old = FileTime.fromMillis(Files.getLastModifiedTime(filePath).toMillis() - 60_000);
+        Files.setLastModifiedTime(filePath, old);
+        assertTrue(persistManager.writeTextFile(new String(content)));
+        assertEquals(old, Files.getLastModifiedTime(filePath));
+
+        // Se altera un bloque directamente en el disco conservando tamaño y fecha: la suma del archivo auxiliar ya
+        // no coincide, por lo que el guardado diferencial debe detectarlo y reescribir el bloque.
+        FileTime modified = Files.getLastModifiedTime(filePath);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap("XX".getBytes()), 0);
+        }
+        Files.setLastModifiedTime(filePath, modified);
+
+        content[DeltaFile.BLOCK_SIZE * 2 + 5] = '#';
+        assertTrue(persistManager.writeTextFile(new String(content)));
+        assertEquals(new String(content), Files.readString(filePath));
+        assertFalse(Files.exists(DeltaFile.journalPath(filePath)));
+
+        assertTrue(persistManager.writeTextFile("short"));
+        assertEquals(Optional.of("short\n"), persistManager.readTextFile());
+        assertEquals(5, Files.size(filePath));
+
+        Files.write(DeltaFile.journalPath(filePath), new byte[]{1, 2, 3});
+        assertEquals(Optional.of("short\n"), persistManager.readTextFile());
+        assertFalse(Files.exists(DeltaFile.journalPath(filePath)));
+
+        assertTrue(persistManager.saveObject(42));
+        assertEquals(Optional.of(42), persistManager.readObject(Integer.class));
+    }
+
+    @Test
+    void testDeltaJournalIsDiscardedWhenFileWasReplaced() throws IOException {
+        Path filePath = Path.of(TEST_FILE_PATH, DELTA_FILE_NAME);
+        PersistManager persistManager = new PersistManager(filePath);
+        persistManager.setDeltaSave(true);
+        try {
+            // Un diario sin aplicar calculado sobre otro contenido no debe sobrescribir la escritura posterior.
+            assertTrue(new PersistManager(filePath).writeTextFile("newer content"));
+            writeJournal(filePath, 3L, 0L, 0L, "old".getBytes(), false);
+            assertEquals(Optional.of("newer content\n"), persistManager.readTextFile());
+            assertFalse(Files.exists(DeltaFile.journalPath(filePath)));
+
+            // Si el archivo sigue siendo el de partida, el diario se aplica.
+            byte[] base = Files.readAllBytes(filePath);
+            CRC32C crc = new CRC32C();
+            crc.update(base);
+            writeJournal(filePath, base.length, Files.getLastModifiedTime(filePath).toMillis(), crc.getValue(),
+                    "NEWER".getBytes(), false);
+            assertEquals(Optional.of("NEWER\n"), persistManager.readTextFile());
+
+            // Un diario que ya se estaba aplicando se completa aunque el archivo haya cambiado.
+            writeJournal(filePath, 3L, 0L, 0L, "again".getBytes(), true);
+            assertEquals(Optional.of("again\n"), persistManager.readTextFile());
+        } finally {
+            Files.deleteIfExists(DeltaFile.journalPath(filePath));
+        }
+    }
+
+    /**
+     * Escribe un diario confirmado que reemplaza el archivo por un único bloque, como el que deja un proceso
+     * interrumpido antes de borrarlo.
+     */
+    private static void writeJournal(Path filePath, long baseLength, long baseModified, long baseChecksum,
+                                     byte[] block, boolean applying) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (DataOutputStream output = new DataOutputStream(new CheckedOutputStream(
+                Files.newOutputStream(DeltaFile.journalPath(filePath)), crc))) {
+            output.writeInt(0x444B4A32);
+            output.writeInt(DeltaFile.BLOCK_SIZE);
+            output.writeLong(baseLength);
+            output.writeLong(baseModified);
+            output.writeLong(baseChecksum);
+            output.writeInt(0);
+            output.writeInt(block.length);
+            output.write(block);
+            output.writeInt(-1);
+            output.writeLong(block.length);
+            output.writeInt(1);
+            output.write(new byte[32]);
+            output.flush();
+            output.writeLong(crc.getValue());
+            if (applying)
+                output.write(1);
+        }
+    }
+
+    @Test
+    void testCrossProcessLocking() {
+        PersistManager persistManager = new PersistManager(TEST_FILE_PATH, LOCKED_FILE_NAME);
+        persistManager.setCrossProcessLocking(true);
+
+        assertTrue(persistManager.writeTextFile("first line\n"));
+        assertTrue(persistManager.writeTextFile("second line\n", true));
+        assertEquals(Optional.of("first line\nsecond line\n"), persistManager.readTextFile());
+        assertTrue(persistManager.writeTextFile("replaced\n"));
+        assertEquals(Optional.of("replaced\n"), persistManager.readTextFile());
+        assertTrue(persistManager.saveObject(42));
+        assertEquals(Optional.of(42), persistManager.readObject(Integer.class));
+    }
+
     @AfterAll
     static void clearFiles(){
         try{
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Files.deleteIfExists(Path.of(TEST_FILE_PATH, "batchObject" + i + ".bin"));
+                Files.deleteIfExists(Path.of(TEST_FILE_PATH, "batchText" + i + ".txt"));
+            }
             Files.deleteIfExists(Path.of(TEST_FILE_PATH, OBJECT_FILE_NAME));
             Files.deleteIfExists(Path.of(TEST_FILE_PATH, TEXT_FILE_NAME));
             Files.deleteIfExists(Path.of(TEST_FILE_PATH, OBJECT_ASYNC_FILE_NAME));
             Files.deleteIfExists(Path.of(TEST_FILE_PATH, TEXT_ASYNC_FILE_NAME));
+            Files.deleteIfExists(Path.of(TEST_FILE_PATH, APPEND_FILE_NAME));
+            Files.deleteIfExists(Path.of(TEST_FILE_PATH, LOCKED_FILE_NAME));
+            Files.deleteIfExists(Path.of(TEST_FILE_PATH, LARGE_ASYNC_FILE_NAME));
+            Files.deleteIfExists(Path.of(TEST_FILE_PATH, DELTA_FILE_NAME));
+            Files.deleteIfExists(DeltaFile.sidecarPath(Path.of(TEST_FILE_PATH, DELTA_FILE_NAME)));
         }catch(IOException e){
             throw new RuntimeException(e);
         }
@@ -0,0 +1,93 @@
+package com.drako.dk.metrics;
+
+import com.drako.dk.file.FileManager;
+import com.drako.dk.handler.CompletionHandler;
+import com.drako.dk.manager.PersistManager;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileOperationEventTest {
+    static final Path TEST_FILE_PATH = Paths.get("src", "test", "jfrObject.bin");
+    static final Path COPY_FILE_PATH = Paths.get("src", "test", "jfrObjectCopy.bin");
+    static final Path RECORDING_PATH = Paths.get("src", "test", "operations.jfr");
+
+    @Test
+    void testOperationsEmitEvents() throws Exception {
+        PersistManager persistManager = new PersistManager(TEST_FILE_PATH);
+        try (Recording recording = new Recording()) {
+            recording.enable(FileOperationEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+
+            assertTrue(persistManager.saveObject("jfr payload"));
+            assertTrue(persistManager.readObject(String.class).isPresent());
+            assertFalse(new PersistManager(TEST_FILE_PATH.resolveSibling("missing.bin")).readObject(String.class).isPresent());
+            CompletableFuture<Path> copyFuture = new CompletableFuture<>();
+            FileManager.copyFile(TEST_FILE_PATH, COPY_FILE_PATH, new CompletionHandler<Path>() {
+                @Override
+                public void onSuccessResult(Path result) {
+                    copyFuture.complete(result);
+                }
+
+                @Override
+                public void onError(Exception ex) {
+                    copyFuture.completeExceptionally(ex);
+                }
+            });
+            copyFuture.get();
+
+            recording.stop();
+            recording.dump(RECORDING_PATH);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(RECORDING_PATH).stream()
+                .filter(event -> event.getEventType().getName().equals(FileOperationEvent.NAME))
+                .collect(Collectors.toList());
+        RecordedEvent save = find(events, Operation.SAVE_OBJECT, FileOperationEvent.SUCCESS);
+        assertEquals(TEST_FILE_PATH.toString(), save.getString("path"));
+        assertTrue(save.getLong("bytes") > 0);
+        assertFalse(save.getDuration().isNegative());
+        find(events, Operation.READ_OBJECT, FileOperationEvent.SUCCESS);
+        RecordedEvent failedRead = find(events, Operation.READ_OBJECT, FileOperationEvent.ERROR);
+        assertNotNull(failedRead.getString("error"));
+        assertTrue(find(events, Operation.COPY_FILE, FileOperationEvent.SUCCESS).getLong("bytes") > 0);
+    }
+
+    @Test
+    void testTimerIsNoOpWithoutRecording() {
+        assertFalse(Metrics.isEnabled());
+        assertFalse(Metrics.start(Operation.SAVE_OBJECT, TEST_FILE_PATH).isRecording());
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, Operation operation, String outcome) {
+        return events.stream()
+                .filter(event -> operation.name().equals(event.getString("operation")))
+                .filter(event -> outcome.equals(event.getString("outcome")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + outcome + " event for " + operation));
+    }
+
+    @AfterAll
+    static void clearFiles() {
+        try {
+            Files.deleteIfExists(TEST_FILE_PATH);
+            Files.deleteIfExists(COPY_FILE_PATH);
+            Files.deleteIfExists(RECORDING_PATH);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
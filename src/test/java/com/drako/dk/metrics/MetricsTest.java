@@ -0,0 +1,103 @@
+package com.drako.dk.metrics;
+
+import com.drako.dk.manager.PersistManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+    static final Path TEST_FILE_PATH = Paths.get("src", "test", "metricsObject.bin");
+
+    @AfterEach
+    void disableMetrics() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    void testDisabledMetricsDoNotRecord() {
+        Metrics.setEnabled(false);
+        OperationTimer timer = Metrics.start(Operation.SAVE_OBJECT);
+        assertFalse(timer.isRecording());
+        timer.success(10);
+        assertEquals(0, Metrics.snapshot(Operation.SAVE_OBJECT).getCount());
+    }
+
+    @Test
+    void testPersistOperationsAreRecorded() {
+        Metrics.setEnabled(true);
+        PersistManager persistManager = new PersistManager(TEST_FILE_PATH);
+
+        assertTrue(persistManager.saveObject("metrics payload"));
+        assertTrue(persistManager.readObject(String.class).isPresent());
+        assertFalse(new PersistManager(TEST_FILE_PATH.resolveSibling("missing.bin")).readObject(String.class).isPresent());
+
+        OperationSnapshot save = Metrics.snapshot(Operation.SAVE_OBJECT);
+        OperationSnapshot read = Metrics.snapshot(Operation.READ_OBJECT);
+        assertEquals(1, save.getCount());
+        assertEquals(0, save.getErrors());
+        assertTrue(save.getBytesWritten() > 0);
+        assertTrue(save.getMaxLatency() > 0);
+        assertEquals(2, read.getCount());
+        assertEquals(1, read.getErrors());
+        assertTrue(read.getBytesRead() > 0);
+    }
+
+    @Test
+    void testMBeanExposesSnapshots() throws Exception {
+        Metrics.setEnabled(true);
+        Metrics.start(Operation.LOG).success(-1L);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"));
+        CompositeData[] operations = (CompositeData[]) server.getAttribute(name, "Operations");
+        assertEquals(Operation.values().length, operations.length);
+        assertEquals(Operation.LOG.name(), operations[Operation.LOG.ordinal()].get("operation"));
+        assertEquals(1L, operations[Operation.LOG.ordinal()].get("count"));
+    }
+
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_000, histogram.getPercentile(50), 50_000_000 * 0.035);
+        assertEquals(99_000_000, histogram.getPercentile(99), 99_000_000 * 0.035);
+        assertEquals(100_000_000, histogram.getPercentile(100));
+    }
+
+    @Test
+    void testHistogramBucketBoundaries() {
+        for (long value : new long[]{0, 1, 63, 64, 65, 127, 128, 1_000_000, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index >= 0 && index < LatencyHistogram.BUCKETS);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+        }
+    }
+
+    @AfterAll
+    static void clearFiles() {
+        try {
+            Files.deleteIfExists(TEST_FILE_PATH);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}